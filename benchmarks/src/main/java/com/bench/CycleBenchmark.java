@@ -0,0 +1,63 @@
+package com.bench;
+
+import com.analysis.CycleBudget;
+import com.analysis.CycleEnumerator;
+import com.analysis.MapSnapshot;
+import com.analysis.StructuralAnalysis;
+import com.analysis.StructuralAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Перечисление циклов (кнопка «Найти все циклы») и полный структурный анализ.
+ * Число циклов растёт экспоненциально, поэтому обход ограничен первыми MAX_CYCLES циклами:
+ * замер — время на их поиск.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CycleBenchmark {
+  private static final long MAX_CYCLES = 100_000;
+
+  @Param({"ERDOS_RENYI", "SCALE_FREE", "DENSE_SCC"})
+  public GraphFamily family;
+
+  @Param({"50", "500", "5000"})
+  public int size;
+
+  private MapSnapshot snapshot;
+
+  @Setup
+  public void setUp() {
+    snapshot = family.generate(size, 42L);
+  }
+
+  @Benchmark
+  public long findAllCycles() {
+    long[] found = {0};
+    new CycleEnumerator(snapshot.adjacency()).enumerate((vertices, edges, length) -> ++found[0] < MAX_CYCLES);
+    return found[0];
+  }
+
+  /**
+   * Анализ с нуля: компоненты, параллельное перечисление циклов и спектр.
+   */
+  @Benchmark
+  public StructuralAnalysis structuralAnalysis() {
+    return new StructuralAnalyzer().prepare(snapshot, 0, new CycleBudget(MAX_CYCLES, Long.MAX_VALUE)).run();
+  }
+}
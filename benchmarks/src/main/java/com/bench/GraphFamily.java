@@ -0,0 +1,109 @@
+package com.bench;
+
+import com.analysis.MapSnapshot;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Семейства синтетических знаковых орграфов для бенчмарков.
+ * <p>
+ * Граф однозначно задаётся семейством, размером и зерном: между версиями сравниваются
+ * замеры на одних и тех же картах. Петель и кратных рёбер нет (как в редакторе),
+ * веса — равномерно по модулю в [0.1, 1] со случайным знаком.
+ */
+public enum GraphFamily {
+  /** Случайный орграф Эрдёша–Реньи со средней полустепенью исхода 3. */
+  ERDOS_RENYI {
+    @Override
+    void connect(int n, Random random, EdgeSet edges) {
+      long target = Math.min(3L * n, (long) n * (n - 1));
+      while (edges.size() < target) {
+        edges.add(random.nextInt(n), random.nextInt(n));
+      }
+    }
+  },
+
+  /**
+   * Безмасштабный граф Барабаши–Альберт: каждая новая вершина связывается с двумя
+   * существующими с вероятностью, пропорциональной степени; направление ребра случайно.
+   */
+  SCALE_FREE {
+    @Override
+    void connect(int n, Random random, EdgeSet edges) {
+      int[] endpoints = new int[4 * n + 4];
+      int count = 0;
+      for (int v = 1; v < n; v++) {
+        int links = Math.min(v, 2);
+        int made = 0;
+        while (made < links) {
+          int u = count == 0 ? 0 : endpoints[random.nextInt(count)];
+          boolean added = random.nextBoolean() ? edges.add(v, u) : edges.add(u, v);
+          if (added) {
+            endpoints[count++] = u;
+            endpoints[count++] = v;
+            made++;
+          }
+        }
+      }
+    }
+  },
+
+  /**
+   * Одна плотная компонента сильной связности: гамильтонов цикл и случайные хорды,
+   * средняя полустепень исхода до 16.
+   */
+  DENSE_SCC {
+    @Override
+    void connect(int n, Random random, EdgeSet edges) {
+      if (n < 2) {
+        return;
+      }
+      for (int v = 0; v < n; v++) {
+        edges.add(v, (v + 1) % n);
+      }
+      long target = Math.min(16L * n, (long) n * (n - 1));
+      while (edges.size() < target) {
+        edges.add(random.nextInt(n), random.nextInt(n));
+      }
+    }
+  };
+
+  abstract void connect(int n, Random random, EdgeSet edges);
+
+  public MapSnapshot generate(int n, long seed) {
+    Random random = new Random(seed);
+    EdgeSet edges = new EdgeSet();
+    connect(n, random, edges);
+
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    for (int v = 0; v < n; v++) {
+      builder.addVertex("v" + v);
+    }
+    for (long key : edges.keys) {
+      double magnitude = 0.1 + 0.9 * random.nextDouble();
+      builder.addEdge((int) (key >>> 32), (int) key, random.nextBoolean() ? magnitude : -magnitude);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Множество рёбер без петель и повторов в порядке добавления.
+   */
+  static final class EdgeSet {
+    private final Set<Long> keys = new LinkedHashSet<>();
+
+    boolean add(int from, int to) {
+      return from != to && keys.add(key(from, to));
+    }
+
+    int size() {
+      return keys.size();
+    }
+
+    private static long key(int from, int to) {
+      return (long) from << 32 | (to & 0xFFFFFFFFL);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.bench;
+
+import com.EdgeWeight;
+import com.analysis.MapSnapshot;
+import com.brunomnsilva.smartgraph.graph.Edge;
+import com.brunomnsilva.smartgraph.graph.Vertex;
+import com.graph.IndexedDigraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Правка модели графа: построение, массовое удаление вершин, смена весов
+ * и снимок для анализа.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MutationBenchmark {
+  @Param({"ERDOS_RENYI", "SCALE_FREE", "DENSE_SCC"})
+  public GraphFamily family;
+
+  @Param({"1000", "10000"})
+  public int size;
+
+  private MapSnapshot snapshot;
+  private IndexedDigraph<String, EdgeWeight> graph;
+
+  @Setup
+  public void setUp() {
+    snapshot = family.generate(size, 42L);
+    graph = buildGraph();
+  }
+
+  /**
+   * Свежая модель перед каждым вызовом для бенчмарков, которые меняют граф.
+   */
+  @State(Scope.Thread)
+  public static class Model {
+    private IndexedDigraph<String, EdgeWeight> graph;
+    private List<Vertex<String>> vertices;
+
+    @Setup(Level.Invocation)
+    public void rebuild(MutationBenchmark benchmark) {
+      graph = benchmark.buildGraph();
+      vertices = new ArrayList<>(graph.vertices());
+    }
+  }
+
+  @Benchmark
+  public IndexedDigraph<String, EdgeWeight> buildGraph() {
+    IndexedDigraph<String, EdgeWeight> result = new IndexedDigraph<>();
+    List<Vertex<String>> inserted = new ArrayList<>(snapshot.vertexCount());
+    for (int v = 0; v < snapshot.vertexCount(); v++) {
+      inserted.add(result.insertVertex(snapshot.label(v)));
+    }
+    int[] rowStart = snapshot.adjacency().rowStart();
+    int[] columns = snapshot.adjacency().columnIndices();
+    double[] weights = snapshot.adjacency().values();
+    for (int v = 0; v < snapshot.vertexCount(); v++) {
+      for (int p = rowStart[v]; p < rowStart[v + 1]; p++) {
+        result.insertEdge(inserted.get(v), inserted.get(columns[p]), new EdgeWeight(weights[p]));
+      }
+    }
+    return result;
+  }
+
+  @Benchmark
+  public int removeHalfOfVertices(Model model) {
+    for (int v = 0; v < model.vertices.size(); v += 2) {
+      model.graph.removeVertex(model.vertices.get(v));
+    }
+    return model.graph.numVertices();
+  }
+
+  @Benchmark
+  public int reweightAllEdges(Model model) {
+    for (Edge<EdgeWeight, String> edge : new ArrayList<>(model.graph.edges())) {
+      model.graph.replace(edge, new EdgeWeight(-edge.element().getValue()));
+    }
+    return model.graph.numEdges();
+  }
+
+  /**
+   * Снимок модели, с которого начинается любой расчёт.
+   */
+  @Benchmark
+  public MapSnapshot snapshotModel() {
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    for (Vertex<String> vertex : graph.vertices()) {
+      builder.addVertex(vertex.element(), graph.idOf(vertex));
+    }
+    for (Edge<EdgeWeight, String> edge : graph.edges()) {
+      Vertex<String>[] ends = edge.vertices();
+      builder.addEdge(graph.indexOf(ends[0]), graph.indexOf(ends[1]), edge.element().getValue());
+    }
+    return builder.build();
+  }
+}
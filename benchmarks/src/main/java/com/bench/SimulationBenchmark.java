@@ -0,0 +1,64 @@
+package com.bench;
+
+import com.analysis.BatchImpulseSimulation;
+import com.analysis.ImpulseSimulation;
+import com.analysis.MapSnapshot;
+import com.analysis.ScenarioSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Импульсное моделирование: один сценарий с полной историей и пакет сценариев.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+  private static final int STEPS = 50;
+  private static final int SCENARIOS = 64;
+
+  @Param({"ERDOS_RENYI", "SCALE_FREE", "DENSE_SCC"})
+  public GraphFamily family;
+
+  @Param({"100", "1000", "10000"})
+  public int size;
+
+  private MapSnapshot snapshot;
+  private double[] impulse;
+  private double[][] impulses;
+
+  @Setup
+  public void setUp() {
+    snapshot = family.generate(size, 42L);
+    impulse = new double[size];
+    impulse[0] = 1.0;
+    impulses = new double[Math.min(SCENARIOS, size)][size];
+    for (int s = 0; s < impulses.length; s++) {
+      impulses[s][s] = 1.0;
+    }
+  }
+
+  @Benchmark
+  public double[][] runImpulseSimulation() {
+    return new ImpulseSimulation(snapshot).run(impulse, STEPS);
+  }
+
+  @Benchmark
+  public ScenarioSummary[] runBatchSimulation() {
+    return new BatchImpulseSimulation(snapshot).run(impulses, STEPS);
+  }
+}
@@ -0,0 +1,48 @@
+package com.bench;
+
+import com.analysis.ArnoldiEigenSolver;
+import com.analysis.EigenResult;
+import com.analysis.SparseMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Спектральный радиус матрицы весов методом Арнольди (холодный старт).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpectralBenchmark {
+  @Param({"ERDOS_RENYI", "SCALE_FREE", "DENSE_SCC"})
+  public GraphFamily family;
+
+  @Param({"1000", "10000", "100000"})
+  public int size;
+
+  private SparseMatrix adjacency;
+  private final ArnoldiEigenSolver solver = new ArnoldiEigenSolver();
+
+  @Setup
+  public void setUp() {
+    adjacency = family.generate(size, 42L).adjacency();
+  }
+
+  @Benchmark
+  public EigenResult computeSpectralRadius() {
+    return solver.solve(adjacency);
+  }
+}
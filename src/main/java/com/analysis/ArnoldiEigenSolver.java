@@ -0,0 +1,289 @@
+package com.analysis;
+
+import com.metrics.EigenSolveEvent;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Собственные значения наибольшего модуля разреженной матрицы методом Арнольди
+ * с явным перезапуском.
+ * <p>
+ * На каждом цикле строится подпространство Крылова размерности m, собственные значения
+ * матрицы Хессенберга m×m находятся QR-алгоритмом с двойным сдвигом (поэтому комплексные
+ * и разнознаковые ведущие значения определяются корректно), а следующий цикл стартует
+ * с комбинации векторов Ритца искомых значений. Стартовый вектор детерминирован (seed)
+ * либо передаётся снаружи для тёплого старта.
+ */
+public class ArnoldiEigenSolver {
+  private final int wanted;
+  private final int krylovDimension;
+  private final double tolerance;
+  private final int maxRestarts;
+  private final long seed;
+
+  public ArnoldiEigenSolver() {
+    this(4, 40, 1e-10, 300, 42L);
+  }
+
+  /**
+   * @param wanted          число искомых значений
+   * @param krylovDimension размерность подпространства Крылова (не меньше wanted + 2)
+   * @param tolerance       допустимая относительная невязка ведущей пары
+   * @param maxRestarts     максимальное число перезапусков
+   * @param seed            зерно для начального и вспомогательных векторов
+   */
+  public ArnoldiEigenSolver(int wanted, int krylovDimension, double tolerance, int maxRestarts, long seed) {
+    if (wanted < 1 || krylovDimension < wanted + 2) {
+      throw new IllegalArgumentException("Размерность подпространства должна быть не меньше wanted + 2");
+    }
+    this.wanted = wanted;
+    this.krylovDimension = krylovDimension;
+    this.tolerance = tolerance;
+    this.maxRestarts = maxRestarts;
+    this.seed = seed;
+  }
+
+  public EigenResult solve(SparseMatrix matrix) {
+    return solve(matrix, null);
+  }
+
+  /**
+   * @param start стартовый вектор (например, {@link EigenResult#restartVector()} прошлого решения);
+   *              игнорируется, если null, нулевой или другой длины
+   */
+  public EigenResult solve(SparseMatrix matrix, double[] start) {
+    return solve(matrix, start, ProgressMonitor.NONE);
+  }
+
+  /**
+   * Отмена проверяется перед каждым перезапуском.
+   *
+   * @throws java.util.concurrent.CancellationException если монитор запросил отмену
+   */
+  public EigenResult solve(SparseMatrix matrix, double[] start, ProgressMonitor monitor) {
+    return solve(matrix, start, monitor, false, 0.0, 0.0);
+  }
+
+  /**
+   * Ищет те же значения наибольшего модуля, но ведущей парой (индекс 0, вектор и невязка)
+   * считает значение, ближайшее к target. Нужно, когда ведущих значений несколько
+   * (λ и −λ, сопряжённая пара), а вектор требуется для определённого из них — например,
+   * левый собственный вектор как правый вектор транспонированной матрицы.
+   *
+   * @throws java.util.concurrent.CancellationException если монитор запросил отмену
+   */
+  public EigenResult solveNear(SparseMatrix matrix, double targetReal, double targetImaginary,
+                               ProgressMonitor monitor) {
+    return solve(matrix, null, monitor, true, targetReal, targetImaginary);
+  }
+
+  private EigenResult solve(SparseMatrix matrix, double[] start, ProgressMonitor monitor,
+                            boolean targeted, double targetReal, double targetImaginary) {
+    int n = matrix.rowCount();
+    if (matrix.columnCount() != n) {
+      throw new IllegalArgumentException("Матрица должна быть квадратной");
+    }
+    if (n == 0 || matrix.nonZeroCount() == 0) {
+      double[] zero = new double[n];
+      return new EigenResult(
+          new double[Math.min(wanted, n)], new double[Math.min(wanted, n)],
+          zero, zero, zero, 0.0, 0, true
+      );
+    }
+
+    EigenSolveEvent event = new EigenSolveEvent();
+    event.start();
+    Random random = new Random(seed);
+    int m = Math.min(n, krylovDimension);
+    int k = Math.min(wanted, m);
+    double[][] basis = new double[m + 1][n];
+    double[][] hessenberg = new double[m + 1][m];
+    double[] work = new double[m];
+
+    if (start == null || start.length != n || normalize(start, basis[0]) == 0.0) {
+      randomUnitVector(random, basis[0]);
+    }
+
+    int iterations = 0;
+    double[] real = new double[m];
+    double[] imaginary = new double[m];
+    Integer[] order = new Integer[m];
+    double[][] ritzReal = new double[k][];
+    double[][] ritzImaginary = new double[k][];
+    double residual = Double.POSITIVE_INFINITY;
+    boolean converged = false;
+    int restarts = 0;
+
+    for (int restart = 0; restart <= maxRestarts && !converged; restart++) {
+      monitor.checkCancelled();
+      restarts = restart;
+      // Факторизация Арнольди: A·V_m = V_m·H_m + h[m][m-1]·v_m·e_mᵀ
+      for (double[] row : hessenberg) {
+        Arrays.fill(row, 0.0);
+      }
+      double operatorNorm = 0.0;
+      for (int j = 0; j < m; j++) {
+        double[] w = basis[j + 1];
+        matrix.multiply(basis[j], w);
+        iterations++;
+        double before = norm(w);
+        for (int pass = 0; pass < 2; pass++) {
+          for (int i = 0; i <= j; i++) {
+            double h = dot(basis[i], w);
+            hessenberg[i][j] += h;
+            axpy(-h, basis[i], w);
+          }
+        }
+        double beta = norm(w);
+        operatorNorm = Math.max(operatorNorm, before);
+        if (beta > 1e-12 * Math.max(before, Double.MIN_NORMAL)) {
+          hessenberg[j + 1][j] = beta;
+          scale(w, 1.0 / beta);
+        } else if (j + 1 < m) {
+          // Инвариантное подпространство исчерпано — продолжаем с новым ортогональным направлением
+          hessenberg[j + 1][j] = 0.0;
+          do {
+            randomUnitVector(random, w);
+            for (int pass = 0; pass < 2; pass++) {
+              for (int i = 0; i <= j; i++) {
+                axpy(-dot(basis[i], w), basis[i], w);
+              }
+            }
+          } while (normalize(w, w) == 0.0);
+        } else {
+          hessenberg[j + 1][j] = 0.0;
+        }
+      }
+
+      double[][] h = new double[m][];
+      for (int i = 0; i < m; i++) {
+        h[i] = Arrays.copyOf(hessenberg[i], m);
+      }
+      HessenbergQR.eigenvalues(h, m, real, imaginary);
+      sortByModulus(real, imaginary, order);
+      if (targeted) {
+        int nearest = 0;
+        for (int r = 1; r < k; r++) {
+          if (Math.hypot(real[order[r]] - targetReal, imaginary[order[r]] - targetImaginary)
+              < Math.hypot(real[order[nearest]] - targetReal, imaginary[order[nearest]] - targetImaginary)) {
+            nearest = r;
+          }
+        }
+        Integer leading = order[nearest];
+        order[nearest] = order[0];
+        order[0] = leading;
+      }
+
+      double subdiagonal = hessenberg[m][m - 1];
+      double[] restartVector = new double[n];
+      for (int r = 0; r < k; r++) {
+        int index = order[r];
+        double[] yr = new double[m];
+        double[] yi = new double[m];
+        HessenbergQR.eigenvector(hessenberg, m, real[index], imaginary[index], yr, yi, work);
+        if (r == 0) {
+          residual = Math.abs(subdiagonal) * Math.hypot(yr[m - 1], yi[m - 1])
+              / Math.max(operatorNorm, Double.MIN_NORMAL);
+          converged = residual <= tolerance;
+        }
+        ritzReal[r] = combine(basis, yr, m, n);
+        ritzImaginary[r] = combine(basis, yi, m, n);
+        for (int i = 0; i < n; i++) {
+          restartVector[i] += ritzReal[r][i] + ritzImaginary[r][i];
+        }
+      }
+      if (normalize(restartVector, basis[0]) == 0.0) {
+        normalize(ritzReal[0], basis[0]);
+      }
+      monitor.progress(iterations, -1, "Метод Арнольди: итераций " + iterations);
+    }
+
+    double[] resultReal = new double[k];
+    double[] resultImaginary = new double[k];
+    for (int r = 0; r < k; r++) {
+      resultReal[r] = real[order[r]];
+      resultImaginary[r] = imaginary[order[r]];
+    }
+    event.finish(n, matrix.nonZeroCount(), iterations, restarts, residual, converged);
+    return new EigenResult(
+        resultReal, resultImaginary, ritzReal[0], ritzImaginary[0],
+        basis[0].clone(), residual, iterations, converged
+    );
+  }
+
+  /**
+   * x = V·y по первым m векторам базиса.
+   */
+  private static double[] combine(double[][] basis, double[] y, int m, int n) {
+    double[] x = new double[n];
+    for (int j = 0; j < m; j++) {
+      if (y[j] != 0.0) {
+        axpy(y[j], basis[j], x);
+      }
+    }
+    return x;
+  }
+
+  private static void sortByModulus(double[] real, double[] imaginary, Integer[] order) {
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> {
+      int byModulus = Double.compare(Math.hypot(real[b], imaginary[b]), Math.hypot(real[a], imaginary[a]));
+      if (byModulus != 0) {
+        return byModulus;
+      }
+      int byReal = Double.compare(real[b], real[a]);
+      return byReal != 0 ? byReal : Double.compare(imaginary[b], imaginary[a]);
+    });
+  }
+
+  private static void randomUnitVector(Random random, double[] x) {
+    do {
+      for (int i = 0; i < x.length; i++) {
+        x[i] = random.nextDouble() - 0.5;
+      }
+    } while (normalize(x, x) == 0.0);
+  }
+
+  /**
+   * Записывает x / ‖x‖ в target.
+   *
+   * @return ‖x‖ (0, если вектор нулевой — тогда target не меняется)
+   */
+  private static double normalize(double[] x, double[] target) {
+    double norm = norm(x);
+    if (norm == 0.0 || Double.isNaN(norm) || Double.isInfinite(norm)) {
+      return 0.0;
+    }
+    for (int i = 0; i < x.length; i++) {
+      target[i] = x[i] / norm;
+    }
+    return norm;
+  }
+
+  private static double dot(double[] x, double[] y) {
+    double sum = 0.0;
+    for (int i = 0; i < x.length; i++) {
+      sum += x[i] * y[i];
+    }
+    return sum;
+  }
+
+  private static double norm(double[] x) {
+    return Math.sqrt(dot(x, x));
+  }
+
+  private static void axpy(double a, double[] x, double[] y) {
+    for (int i = 0; i < x.length; i++) {
+      y[i] += a * x[i];
+    }
+  }
+
+  private static void scale(double[] x, double a) {
+    for (int i = 0; i < x.length; i++) {
+      x[i] *= a;
+    }
+  }
+}
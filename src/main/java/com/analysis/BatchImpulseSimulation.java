@@ -0,0 +1,166 @@
+package com.analysis;
+
+import com.metrics.SimulationEvent;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пакетное импульсное моделирование: все сценарии считаются как одно произведение
+ * матрицы Aᵀ на плотный блок векторов ({@link SparseMatrix#multiply(double[], double[], int)}). Блоки сценариев распределяются
+ * по ядрам в пуле fork-join; вместо полной истории сохраняется только {@link ScenarioSummary}.
+ */
+public class BatchImpulseSimulation {
+  /** Число сценариев в одном блоке: строка блока помещается в несколько кэш-линий. */
+  private static final int BLOCK_WIDTH = 16;
+
+  private final SparseMatrix operator;
+  private final ForkJoinPool pool;
+
+  public BatchImpulseSimulation(MapSnapshot snapshot) {
+    this(snapshot.transposed(), ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param operator Aᵀ — строка i содержит входящие рёбра вершины i
+   */
+  public BatchImpulseSimulation(SparseMatrix operator, ForkJoinPool pool) {
+    if (operator.rowCount() != operator.columnCount()) {
+      throw new IllegalArgumentException("Матрица весов должна быть квадратной");
+    }
+    this.operator = operator;
+    this.pool = pool;
+  }
+
+  /**
+   * @param impulses векторы импульсов, по одному на сценарий
+   * @return итоги в порядке сценариев
+   */
+  public ScenarioSummary[] run(double[][] impulses, int steps) {
+    return run(impulses, steps, ProgressMonitor.NONE);
+  }
+
+  /**
+   * Отмена проверяется на каждом такте каждого блока, ход сообщается по готовым сценариям.
+   *
+   * @throws java.util.concurrent.CancellationException если монитор запросил отмену
+   */
+  public ScenarioSummary[] run(double[][] impulses, int steps, ProgressMonitor monitor) {
+    int n = operator.rowCount();
+    if (steps < 0) {
+      throw new IllegalArgumentException("Количество тактов не может быть отрицательным!");
+    }
+    for (int s = 0; s < impulses.length; s++) {
+      if (impulses[s].length != n) {
+        throw new IllegalArgumentException(
+            "Сценарий " + (s + 1) + ": длина вектора должна быть " + n + " (по числу вершин)."
+        );
+      }
+    }
+
+    SimulationEvent event = new SimulationEvent();
+    event.start();
+    ScenarioSummary[] result = new ScenarioSummary[impulses.length];
+    pool.invoke(new BlockTask(impulses, steps, result, 0, impulses.length, monitor, new AtomicInteger()));
+    event.finish(n, impulses.length, steps);
+    return result;
+  }
+
+  /**
+   * Единичные импульсы на каждую вершину: сценарий i — импульс 1 в вершине i.
+   */
+  public static double[][] unitImpulses(int n) {
+    double[][] impulses = new double[n][n];
+    for (int i = 0; i < n; i++) {
+      impulses[i][i] = 1.0;
+    }
+    return impulses;
+  }
+
+  private final class BlockTask extends RecursiveAction {
+    private final double[][] impulses;
+    private final int steps;
+    private final ScenarioSummary[] result;
+    private final int from;
+    private final int to;
+    private final ProgressMonitor monitor;
+    private final AtomicInteger done;
+
+    BlockTask(double[][] impulses, int steps, ScenarioSummary[] result, int from, int to,
+              ProgressMonitor monitor, AtomicInteger done) {
+      this.impulses = impulses;
+      this.steps = steps;
+      this.result = result;
+      this.from = from;
+      this.to = to;
+      this.monitor = monitor;
+      this.done = done;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > BLOCK_WIDTH) {
+        int middle = from + ((to - from) / 2 + BLOCK_WIDTH - 1) / BLOCK_WIDTH * BLOCK_WIDTH;
+        invokeAll(
+            new BlockTask(impulses, steps, result, from, middle, monitor, done),
+            new BlockTask(impulses, steps, result, middle, to, monitor, done)
+        );
+      } else {
+        simulateBlock();
+      }
+    }
+
+    /**
+     * Блок хранится построчно: значение вершины i в сценарии s — элемент [i * width + s].
+     */
+    private void simulateBlock() {
+      int n = operator.rowCount();
+      int width = to - from;
+
+      double[] p = new double[n * width];
+      double[] next = new double[n * width];
+      double[] v = new double[n * width];
+      double[] peak = new double[n * width];
+      int[] peakStep = new int[n * width];
+      for (int s = 0; s < width; s++) {
+        double[] impulse = impulses[from + s];
+        for (int i = 0; i < n; i++) {
+          p[i * width + s] = impulse[i];
+        }
+      }
+      System.arraycopy(p, 0, v, 0, p.length);
+      System.arraycopy(p, 0, peak, 0, p.length);
+
+      for (int t = 1; t <= steps; t++) {
+        monitor.checkCancelled();
+        operator.multiply(p, next, width);
+        for (int k = 0; k < v.length; k++) {
+          double value = v[k] + next[k];
+          v[k] = value;
+          if (Math.abs(value) > Math.abs(peak[k])) {
+            peak[k] = value;
+            peakStep[k] = t;
+          }
+        }
+        double[] swap = p;
+        p = next;
+        next = swap;
+      }
+
+      for (int s = 0; s < width; s++) {
+        double[] scenarioPeak = new double[n];
+        int[] scenarioPeakStep = new int[n];
+        double[] scenarioFinal = new double[n];
+        for (int i = 0; i < n; i++) {
+          scenarioPeak[i] = peak[i * width + s];
+          scenarioPeakStep[i] = peakStep[i * width + s];
+          scenarioFinal[i] = v[i * width + s];
+        }
+        result[from + s] = new ScenarioSummary(scenarioPeak, scenarioPeakStep, scenarioFinal);
+      }
+      int finished = done.addAndGet(width);
+      monitor.progress(finished, impulses.length, "Сценариев: " + finished + " из " + impulses.length);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.analysis;
+
+/**
+ * Результат анализа одной компоненты сильной связности: её циклы и ведущие собственные значения.
+ * Вершины компоненты задаются постоянными идентификаторами в локальном порядке,
+ * индексы в {@link #cycles()} — локальные.
+ */
+public final class ComponentAnalysis {
+  private final long[] vertexIds;
+  private final CycleStore cycles;
+  private final EigenResult eigen;
+
+  ComponentAnalysis(long[] vertexIds, CycleStore cycles, EigenResult eigen) {
+    this.vertexIds = vertexIds;
+    this.cycles = cycles;
+    this.eigen = eigen;
+  }
+
+  public int size() {
+    return vertexIds.length;
+  }
+
+  public long vertexId(int local) {
+    return vertexIds[local];
+  }
+
+  public CycleStore cycles() {
+    return cycles;
+  }
+
+  public EigenResult eigen() {
+    return eigen;
+  }
+}
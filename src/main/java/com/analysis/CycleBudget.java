@@ -0,0 +1,44 @@
+package com.analysis;
+
+/**
+ * Ограничение на перечисление циклов: максимальное число циклов и время обхода.
+ * Когда любое из ограничений исчерпано, перечисление останавливается, а результат
+ * помечается как неполный.
+ */
+public final class CycleBudget {
+  public static final CycleBudget UNLIMITED = new CycleBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+  private final long maxCycles;
+  private final long timeLimitMillis;
+
+  /**
+   * @param maxCycles       максимальное число циклов (Long.MAX_VALUE — без ограничения)
+   * @param timeLimitMillis ограничение по времени в миллисекундах (Long.MAX_VALUE — без ограничения)
+   */
+  public CycleBudget(long maxCycles, long timeLimitMillis) {
+    if (maxCycles <= 0) {
+      throw new IllegalArgumentException("Лимит циклов должен быть положительным");
+    }
+    if (timeLimitMillis <= 0) {
+      throw new IllegalArgumentException("Лимит времени должен быть положительным");
+    }
+    this.maxCycles = maxCycles;
+    this.timeLimitMillis = timeLimitMillis;
+  }
+
+  public long maxCycles() {
+    return maxCycles;
+  }
+
+  public long timeLimitMillis() {
+    return timeLimitMillis;
+  }
+
+  public boolean limitsCycles() {
+    return maxCycles != Long.MAX_VALUE;
+  }
+
+  public boolean limitsTime() {
+    return timeLimitMillis != Long.MAX_VALUE;
+  }
+}
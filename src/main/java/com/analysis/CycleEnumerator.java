@@ -0,0 +1,268 @@
+package com.analysis;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Перечисление элементарных циклов орграфа по алгоритму Джонсона.
+ * <p>
+ * Граф задаётся списками смежности в формате CSR: исходящие рёбра вершины v занимают
+ * позиции [adjStart[v], adjStart[v + 1]) массива adj. Каждый цикл выдаётся ровно один раз,
+ * начиная с вершины с минимальным индексом; память — O(V + E) независимо от числа циклов.
+ * Петли (v → v) циклами не считаются.
+ */
+public class CycleEnumerator {
+  private final int n;
+  private final int[] adjStart;
+  private final int[] adj;
+  private final int[] revStart;
+  private final int[] rev;
+
+  public CycleEnumerator(int n, int[] adjStart, int[] adj) {
+    if (adjStart.length != n + 1) {
+      throw new IllegalArgumentException("adjStart должен содержать n + 1 элементов");
+    }
+    this.n = n;
+    this.adjStart = adjStart;
+    this.adj = adj;
+
+    // Обратные списки нужны для поиска компоненты сильной связности стартовой вершины
+    revStart = new int[n + 1];
+    for (int p = 0; p < adjStart[n]; p++) {
+      revStart[adj[p] + 1]++;
+    }
+    for (int v = 0; v < n; v++) {
+      revStart[v + 1] += revStart[v];
+    }
+    rev = new int[adjStart[n]];
+    int[] fill = Arrays.copyOf(revStart, n);
+    for (int v = 0; v < n; v++) {
+      for (int p = adjStart[v]; p < adjStart[v + 1]; p++) {
+        rev[fill[adj[p]]++] = v;
+      }
+    }
+  }
+
+  /**
+   * Перечислитель для графа, заданного матрицей смежности (строка — исходящие рёбра).
+   */
+  public CycleEnumerator(SparseMatrix adjacency) {
+    this(adjacency.rowCount(), adjacency.rowStart(), adjacency.columnIndices());
+  }
+
+  public int vertexCount() {
+    return n;
+  }
+
+  /**
+   * Перечисляет все элементарные циклы графа.
+   *
+   * @return число переданных посетителю циклов
+   */
+  public long enumerate(CycleVisitor visitor) {
+    return enumerate(0, n, visitor);
+  }
+
+  /**
+   * Перечисляет циклы, минимальная вершина которых лежит в диапазоне [fromStart, toStart).
+   * Диапазоны не пересекаются по циклам, поэтому их можно обходить независимо и параллельно.
+   *
+   * @return число переданных посетителю циклов
+   */
+  public long enumerate(int fromStart, int toStart, CycleVisitor visitor) {
+    return enumerate(fromStart, toStart, visitor, null);
+  }
+
+  /**
+   * То же, с подсчётом вершин, добавленных на путь поиска в глубину.
+   *
+   * @param visitedNodes счётчик, к которому прибавляется число посещений; может быть null
+   */
+  public long enumerate(int fromStart, int toStart, CycleVisitor visitor, LongAdder visitedNodes) {
+    Search search = new Search(visitor);
+    for (int s = fromStart; s < toStart && !search.stopped; s++) {
+      search.run(s);
+    }
+    if (visitedNodes != null) {
+      visitedNodes.add(search.visited);
+    }
+    return search.count;
+  }
+
+  /**
+   * Состояние одного обхода; переиспользуется для всех стартовых вершин диапазона.
+   */
+  private final class Search {
+    private final CycleVisitor visitor;
+    private final boolean[] inComponent = new boolean[n];
+    private final boolean[] blocked = new boolean[n];
+    private final int[][] blockedBy = new int[n][];
+    private final int[] blockedBySize = new int[n];
+    private final int[] path = new int[n];
+    private final int[] pathEdges = new int[n];
+    private final int[] cursor = new int[n];
+    private final boolean[] found = new boolean[n];
+    private final boolean[] reached = new boolean[n];
+    private final int[] component = new int[n];
+    private final int[] stack = new int[n];
+    private int componentSize;
+    private long count;
+    private long visited;
+    private boolean stopped;
+
+    Search(CycleVisitor visitor) {
+      this.visitor = visitor;
+    }
+
+    void run(int s) {
+      collectComponent(s);
+      try {
+        if (componentSize > 1) {
+          circuit(s);
+        }
+      } finally {
+        for (int i = 0; i < componentSize; i++) {
+          int v = component[i];
+          inComponent[v] = false;
+          blocked[v] = false;
+          blockedBySize[v] = 0;
+        }
+      }
+    }
+
+    /**
+     * Компонента сильной связности вершины s в подграфе на вершинах с индексами ≥ s:
+     * пересечение множеств достижимых из s и достигающих s.
+     */
+    private void collectComponent(int s) {
+      int top = 0;
+      int visitedCount = 0;
+      reached[s] = true;
+      stack[top++] = s;
+      while (top > 0) {
+        int v = stack[--top];
+        component[visitedCount++] = v;
+        for (int p = adjStart[v]; p < adjStart[v + 1]; p++) {
+          int w = adj[p];
+          if (w > s && !reached[w]) {
+            reached[w] = true;
+            stack[top++] = w;
+          }
+        }
+      }
+
+      componentSize = 0;
+      inComponent[s] = true;
+      stack[top++] = s;
+      while (top > 0) {
+        int v = stack[--top];
+        for (int p = revStart[v]; p < revStart[v + 1]; p++) {
+          int u = rev[p];
+          if (u > s && reached[u] && !inComponent[u]) {
+            inComponent[u] = true;
+            stack[top++] = u;
+          }
+        }
+      }
+
+      for (int i = 0; i < visitedCount; i++) {
+        int v = component[i];
+        reached[v] = false;
+        if (inComponent[v]) {
+          component[componentSize++] = v;
+        }
+      }
+    }
+
+    /**
+     * Нерекурсивная версия процедуры CIRCUIT: глубина пути ограничена только числом вершин.
+     */
+    private void circuit(int s) {
+      int depth = 0;
+      path[0] = s;
+      cursor[0] = adjStart[s];
+      found[0] = false;
+      blocked[s] = true;
+      visited++;
+
+      while (depth >= 0) {
+        int v = path[depth];
+        if (cursor[depth] < adjStart[v + 1]) {
+          int p = cursor[depth]++;
+          int w = adj[p];
+          if (w == v || !inComponent[w]) {
+            continue;
+          }
+          if (w == s) {
+            pathEdges[depth] = p;
+            found[depth] = true;
+            count++;
+            if (!visitor.visit(path, pathEdges, depth + 1)) {
+              stopped = true;
+              return;
+            }
+          } else if (!blocked[w]) {
+            pathEdges[depth] = p;
+            depth++;
+            path[depth] = w;
+            cursor[depth] = adjStart[w];
+            found[depth] = false;
+            blocked[w] = true;
+            visited++;
+          }
+        } else {
+          if (found[depth]) {
+            unblock(v);
+          } else {
+            for (int p = adjStart[v]; p < adjStart[v + 1]; p++) {
+              int w = adj[p];
+              if (w != v && inComponent[w]) {
+                addBlockedBy(w, v);
+              }
+            }
+          }
+          boolean cycleFound = found[depth];
+          depth--;
+          if (depth >= 0 && cycleFound) {
+            found[depth] = true;
+          }
+        }
+      }
+    }
+
+    private void unblock(int u) {
+      int top = 0;
+      blocked[u] = false;
+      stack[top++] = u;
+      while (top > 0) {
+        int x = stack[--top];
+        int[] list = blockedBy[x];
+        for (int i = 0; i < blockedBySize[x]; i++) {
+          int w = list[i];
+          if (blocked[w]) {
+            blocked[w] = false;
+            stack[top++] = w;
+          }
+        }
+        blockedBySize[x] = 0;
+      }
+    }
+
+    private void addBlockedBy(int w, int v) {
+      int[] list = blockedBy[w];
+      int size = blockedBySize[w];
+      for (int i = 0; i < size; i++) {
+        if (list[i] == v) {
+          return;
+        }
+      }
+      if (list == null) {
+        list = blockedBy[w] = new int[4];
+      } else if (size == list.length) {
+        list = blockedBy[w] = Arrays.copyOf(list, size * 2);
+      }
+      list[size] = v;
+      blockedBySize[w] = size + 1;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Компактное хранилище циклов: вершины всех циклов подряд в одном массиве int,
+ * границы циклов — в массиве смещений, произведения весов — в массиве double.
+ */
+public final class CycleStore {
+  private int[] vertices = new int[64];
+  private int[] offsets = new int[17];
+  private double[] products = new double[16];
+  private int count;
+  private long negativeCount;
+  private boolean complete = true;
+
+  public void add(int[] cycle, int length, double product) {
+    int end = offsets[count];
+    if (end + length > vertices.length) {
+      vertices = Arrays.copyOf(vertices, Math.max(vertices.length * 2, end + length));
+    }
+    if (count == products.length) {
+      products = Arrays.copyOf(products, count * 2);
+      offsets = Arrays.copyOf(offsets, count * 2 + 1);
+    }
+    System.arraycopy(cycle, 0, vertices, end, length);
+    products[count] = product;
+    offsets[++count] = end + length;
+    if (product < 0) {
+      negativeCount++;
+    }
+  }
+
+  /**
+   * Дописывает циклы другого хранилища в конец этого.
+   */
+  void addAll(CycleStore other) {
+    int base = offsets[count];
+    int end = base + other.offsets[other.count];
+    if (end > vertices.length) {
+      vertices = Arrays.copyOf(vertices, Math.max(vertices.length * 2, end));
+    }
+    int total = count + other.count;
+    if (total > products.length) {
+      int capacity = Math.max(products.length * 2, total);
+      products = Arrays.copyOf(products, capacity);
+      offsets = Arrays.copyOf(offsets, capacity + 1);
+    }
+    System.arraycopy(other.vertices, 0, vertices, base, other.offsets[other.count]);
+    System.arraycopy(other.products, 0, products, count, other.count);
+    for (int c = 1; c <= other.count; c++) {
+      offsets[count + c] = base + other.offsets[c];
+    }
+    count = total;
+    negativeCount += other.negativeCount;
+    complete &= other.complete;
+  }
+
+  void markIncomplete() {
+    complete = false;
+  }
+
+  /**
+   * false, если перечисление было остановлено бюджетом и часть циклов отсутствует.
+   */
+  public boolean isComplete() {
+    return complete;
+  }
+
+  public int count() {
+    return count;
+  }
+
+  public long negativeCount() {
+    return negativeCount;
+  }
+
+  public int length(int cycle) {
+    return offsets[cycle + 1] - offsets[cycle];
+  }
+
+  /**
+   * k-я вершина цикла (0 — минимальная).
+   */
+  public int vertex(int cycle, int k) {
+    return vertices[offsets[cycle] + k];
+  }
+
+  public double product(int cycle) {
+    return products[cycle];
+  }
+
+  public boolean isNegative(int cycle) {
+    return products[cycle] < 0;
+  }
+}
@@ -0,0 +1,198 @@
+package com.analysis;
+
+import java.util.List;
+
+/**
+ * Сквозная нумерация циклов всех компонент анализа для отчёта: строка — номер цикла
+ * в порядке перечисления, данные читаются из {@link CycleStore} компонент без копирования.
+ * <p>
+ * Циклы остаются в хранилищах компонент (их кэширует {@link StructuralAnalyzer}), таблица
+ * хранит лишь границы компонент и подписи вершин, а порядки сортировки — массивы int.
+ * Текст цикла строится по запросу, только для показываемых или выгружаемых строк.
+ */
+public final class CycleTable {
+  /**
+   * Ключ сортировки строк.
+   */
+  public enum Key {
+    /** Порядок перечисления. */
+    NUMBER,
+    LENGTH,
+    /** Отрицательные циклы — раньше положительных. */
+    SIGN,
+    /** Модуль произведения весов. */
+    MAGNITUDE
+  }
+
+  private final CycleStore[] stores;
+  private final String[][] names;
+  // Строки компоненты c — [rowStart[c], rowStart[c + 1])
+  private final int[] rowStart;
+
+  private CycleTable(CycleStore[] stores, String[][] names, int[] rowStart) {
+    this.stores = stores;
+    this.names = names;
+    this.rowStart = rowStart;
+  }
+
+  /**
+   * @param snapshot снимок, по которому получен analysis (подписи ищутся по идентификаторам вершин)
+   */
+  public static CycleTable of(MapSnapshot snapshot, StructuralAnalysis analysis) {
+    List<ComponentAnalysis> components = analysis.components();
+    CycleStore[] stores = new CycleStore[components.size()];
+    String[][] names = new String[components.size()][];
+    int[] rowStart = new int[components.size() + 1];
+    for (int c = 0; c < stores.length; c++) {
+      ComponentAnalysis component = components.get(c);
+      stores[c] = component.cycles();
+      names[c] = new String[component.size()];
+      for (int k = 0; k < component.size(); k++) {
+        names[c][k] = snapshot.label(snapshot.indexOfId(component.vertexId(k)));
+      }
+      long end = (long) rowStart[c] + stores[c].count();
+      if (end > Integer.MAX_VALUE - 8) {
+        throw new IllegalArgumentException("Слишком много циклов для таблицы: " + end);
+      }
+      rowStart[c + 1] = (int) end;
+    }
+    return new CycleTable(stores, names, rowStart);
+  }
+
+  public int size() {
+    return rowStart[rowStart.length - 1];
+  }
+
+  /**
+   * Номер цикла в отчёте (с единицы, в порядке перечисления).
+   */
+  public int number(int row) {
+    return row + 1;
+  }
+
+  public int length(int row) {
+    int c = component(row);
+    return stores[c].length(row - rowStart[c]);
+  }
+
+  public boolean isNegative(int row) {
+    int c = component(row);
+    return stores[c].isNegative(row - rowStart[c]);
+  }
+
+  public double product(int row) {
+    int c = component(row);
+    return stores[c].product(row - rowStart[c]);
+  }
+
+  /**
+   * Цикл подписями вершин: «A → B → C → A».
+   */
+  public String path(int row) {
+    int c = component(row);
+    CycleStore store = stores[c];
+    int cycle = row - rowStart[c];
+    String[] labels = names[c];
+    StringBuilder text = new StringBuilder();
+    for (int k = 0; k < store.length(cycle); k++) {
+      text.append(labels[store.vertex(cycle, k)]).append(" → ");
+    }
+    return text.append(labels[store.vertex(cycle, 0)]).toString();
+  }
+
+  /**
+   * Строки, упорядоченные по ключу; равные по ключу идут в порядке перечисления
+   * при любом направлении.
+   */
+  public int[] order(Key key, boolean descending) {
+    int n = size();
+    int[] rows = new int[n];
+    for (int r = 0; r < n; r++) {
+      rows[r] = r;
+    }
+    if (key == Key.NUMBER) {
+      if (descending) {
+        for (int r = 0; r < n; r++) {
+          rows[r] = n - 1 - r;
+        }
+      }
+      return rows;
+    }
+    double[] keys = new double[n];
+    double sign = descending ? -1.0 : 1.0;
+    for (int c = 0; c < stores.length; c++) {
+      CycleStore store = stores[c];
+      for (int cycle = 0; cycle < store.count(); cycle++) {
+        double value;
+        switch (key) {
+          case LENGTH:
+            value = store.length(cycle);
+            break;
+          case SIGN:
+            value = store.isNegative(cycle) ? 0.0 : 1.0;
+            break;
+          default:
+            value = Math.abs(store.product(cycle));
+            break;
+        }
+        keys[rowStart[c] + cycle] = sign * value;
+      }
+    }
+    mergeSort(rows, new int[n], keys, 0, n);
+    return rows;
+  }
+
+  /**
+   * Устойчивая сортировка индексов по keys без упаковки в объекты.
+   */
+  private static void mergeSort(int[] rows, int[] buffer, double[] keys, int from, int to) {
+    if (to - from < 16) {
+      for (int i = from + 1; i < to; i++) {
+        int row = rows[i];
+        int j = i - 1;
+        while (j >= from && Double.compare(keys[rows[j]], keys[row]) > 0) {
+          rows[j + 1] = rows[j];
+          j--;
+        }
+        rows[j + 1] = row;
+      }
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    mergeSort(rows, buffer, keys, from, middle);
+    mergeSort(rows, buffer, keys, middle, to);
+    if (Double.compare(keys[rows[middle - 1]], keys[rows[middle]]) <= 0) {
+      return;
+    }
+    System.arraycopy(rows, from, buffer, from, to - from);
+    int left = from;
+    int right = middle;
+    for (int i = from; i < to; i++) {
+      if (right >= to || (left < middle && Double.compare(keys[buffer[left]], keys[buffer[right]]) <= 0)) {
+        rows[i] = buffer[left++];
+      } else {
+        rows[i] = buffer[right++];
+      }
+    }
+  }
+
+  /**
+   * Компонента строки: последняя c с rowStart[c] ≤ row (у компонент без циклов границы совпадают).
+   */
+  private int component(int row) {
+    if (row < 0 || row >= size()) {
+      throw new IndexOutOfBoundsException("Строка " + row + " вне 0.." + (size() - 1));
+    }
+    int low = 0;
+    int high = stores.length - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (rowStart[middle] <= row) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,18 @@
+package com.analysis;
+
+/**
+ * Получатель циклов от {@link CycleEnumerator}.
+ */
+public interface CycleVisitor {
+
+  /**
+   * Вызывается один раз для каждого элементарного цикла.
+   * Массивы переиспользуются перечислителем — копируйте их, если нужно сохранить цикл.
+   *
+   * @param vertices индексы вершин цикла, начиная с минимального (без повтора первой вершины)
+   * @param edges    позиции рёбер vertices[i] → vertices[(i + 1) % length] в списке смежности
+   * @param length   длина цикла
+   * @return false, чтобы прервать перечисление
+   */
+  boolean visit(int[] vertices, int[] edges, int length);
+}
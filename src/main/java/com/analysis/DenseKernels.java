@@ -0,0 +1,48 @@
+package com.analysis;
+
+/**
+ * Плотные ядра линейной алгебры над плоскими массивами, хранящими матрицы по строкам.
+ * <p>
+ * Реализация на Vector API ({@code jdk.incubator.vector}) загружается по имени класса: если
+ * модуль не подключён к приложению ({@code --add-modules jdk.incubator.vector}) или SIMD
+ * недоступен, используется скалярная реализация с теми же разбиениями.
+ */
+abstract class DenseKernels {
+  /** Строк A, обрабатываемых за проход по x: частичные суммы держатся в регистрах. */
+  static final int ROW_BLOCK = 4;
+  /** Блок внутреннего измерения C = A·B: панель B блок × COLUMN_BLOCK помещается в L2. */
+  static final int INNER_BLOCK = 128;
+  /** Ширина панели B и строки C, обновляемой на месте (помещается в L1). */
+  static final int COLUMN_BLOCK = 256;
+
+  private static final DenseKernels INSTANCE = load();
+
+  static DenseKernels instance() {
+    return INSTANCE;
+  }
+
+  /**
+   * y = A·x, A — rows×columns по строкам. x и y не должны совпадать.
+   */
+  abstract void multiply(double[] a, int rows, int columns, double[] x, double[] y);
+
+  /**
+   * C = A·B, A — rows×inner, B — inner×columns, C — rows×columns (все по строкам).
+   * C не должна совпадать с A или B.
+   */
+  abstract void multiply(double[] a, double[] b, double[] c, int rows, int inner, int columns);
+
+  /**
+   * Название реализации для диагностики.
+   */
+  abstract String name();
+
+  private static DenseKernels load() {
+    try {
+      return (DenseKernels) Class.forName("com.analysis.VectorDenseKernels").getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      // Модуль не подключён или SIMD недоступен — остаётся скалярная реализация
+      return new ScalarDenseKernels();
+    }
+  }
+}
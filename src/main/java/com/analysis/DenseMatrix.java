@@ -0,0 +1,140 @@
+package com.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Плотная матрица в одном массиве по строкам: элемент (i, j) — values[i·columns + j]. Неизменяема,
+ * кроме плотной копии, которую перезаполняет её {@link SparseMatrix}.
+ * Умножения выполняются ядрами {@link DenseKernels} (Vector API, если модуль подключён).
+ * Используется {@link SparseMatrix} для почти полных матриц, где косвенная адресация CSR
+ * обходится дороже обхода всех элементов подряд.
+ */
+public final class DenseMatrix {
+  private final int rows;
+  private final int columns;
+  private final double[] values;
+
+  /**
+   * Массив не копируется: вызывающий не должен изменять его после создания матрицы.
+   */
+  public DenseMatrix(int rows, int columns, double[] values) {
+    if (rows < 0 || columns < 0 || (long) rows * columns != values.length) {
+      throw new IllegalArgumentException("Размер массива не равен " + rows + "×" + columns);
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.values = values;
+  }
+
+  /**
+   * Плотная копия разреженной матрицы.
+   *
+   * @throws IllegalArgumentException если rows·columns не помещается в массив
+   */
+  public static DenseMatrix of(SparseMatrix sparse) {
+    long size = (long) sparse.rowCount() * sparse.columnCount();
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException(
+          "Матрица " + sparse.rowCount() + "×" + sparse.columnCount() + " слишком велика для плотного хранения");
+    }
+    DenseMatrix dense = new DenseMatrix(sparse.rowCount(), sparse.columnCount(), new double[(int) size]);
+    dense.scatter(sparse);
+    return dense;
+  }
+
+  /**
+   * Перезаполняет копию по новым значениям той же разреженной матрицы (см.
+   * {@link SparseMatrix#refreshValues()}); массив не выделяется заново.
+   */
+  void refill(SparseMatrix sparse) {
+    Arrays.fill(values, 0.0);
+    scatter(sparse);
+  }
+
+  private void scatter(SparseMatrix sparse) {
+    int[] rowStart = sparse.rowStart();
+    int[] columnIndices = sparse.columnIndices();
+    double[] sparseValues = sparse.values();
+    for (int i = 0; i < rows; i++) {
+      for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+        values[i * columns + columnIndices[p]] += sparseValues[p];
+      }
+    }
+  }
+
+  public int rowCount() {
+    return rows;
+  }
+
+  public int columnCount() {
+    return columns;
+  }
+
+  public double get(int row, int column) {
+    return values[row * columns + column];
+  }
+
+  /**
+   * Название используемых ядер («Vector API, 4 × double» или «скалярные»).
+   */
+  public static String kernelName() {
+    return DenseKernels.instance().name();
+  }
+
+  /**
+   * y = A·x. Не выделяет память; x и y не должны совпадать.
+   */
+  public void multiply(double[] x, double[] y) {
+    DenseKernels.instance().multiply(values, rows, columns, x, y);
+  }
+
+  /**
+   * Y = A·X для блока из width векторов, хранящегося по строкам: элемент вектора s в строке k —
+   * x[k·width + s]. x и y не должны совпадать.
+   */
+  public void multiply(double[] x, double[] y, int width) {
+    DenseKernels.instance().multiply(values, x, y, rows, columns, width);
+  }
+
+  public DenseMatrix multiply(DenseMatrix other) {
+    if (columns != other.rows) {
+      throw new IllegalArgumentException("Несогласованные размеры матриц: " + rows + "×" + columns
+          + " и " + other.rows + "×" + other.columns);
+    }
+    long size = (long) rows * other.columns;
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Произведение " + rows + "×" + other.columns + " слишком велико");
+    }
+    double[] product = new double[(int) size];
+    DenseKernels.instance().multiply(values, other.values, product, rows, columns, other.columns);
+    return new DenseMatrix(rows, other.columns, product);
+  }
+
+  /**
+   * CSR-форма без точных нулей.
+   */
+  public SparseMatrix toSparse() {
+    int nonZeros = 0;
+    for (double value : values) {
+      if (value != 0.0) {
+        nonZeros++;
+      }
+    }
+    int[] rowStart = new int[rows + 1];
+    int[] columnIndices = new int[nonZeros];
+    double[] sparseValues = new double[nonZeros];
+    int size = 0;
+    for (int i = 0; i < rows; i++) {
+      int row = i * columns;
+      for (int j = 0; j < columns; j++) {
+        double value = values[row + j];
+        if (value != 0.0) {
+          columnIndices[size] = j;
+          sparseValues[size++] = value;
+        }
+      }
+      rowStart[i + 1] = size;
+    }
+    return new SparseMatrix(rows, columns, rowStart, columnIndices, sparseValues);
+  }
+}
@@ -0,0 +1,107 @@
+package com.analysis;
+
+/**
+ * Результат поиска собственных значений наибольшего модуля.
+ * Значения упорядочены по убыванию модуля; комплексно-сопряжённые пары идут подряд
+ * (у {@link ArnoldiEigenSolver#solveNear} первым стоит значение, ближайшее к цели).
+ */
+public final class EigenResult {
+  private final double[] real;
+  private final double[] imaginary;
+  private final double[] vectorReal;
+  private final double[] vectorImaginary;
+  private final double[] restartVector;
+  private final double residual;
+  private final int iterations;
+  private final boolean converged;
+
+  EigenResult(
+      double[] real,
+      double[] imaginary,
+      double[] vectorReal,
+      double[] vectorImaginary,
+      double[] restartVector,
+      double residual,
+      int iterations,
+      boolean converged
+  ) {
+    this.real = real;
+    this.imaginary = imaginary;
+    this.vectorReal = vectorReal;
+    this.vectorImaginary = vectorImaginary;
+    this.restartVector = restartVector;
+    this.residual = residual;
+    this.iterations = iterations;
+    this.converged = converged;
+  }
+
+  public int count() {
+    return real.length;
+  }
+
+  public double real(int i) {
+    return real[i];
+  }
+
+  public double imaginary(int i) {
+    return imaginary[i];
+  }
+
+  public double modulus(int i) {
+    return Math.hypot(real[i], imaginary[i]);
+  }
+
+  public double spectralRadius() {
+    return real.length == 0 ? 0.0 : modulus(0);
+  }
+
+  /**
+   * Действительная часть нормированного собственного вектора для значения с индексом 0.
+   */
+  public double[] vectorReal() {
+    return vectorReal;
+  }
+
+  public double[] vectorImaginary() {
+    return vectorImaginary;
+  }
+
+  /**
+   * Вектор для тёплого старта следующего решения после небольшой правки матрицы.
+   */
+  public double[] restartVector() {
+    return restartVector;
+  }
+
+  /**
+   * Относительная невязка ‖Ax − λx‖ / ‖A‖ для ведущей пары.
+   */
+  public double residual() {
+    return residual;
+  }
+
+  /**
+   * Число умножений матрицы на вектор.
+   */
+  public int iterations() {
+    return iterations;
+  }
+
+  public boolean isConverged() {
+    return converged;
+  }
+
+  /**
+   * Запись значения в виде «a», «a + bi» или «a − bi».
+   */
+  public String format(int i) {
+    return format(real[i], imaginary[i]);
+  }
+
+  public static String format(double real, double imaginary) {
+    if (imaginary == 0.0) {
+      return String.format("%.4f", real);
+    }
+    return String.format("%.4f %s %.4fi", real, imaginary < 0 ? "−" : "+", Math.abs(imaginary));
+  }
+}
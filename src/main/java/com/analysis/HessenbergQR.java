@@ -0,0 +1,352 @@
+package com.analysis;
+
+/**
+ * Собственные значения и векторы небольшой верхней матрицы Хессенберга.
+ * Значения — QR-алгоритм Фрэнсиса с двойным сдвигом (по схеме EISPACK hqr),
+ * векторы — обратные итерации в комплексной арифметике.
+ */
+final class HessenbergQR {
+  private static final double EPS = Math.ulp(1.0);
+
+  private HessenbergQR() {
+  }
+
+  /**
+   * Собственные значения матрицы h[0..n-1][0..n-1]; матрица разрушается.
+   * Комплексно-сопряжённые пары записываются в соседние позиции.
+   */
+  static void eigenvalues(double[][] h, int size, double[] real, double[] imaginary) {
+    int n = size - 1;
+    double exceptionalShift = 0.0;
+    double p = 0;
+    double q = 0;
+    double r = 0;
+    double s;
+    double z = 0;
+    double w;
+    double x;
+    double y;
+
+    double norm = 0.0;
+    for (int i = 0; i < size; i++) {
+      for (int j = Math.max(i - 1, 0); j < size; j++) {
+        norm += Math.abs(h[i][j]);
+      }
+    }
+
+    int iteration = 0;
+    int totalIterations = 0;
+    while (n >= 0) {
+      // Ищем малый поддиагональный элемент
+      int l = n;
+      while (l > 0) {
+        s = Math.abs(h[l - 1][l - 1]) + Math.abs(h[l][l]);
+        if (s == 0.0) {
+          s = norm;
+        }
+        if (Math.abs(h[l][l - 1]) < EPS * s) {
+          break;
+        }
+        l--;
+      }
+
+      if (l == n) {
+        // Отделилось одно значение
+        real[n] = h[n][n] + exceptionalShift;
+        imaginary[n] = 0.0;
+        n--;
+        iteration = 0;
+      } else if (l == n - 1) {
+        // Отделился блок 2×2
+        w = h[n][n - 1] * h[n - 1][n];
+        p = (h[n - 1][n - 1] - h[n][n]) / 2.0;
+        q = p * p + w;
+        z = Math.sqrt(Math.abs(q));
+        x = h[n][n] + exceptionalShift;
+        if (q >= 0) {
+          z = p >= 0 ? p + z : p - z;
+          real[n - 1] = x + z;
+          real[n] = z != 0.0 ? x - w / z : x + z;
+          imaginary[n - 1] = 0.0;
+          imaginary[n] = 0.0;
+        } else {
+          real[n - 1] = x + p;
+          real[n] = x + p;
+          imaginary[n - 1] = z;
+          imaginary[n] = -z;
+        }
+        n -= 2;
+        iteration = 0;
+      } else {
+        if (++totalIterations > 100 * size) {
+          throw new ArithmeticException("QR-алгоритм не сошёлся");
+        }
+
+        // Сдвиг
+        x = h[n][n];
+        y = h[n - 1][n - 1];
+        w = h[n][n - 1] * h[n - 1][n];
+
+        // Исключительные сдвиги при медленной сходимости
+        if (iteration == 10) {
+          exceptionalShift += x;
+          for (int i = 0; i <= n; i++) {
+            h[i][i] -= x;
+          }
+          s = Math.abs(h[n][n - 1]) + Math.abs(h[n - 1][n - 2]);
+          x = 0.75 * s;
+          y = x;
+          w = -0.4375 * s * s;
+        }
+        if (iteration == 30) {
+          s = (y - x) / 2.0;
+          s = s * s + w;
+          if (s > 0) {
+            s = Math.sqrt(s);
+            if (y < x) {
+              s = -s;
+            }
+            s = x - w / ((y - x) / 2.0 + s);
+            for (int i = 0; i <= n; i++) {
+              h[i][i] -= s;
+            }
+            exceptionalShift += s;
+            x = 0.964;
+            y = x;
+            w = x;
+          }
+        }
+        iteration++;
+
+        // Ищем два подряд малых поддиагональных элемента
+        int m = n - 2;
+        while (m >= l) {
+          z = h[m][m];
+          r = x - z;
+          s = y - z;
+          p = (r * s - w) / h[m + 1][m] + h[m][m + 1];
+          q = h[m + 1][m + 1] - z - r - s;
+          r = h[m + 2][m + 1];
+          s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+          p /= s;
+          q /= s;
+          r /= s;
+          if (m == l) {
+            break;
+          }
+          if (Math.abs(h[m][m - 1]) * (Math.abs(q) + Math.abs(r))
+              < EPS * (Math.abs(p) * (Math.abs(h[m - 1][m - 1]) + Math.abs(z) + Math.abs(h[m + 1][m + 1])))) {
+            break;
+          }
+          m--;
+        }
+
+        for (int i = m + 2; i <= n; i++) {
+          h[i][i - 2] = 0.0;
+          if (i > m + 2) {
+            h[i][i - 3] = 0.0;
+          }
+        }
+
+        // Двойной QR-шаг по строкам l..n и столбцам m..n
+        for (int k = m; k <= n - 1; k++) {
+          boolean notLast = k != n - 1;
+          if (k != m) {
+            p = h[k][k - 1];
+            q = h[k + 1][k - 1];
+            r = notLast ? h[k + 2][k - 1] : 0.0;
+            x = Math.abs(p) + Math.abs(q) + Math.abs(r);
+            if (x == 0.0) {
+              continue;
+            }
+            p /= x;
+            q /= x;
+            r /= x;
+          }
+          s = Math.sqrt(p * p + q * q + r * r);
+          if (p < 0) {
+            s = -s;
+          }
+          if (s != 0) {
+            if (k != m) {
+              h[k][k - 1] = -s * x;
+            } else if (l != m) {
+              h[k][k - 1] = -h[k][k - 1];
+            }
+            p += s;
+            x = p / s;
+            y = q / s;
+            z = r / s;
+            q /= p;
+            r /= p;
+
+            for (int j = k; j < size; j++) {
+              p = h[k][j] + q * h[k + 1][j];
+              if (notLast) {
+                p += r * h[k + 2][j];
+                h[k + 2][j] -= p * z;
+              }
+              h[k][j] -= p * x;
+              h[k + 1][j] -= p * y;
+            }
+
+            for (int i = 0; i <= Math.min(n, k + 3); i++) {
+              p = x * h[i][k] + y * h[i][k + 1];
+              if (notLast) {
+                p += z * h[i][k + 2];
+                h[i][k + 2] -= p * r;
+              }
+              h[i][k] -= p;
+              h[i][k + 1] -= p * q;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Нормированный собственный вектор (yr + i·yi) матрицы h[0..n-1][0..n-1] для значения
+   * lr + i·li, найденный обратными итерациями. Матрица не изменяется.
+   */
+  static void eigenvector(double[][] h, int size, double lr, double li, double[] yr, double[] yi, double[] work) {
+    double scale = 0.0;
+    for (int i = 0; i < size; i++) {
+      for (int j = Math.max(i - 1, 0); j < size; j++) {
+        scale = Math.max(scale, Math.abs(h[i][j]));
+      }
+    }
+    // Небольшое смещение, чтобы система не была точно вырожденной
+    double shift = Math.max(scale, Double.MIN_NORMAL) * 1e-10;
+    double sr = lr + shift;
+
+    double[][] ar = new double[size][size];
+    double[][] ai = new double[size][size];
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        ar[i][j] = h[i][j];
+      }
+      ar[i][i] -= sr;
+      ai[i][i] = -li;
+    }
+    int[] pivot = new int[size];
+    factor(ar, ai, size, pivot);
+
+    for (int i = 0; i < size; i++) {
+      yr[i] = 1.0;
+      yi[i] = 0.0;
+    }
+    for (int iteration = 0; iteration < 3; iteration++) {
+      solve(ar, ai, size, pivot, yr, yi);
+      double norm = 0.0;
+      for (int i = 0; i < size; i++) {
+        work[i] = Math.hypot(yr[i], yi[i]);
+        norm += work[i] * work[i];
+      }
+      norm = Math.sqrt(norm);
+      if (norm == 0.0 || Double.isInfinite(norm) || Double.isNaN(norm)) {
+        break;
+      }
+      for (int i = 0; i < size; i++) {
+        yr[i] /= norm;
+        yi[i] /= norm;
+      }
+    }
+
+    // Фаза: наибольшая по модулю компонента делается действительной и положительной
+    int largest = 0;
+    for (int i = 1; i < size; i++) {
+      if (Math.hypot(yr[i], yi[i]) > Math.hypot(yr[largest], yi[largest])) {
+        largest = i;
+      }
+    }
+    double modulus = Math.hypot(yr[largest], yi[largest]);
+    if (modulus > 0.0) {
+      double cr = yr[largest] / modulus;
+      double ci = -yi[largest] / modulus;
+      for (int i = 0; i < size; i++) {
+        double re = yr[i] * cr - yi[i] * ci;
+        double im = yr[i] * ci + yi[i] * cr;
+        yr[i] = re;
+        yi[i] = im;
+      }
+    }
+  }
+
+  /**
+   * LU-разложение комплексной матрицы с частичным выбором ведущего элемента (на месте).
+   */
+  private static void factor(double[][] ar, double[][] ai, int size, int[] pivot) {
+    for (int k = 0; k < size; k++) {
+      int best = k;
+      double bestModulus = Math.hypot(ar[k][k], ai[k][k]);
+      for (int i = k + 1; i < size; i++) {
+        double modulus = Math.hypot(ar[i][k], ai[i][k]);
+        if (modulus > bestModulus) {
+          best = i;
+          bestModulus = modulus;
+        }
+      }
+      pivot[k] = best;
+      if (best != k) {
+        double[] t = ar[k];
+        ar[k] = ar[best];
+        ar[best] = t;
+        t = ai[k];
+        ai[k] = ai[best];
+        ai[best] = t;
+      }
+      if (bestModulus == 0.0) {
+        ar[k][k] = Double.MIN_NORMAL;
+      }
+      double dr = ar[k][k];
+      double di = ai[k][k];
+      double d = dr * dr + di * di;
+      for (int i = k + 1; i < size; i++) {
+        // l = a[i][k] / a[k][k]
+        double lr = (ar[i][k] * dr + ai[i][k] * di) / d;
+        double li = (ai[i][k] * dr - ar[i][k] * di) / d;
+        ar[i][k] = lr;
+        ai[i][k] = li;
+        for (int j = k + 1; j < size; j++) {
+          ar[i][j] -= lr * ar[k][j] - li * ai[k][j];
+          ai[i][j] -= lr * ai[k][j] + li * ar[k][j];
+        }
+      }
+    }
+  }
+
+  private static void solve(double[][] ar, double[][] ai, int size, int[] pivot, double[] br, double[] bi) {
+    // Перестановки строк применяются все сразу: множители L хранятся в итоговом порядке строк
+    for (int k = 0; k < size; k++) {
+      int p = pivot[k];
+      if (p != k) {
+        double t = br[k];
+        br[k] = br[p];
+        br[p] = t;
+        t = bi[k];
+        bi[k] = bi[p];
+        bi[p] = t;
+      }
+    }
+    for (int k = 0; k < size; k++) {
+      for (int i = k + 1; i < size; i++) {
+        br[i] -= ar[i][k] * br[k] - ai[i][k] * bi[k];
+        bi[i] -= ar[i][k] * bi[k] + ai[i][k] * br[k];
+      }
+    }
+    for (int i = size - 1; i >= 0; i--) {
+      double sr = br[i];
+      double si = bi[i];
+      for (int j = i + 1; j < size; j++) {
+        sr -= ar[i][j] * br[j] - ai[i][j] * bi[j];
+        si -= ar[i][j] * bi[j] + ai[i][j] * br[j];
+      }
+      double dr = ar[i][i];
+      double di = ai[i][i];
+      double d = dr * dr + di * di;
+      br[i] = (sr * dr + si * di) / d;
+      bi[i] = (si * dr - sr * di) / d;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.analysis;
+
+import com.metrics.SimulationEvent;
+
+/**
+ * Импульсное моделирование на CSR-снимке карты:
+ * p(t) = Aᵀ·p(t-1), v(t) = v(t-1) + p(t), v(0) = p(0) = импульс.
+ * Каждый шаг — одно разреженное умножение матрицы на вектор без выделения памяти.
+ */
+public class ImpulseSimulation {
+  private final SparseMatrix operator;
+
+  /**
+   * @param operator Aᵀ — строка i содержит входящие рёбра вершины i
+   */
+  public ImpulseSimulation(SparseMatrix operator) {
+    if (operator.rowCount() != operator.columnCount()) {
+      throw new IllegalArgumentException("Матрица весов должна быть квадратной");
+    }
+    this.operator = operator;
+  }
+
+  public ImpulseSimulation(MapSnapshot snapshot) {
+    this(snapshot.transposed());
+  }
+
+  public int vertexCount() {
+    return operator.rowCount();
+  }
+
+  /**
+   * Получатель состояний по тактам. Массив state переиспользуется между вызовами.
+   */
+  public interface StepListener {
+    void onStep(int step, double[] state);
+  }
+
+  /**
+   * @return история состояний v: строка t — состояние после такта t
+   */
+  public double[][] run(double[] impulse, int steps) {
+    double[][] history = new double[steps + 1][];
+    run(impulse, steps, (step, state) -> history[step] = state.clone());
+    return history;
+  }
+
+  /**
+   * Прогон с передачей состояния после каждого такта, включая такт 0.
+   */
+  public void run(double[] impulse, int steps, StepListener listener) {
+    int n = vertexCount();
+    if (impulse.length != n) {
+      throw new IllegalArgumentException("Длина вектора должна быть " + n + " (по числу вершин).");
+    }
+    if (steps < 0) {
+      throw new IllegalArgumentException("Количество тактов не может быть отрицательным!");
+    }
+
+    SimulationEvent event = new SimulationEvent();
+    event.start();
+    double[] p = impulse.clone();
+    double[] next = new double[n];
+    double[] v = impulse.clone();
+    listener.onStep(0, v);
+
+    for (int t = 1; t <= steps; t++) {
+      operator.multiply(p, next);
+      for (int i = 0; i < n; i++) {
+        v[i] += next[i];
+      }
+      double[] swap = p;
+      p = next;
+      next = swap;
+      listener.onStep(t, v);
+    }
+    event.finish(n, 1, steps);
+  }
+}
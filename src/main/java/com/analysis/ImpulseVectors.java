@@ -0,0 +1,61 @@
+package com.analysis;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбор векторов импульса в формате «числа через запятую».
+ */
+public final class ImpulseVectors {
+
+  private ImpulseVectors() {
+  }
+
+  /**
+   * @throws NumberFormatException если элемент не является числом
+   */
+  public static double[] parse(String line) {
+    String[] parts = line.split(",");
+    double[] vector = new double[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      vector[i] = Double.parseDouble(parts[i].trim());
+    }
+    return vector;
+  }
+
+  /**
+   * Читает по одному вектору на строку; пустые строки и строки с '#' в начале пропускаются.
+   */
+  public static double[][] read(Path file, int n) throws IOException {
+    List<double[]> vectors = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        double[] vector;
+        try {
+          vector = parse(line);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Строка " + lineNumber + ": некорректное число");
+        }
+        if (vector.length != n) {
+          throw new IllegalArgumentException(
+              "Строка " + lineNumber + ": вектор должен содержать " + n + " значений (по числу вершин)"
+          );
+        }
+        vectors.add(vector);
+      }
+    }
+    return vectors.toArray(new double[0][]);
+  }
+}
@@ -0,0 +1,354 @@
+package com.analysis;
+
+import com.metrics.SimulationEvent;
+
+/**
+ * Состояние импульсного процесса на далёком такте и его предел без пошагового прогона
+ * и без хранения истории.
+ * <p>
+ * v(t) = S_(t+1)·p(0), где S_N = I + M + … + M^(N-1), M = Aᵀ. Число слагаемых N раскладывается
+ * по двоичным разрядам: хранятся P_k = M^(2^k) (разреженное возведение в квадрат) и вектор
+ * u_k = S_(2^k)·p(0), и поскольку u_(k+1) = u_k + P_k·u_k, а S_(a + 2^k) = S_(2^k) + P_k·S_a,
+ * такт t стоит O(log t) умножений. Степени заполняются, поэтому на каждом уровне стоимость
+ * следующего возведения в квадрат сравнивается с досчётом остатка блоками по 2^k тактов,
+ * и выбирается более дешёвый путь. Памяти нужно O(n + nnz(P_k)).
+ * <p>
+ * При ρ(A) < 1 предел v(∞) = (I − M)⁻¹·p(0) находится методом BiCGSTAB; если тот не сошёлся,
+ * используется итерация x ← p(0) + M·x, сходящаяся при ρ < 1 всегда, но медленнее.
+ */
+public class LongHorizonSimulation {
+  // Предел заполнения степени: ≈ 12 байт на ненулевой элемент
+  private static final long MAX_POWER_NON_ZEROS = 20_000_000L;
+  private static final int FIXED_POINT_ITERATIONS = 1_000_000;
+
+  private final SparseMatrix operator;
+  private final ArnoldiEigenSolver solver;
+  private final double tolerance;
+
+  public LongHorizonSimulation(MapSnapshot snapshot) {
+    this(snapshot.transposed(), new ArnoldiEigenSolver(), 1e-12);
+  }
+
+  /**
+   * @param operator  Aᵀ — строка i содержит входящие рёбра вершины i
+   * @param solver    решатель для проверки ρ < 1 перед поиском предела
+   * @param tolerance допустимая относительная невязка ‖p − (I − M)·x‖ / ‖p‖ предела
+   */
+  public LongHorizonSimulation(SparseMatrix operator, ArnoldiEigenSolver solver, double tolerance) {
+    if (operator.rowCount() != operator.columnCount()) {
+      throw new IllegalArgumentException("Матрица весов должна быть квадратной");
+    }
+    this.operator = operator;
+    this.solver = solver;
+    this.tolerance = tolerance;
+  }
+
+  public int vertexCount() {
+    return operator.rowCount();
+  }
+
+  /**
+   * Состояние v(step) — то же, что последняя строка {@link ImpulseSimulation#run(double[], int)}.
+   *
+   * @throws java.util.concurrent.CancellationException если монитор запросил отмену
+   */
+  public double[] stateAt(double[] impulse, long step, ProgressMonitor monitor) {
+    int n = vertexCount();
+    checkImpulse(impulse);
+    if (step < 0 || step == Long.MAX_VALUE) {
+      throw new IllegalArgumentException("Номер такта должен быть от 0 до " + (Long.MAX_VALUE - 1));
+    }
+
+    SimulationEvent event = new SimulationEvent();
+    event.start();
+    double[] u = impulse.clone();
+    double[] r = new double[n];
+    double[] work = new double[n];
+    SparseMatrix power = operator;
+    // Осталось добавить blocks блоков по 2^level тактов
+    long blocks = step + 1;
+    int level = 0;
+    while (blocks > 0) {
+      monitor.checkCancelled();
+      long nonZeros = power.nonZeroCount();
+      if (nonZeros == 0) {
+        // P_k = 0: каждый следующий блок даёт r = u_k
+        System.arraycopy(u, 0, r, 0, n);
+        break;
+      }
+      if (blocks == 1 || !worthSquaring(blocks, nonZeros, power.productFlops(power), n)) {
+        for (long b = 0; b < blocks; b++) {
+          if ((b & 1023) == 0) {
+            monitor.checkCancelled();
+            monitor.progress(b, blocks, "Досчёт блоками по 2^" + level + " тактов");
+          }
+          power.multiply(r, work);
+          boolean changed = false;
+          for (int i = 0; i < n; i++) {
+            double value = u[i] + work[i];
+            changed |= value != r[i];
+            r[i] = value;
+          }
+          if (!changed) {
+            // Точная неподвижная точка в арифметике double: следующие блоки ничего не меняют
+            break;
+          }
+        }
+        break;
+      }
+      if ((blocks & 1) != 0) {
+        power.multiply(r, work);
+        for (int i = 0; i < n; i++) {
+          r[i] = u[i] + work[i];
+        }
+      }
+      blocks >>= 1;
+      power.multiply(u, work);
+      for (int i = 0; i < n; i++) {
+        u[i] += work[i];
+      }
+      monitor.progress(level, -1, "Возведение в квадрат: M^(2^" + (level + 1) + ")");
+      power = power.multiply(power);
+      level++;
+    }
+    event.finish(n, 1, (int) Math.min(step, Integer.MAX_VALUE));
+    return r;
+  }
+
+  /**
+   * Выгоднее ли возвести P_k в квадрат, чем досчитать остаток блоками по 2^k: сравнивается
+   * досчёт сейчас с планами «ещё j возведений, затем досчёт». Заполнение следующих степеней
+   * прогнозируется как при равномерном распределении ненулевых элементов — nnz(P²) ≈ min(flops, n²),
+   * flops(P²·P²) ≈ nnz(P²)² / n; прогноз уточняется на каждом уровне по фактической степени.
+   */
+  private static boolean worthSquaring(long blocks, long nonZeros, long flops, int n) {
+    double dense = (double) n * n;
+    double stepNow = (double) blocks * nonZeros;
+    double spent = 0.0;
+    double nnz = nonZeros;
+    double products = flops;
+    double remaining = blocks;
+    while (remaining > 1) {
+      double next = Math.min(products, dense);
+      if (next > MAX_POWER_NON_ZEROS) {
+        return false;
+      }
+      // Возведение в квадрат и два умножения на векторы u и r
+      spent += products + 2.0 * nnz;
+      nnz = next;
+      remaining = Math.ceil(remaining / 2);
+      if (spent + remaining * nnz < stepNow) {
+        return true;
+      }
+      products = nnz * nnz / n;
+    }
+    return false;
+  }
+
+  /**
+   * Предельное состояние v(∞).
+   *
+   * @throws IllegalArgumentException если ρ(A) ≥ 1 — тогда предела в общем случае нет
+   * @throws java.util.concurrent.CancellationException если монитор запросил отмену
+   */
+  public SteadyState steadyState(double[] impulse, ProgressMonitor monitor) {
+    int n = vertexCount();
+    checkImpulse(impulse);
+    EigenResult eigen = solver.solve(operator, null, monitor);
+    double radius = eigen.spectralRadius();
+    if (radius >= 1.0) {
+      throw new IllegalArgumentException(String.format(
+          "Предельного состояния нет: спектральный радиус %.4f ≥ 1, импульсы не затухают", radius));
+    }
+
+    double[] b = impulse;
+    double bNorm = norm(b);
+    if (bNorm == 0.0) {
+      return new SteadyState(new double[n], radius, 0, 0.0, true, false);
+    }
+    double[] x = b.clone();
+    int iterations = biConjugateGradientStabilized(b, x, monitor);
+    double residual = residual(b, x) / bNorm;
+    boolean fallback = false;
+    if (!(residual <= tolerance)) {
+      // Запасной путь: x ← p + M·x, погрешность убывает как ρ^k
+      fallback = true;
+      System.arraycopy(b, 0, x, 0, n);
+      double[] next = new double[n];
+      iterations = 0;
+      residual = Double.POSITIVE_INFINITY;
+      while (iterations < FIXED_POINT_ITERATIONS && !(residual <= tolerance)) {
+        if ((iterations & 255) == 0) {
+          monitor.checkCancelled();
+        }
+        operator.multiply(x, next);
+        double change = 0.0;
+        for (int i = 0; i < n; i++) {
+          double value = b[i] + next[i];
+          change += (value - x[i]) * (value - x[i]);
+          x[i] = value;
+        }
+        residual = Math.sqrt(change) / bNorm;
+        iterations++;
+      }
+    }
+    return new SteadyState(x, radius, iterations, residual, residual <= tolerance, fallback);
+  }
+
+  /**
+   * BiCGSTAB для (I − M)·x = b с начальным приближением x.
+   *
+   * @return число итераций
+   */
+  private int biConjugateGradientStabilized(double[] b, double[] x, ProgressMonitor monitor) {
+    int n = vertexCount();
+    int maxIterations = Math.max(1000, 2 * n);
+    double bNorm = norm(b);
+    double[] r = new double[n];
+    applySystem(x, r);
+    for (int i = 0; i < n; i++) {
+      r[i] = b[i] - r[i];
+    }
+    double[] shadow = r.clone();
+    double[] p = new double[n];
+    double[] v = new double[n];
+    double[] s = new double[n];
+    double[] t = new double[n];
+    double rho = 1.0;
+    double alpha = 1.0;
+    double omega = 1.0;
+    for (int iteration = 1; iteration <= maxIterations; iteration++) {
+      if ((iteration & 63) == 0) {
+        monitor.checkCancelled();
+        monitor.progress(iteration, maxIterations, "BiCGSTAB: итерация " + iteration);
+      }
+      if (norm(r) <= tolerance * bNorm) {
+        return iteration - 1;
+      }
+      double rhoNext = dot(shadow, r);
+      if (rhoNext == 0.0 || omega == 0.0) {
+        return iteration;
+      }
+      double beta = rhoNext / rho * (alpha / omega);
+      rho = rhoNext;
+      for (int i = 0; i < n; i++) {
+        p[i] = r[i] + beta * (p[i] - omega * v[i]);
+      }
+      applySystem(p, v);
+      double shadowV = dot(shadow, v);
+      if (shadowV == 0.0) {
+        return iteration;
+      }
+      alpha = rho / shadowV;
+      for (int i = 0; i < n; i++) {
+        s[i] = r[i] - alpha * v[i];
+      }
+      if (norm(s) <= tolerance * bNorm) {
+        for (int i = 0; i < n; i++) {
+          x[i] += alpha * p[i];
+        }
+        return iteration;
+      }
+      applySystem(s, t);
+      double tt = dot(t, t);
+      omega = tt == 0.0 ? 0.0 : dot(t, s) / tt;
+      for (int i = 0; i < n; i++) {
+        x[i] += alpha * p[i] + omega * s[i];
+        r[i] = s[i] - omega * t[i];
+      }
+    }
+    return maxIterations;
+  }
+
+  /**
+   * y = (I − M)·x.
+   */
+  private void applySystem(double[] x, double[] y) {
+    operator.multiply(x, y);
+    for (int i = 0; i < x.length; i++) {
+      y[i] = x[i] - y[i];
+    }
+  }
+
+  /**
+   * ‖b − (I − M)·x‖.
+   */
+  private double residual(double[] b, double[] x) {
+    double[] y = new double[x.length];
+    applySystem(x, y);
+    for (int i = 0; i < y.length; i++) {
+      y[i] = b[i] - y[i];
+    }
+    return norm(y);
+  }
+
+  private void checkImpulse(double[] impulse) {
+    if (impulse.length != vertexCount()) {
+      throw new IllegalArgumentException("Длина вектора должна быть " + vertexCount() + " (по числу вершин).");
+    }
+  }
+
+  private static double dot(double[] x, double[] y) {
+    double sum = 0.0;
+    for (int i = 0; i < x.length; i++) {
+      sum += x[i] * y[i];
+    }
+    return sum;
+  }
+
+  private static double norm(double[] x) {
+    return Math.sqrt(dot(x, x));
+  }
+
+  /**
+   * Предельное состояние и сведения о его поиске.
+   */
+  public static final class SteadyState {
+    private final double[] values;
+    private final double spectralRadius;
+    private final int iterations;
+    private final double residual;
+    private final boolean converged;
+    private final boolean fixedPoint;
+
+    SteadyState(double[] values, double spectralRadius, int iterations, double residual, boolean converged,
+                boolean fixedPoint) {
+      this.values = values;
+      this.spectralRadius = spectralRadius;
+      this.iterations = iterations;
+      this.residual = residual;
+      this.converged = converged;
+      this.fixedPoint = fixedPoint;
+    }
+
+    public double[] values() {
+      return values;
+    }
+
+    public double spectralRadius() {
+      return spectralRadius;
+    }
+
+    public int iterations() {
+      return iterations;
+    }
+
+    /**
+     * Относительная невязка ‖p − (I − M)·x‖ / ‖p‖ (для запасной итерации — норма последней поправки).
+     */
+    public double residual() {
+      return residual;
+    }
+
+    public boolean isConverged() {
+      return converged;
+    }
+
+    /**
+     * true, если BiCGSTAB не сошёлся и предел найден простой итерацией.
+     */
+    public boolean isFixedPoint() {
+      return fixedPoint;
+    }
+  }
+}
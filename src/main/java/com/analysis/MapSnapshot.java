@@ -0,0 +1,204 @@
+package com.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неизменяемый снимок когнитивной карты: подписи вершин и взвешенная матрица смежности.
+ * Строка i матрицы {@link #adjacency()} — исходящие рёбра вершины i (A[i][j] — вес ребра i → j).
+ * Кроме индекса, у вершины есть постоянный идентификатор, по которому результаты анализа
+ * сопоставляются между снимками разных версий графа.
+ */
+public final class MapSnapshot {
+  private final String[] labels;
+  private final long[] ids;
+  private final SparseMatrix adjacency;
+  private volatile SparseMatrix transposed;
+  private volatile Map<Long, Integer> indexById;
+
+  private MapSnapshot(String[] labels, long[] ids, SparseMatrix adjacency) {
+    this.labels = labels;
+    this.ids = ids;
+    this.adjacency = adjacency;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public int vertexCount() {
+    return labels.length;
+  }
+
+  public int edgeCount() {
+    return adjacency.nonZeroCount();
+  }
+
+  public String label(int vertex) {
+    return labels[vertex];
+  }
+
+  public long id(int vertex) {
+    return ids[vertex];
+  }
+
+  /**
+   * Индекс вершины с данным идентификатором или -1.
+   */
+  public int indexOfId(long id) {
+    Map<Long, Integer> map = indexById;
+    if (map == null) {
+      map = new HashMap<>();
+      for (int i = 0; i < ids.length; i++) {
+        map.put(ids[i], i);
+      }
+      indexById = map;
+    }
+    Integer index = map.get(id);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Подграф на вершинах members (в указанном порядке) со всеми рёбрами между ними.
+   */
+  public MapSnapshot subgraph(int[] members) {
+    int[] local = new int[labels.length];
+    Arrays.fill(local, -1);
+    for (int k = 0; k < members.length; k++) {
+      local[members[k]] = k;
+    }
+
+    Builder builder = new Builder();
+    for (int member : members) {
+      builder.addVertex(labels[member], ids[member]);
+    }
+    int[] rowStart = adjacency.rowStart();
+    int[] columns = adjacency.columnIndices();
+    double[] weights = adjacency.values();
+    for (int k = 0; k < members.length; k++) {
+      for (int p = rowStart[members[k]]; p < rowStart[members[k] + 1]; p++) {
+        if (local[columns[p]] >= 0) {
+          builder.addEdge(k, local[columns[p]], weights[p]);
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  public SparseMatrix adjacency() {
+    return adjacency;
+  }
+
+  /**
+   * Aᵀ: строка i — входящие рёбра вершины i. Вычисляется один раз.
+   */
+  public SparseMatrix transposed() {
+    SparseMatrix result = transposed;
+    if (result == null) {
+      result = adjacency.transpose();
+      transposed = result;
+    }
+    return result;
+  }
+
+  public static final class Builder {
+    private final List<String> labels = new ArrayList<>();
+    private long[] ids = new long[16];
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private double[] weights = new double[16];
+    private int edgeCount;
+    // Пары (from, to) добавленных рёбер плюс 1: открытая адресация, 0 — свободная ячейка
+    private long[] pairs = new long[32];
+
+    private Builder() {
+    }
+
+    /**
+     * Вершина с идентификатором, равным её индексу.
+     *
+     * @return индекс добавленной вершины
+     */
+    public int addVertex(String label) {
+      return addVertex(label, labels.size());
+    }
+
+    /**
+     * @return индекс добавленной вершины
+     */
+    public int addVertex(String label, long id) {
+      int index = labels.size();
+      if (index == ids.length) {
+        ids = Arrays.copyOf(ids, index * 2);
+      }
+      ids[index] = id;
+      labels.add(label);
+      return index;
+    }
+
+    /**
+     * @throws IllegalArgumentException если конец ребра не существует или ребро fromVertex → toVertex
+     *                                  уже добавлено: параллельные рёбра в карте не допускаются
+     */
+    public Builder addEdge(int fromVertex, int toVertex, double weight) {
+      if (fromVertex < 0 || fromVertex >= labels.size() || toVertex < 0 || toVertex >= labels.size()) {
+        throw new IllegalArgumentException("Ребро " + fromVertex + " → " + toVertex + " ссылается на несуществующую вершину");
+      }
+      if (!addPair(fromVertex, toVertex)) {
+        throw new IllegalArgumentException(
+            "Связь «" + labels.get(fromVertex) + "» → «" + labels.get(toVertex) + "» задана дважды");
+      }
+      if (edgeCount == from.length) {
+        from = Arrays.copyOf(from, edgeCount * 2);
+        to = Arrays.copyOf(to, edgeCount * 2);
+        weights = Arrays.copyOf(weights, edgeCount * 2);
+      }
+      from[edgeCount] = fromVertex;
+      to[edgeCount] = toVertex;
+      weights[edgeCount] = weight;
+      edgeCount++;
+      return this;
+    }
+
+    /**
+     * @return false, если пара уже была
+     */
+    private boolean addPair(int fromVertex, int toVertex) {
+      if (2 * (edgeCount + 1) > pairs.length) {
+        long[] old = pairs;
+        pairs = new long[old.length * 2];
+        for (long key : old) {
+          if (key != 0) {
+            insert(key);
+          }
+        }
+      }
+      return insert((((long) fromVertex << 32) | toVertex) + 1);
+    }
+
+    private boolean insert(long key) {
+      int mask = pairs.length - 1;
+      int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+      while (pairs[slot] != 0) {
+        if (pairs[slot] == key) {
+          return false;
+        }
+        slot = (slot + 1) & mask;
+      }
+      pairs[slot] = key;
+      return true;
+    }
+
+    public MapSnapshot build() {
+      int n = labels.size();
+      return new MapSnapshot(
+          labels.toArray(new String[0]),
+          Arrays.copyOf(ids, n),
+          SparseMatrix.fromTriplets(n, n, from, to, weights, edgeCount)
+      );
+    }
+  }
+}
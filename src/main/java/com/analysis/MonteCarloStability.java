@@ -0,0 +1,562 @@
+package com.analysis;
+
+import com.metrics.SimulationEvent;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Устойчивость карты при неопределённых весах методом Монте-Карло: выборки весов
+ * ({@link WeightUncertainty}) оцениваются параллельно, и по ним строится распределение
+ * спектрального радиуса, вероятность ρ ≥ 1 и распределение пиков импульсного процесса.
+ * <p>
+ * Структура разреженных матриц от выборки не зависит, поэтому строится один раз: для Aᵀ
+ * и для каждой компоненты сильной связности хранятся rowStart, columnIndices и номер ребра
+ * каждой позиции, а выборка лишь заполняет новые массивы значений. ρ выборки — максимум
+ * по циклическим компонентам (спектр карты — объединение их спектров); решатель стартует
+ * с ведущего вектора номинальных весов. Выборка s использует собственный генератор
+ * от (seed, s), поэтому результат не зависит от числа потоков и порядка их работы.
+ */
+public class MonteCarloStability {
+  /** Число выборок в одной задаче пула. */
+  private static final int CHUNK = 8;
+  // Точность ρ отдельной выборки: разброс ρ по выборкам на порядки больше
+  private static final double SAMPLE_TOLERANCE = 1e-8;
+
+  private final int vertexCount;
+  private final double[] nominal;
+  private final WeightUncertainty uncertainty;
+  private final ArnoldiEigenSolver solver;
+  private final ForkJoinPool pool;
+  private final int[] operatorStart;
+  private final int[] operatorColumns;
+  private final int[] operatorEdges;
+  private final Component[] components;
+
+  public MonteCarloStability(MapSnapshot snapshot, WeightUncertainty uncertainty) {
+    this(snapshot, uncertainty, new ArnoldiEigenSolver(4, 40, SAMPLE_TOLERANCE, 300, 42L), ForkJoinPool.commonPool());
+  }
+
+  public MonteCarloStability(MapSnapshot snapshot, WeightUncertainty uncertainty, ArnoldiEigenSolver solver,
+                             ForkJoinPool pool) {
+    SparseMatrix adjacency = snapshot.adjacency();
+    int edges = adjacency.nonZeroCount();
+    if (uncertainty.isExplicit() && uncertainty.edgeCount() != edges) {
+      throw new IllegalArgumentException(
+          "Интервалы заданы для " + uncertainty.edgeCount() + " рёбер, а в карте их " + edges);
+    }
+    this.vertexCount = snapshot.vertexCount();
+    this.nominal = Arrays.copyOf(adjacency.values(), edges);
+    this.uncertainty = uncertainty;
+    this.solver = solver;
+    this.pool = pool;
+
+    // Транспонирование матрицы номеров рёбер даёт структуру Aᵀ и номер ребра каждой её позиции
+    double[] positions = new double[edges];
+    for (int e = 0; e < edges; e++) {
+      positions[e] = e;
+    }
+    SparseMatrix numbered = new SparseMatrix(
+        vertexCount, vertexCount, adjacency.rowStart(), adjacency.columnIndices(), positions
+    ).transpose();
+    this.operatorStart = numbered.rowStart();
+    this.operatorColumns = numbered.columnIndices();
+    this.operatorEdges = new int[edges];
+    for (int q = 0; q < edges; q++) {
+      operatorEdges[q] = (int) numbered.values()[q];
+    }
+    this.components = cyclicComponents(StronglyConnectedComponents.of(adjacency));
+  }
+
+  public int vertexCount() {
+    return vertexCount;
+  }
+
+  /**
+   * @param samples         число выборок весов
+   * @param seed            зерно генератора: одинаковые параметры дают одинаковый результат
+   * @param impulse         импульс для распределения пиков или null, если пики не нужны
+   * @param steps           число тактов импульсного процесса
+   * @param timeLimitMillis бюджет времени (Long.MAX_VALUE — без ограничения); выборки,
+   *                        не начатые до его исчерпания, пропускаются
+   * @throws java.util.concurrent.CancellationException если монитор запросил отмену
+   */
+  public Result run(int samples, long seed, double[] impulse, int steps, long timeLimitMillis,
+                    ProgressMonitor monitor) {
+    if (samples <= 0) {
+      throw new IllegalArgumentException("Число выборок должно быть положительным");
+    }
+    if (timeLimitMillis <= 0) {
+      throw new IllegalArgumentException("Лимит времени должен быть положительным");
+    }
+    if (impulse != null && impulse.length != vertexCount) {
+      throw new IllegalArgumentException("Длина вектора должна быть " + vertexCount + " (по числу вершин).");
+    }
+    if (steps < 0) {
+      throw new IllegalArgumentException("Количество тактов не может быть отрицательным!");
+    }
+
+    long started = System.nanoTime();
+    long deadline = timeLimitMillis == Long.MAX_VALUE
+        ? Long.MAX_VALUE
+        : started + Math.min(timeLimitMillis, Long.MAX_VALUE / 2_000_000L) * 1_000_000L;
+
+    // Номинальные веса: точка отсчёта и тёплый старт решателя для всех выборок
+    double[][] starts = new double[components.length][];
+    double nominalRadius = 0.0;
+    for (int c = 0; c < components.length; c++) {
+      monitor.checkCancelled();
+      double[] values = new double[components[c].edges.length];
+      components[c].fill(nominal, values);
+      EigenResult eigen = solver.solve(components[c].matrix(values));
+      starts[c] = eigen.restartVector();
+      nominalRadius = Math.max(nominalRadius, eigen.spectralRadius());
+    }
+
+    SimulationEvent event = impulse == null ? null : new SimulationEvent();
+    if (event != null) {
+      event.start();
+    }
+    double[] radii = new double[samples];
+    double[] peaks = impulse == null ? null : new double[samples];
+    boolean[] done = new boolean[samples];
+    boolean[] converged = new boolean[samples];
+    pool.invoke(new SampleTask(
+        new Settings(seed, impulse, steps, deadline, starts, monitor, new AtomicInteger(), samples),
+        radii, peaks, done, converged, 0, samples
+    ));
+
+    int completed = 0;
+    int notConverged = 0;
+    for (int s = 0; s < samples; s++) {
+      if (done[s]) {
+        radii[completed] = radii[s];
+        if (peaks != null) {
+          peaks[completed] = peaks[s];
+        }
+        if (!converged[s]) {
+          notConverged++;
+        }
+        completed++;
+      }
+    }
+    if (event != null) {
+      event.finish(vertexCount, completed, steps);
+    }
+    return new Result(
+        samples, nominalRadius,
+        Arrays.copyOf(radii, completed),
+        peaks == null ? null : Arrays.copyOf(peaks, completed),
+        notConverged, (System.nanoTime() - started) / 1_000_000L
+    );
+  }
+
+  /**
+   * Компоненты с хотя бы одним внутренним ребром: у остальных спектр нулевой.
+   */
+  private Component[] cyclicComponents(StronglyConnectedComponents scc) {
+    Component[] result = new Component[scc.count()];
+    int count = 0;
+    int[] local = new int[vertexCount];
+    int[] columns = new int[operatorEdges.length];
+    int[] edges = new int[operatorEdges.length];
+    for (int c = 0; c < scc.count(); c++) {
+      int[] members = scc.members(c);
+      for (int k = 0; k < members.length; k++) {
+        local[members[k]] = k;
+      }
+      int[] rowStart = new int[members.length + 1];
+      int size = 0;
+      for (int k = 0; k < members.length; k++) {
+        for (int q = operatorStart[members[k]]; q < operatorStart[members[k] + 1]; q++) {
+          if (scc.componentOf(operatorColumns[q]) == c) {
+            columns[size] = local[operatorColumns[q]];
+            edges[size] = operatorEdges[q];
+            size++;
+          }
+        }
+        rowStart[k + 1] = size;
+      }
+      if (size > 0) {
+        result[count++] = new Component(rowStart, Arrays.copyOf(columns, size), Arrays.copyOf(edges, size));
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Генератор выборки: состояние SplittableRandom от перемешанной пары (seed, s),
+   * чтобы потоки соседних выборок не были сдвигами друг друга.
+   */
+  private static SplittableRandom sampleRandom(long seed, int sample) {
+    long z = seed ^ (sample * 0x9E3779B97F4A7C15L);
+    z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+    z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return new SplittableRandom(z ^ (z >>> 33));
+  }
+
+  /**
+   * Структура Aᵀ компоненты в локальной нумерации вершин и номера рёбер её позиций.
+   */
+  private static final class Component {
+    final int[] rowStart;
+    final int[] columns;
+    final int[] edges;
+
+    Component(int[] rowStart, int[] columns, int[] edges) {
+      this.rowStart = rowStart;
+      this.columns = columns;
+      this.edges = edges;
+    }
+
+    /**
+     * Матрица компоненты над массивом values, который не копируется.
+     */
+    SparseMatrix matrix(double[] values) {
+      return new SparseMatrix(rowStart.length - 1, rowStart.length - 1, rowStart, columns, values);
+    }
+
+    /**
+     * Переписывает values весами weights (по номерам рёбер).
+     */
+    void fill(double[] weights, double[] values) {
+      for (int q = 0; q < edges.length; q++) {
+        values[q] = weights[edges[q]];
+      }
+    }
+  }
+
+  /**
+   * Общие для всех задач параметры прогона.
+   */
+  private static final class Settings {
+    final long seed;
+    final double[] impulse;
+    final int steps;
+    final long deadline;
+    final double[][] starts;
+    final ProgressMonitor monitor;
+    final AtomicInteger finished;
+    final int samples;
+
+    Settings(long seed, double[] impulse, int steps, long deadline, double[][] starts, ProgressMonitor monitor,
+             AtomicInteger finished, int samples) {
+      this.seed = seed;
+      this.impulse = impulse;
+      this.steps = steps;
+      this.deadline = deadline;
+      this.starts = starts;
+      this.monitor = monitor;
+      this.finished = finished;
+      this.samples = samples;
+    }
+
+    boolean isPastDeadline() {
+      return deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0;
+    }
+  }
+
+  private final class SampleTask extends RecursiveAction {
+    private final Settings settings;
+    private final double[] radii;
+    private final double[] peaks;
+    private final boolean[] done;
+    private final boolean[] converged;
+    private final int from;
+    private final int to;
+
+    SampleTask(Settings settings, double[] radii, double[] peaks, boolean[] done, boolean[] converged,
+               int from, int to) {
+      this.settings = settings;
+      this.radii = radii;
+      this.peaks = peaks;
+      this.done = done;
+      this.converged = converged;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (settings.isPastDeadline()) {
+        return;
+      }
+      if (to - from > CHUNK) {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new SampleTask(settings, radii, peaks, done, converged, from, middle),
+            new SampleTask(settings, radii, peaks, done, converged, middle, to)
+        );
+      } else {
+        evaluateChunk();
+      }
+    }
+
+    /**
+     * Матрицы и массивы весов, значений и состояния выделяются один раз на задачу; выборка лишь
+     * переписывает значения матриц на месте (вместе с плотной копией, если она уже построена).
+     */
+    private void evaluateChunk() {
+      ProgressMonitor monitor = settings.monitor;
+      double[] weights = new double[nominal.length];
+      double[][] values = new double[components.length][];
+      SparseMatrix[] matrices = new SparseMatrix[components.length];
+      for (int c = 0; c < components.length; c++) {
+        values[c] = new double[components[c].edges.length];
+        matrices[c] = components[c].matrix(values[c]);
+      }
+      double[] operatorValues = peaks == null ? null : new double[operatorEdges.length];
+      SparseMatrix operator = peaks == null ? null
+          : new SparseMatrix(vertexCount, vertexCount, operatorStart, operatorColumns, operatorValues);
+      double[] p = new double[vertexCount];
+      double[] next = new double[vertexCount];
+      double[] v = new double[vertexCount];
+
+      for (int s = from; s < to; s++) {
+        monitor.checkCancelled();
+        if (settings.isPastDeadline()) {
+          return;
+        }
+        SplittableRandom random = sampleRandom(settings.seed, s);
+        for (int e = 0; e < weights.length; e++) {
+          double low = uncertainty.lower(e, nominal[e]);
+          double high = uncertainty.upper(e, nominal[e]);
+          weights[e] = low + (high - low) * random.nextDouble();
+        }
+
+        double radius = 0.0;
+        boolean allConverged = true;
+        for (int c = 0; c < components.length; c++) {
+          components[c].fill(weights, values[c]);
+          matrices[c].refreshValues();
+          EigenResult eigen = solver.solve(matrices[c], settings.starts[c]);
+          radius = Math.max(radius, eigen.spectralRadius());
+          allConverged &= eigen.isConverged();
+        }
+        radii[s] = radius;
+        converged[s] = allConverged;
+
+        if (peaks != null) {
+          for (int q = 0; q < operatorValues.length; q++) {
+            operatorValues[q] = weights[operatorEdges[q]];
+          }
+          operator.refreshValues();
+          peaks[s] = peak(operator, settings.impulse, settings.steps, p, next, v);
+        }
+        done[s] = true;
+        int finished = settings.finished.incrementAndGet();
+        monitor.progress(finished, settings.samples, "Выборок: " + finished + " из " + settings.samples);
+      }
+    }
+
+    /**
+     * max |v_i(t)| по вершинам и тактам 0..steps.
+     */
+    private double peak(SparseMatrix operator, double[] impulse, int steps, double[] p, double[] next,
+                        double[] v) {
+      int n = vertexCount;
+      double peak = 0.0;
+      for (int i = 0; i < n; i++) {
+        p[i] = impulse[i];
+        v[i] = impulse[i];
+        peak = Math.max(peak, Math.abs(impulse[i]));
+      }
+      for (int t = 1; t <= steps; t++) {
+        operator.multiply(p, next);
+        for (int i = 0; i < n; i++) {
+          v[i] += next[i];
+          peak = Math.max(peak, Math.abs(v[i]));
+        }
+        System.arraycopy(next, 0, p, 0, n);
+      }
+      return peak;
+    }
+  }
+
+  /**
+   * Распределение ρ и пиков по выполненным выборкам.
+   */
+  public static final class Result {
+    // Квантиль нормального распределения для 95% доверительного интервала
+    private static final double Z95 = 1.959964;
+
+    private final int requested;
+    private final double nominalRadius;
+    private final double[] radii;
+    private final double[] peaks;
+    private final int unstable;
+    private final int notConverged;
+    private final long elapsedMillis;
+
+    Result(int requested, double nominalRadius, double[] radii, double[] peaks, int notConverged,
+           long elapsedMillis) {
+      this.requested = requested;
+      this.nominalRadius = nominalRadius;
+      this.radii = radii;
+      this.peaks = peaks;
+      this.notConverged = notConverged;
+      this.elapsedMillis = elapsedMillis;
+      int count = 0;
+      for (double radius : radii) {
+        if (radius >= 1.0) {
+          count++;
+        }
+      }
+      this.unstable = count;
+      Arrays.sort(radii);
+      if (peaks != null) {
+        Arrays.sort(peaks);
+      }
+    }
+
+    public int requested() {
+      return requested;
+    }
+
+    public int completed() {
+      return radii.length;
+    }
+
+    /**
+     * true, если бюджет времени исчерпан раньше, чем выполнены все выборки.
+     */
+    public boolean isTimedOut() {
+      return radii.length < requested;
+    }
+
+    public long elapsedMillis() {
+      return elapsedMillis;
+    }
+
+    public double nominalRadius() {
+      return nominalRadius;
+    }
+
+    public int unstableCount() {
+      return unstable;
+    }
+
+    /**
+     * Число выборок, в которых решатель не достиг заданной точности.
+     */
+    public int notConvergedCount() {
+      return notConverged;
+    }
+
+    /**
+     * Оценка вероятности неустойчивости P(ρ ≥ 1).
+     */
+    public double instabilityProbability() {
+      return radii.length == 0 ? Double.NaN : (double) unstable / radii.length;
+    }
+
+    /**
+     * Нижняя граница 95% доверительного интервала Уилсона для P(ρ ≥ 1).
+     */
+    public double instabilityLowerBound() {
+      return wilson(-1.0);
+    }
+
+    public double instabilityUpperBound() {
+      return wilson(1.0);
+    }
+
+    public double radiusMean() {
+      return mean(radii);
+    }
+
+    public double radiusDeviation() {
+      return deviation(radii);
+    }
+
+    /**
+     * Выборочный квантиль ρ, q ∈ [0, 1].
+     */
+    public double radiusQuantile(double q) {
+      return quantile(radii, q);
+    }
+
+    /**
+     * Число выборок ρ в каждом из bins равных интервалов между минимумом и максимумом.
+     */
+    public int[] radiusHistogram(int bins) {
+      int[] counts = new int[bins];
+      if (radii.length == 0) {
+        return counts;
+      }
+      double low = radii[0];
+      double width = (radii[radii.length - 1] - low) / bins;
+      for (double radius : radii) {
+        int bin = width > 0.0 ? (int) ((radius - low) / width) : 0;
+        counts[Math.min(bin, bins - 1)]++;
+      }
+      return counts;
+    }
+
+    public boolean hasPeaks() {
+      return peaks != null;
+    }
+
+    public double peakMean() {
+      return mean(peaks);
+    }
+
+    /**
+     * Выборочный квантиль пика max |v_i(t)|, q ∈ [0, 1].
+     */
+    public double peakQuantile(double q) {
+      return quantile(peaks, q);
+    }
+
+    private double wilson(double sign) {
+      int n = radii.length;
+      if (n == 0) {
+        return Double.NaN;
+      }
+      double p = (double) unstable / n;
+      double z2 = Z95 * Z95;
+      double centre = (p + z2 / (2.0 * n)) / (1.0 + z2 / n);
+      double half = Z95 * Math.sqrt(p * (1.0 - p) / n + z2 / (4.0 * n * n)) / (1.0 + z2 / n);
+      return Math.min(1.0, Math.max(0.0, centre + sign * half));
+    }
+
+    private static double mean(double[] sorted) {
+      if (sorted == null || sorted.length == 0) {
+        return Double.NaN;
+      }
+      double sum = 0.0;
+      for (double value : sorted) {
+        sum += value;
+      }
+      return sum / sorted.length;
+    }
+
+    private static double deviation(double[] sorted) {
+      if (sorted == null || sorted.length < 2) {
+        return Double.NaN;
+      }
+      double mean = mean(sorted);
+      double sum = 0.0;
+      for (double value : sorted) {
+        sum += (value - mean) * (value - mean);
+      }
+      return Math.sqrt(sum / (sorted.length - 1));
+    }
+
+    /**
+     * Квантиль с линейной интерполяцией между порядковыми статистиками.
+     */
+    private static double quantile(double[] sorted, double q) {
+      if (sorted == null || sorted.length == 0) {
+        return Double.NaN;
+      }
+      double position = Math.max(0.0, Math.min(1.0, q)) * (sorted.length - 1);
+      int lower = (int) position;
+      int upper = Math.min(lower + 1, sorted.length - 1);
+      return sorted[lower] + (position - lower) * (sorted[upper] - sorted[lower]);
+    }
+  }
+}
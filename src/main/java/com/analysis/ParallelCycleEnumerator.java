@@ -0,0 +1,203 @@
+package com.analysis;
+
+import com.metrics.CycleEnumerationEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Параллельное перечисление циклов по компонентам сильной связности.
+ * <p>
+ * Каждая компонента обходится отдельной задачей fork-join. В крупной компоненте диапазон
+ * стартовых вершин алгоритма Джонсона делится пополам, пока не станет меньше порога:
+ * циклы с разными минимальными вершинами не пересекаются, а простаивающие потоки забирают
+ * половины диапазонов через work stealing. Все задачи расходуют общий {@link CycleBudget};
+ * когда он исчерпан, обход останавливается, а хранилища недообойдённых компонент
+ * помечаются как неполные. Отмена через {@link ProgressMonitor} прерывает обход целиком.
+ */
+public class ParallelCycleEnumerator {
+  // Компоненты меньше этого размера не делятся на диапазоны
+  private static final int SPLIT_THRESHOLD = 32;
+  // Как часто (в циклах) сверяться с часами, проверять отмену и сообщать о ходе обхода
+  private static final int CLOCK_CHECK_MASK = 255;
+
+  private final ForkJoinPool pool;
+
+  public ParallelCycleEnumerator() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  public ParallelCycleEnumerator(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  public CycleStore enumerate(SparseMatrix component, CycleBudget budget) {
+    return enumerate(Collections.singletonList(component), budget, ProgressMonitor.NONE).get(0);
+  }
+
+  /**
+   * Перечисляет циклы нескольких независимых графов (обычно — компонент сильной связности)
+   * с общим бюджетом. Произведение весов цикла берётся из значений матриц.
+   *
+   * @return хранилища циклов в порядке графов
+   * @throws CancellationException если монитор запросил отмену
+   */
+  public List<CycleStore> enumerate(List<SparseMatrix> components, CycleBudget budget, ProgressMonitor monitor) {
+    CycleEnumerationEvent event = new CycleEnumerationEvent();
+    event.start();
+    Tracker tracker = new Tracker(budget, monitor);
+    List<RangeTask> tasks = new ArrayList<>(components.size());
+    for (SparseMatrix component : components) {
+      int n = component.rowCount();
+      int grain = n < SPLIT_THRESHOLD ? Math.max(n, 1) : Math.max(1, n / (pool.getParallelism() * 16));
+      tasks.add(new RangeTask(new CycleEnumerator(component), component.values(), 0, n, grain, tracker));
+    }
+    pool.invoke(new RecursiveTask<Void>() {
+      @Override
+      protected Void compute() {
+        invokeAll(tasks);
+        return null;
+      }
+    });
+
+    if (tracker.cancelled) {
+      throw new CancellationException("Перечисление циклов отменено");
+    }
+    monitor.progress(tracker.cycles.get(), -1, "Найдено циклов: " + tracker.cycles.get());
+
+    List<CycleStore> stores = new ArrayList<>(tasks.size());
+    long emitted = 0;
+    boolean complete = true;
+    for (RangeTask task : tasks) {
+      CycleStore store = task.join();
+      stores.add(store);
+      emitted += store.count();
+      complete &= store.isComplete();
+    }
+    event.finish(components.size(), tracker.explored.sum(), emitted, tracker.visitedNodes.sum(), complete);
+    return stores;
+  }
+
+  /**
+   * Общий для всех задач расход бюджета.
+   */
+  private static final class Tracker {
+    private final long maxCycles;
+    private final long deadline;
+    private final boolean timed;
+    private final ProgressMonitor monitor;
+    private final AtomicLong cycles = new AtomicLong();
+    // Для метрик: циклы, найденные обходом, и вершины, посещённые поиском в глубину
+    private final LongAdder explored = new LongAdder();
+    private final LongAdder visitedNodes = new LongAdder();
+    private volatile boolean exhausted;
+    private volatile boolean cancelled;
+
+    Tracker(CycleBudget budget, ProgressMonitor monitor) {
+      this.monitor = monitor;
+      this.maxCycles = budget.maxCycles();
+      this.timed = budget.limitsTime();
+      this.deadline = timed ? System.nanoTime() + budget.timeLimitMillis() * 1_000_000L : 0L;
+    }
+
+    /**
+     * Резервирует место под очередной цикл.
+     *
+     * @return false, если бюджет исчерпан
+     */
+    boolean tryAcquire() {
+      if (exhausted) {
+        return false;
+      }
+      long taken = cycles.incrementAndGet();
+      if (taken > maxCycles) {
+        exhausted = true;
+        return false;
+      }
+      if ((taken & CLOCK_CHECK_MASK) == 0) {
+        monitor.progress(taken, -1, "Найдено циклов: " + taken);
+        return !isExhausted();
+      }
+      return true;
+    }
+
+    boolean isExhausted() {
+      if (!exhausted && monitor.isCancelled()) {
+        cancelled = true;
+        exhausted = true;
+      }
+      if (!exhausted && isOverdue()) {
+        exhausted = true;
+      }
+      return exhausted;
+    }
+
+    private boolean isOverdue() {
+      return timed && System.nanoTime() - deadline > 0;
+    }
+  }
+
+  /**
+   * Циклы с минимальной вершиной из диапазона [from, to).
+   */
+  private static final class RangeTask extends RecursiveTask<CycleStore> {
+    private final CycleEnumerator enumerator;
+    private final double[] weights;
+    private final int from;
+    private final int to;
+    private final int grain;
+    private final Tracker tracker;
+
+    RangeTask(CycleEnumerator enumerator, double[] weights, int from, int to, int grain, Tracker tracker) {
+      this.enumerator = enumerator;
+      this.weights = weights;
+      this.from = from;
+      this.to = to;
+      this.grain = grain;
+      this.tracker = tracker;
+    }
+
+    @Override
+    protected CycleStore compute() {
+      if (to - from > grain) {
+        int middle = (from + to) >>> 1;
+        RangeTask left = new RangeTask(enumerator, weights, from, middle, grain, tracker);
+        RangeTask right = new RangeTask(enumerator, weights, middle, to, grain, tracker);
+        right.fork();
+        CycleStore store = left.compute();
+        store.addAll(right.join());
+        return store;
+      }
+
+      CycleStore store = new CycleStore();
+      if (tracker.isExhausted()) {
+        store.markIncomplete();
+        return store;
+      }
+      boolean[] refused = new boolean[1];
+      long found = enumerator.enumerate(from, to, (cycle, edges, length) -> {
+        if (!tracker.tryAcquire()) {
+          refused[0] = true;
+          return false;
+        }
+        double product = 1.0;
+        for (int i = 0; i < length; i++) {
+          product *= weights[edges[i]];
+        }
+        store.add(cycle, length, product);
+        return true;
+      }, tracker.visitedNodes);
+      tracker.explored.add(found);
+      if (refused[0]) {
+        store.markIncomplete();
+      }
+      return store;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.analysis;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Наблюдатель за длительным расчётом: получает сведения о ходе работы и может его прервать.
+ * Методы вызываются из рабочих потоков, возможно из нескольких одновременно.
+ */
+public interface ProgressMonitor {
+  ProgressMonitor NONE = new ProgressMonitor() {
+  };
+
+  /**
+   * Запрошена ли отмена; расчёт, заметив её, завершается {@link CancellationException}.
+   */
+  default boolean isCancelled() {
+    return false;
+  }
+
+  /**
+   * @param done    выполнено единиц работы
+   * @param total   всего единиц или -1, если объём заранее неизвестен
+   * @param message описание текущего этапа
+   */
+  default void progress(long done, long total, String message) {
+  }
+
+  default void checkCancelled() {
+    if (isCancelled()) {
+      throw new CancellationException("Расчёт отменён");
+    }
+  }
+}
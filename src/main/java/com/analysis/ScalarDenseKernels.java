@@ -0,0 +1,73 @@
+package com.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Скалярные плотные ядра: те же разбиения на блоки, что у {@link VectorDenseKernels},
+ * без явной векторизации.
+ */
+final class ScalarDenseKernels extends DenseKernels {
+  @Override
+  void multiply(double[] a, int rows, int columns, double[] x, double[] y) {
+    int i = 0;
+    for (; i + ROW_BLOCK <= rows; i += ROW_BLOCK) {
+      int r0 = i * columns;
+      int r1 = r0 + columns;
+      int r2 = r1 + columns;
+      int r3 = r2 + columns;
+      double s0 = 0.0;
+      double s1 = 0.0;
+      double s2 = 0.0;
+      double s3 = 0.0;
+      for (int j = 0; j < columns; j++) {
+        double xj = x[j];
+        s0 += a[r0 + j] * xj;
+        s1 += a[r1 + j] * xj;
+        s2 += a[r2 + j] * xj;
+        s3 += a[r3 + j] * xj;
+      }
+      y[i] = s0;
+      y[i + 1] = s1;
+      y[i + 2] = s2;
+      y[i + 3] = s3;
+    }
+    for (; i < rows; i++) {
+      int row = i * columns;
+      double sum = 0.0;
+      for (int j = 0; j < columns; j++) {
+        sum += a[row + j] * x[j];
+      }
+      y[i] = sum;
+    }
+  }
+
+  @Override
+  void multiply(double[] a, double[] b, double[] c, int rows, int inner, int columns) {
+    Arrays.fill(c, 0, rows * columns, 0.0);
+    for (int kk = 0; kk < inner; kk += INNER_BLOCK) {
+      int kEnd = Math.min(kk + INNER_BLOCK, inner);
+      for (int jj = 0; jj < columns; jj += COLUMN_BLOCK) {
+        int jEnd = Math.min(jj + COLUMN_BLOCK, columns);
+        for (int i = 0; i < rows; i++) {
+          int cRow = i * columns;
+          int aRow = i * inner;
+          for (int k = kk; k < kEnd; k++) {
+            double aik = a[aRow + k];
+            if (aik == 0.0) {
+              continue;
+            }
+            int bRow = k * columns;
+            for (int j = jj; j < jEnd; j++) {
+              c[cRow + j] += aik * b[bRow + j];
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  String name() {
+    return "скалярные";
+  }
+}
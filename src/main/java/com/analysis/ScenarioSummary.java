@@ -0,0 +1,46 @@
+package com.analysis;
+
+/**
+ * Итог одного сценария пакетного моделирования по каждой вершине.
+ * Пик — значение с наибольшим модулем (со знаком), такт пика — первый такт, на котором он достигнут.
+ */
+public final class ScenarioSummary {
+  private final double[] peak;
+  private final int[] peakStep;
+  private final double[] finalValue;
+
+  ScenarioSummary(double[] peak, int[] peakStep, double[] finalValue) {
+    this.peak = peak;
+    this.peakStep = peakStep;
+    this.finalValue = finalValue;
+  }
+
+  public int vertexCount() {
+    return peak.length;
+  }
+
+  public double peak(int vertex) {
+    return peak[vertex];
+  }
+
+  public int peakStep(int vertex) {
+    return peakStep[vertex];
+  }
+
+  public double finalValue(int vertex) {
+    return finalValue[vertex];
+  }
+
+  /**
+   * Вершина с наибольшим по модулю пиком.
+   */
+  public int strongestVertex() {
+    int best = 0;
+    for (int i = 1; i < peak.length; i++) {
+      if (Math.abs(peak[i]) > Math.abs(peak[best])) {
+        best = i;
+      }
+    }
+    return best;
+  }
+}
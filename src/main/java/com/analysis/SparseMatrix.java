@@ -0,0 +1,283 @@
+package com.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Неизменяемая разреженная матрица в формате CSR (compressed sparse row).
+ * Ненулевые элементы строки i занимают позиции [rowStart[i], rowStart[i + 1])
+ * массивов columnIndices и values.
+ * <p>
+ * Почти полные матрицы (заполнение не меньше {@link #DENSE_DENSITY}) умножаются через плотную
+ * копию {@link DenseMatrix}: она строится при первом умножении и хранится вместе с CSR-формой.
+ * При таком заполнении копия не больше CSR-формы (8 байт на элемент против 12 на ненулевой),
+ * так что память матрицы вырастает не более чем вдвое. Выбор пути от вызывающего скрыт —
+ * решатели и моделирование работают с одной и той же матрицей.
+ */
+public final class SparseMatrix {
+  /**
+   * Доля ненулевых элементов, начиная с которой умножение идёт по плотному пути: 8·N² байт
+   * плотной копии не превышают 12 байт на ненулевой элемент CSR.
+   */
+  public static final double DENSE_DENSITY = 2.0 / 3.0;
+  // Меньшие матрицы целиком лежат в кэше, и плотная копия не окупается
+  private static final long MIN_DENSE_SIZE = 64L * 64L;
+
+  private final int rows;
+  private final int columns;
+  private final int[] rowStart;
+  private final int[] columnIndices;
+  private final double[] values;
+  private final boolean preferDense;
+  private DenseMatrix dense;
+
+  /**
+   * Массивы не копируются: вызывающий не должен изменять их после создания матрицы
+   * (исключение — значения, переписанные владельцем с вызовом {@link #refreshValues()}).
+   */
+  public SparseMatrix(int rows, int columns, int[] rowStart, int[] columnIndices, double[] values) {
+    if (rowStart.length != rows + 1 || columnIndices.length < rowStart[rows] || values.length < rowStart[rows]) {
+      throw new IllegalArgumentException("Некорректная структура CSR");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.rowStart = rowStart;
+    this.columnIndices = columnIndices;
+    this.values = values;
+    long size = (long) rows * columns;
+    this.preferDense = size >= MIN_DENSE_SIZE && size <= Integer.MAX_VALUE - 8
+        && rowStart[rows] >= DENSE_DENSITY * size;
+  }
+
+  /**
+   * Собирает матрицу из троек (row[k], column[k], value[k]), k < count.
+   * Порядок элементов внутри строки сохраняется.
+   */
+  public static SparseMatrix fromTriplets(int rows, int columns, int[] row, int[] column, double[] value, int count) {
+    int[] start = new int[rows + 1];
+    for (int k = 0; k < count; k++) {
+      start[row[k] + 1]++;
+    }
+    for (int i = 0; i < rows; i++) {
+      start[i + 1] += start[i];
+    }
+    int[] fill = new int[rows];
+    System.arraycopy(start, 0, fill, 0, rows);
+    int[] indices = new int[count];
+    double[] values = new double[count];
+    for (int k = 0; k < count; k++) {
+      int p = fill[row[k]]++;
+      indices[p] = column[k];
+      values[p] = value[k];
+    }
+    return new SparseMatrix(rows, columns, start, indices, values);
+  }
+
+  public int rowCount() {
+    return rows;
+  }
+
+  public int columnCount() {
+    return columns;
+  }
+
+  public int nonZeroCount() {
+    return rowStart[rows];
+  }
+
+  /**
+   * Внутренний массив без копирования.
+   */
+  public int[] rowStart() {
+    return rowStart;
+  }
+
+  /**
+   * Внутренний массив без копирования.
+   */
+  public int[] columnIndices() {
+    return columnIndices;
+  }
+
+  /**
+   * Внутренний массив без копирования.
+   */
+  public double[] values() {
+    return values;
+  }
+
+  /**
+   * y = A·x. Не выделяет память; x и y не должны совпадать.
+   */
+  public void multiply(double[] x, double[] y) {
+    if (preferDense) {
+      dense().multiply(x, y);
+      return;
+    }
+    for (int i = 0; i < rows; i++) {
+      double sum = 0.0;
+      for (int p = rowStart[i], end = rowStart[i + 1]; p < end; p++) {
+        sum += values[p] * x[columnIndices[p]];
+      }
+      y[i] = sum;
+    }
+  }
+
+  /**
+   * Y = A·X для блока из width векторов, хранящегося по строкам: элемент вектора s в строке k —
+   * x[k·width + s]. Строка блока занимает несколько кэш-линий, поэтому каждый элемент матрицы
+   * читается один раз на весь блок. Не выделяет память; x и y не должны совпадать.
+   */
+  public void multiply(double[] x, double[] y, int width) {
+    if (preferDense) {
+      dense().multiply(x, y, width);
+      return;
+    }
+    for (int i = 0; i < rows; i++) {
+      int row = i * width;
+      for (int s = 0; s < width; s++) {
+        y[row + s] = 0.0;
+      }
+      for (int p = rowStart[i], end = rowStart[i + 1]; p < end; p++) {
+        double w = values[p];
+        int source = columnIndices[p] * width;
+        for (int s = 0; s < width; s++) {
+          y[row + s] += w * x[source + s];
+        }
+      }
+    }
+  }
+
+  /**
+   * true, если умножения идут через плотную копию.
+   */
+  public boolean isDense() {
+    return preferDense;
+  }
+
+  /**
+   * Плотная копия; строится один раз. Гонка потоков при первом вызове безопасна:
+   * копии одинаковы, а поля {@link DenseMatrix} неизменяемы.
+   */
+  private DenseMatrix dense() {
+    DenseMatrix result = dense;
+    if (result == null) {
+      result = DenseMatrix.of(this);
+      dense = result;
+    }
+    return result;
+  }
+
+  /**
+   * Сообщает, что владелец переписал {@link #values()} на месте при той же структуре CSR:
+   * построенная плотная копия перезаполняется в своём массиве, без новой N² памяти. Только
+   * для матриц одного потока — так {@link MonteCarloStability} держит одну матрицу на задачу
+   * и меняет в ней веса от выборки к выборке.
+   */
+  void refreshValues() {
+    DenseMatrix copy = dense;
+    if (copy != null) {
+      copy.refill(this);
+    }
+  }
+
+  /**
+   * Число умножений при вычислении this·other — оценка стоимости {@link #multiply(SparseMatrix)}
+   * и сверху — числа ненулевых элементов произведения.
+   */
+  public long productFlops(SparseMatrix other) {
+    checkProduct(other);
+    long flops = 0;
+    for (int p = 0, nnz = nonZeroCount(); p < nnz; p++) {
+      int k = columnIndices[p];
+      flops += other.rowStart[k + 1] - other.rowStart[k];
+    }
+    return flops;
+  }
+
+  /**
+   * Произведение this·other (алгоритм Густавсона: строка результата накапливается в плотном
+   * буфере длины other.columnCount()). Точные нули — в том числе из-за исчезновения порядка —
+   * в результат не попадают. Если обе матрицы почти полные, произведение считается плотным
+   * блочным умножением, и его плотная копия сохраняется в результате.
+   */
+  public SparseMatrix multiply(SparseMatrix other) {
+    checkProduct(other);
+    if (preferDense && other.preferDense) {
+      DenseMatrix product = dense().multiply(other.dense());
+      SparseMatrix result = product.toSparse();
+      if (result.preferDense) {
+        result.dense = product;
+      }
+      return result;
+    }
+    int width = other.columns;
+    double[] accumulator = new double[width];
+    int[] marker = new int[width];
+    Arrays.fill(marker, -1);
+    int[] touched = new int[width];
+    int[] start = new int[rows + 1];
+    int[] indices = new int[Math.max(16, nonZeroCount())];
+    double[] products = new double[indices.length];
+    int size = 0;
+    for (int i = 0; i < rows; i++) {
+      int count = 0;
+      for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+        double a = values[p];
+        int k = columnIndices[p];
+        for (int q = other.rowStart[k]; q < other.rowStart[k + 1]; q++) {
+          int j = other.columnIndices[q];
+          if (marker[j] != i) {
+            marker[j] = i;
+            accumulator[j] = 0.0;
+            touched[count++] = j;
+          }
+          accumulator[j] += a * other.values[q];
+        }
+      }
+      if (size + count > indices.length) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(size + (long) count, 2L * indices.length));
+        indices = Arrays.copyOf(indices, capacity);
+        products = Arrays.copyOf(products, capacity);
+      }
+      for (int c = 0; c < count; c++) {
+        int j = touched[c];
+        if (accumulator[j] != 0.0) {
+          indices[size] = j;
+          products[size++] = accumulator[j];
+        }
+      }
+      start[i + 1] = size;
+    }
+    return new SparseMatrix(rows, width, start, indices, products);
+  }
+
+  private void checkProduct(SparseMatrix other) {
+    if (columns != other.rows) {
+      throw new IllegalArgumentException("Несогласованные размеры матриц: " + rows + "×" + columns
+          + " и " + other.rows + "×" + other.columns);
+    }
+  }
+
+  public SparseMatrix transpose() {
+    int nnz = nonZeroCount();
+    int[] start = new int[columns + 1];
+    for (int p = 0; p < nnz; p++) {
+      start[columnIndices[p] + 1]++;
+    }
+    for (int j = 0; j < columns; j++) {
+      start[j + 1] += start[j];
+    }
+    int[] fill = new int[columns];
+    System.arraycopy(start, 0, fill, 0, columns);
+    int[] indices = new int[nnz];
+    double[] transposedValues = new double[nnz];
+    for (int i = 0; i < rows; i++) {
+      for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+        int q = fill[columnIndices[p]]++;
+        indices[q] = i;
+        transposedValues[q] = values[p];
+      }
+    }
+    return new SparseMatrix(columns, rows, start, indices, transposedValues);
+  }
+}
@@ -0,0 +1,226 @@
+package com.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Чувствительность спектрального радиуса карты к весу каждого ребра, найденная за один проход
+ * по левому и правому собственным векторам ведущего значения.
+ * <p>
+ * Для простого собственного значения λ матрицы A (A[l][k] — вес ребра l → k) с правым
+ * вектором x (Aᵀx = λx, как в {@link StructuralAnalyzer}) и вектором y (Ay = λy)
+ * ∂λ/∂w(l → k) = y_k·x_l / (yᵀx), а ∂ρ/∂w = Re(λ̄·∂λ/∂w) / |λ|. Спектр карты — объединение
+ * спектров компонент сильной связности, поэтому ненулевая чувствительность только у рёбер
+ * внутри компонент, на которых достигается ρ; у остальных рёбер она равна нулю.
+ */
+public final class SpectralSensitivity {
+  // Относительный допуск, в пределах которого компонента считается достигающей ρ
+  private static final double RADIUS_TOLERANCE = 1e-8;
+  // Порог |yᵀx| / (‖y‖·‖x‖), ниже которого значение считается кратным и производная ненадёжна
+  private static final double CONDITION_THRESHOLD = 1e-8;
+
+  private final double spectralRadius;
+  private final int[] from;
+  private final int[] to;
+  private final double[] weights;
+  private final double[] derivatives;
+  private final boolean converged;
+  private final boolean wellConditioned;
+
+  private SpectralSensitivity(double spectralRadius, int[] from, int[] to, double[] weights, double[] derivatives,
+                              boolean converged, boolean wellConditioned) {
+    this.spectralRadius = spectralRadius;
+    this.from = from;
+    this.to = to;
+    this.weights = weights;
+    this.derivatives = derivatives;
+    this.converged = converged;
+    this.wellConditioned = wellConditioned;
+  }
+
+  /**
+   * @param snapshot снимок, по которому получен analysis (компоненты ищутся по идентификаторам вершин)
+   * @param solver   решатель для левых собственных векторов
+   * @throws java.util.concurrent.CancellationException если монитор запросил отмену
+   */
+  public static SpectralSensitivity compute(MapSnapshot snapshot, StructuralAnalysis analysis,
+                                            ArnoldiEigenSolver solver, ProgressMonitor monitor) {
+    double radius = analysis.spectralRadius();
+    int[] from = new int[snapshot.edgeCount()];
+    int[] to = new int[from.length];
+    double[] weights = new double[from.length];
+    double[] derivatives = new double[from.length];
+    int count = 0;
+    boolean converged = true;
+    boolean wellConditioned = true;
+
+    for (ComponentAnalysis component : analysis.components()) {
+      if (!isCritical(component, radius)) {
+        continue;
+      }
+      monitor.checkCancelled();
+      int[] members = new int[component.size()];
+      for (int k = 0; k < members.length; k++) {
+        members[k] = snapshot.indexOfId(component.vertexId(k));
+      }
+      SparseMatrix adjacency = snapshot.subgraph(members).adjacency();
+      EigenResult right = component.eigen();
+      double lambdaReal = right.real(0);
+      double lambdaImaginary = right.imaginary(0);
+      EigenResult left = solver.solveNear(adjacency, lambdaReal, lambdaImaginary, monitor);
+      double[] xr = right.vectorReal();
+      double[] xi = right.vectorImaginary();
+      double[] yr = left.vectorReal();
+      double[] yi = left.vectorImaginary();
+      // Решатель мог вернуть вектор сопряжённого значения — тогда сопрягаем и вектор
+      if (left.imaginary(0) * lambdaImaginary < 0) {
+        yi = negate(yi);
+      }
+      converged &= right.isConverged() && left.isConverged();
+
+      // s = yᵀx без сопряжения
+      double sr = 0.0;
+      double si = 0.0;
+      for (int i = 0; i < members.length; i++) {
+        sr += yr[i] * xr[i] - yi[i] * xi[i];
+        si += yr[i] * xi[i] + yi[i] * xr[i];
+      }
+      double scale = Math.sqrt((squares(yr) + squares(yi)) * (squares(xr) + squares(xi)));
+      double modulus = Math.hypot(sr, si);
+      if (!(modulus > CONDITION_THRESHOLD * scale)) {
+        wellConditioned = false;
+        continue;
+      }
+      double lambda = Math.hypot(lambdaReal, lambdaImaginary);
+      // c = λ̄ / (|λ|·s): тогда ∂ρ/∂w = Re(c · y_k · x_l)
+      double cr = (lambdaReal * sr - lambdaImaginary * si) / (lambda * modulus * modulus);
+      double ci = (-lambdaImaginary * sr - lambdaReal * si) / (lambda * modulus * modulus);
+
+      int[] rowStart = adjacency.rowStart();
+      int[] columns = adjacency.columnIndices();
+      double[] values = adjacency.values();
+      for (int l = 0; l < members.length; l++) {
+        for (int p = rowStart[l]; p < rowStart[l + 1]; p++) {
+          int k = columns[p];
+          double dr = yr[k] * xr[l] - yi[k] * xi[l];
+          double di = yr[k] * xi[l] + yi[k] * xr[l];
+          from[count] = members[l];
+          to[count] = members[k];
+          weights[count] = values[p];
+          derivatives[count] = cr * dr - ci * di;
+          count++;
+        }
+      }
+    }
+    return new SpectralSensitivity(
+        radius,
+        Arrays.copyOf(from, count), Arrays.copyOf(to, count),
+        Arrays.copyOf(weights, count), Arrays.copyOf(derivatives, count),
+        converged, wellConditioned
+    );
+  }
+
+  public double spectralRadius() {
+    return spectralRadius;
+  }
+
+  /**
+   * Число рёбер с вычисленной чувствительностью (рёбра компонент, достигающих ρ).
+   */
+  public int edgeCount() {
+    return from.length;
+  }
+
+  /**
+   * Индекс начала ребра в снимке.
+   */
+  public int from(int edge) {
+    return from[edge];
+  }
+
+  public int to(int edge) {
+    return to[edge];
+  }
+
+  public double weight(int edge) {
+    return weights[edge];
+  }
+
+  /**
+   * ∂ρ/∂w ребра.
+   */
+  public double derivative(int edge) {
+    return derivatives[edge];
+  }
+
+  /**
+   * Изменение ρ в первом приближении при удалении ребра: −w·∂ρ/∂w.
+   */
+  public double removalEffect(int edge) {
+    return -weights[edge] * derivatives[edge];
+  }
+
+  /**
+   * До k рёбер, увеличение веса которых сильнее всего увеличивает ρ, по убыванию ∂ρ/∂w.
+   */
+  public int[] destabilising(int k) {
+    return top(k, 1.0);
+  }
+
+  /**
+   * До k рёбер, увеличение веса которых сильнее всего уменьшает ρ, по возрастанию ∂ρ/∂w.
+   */
+  public int[] stabilising(int k) {
+    return top(k, -1.0);
+  }
+
+  /**
+   * Сошлись ли собственные векторы всех учтённых компонент.
+   */
+  public boolean isConverged() {
+    return converged;
+  }
+
+  /**
+   * false, если ведущее значение какой-либо компоненты близко к кратному: производная там
+   * не определена, и рёбра такой компоненты в результат не вошли.
+   */
+  public boolean isWellConditioned() {
+    return wellConditioned;
+  }
+
+  private int[] top(int k, double sign) {
+    Integer[] order = new Integer[derivatives.length];
+    int size = 0;
+    for (int e = 0; e < derivatives.length; e++) {
+      if (sign * derivatives[e] > 0.0) {
+        order[size++] = e;
+      }
+    }
+    Arrays.sort(order, 0, size, (a, b) -> Double.compare(sign * derivatives[b], sign * derivatives[a]));
+    int[] result = new int[Math.min(k, size)];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = order[i];
+    }
+    return result;
+  }
+
+  private static boolean isCritical(ComponentAnalysis component, double radius) {
+    return radius > 0.0 && component.eigen().spectralRadius() >= radius * (1.0 - RADIUS_TOLERANCE);
+  }
+
+  private static double squares(double[] x) {
+    double sum = 0.0;
+    for (double value : x) {
+      sum += value * value;
+    }
+    return sum;
+  }
+
+  private static double[] negate(double[] x) {
+    double[] result = new double[x.length];
+    for (int i = 0; i < x.length; i++) {
+      result[i] = -x[i];
+    }
+    return result;
+  }
+}
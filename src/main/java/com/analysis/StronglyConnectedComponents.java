@@ -0,0 +1,116 @@
+package com.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Компоненты сильной связности орграфа (нерекурсивный алгоритм Тарьяна).
+ * Вершины каждой компоненты хранятся по возрастанию индекса.
+ */
+public final class StronglyConnectedComponents {
+  private final int[] componentOf;
+  private final int[] memberStart;
+  private final int[] members;
+
+  private StronglyConnectedComponents(int[] componentOf, int[] memberStart, int[] members) {
+    this.componentOf = componentOf;
+    this.memberStart = memberStart;
+    this.members = members;
+  }
+
+  /**
+   * @param adjacency матрица смежности: строка — исходящие рёбра
+   */
+  public static StronglyConnectedComponents of(SparseMatrix adjacency) {
+    int n = adjacency.rowCount();
+    int[] rowStart = adjacency.rowStart();
+    int[] columns = adjacency.columnIndices();
+
+    int[] index = new int[n];
+    int[] lowLink = new int[n];
+    int[] component = new int[n];
+    boolean[] onStack = new boolean[n];
+    int[] stack = new int[n];
+    int[] callStack = new int[n];
+    int[] cursor = new int[n];
+    Arrays.fill(index, -1);
+    int nextIndex = 0;
+    int stackSize = 0;
+    int componentCount = 0;
+
+    for (int root = 0; root < n; root++) {
+      if (index[root] >= 0) {
+        continue;
+      }
+      int depth = 0;
+      callStack[0] = root;
+      cursor[root] = rowStart[root];
+      index[root] = lowLink[root] = nextIndex++;
+      stack[stackSize++] = root;
+      onStack[root] = true;
+
+      while (depth >= 0) {
+        int v = callStack[depth];
+        if (cursor[v] < rowStart[v + 1]) {
+          int w = columns[cursor[v]++];
+          if (index[w] < 0) {
+            index[w] = lowLink[w] = nextIndex++;
+            stack[stackSize++] = w;
+            onStack[w] = true;
+            cursor[w] = rowStart[w];
+            callStack[++depth] = w;
+          } else if (onStack[w]) {
+            lowLink[v] = Math.min(lowLink[v], index[w]);
+          }
+        } else {
+          if (lowLink[v] == index[v]) {
+            int w;
+            do {
+              w = stack[--stackSize];
+              onStack[w] = false;
+              component[w] = componentCount;
+            } while (w != v);
+            componentCount++;
+          }
+          depth--;
+          if (depth >= 0) {
+            int parent = callStack[depth];
+            lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+          }
+        }
+      }
+    }
+
+    int[] start = new int[componentCount + 1];
+    for (int v = 0; v < n; v++) {
+      start[component[v] + 1]++;
+    }
+    for (int c = 0; c < componentCount; c++) {
+      start[c + 1] += start[c];
+    }
+    int[] fill = Arrays.copyOf(start, componentCount);
+    int[] members = new int[n];
+    for (int v = 0; v < n; v++) {
+      members[fill[component[v]]++] = v;
+    }
+    return new StronglyConnectedComponents(component, start, members);
+  }
+
+  public int count() {
+    return memberStart.length - 1;
+  }
+
+  public int componentOf(int vertex) {
+    return componentOf[vertex];
+  }
+
+  public int size(int component) {
+    return memberStart[component + 1] - memberStart[component];
+  }
+
+  /**
+   * Вершины компоненты по возрастанию индекса.
+   */
+  public int[] members(int component) {
+    return Arrays.copyOfRange(members, memberStart[component], memberStart[component + 1]);
+  }
+}
@@ -0,0 +1,132 @@
+package com.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Итог структурного анализа карты: компоненты сильной связности с внутренними рёбрами и сводные
+ * показатели.
+ * Спектральный радиус всей карты равен максимуму по компонентам, так как матрица
+ * весов блочно-треугольна относительно разбиения на компоненты.
+ */
+public final class StructuralAnalysis {
+  private static final int LEADING = 4;
+
+  private final List<ComponentAnalysis> components;
+  private final int recomputed;
+  private final double[] leadingReal;
+  private final double[] leadingImaginary;
+
+  StructuralAnalysis(List<ComponentAnalysis> components, int recomputed) {
+    this.components = Collections.unmodifiableList(new ArrayList<>(components));
+    this.recomputed = recomputed;
+
+    List<double[]> values = new ArrayList<>();
+    for (ComponentAnalysis component : components) {
+      EigenResult eigen = component.eigen();
+      for (int i = 0; i < eigen.count(); i++) {
+        values.add(new double[]{eigen.real(i), eigen.imaginary(i)});
+      }
+    }
+    values.sort((a, b) -> {
+      int byModulus = Double.compare(Math.hypot(b[0], b[1]), Math.hypot(a[0], a[1]));
+      return byModulus != 0 ? byModulus : Double.compare(b[1], a[1]);
+    });
+    int count = Math.min(LEADING, values.size());
+    leadingReal = new double[count];
+    leadingImaginary = new double[count];
+    for (int i = 0; i < count; i++) {
+      leadingReal[i] = values.get(i)[0];
+      leadingImaginary[i] = values.get(i)[1];
+    }
+  }
+
+  /**
+   * Компоненты с хотя бы одним внутренним ребром (циклом или петлёй) в порядке минимального
+   * индекса вершины.
+   */
+  public List<ComponentAnalysis> components() {
+    return components;
+  }
+
+  public int recomputedCount() {
+    return recomputed;
+  }
+
+  public int reusedCount() {
+    return components.size() - recomputed;
+  }
+
+  public long cycleCount() {
+    long total = 0;
+    for (ComponentAnalysis component : components) {
+      total += component.cycles().count();
+    }
+    return total;
+  }
+
+  public long negativeCycleCount() {
+    long total = 0;
+    for (ComponentAnalysis component : components) {
+      total += component.cycles().negativeCount();
+    }
+    return total;
+  }
+
+  public double spectralRadius() {
+    double radius = 0.0;
+    for (ComponentAnalysis component : components) {
+      radius = Math.max(radius, component.eigen().spectralRadius());
+    }
+    return radius;
+  }
+
+  /**
+   * Структурная устойчивость: нечётное число отрицательных циклов.
+   * Имеет смысл только при полном перечне циклов ({@link #isComplete()}).
+   */
+  public boolean isStructurallyStable() {
+    return negativeCycleCount() % 2 != 0;
+  }
+
+  /**
+   * Устойчивость по возмущению: спектральный радиус меньше 1.
+   */
+  public boolean isPerturbationStable() {
+    return spectralRadius() < 1.0;
+  }
+
+  /**
+   * false, если перечисление циклов хотя бы одной компоненты прервано бюджетом:
+   * тогда число циклов и отрицательных циклов — нижние оценки.
+   */
+  public boolean isComplete() {
+    for (ComponentAnalysis component : components) {
+      if (!component.cycles().isComplete()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public boolean isSpectrumConverged() {
+    for (ComponentAnalysis component : components) {
+      if (!component.eigen().isConverged()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Ведущие собственные значения всей карты (объединение по компонентам).
+   */
+  public int leadingCount() {
+    return leadingReal.length;
+  }
+
+  public String formatLeading(int i) {
+    return EigenResult.format(leadingReal[i], leadingImaginary[i]);
+  }
+}
@@ -0,0 +1,233 @@
+package com.analysis;
+
+import com.metrics.StructuralAnalysisEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Инкрементальный структурный анализ с кэшем по компонентам сильной связности.
+ * <p>
+ * Циклы существуют только внутри компонент, а спектр карты — объединение спектров компонент,
+ * поэтому результат компоненты зависит лишь от её вершин и внутренних рёбер. Правки графа
+ * отмечают затронутые вершины через {@link #touch(long)}; при следующем анализе заново
+ * считаются только компоненты, которые изменили состав или содержат отмеченные вершины,
+ * остальные берутся из кэша. Повторный анализ той же версии графа возвращает прошлый итог.
+ * <p>
+ * Циклы пересчитываемых компонент перечисляются параллельно ({@link ParallelCycleEnumerator})
+ * в пределах {@link CycleBudget}; компоненты, обход которых бюджет прервал, в кэше не
+ * считаются готовыми и пересчитываются при следующем анализе.
+ */
+public class StructuralAnalyzer {
+  private final ArnoldiEigenSolver solver;
+  private final ParallelCycleEnumerator cycleEnumerator;
+  private final Set<Long> touched = new HashSet<>();
+  private Map<ComponentKey, ComponentAnalysis> cache = new HashMap<>();
+  private long analyzedVersion = -1;
+  private StructuralAnalysis last;
+
+  public StructuralAnalyzer() {
+    this(new ArnoldiEigenSolver(), new ParallelCycleEnumerator());
+  }
+
+  public StructuralAnalyzer(ArnoldiEigenSolver solver, ParallelCycleEnumerator cycleEnumerator) {
+    this.solver = solver;
+    this.cycleEnumerator = cycleEnumerator;
+  }
+
+  /**
+   * Отмечает вершину, у которой изменились инцидентные рёбра или их веса.
+   */
+  public void touch(long vertexId) {
+    synchronized (touched) {
+      touched.add(vertexId);
+    }
+  }
+
+  /**
+   * Фиксирует снимок и накопленные отметки правок. Вызывается в потоке, который правит граф,
+   * сразу после снятия снимка; сам расчёт ({@link Job#run()}) можно выполнять в любом потоке.
+   * Задание, которое так и не будет выполнено, нужно вернуть через {@link Job#abandon()},
+   * иначе его отметки потеряются и следующий анализ возьмёт устаревшие компоненты из кэша.
+   *
+   * @param version версия графа, с которой снят снимок
+   */
+  public Job prepare(MapSnapshot snapshot, long version, CycleBudget budget) {
+    Set<Long> dirty;
+    synchronized (touched) {
+      dirty = new HashSet<>(touched);
+      touched.clear();
+    }
+    return new Job(snapshot, version, dirty, budget);
+  }
+
+  public StructuralAnalysis analyze(MapSnapshot snapshot, long version) {
+    return prepare(snapshot, version, CycleBudget.UNLIMITED).run();
+  }
+
+  public final class Job {
+    private final MapSnapshot snapshot;
+    private final long version;
+    private final Set<Long> dirty;
+    private final CycleBudget budget;
+    private volatile boolean finished;
+
+    private Job(MapSnapshot snapshot, long version, Set<Long> dirty, CycleBudget budget) {
+      this.snapshot = snapshot;
+      this.version = version;
+      this.dirty = dirty;
+      this.budget = budget;
+    }
+
+    public StructuralAnalysis run() {
+      return run(ProgressMonitor.NONE);
+    }
+
+    /**
+     * @throws java.util.concurrent.CancellationException если монитор запросил отмену;
+     *                                                    кэш и отметки правок при этом не теряются
+     */
+    public StructuralAnalysis run(ProgressMonitor monitor) {
+      synchronized (StructuralAnalyzer.this) {
+        boolean completed = false;
+        try {
+          StructuralAnalysis result = compute(monitor);
+          completed = true;
+          finished = true;
+          return result;
+        } finally {
+          if (!completed) {
+            // Отметки не должны потеряться, если расчёт прерван
+            synchronized (touched) {
+              touched.addAll(dirty);
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Возвращает отметки правок анализатору, если задание не завершилось успешно: его не
+     * запустили, отменили до начала или прервали. Повторный вызов безвреден; не блокирует
+     * вызывающий поток на время идущего расчёта.
+     */
+    public void abandon() {
+      if (!finished) {
+        synchronized (touched) {
+          touched.addAll(dirty);
+        }
+      }
+    }
+
+    private StructuralAnalysis compute(ProgressMonitor monitor) {
+      if (version == analyzedVersion && last != null && dirty.isEmpty() && last.isComplete()) {
+        return last;
+      }
+
+      StructuralAnalysisEvent event = new StructuralAnalysisEvent();
+      event.start();
+      SparseMatrix adjacency = snapshot.adjacency();
+      StronglyConnectedComponents scc = StronglyConnectedComponents.of(adjacency);
+      // Вершина с петлёй — тоже компонента с внутренним ребром: циклов в ней нет, но вес петли
+      // входит в спектр
+      List<int[]> cyclic = new ArrayList<>();
+      for (int c = 0; c < scc.count(); c++) {
+        int[] members = scc.members(c);
+        if (members.length > 1 || hasLoop(adjacency, members[0])) {
+          cyclic.add(members);
+        }
+      }
+      cyclic.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+      Map<ComponentKey, ComponentAnalysis> next = new HashMap<>();
+      ComponentAnalysis[] components = new ComponentAnalysis[cyclic.size()];
+      List<Integer> stale = new ArrayList<>();
+      List<MapSnapshot> subgraphs = new ArrayList<>();
+      List<SparseMatrix> adjacencies = new ArrayList<>();
+      ComponentKey[] keys = new ComponentKey[cyclic.size()];
+      long[][] componentIds = new long[cyclic.size()][];
+      for (int c = 0; c < cyclic.size(); c++) {
+        int[] members = cyclic.get(c);
+        long[] ids = new long[members.length];
+        boolean changed = false;
+        for (int k = 0; k < members.length; k++) {
+          ids[k] = snapshot.id(members[k]);
+          changed |= dirty.contains(ids[k]);
+        }
+        keys[c] = new ComponentKey(ids);
+        componentIds[c] = ids;
+        ComponentAnalysis previous = cache.get(keys[c]);
+        if (previous == null || changed || !previous.cycles().isComplete()) {
+          MapSnapshot subgraph = snapshot.subgraph(members);
+          stale.add(c);
+          subgraphs.add(subgraph);
+          adjacencies.add(subgraph.adjacency());
+        } else {
+          components[c] = previous;
+        }
+      }
+
+      // Циклы всех изменившихся компонент — одним параллельным обходом с общим бюджетом
+      List<CycleStore> cycles = cycleEnumerator.enumerate(adjacencies, budget, monitor);
+      for (int i = 0; i < stale.size(); i++) {
+        int c = stale.get(i);
+        monitor.progress(i, stale.size(), "Собственные значения: компонента " + (i + 1) + " из " + stale.size());
+        ComponentAnalysis previous = cache.get(keys[c]);
+        // Тот же состав вершин — значит, прошлый собственный вектор годится для тёплого старта
+        double[] start = previous == null ? null : previous.eigen().restartVector();
+        EigenResult eigen = solver.solve(subgraphs.get(i).transposed(), start, monitor);
+        components[c] = new ComponentAnalysis(componentIds[c], cycles.get(i), eigen);
+      }
+      for (int c = 0; c < components.length; c++) {
+        next.put(keys[c], components[c]);
+      }
+      int recomputed = stale.size();
+
+      cache = next;
+      analyzedVersion = version;
+      last = new StructuralAnalysis(Arrays.asList(components), recomputed);
+      event.finish(snapshot.vertexCount(), snapshot.edgeCount(), components.length, recomputed, last.cycleCount());
+      return last;
+    }
+  }
+
+  private static boolean hasLoop(SparseMatrix adjacency, int vertex) {
+    int[] rowStart = adjacency.rowStart();
+    int[] columns = adjacency.columnIndices();
+    for (int p = rowStart[vertex]; p < rowStart[vertex + 1]; p++) {
+      if (columns[p] == vertex) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Состав компоненты: отсортированные идентификаторы вершин.
+   */
+  private static final class ComponentKey {
+    private final long[] ids;
+    private final int hash;
+
+    ComponentKey(long[] ids) {
+      this.ids = ids.clone();
+      Arrays.sort(this.ids);
+      this.hash = Arrays.hashCode(this.ids);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof ComponentKey && Arrays.equals(ids, ((ComponentKey) o).ids);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package com.analysis;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * Плотные ядра на Vector API: умножение с накоплением (fma) по SPECIES_PREFERRED,
+ * хвосты строк досчитываются скалярно. Загружается только через {@link DenseKernels#instance()}.
+ */
+final class VectorDenseKernels extends DenseKernels {
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  VectorDenseKernels() {
+    if (SPECIES.length() < 2) {
+      throw new UnsupportedOperationException("SIMD-регистры не вмещают двух double");
+    }
+  }
+
+  @Override
+  void multiply(double[] a, int rows, int columns, double[] x, double[] y) {
+    int lanes = SPECIES.length();
+    int bound = SPECIES.loopBound(columns);
+    int i = 0;
+    for (; i + ROW_BLOCK <= rows; i += ROW_BLOCK) {
+      int r0 = i * columns;
+      int r1 = r0 + columns;
+      int r2 = r1 + columns;
+      int r3 = r2 + columns;
+      DoubleVector v0 = DoubleVector.zero(SPECIES);
+      DoubleVector v1 = DoubleVector.zero(SPECIES);
+      DoubleVector v2 = DoubleVector.zero(SPECIES);
+      DoubleVector v3 = DoubleVector.zero(SPECIES);
+      int j = 0;
+      for (; j < bound; j += lanes) {
+        DoubleVector xj = DoubleVector.fromArray(SPECIES, x, j);
+        v0 = DoubleVector.fromArray(SPECIES, a, r0 + j).fma(xj, v0);
+        v1 = DoubleVector.fromArray(SPECIES, a, r1 + j).fma(xj, v1);
+        v2 = DoubleVector.fromArray(SPECIES, a, r2 + j).fma(xj, v2);
+        v3 = DoubleVector.fromArray(SPECIES, a, r3 + j).fma(xj, v3);
+      }
+      double s0 = v0.reduceLanes(VectorOperators.ADD);
+      double s1 = v1.reduceLanes(VectorOperators.ADD);
+      double s2 = v2.reduceLanes(VectorOperators.ADD);
+      double s3 = v3.reduceLanes(VectorOperators.ADD);
+      for (; j < columns; j++) {
+        double xj = x[j];
+        s0 += a[r0 + j] * xj;
+        s1 += a[r1 + j] * xj;
+        s2 += a[r2 + j] * xj;
+        s3 += a[r3 + j] * xj;
+      }
+      y[i] = s0;
+      y[i + 1] = s1;
+      y[i + 2] = s2;
+      y[i + 3] = s3;
+    }
+    for (; i < rows; i++) {
+      int row = i * columns;
+      DoubleVector sum = DoubleVector.zero(SPECIES);
+      int j = 0;
+      for (; j < bound; j += lanes) {
+        sum = DoubleVector.fromArray(SPECIES, a, row + j).fma(DoubleVector.fromArray(SPECIES, x, j), sum);
+      }
+      double s = sum.reduceLanes(VectorOperators.ADD);
+      for (; j < columns; j++) {
+        s += a[row + j] * x[j];
+      }
+      y[i] = s;
+    }
+  }
+
+  @Override
+  void multiply(double[] a, double[] b, double[] c, int rows, int inner, int columns) {
+    int lanes = SPECIES.length();
+    Arrays.fill(c, 0, rows * columns, 0.0);
+    for (int kk = 0; kk < inner; kk += INNER_BLOCK) {
+      int kEnd = Math.min(kk + INNER_BLOCK, inner);
+      for (int jj = 0; jj < columns; jj += COLUMN_BLOCK) {
+        int jEnd = Math.min(jj + COLUMN_BLOCK, columns);
+        int bound = jj + SPECIES.loopBound(jEnd - jj);
+        for (int i = 0; i < rows; i++) {
+          int cRow = i * columns;
+          int aRow = i * inner;
+          for (int k = kk; k < kEnd; k++) {
+            double aik = a[aRow + k];
+            if (aik == 0.0) {
+              continue;
+            }
+            DoubleVector factor = DoubleVector.broadcast(SPECIES, aik);
+            int bRow = k * columns;
+            int j = jj;
+            for (; j < bound; j += lanes) {
+              DoubleVector.fromArray(SPECIES, b, bRow + j)
+                  .fma(factor, DoubleVector.fromArray(SPECIES, c, cRow + j))
+                  .intoArray(c, cRow + j);
+            }
+            for (; j < jEnd; j++) {
+              c[cRow + j] += aik * b[bRow + j];
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  String name() {
+    return "Vector API, " + SPECIES.length() + " × double";
+  }
+}
@@ -0,0 +1,112 @@
+package com.analysis;
+
+/**
+ * Неопределённость экспертных весов: для каждого ребра — интервал, из которого вес выбирается
+ * равномерно. Интервал задаётся разбросом вокруг веса (абсолютным или в долях |w|) либо
+ * явно по рёбрам; границы обрезаются до допустимого диапазона весов [-1, 1].
+ */
+public final class WeightUncertainty {
+  private final double absolute;
+  private final double relative;
+  private final double[] lower;
+  private final double[] upper;
+
+  private WeightUncertainty(double absolute, double relative, double[] lower, double[] upper) {
+    this.absolute = absolute;
+    this.relative = relative;
+    this.lower = lower;
+    this.upper = upper;
+  }
+
+  /**
+   * Вес w выбирается из [w − spread, w + spread].
+   */
+  public static WeightUncertainty absolute(double spread) {
+    checkSpread(spread);
+    return new WeightUncertainty(spread, 0.0, null, null);
+  }
+
+  /**
+   * Вес w выбирается из [w − fraction·|w|, w + fraction·|w|].
+   */
+  public static WeightUncertainty relative(double fraction) {
+    checkSpread(fraction);
+    return new WeightUncertainty(0.0, fraction, null, null);
+  }
+
+  /**
+   * Явные интервалы [lower[e], upper[e]] в порядке рёбер {@link MapSnapshot#adjacency()}
+   * (позиции ненулевых элементов CSR).
+   */
+  public static WeightUncertainty intervals(double[] lower, double[] upper) {
+    if (lower.length != upper.length) {
+      throw new IllegalArgumentException("Число нижних и верхних границ не совпадает");
+    }
+    for (int e = 0; e < lower.length; e++) {
+      if (!(lower[e] <= upper[e]) || lower[e] < -1.0 || upper[e] > 1.0) {
+        throw new IllegalArgumentException(
+            "Ребро " + (e + 1) + ": интервал [" + lower[e] + ", " + upper[e] + "] должен лежать в [-1, 1]");
+      }
+    }
+    return new WeightUncertainty(0.0, 0.0, lower.clone(), upper.clone());
+  }
+
+  /**
+   * Разбор ввода пользователя: «0.1» — абсолютный разброс, «10%» — относительный.
+   *
+   * @throws NumberFormatException если число записано некорректно
+   */
+  public static WeightUncertainty parse(String text) {
+    String value = text.trim().replace(',', '.');
+    if (value.endsWith("%")) {
+      return relative(Double.parseDouble(value.substring(0, value.length() - 1).trim()) / 100.0);
+    }
+    return absolute(Double.parseDouble(value));
+  }
+
+  /**
+   * true, если интервалы заданы явно и должны соответствовать числу рёбер снимка.
+   */
+  public boolean isExplicit() {
+    return lower != null;
+  }
+
+  public int edgeCount() {
+    return lower == null ? 0 : lower.length;
+  }
+
+  public double lower(int edge, double weight) {
+    if (lower != null) {
+      return lower[edge];
+    }
+    return Math.max(-1.0, weight - spread(weight));
+  }
+
+  public double upper(int edge, double weight) {
+    if (upper != null) {
+      return upper[edge];
+    }
+    return Math.min(1.0, weight + spread(weight));
+  }
+
+  @Override
+  public String toString() {
+    if (lower != null) {
+      return "интервалы по рёбрам";
+    }
+    if (relative > 0.0) {
+      return String.format("±%.4g%% веса", relative * 100.0);
+    }
+    return String.format("±%.4g", absolute);
+  }
+
+  private double spread(double weight) {
+    return absolute + relative * Math.abs(weight);
+  }
+
+  private static void checkSpread(double spread) {
+    if (!(spread >= 0.0) || Double.isInfinite(spread)) {
+      throw new IllegalArgumentException("Разброс весов должен быть неотрицательным числом");
+    }
+  }
+}
@@ -0,0 +1,338 @@
+package com.cli;
+
+import com.analysis.ArnoldiEigenSolver;
+import com.analysis.BatchImpulseSimulation;
+import com.analysis.CycleBudget;
+import com.analysis.MapSnapshot;
+import com.analysis.ParallelCycleEnumerator;
+import com.analysis.ScenarioSummary;
+import com.analysis.StructuralAnalysis;
+import com.analysis.StructuralAnalyzer;
+import com.io.MapFiles;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Пакетный анализ когнитивных карт без графического интерфейса.
+ * <p>
+ * Для каждого файла модели (.csv, .json, .cmap) считает циклы и их знаки, структурную
+ * устойчивость, спектральный радиус и итоги единичных импульсов во все вершины; отчёт
+ * пишется в JSON или CSV по строке на модель. Модели обрабатываются параллельно, строки
+ * выводятся в порядке входных файлов по мере готовности. Класс не обращается к JavaFX,
+ * поэтому запускается из пути классов без графической среды:
+ * <pre>
+ * java -cp target/classes com.cli.BatchAnalysis --out report.json models/
+ * </pre>
+ */
+public final class BatchAnalysis {
+  private static final String USAGE = String.join("\n",
+      "Использование: java -cp graph-editor.jar com.cli.BatchAnalysis [параметры] <файл или каталог>...",
+      "  --out <файл>          файл отчёта (по умолчанию стандартный вывод)",
+      "  --format json|csv     формат отчёта (по умолчанию по расширению --out, иначе json)",
+      "  --max-cycles <N>      лимит перечисления циклов на модель (по умолчанию " + Options.DEFAULT_MAX_CYCLES + ")",
+      "  --time-limit <сек>    лимит времени перечисления циклов на модель (по умолчанию без лимита)",
+      "  --steps <N>           тактов импульсного моделирования, 0 — без моделирования (по умолчанию "
+          + Options.DEFAULT_STEPS + ")",
+      "  --threads <N>         число потоков (по умолчанию по числу ядер)",
+      "Каталоги обходятся рекурсивно; выбираются файлы .csv, .json и .cmap."
+  );
+
+  /** Сценариев единичного импульса в одном пакете: ограничивает память на модель. */
+  private static final int SCENARIO_CHUNK = 256;
+
+  private BatchAnalysis() {
+  }
+
+  /**
+   * Код завершения: 0 — все модели обработаны, 1 — часть моделей с ошибками, 2 — неверные аргументы.
+   */
+  public static void main(String[] args) {
+    Options options;
+    List<Path> files;
+    try {
+      options = Options.parse(args);
+      files = modelFiles(options.inputs);
+    } catch (IllegalArgumentException | IOException e) {
+      System.err.println(e.getMessage());
+      System.err.println(USAGE);
+      System.exit(2);
+      return;
+    }
+
+    try {
+      int failed = run(files, options);
+      if (failed > 0) {
+        System.err.println("Моделей с ошибками: " + failed + " из " + files.size());
+        System.exit(1);
+      }
+    } catch (IOException e) {
+      System.err.println("Ошибка записи отчёта: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Обрабатывает модели и пишет отчёт.
+   *
+   * @return число моделей, которые не удалось прочитать или проанализировать
+   */
+  static int run(List<Path> files, Options options) throws IOException {
+    // Потоки верхнего уровня разбирают модели; циклы и сценарии одной модели делятся
+    // между ядрами в общем пуле fork-join, чтобы крупная модель не занимала одно ядро
+    ForkJoinPool pool = new ForkJoinPool(options.threads);
+    ExecutorService models = Executors.newFixedThreadPool(options.threads, r -> {
+      Thread thread = new Thread(r, "batch-analysis");
+      thread.setDaemon(true);
+      return thread;
+    });
+    int failed = 0;
+    try (ReportWriter report = ReportWriter.create(options.format, openOutput(options.output))) {
+      List<Future<ModelReport>> pending = new ArrayList<>();
+      for (Path file : files) {
+        pending.add(models.submit(() -> analyze(file, options, pool)));
+      }
+      for (int i = 0; i < pending.size(); i++) {
+        ModelReport row;
+        try {
+          row = pending.get(i).get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Обработка прервана", e);
+        } catch (ExecutionException e) {
+          // analyze перехватывает только исключения; Error (например, нехватка памяти на одной
+          // крупной модели) тоже остаётся ошибкой этой модели и не обрывает отчёт по остальным
+          row = new ModelReport(files.get(i).toString());
+          row.set("error", e.getCause().toString());
+        }
+        if (row.isFailed()) {
+          failed++;
+        }
+        report.write(row);
+      }
+    } finally {
+      models.shutdownNow();
+      pool.shutdownNow();
+    }
+    return failed;
+  }
+
+  /**
+   * Анализ одной модели; ошибки чтения и расчёта попадают в столбец error, а не прерывают пакет.
+   */
+  static ModelReport analyze(Path file, Options options, ForkJoinPool pool) {
+    long start = System.nanoTime();
+    ModelReport report = new ModelReport(file.toString());
+    try {
+      MapSnapshot snapshot = MapFiles.read(file);
+      report.set("vertices", snapshot.vertexCount());
+      report.set("edges", snapshot.edgeCount());
+
+      StructuralAnalyzer analyzer = new StructuralAnalyzer(
+          new ArnoldiEigenSolver(), new ParallelCycleEnumerator(pool)
+      );
+      StructuralAnalysis analysis = analyzer.prepare(snapshot, 0, options.budget).run();
+      report.set("cyclicComponents", analysis.components().size());
+      report.set("cycles", analysis.cycleCount());
+      report.set("negativeCycles", analysis.negativeCycleCount());
+      report.set("cyclesComplete", analysis.isComplete());
+      report.set("structurallyStable", analysis.isComplete() ? analysis.isStructurallyStable() : null);
+      report.set("spectralRadius", analysis.spectralRadius());
+      report.set("spectrumConverged", analysis.isSpectrumConverged());
+      report.set("perturbationStable", analysis.isPerturbationStable());
+
+      if (options.steps > 0) {
+        simulate(snapshot, options.steps, pool, report);
+      }
+    } catch (IOException e) {
+      report.set("error", "Ошибка чтения: " + e.getMessage());
+    } catch (RuntimeException e) {
+      report.set("error", e.getMessage() != null ? e.getMessage() : e.toString());
+    }
+    report.set("millis", (System.nanoTime() - start) / 1_000_000);
+    return report;
+  }
+
+  /**
+   * Единичный импульс в каждую вершину; сценарии считаются пакетами по {@value #SCENARIO_CHUNK},
+   * от итогов остаются только наибольший по модулю пик и наибольшее конечное значение.
+   */
+  private static void simulate(MapSnapshot snapshot, int steps, ForkJoinPool pool, ModelReport report) {
+    int n = snapshot.vertexCount();
+    BatchImpulseSimulation simulation = new BatchImpulseSimulation(snapshot.transposed(), pool);
+    double maxPeak = 0.0;
+    int peakSource = -1;
+    int peakVertex = -1;
+    int peakStep = -1;
+    double maxFinal = 0.0;
+    for (int from = 0; from < n; from += SCENARIO_CHUNK) {
+      int count = Math.min(SCENARIO_CHUNK, n - from);
+      double[][] impulses = new double[count][n];
+      for (int s = 0; s < count; s++) {
+        impulses[s][from + s] = 1.0;
+      }
+      ScenarioSummary[] summaries = simulation.run(impulses, steps);
+      for (int s = 0; s < count; s++) {
+        ScenarioSummary summary = summaries[s];
+        int strongest = summary.strongestVertex();
+        if (peakSource < 0 || Math.abs(summary.peak(strongest)) > Math.abs(maxPeak)) {
+          maxPeak = summary.peak(strongest);
+          peakSource = from + s;
+          peakVertex = strongest;
+          peakStep = summary.peakStep(strongest);
+        }
+        for (int i = 0; i < n; i++) {
+          if (Math.abs(summary.finalValue(i)) > Math.abs(maxFinal)) {
+            maxFinal = summary.finalValue(i);
+          }
+        }
+      }
+    }
+    report.set("scenarios", n);
+    report.set("steps", steps);
+    if (peakSource >= 0) {
+      report.set("maxPeak", maxPeak);
+      report.set("maxPeakSource", snapshot.label(peakSource));
+      report.set("maxPeakVertex", snapshot.label(peakVertex));
+      report.set("maxPeakStep", peakStep);
+      report.set("maxFinal", maxFinal);
+    }
+  }
+
+  /**
+   * Файлы моделей из аргументов: файлы берутся как есть, каталоги обходятся рекурсивно
+   * в порядке путей, чтобы отчёты разных запусков совпадали построчно.
+   */
+  static List<Path> modelFiles(List<Path> inputs) throws IOException {
+    List<Path> files = new ArrayList<>();
+    for (Path input : inputs) {
+      if (Files.isDirectory(input)) {
+        try (Stream<Path> walk = Files.walk(input)) {
+          files.addAll(walk.filter(Files::isRegularFile)
+              .filter(BatchAnalysis::isModelFile)
+              .sorted()
+              .collect(Collectors.toList()));
+        }
+      } else if (Files.isRegularFile(input)) {
+        files.add(input);
+      } else {
+        throw new IllegalArgumentException("Файл не найден: " + input);
+      }
+    }
+    return files;
+  }
+
+  private static boolean isModelFile(Path file) {
+    String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+    return name.endsWith("." + MapFiles.CSV_EXTENSION)
+        || name.endsWith("." + MapFiles.JSON_EXTENSION)
+        || name.endsWith("." + MapFiles.BINARY_EXTENSION);
+  }
+
+  private static Writer openOutput(Path output) throws IOException {
+    if (output == null) {
+      return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    }
+    return Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Разобранные аргументы командной строки.
+   */
+  static final class Options {
+    static final long DEFAULT_MAX_CYCLES = 1_000_000;
+    static final int DEFAULT_STEPS = 20;
+
+    final List<Path> inputs = new ArrayList<>();
+    Path output;
+    String format;
+    CycleBudget budget;
+    int steps = DEFAULT_STEPS;
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * @throws IllegalArgumentException если аргументы некорректны
+     */
+    static Options parse(String[] args) {
+      Options options = new Options();
+      long maxCycles = DEFAULT_MAX_CYCLES;
+      long timeLimit = Long.MAX_VALUE;
+      List<String> rest = new ArrayList<>(Arrays.asList(args));
+      while (!rest.isEmpty()) {
+        String arg = rest.remove(0);
+        if (!arg.startsWith("--")) {
+          options.inputs.add(Paths.get(arg));
+          continue;
+        }
+        if (rest.isEmpty()) {
+          throw new IllegalArgumentException("Не указано значение параметра " + arg);
+        }
+        String value = rest.remove(0);
+        try {
+          switch (arg) {
+            case "--out":
+              options.output = Paths.get(value);
+              break;
+            case "--format":
+              options.format = value;
+              break;
+            case "--max-cycles":
+              maxCycles = Long.parseLong(value);
+              break;
+            case "--time-limit":
+              timeLimit = Math.round(Double.parseDouble(value) * 1000);
+              break;
+            case "--steps":
+              options.steps = Integer.parseInt(value);
+              break;
+            case "--threads":
+              options.threads = Integer.parseInt(value);
+              break;
+            default:
+              throw new IllegalArgumentException("Неизвестный параметр: " + arg);
+          }
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Некорректное значение параметра " + arg + ": " + value);
+        }
+      }
+
+      if (options.inputs.isEmpty()) {
+        throw new IllegalArgumentException("Не указаны файлы моделей");
+      }
+      if (options.steps < 0) {
+        throw new IllegalArgumentException("Количество тактов не может быть отрицательным!");
+      }
+      if (options.threads < 1) {
+        throw new IllegalArgumentException("Число потоков должно быть положительным");
+      }
+      options.budget = new CycleBudget(maxCycles, timeLimit);
+      if (options.format == null) {
+        String name = options.output == null ? "" : options.output.getFileName().toString();
+        options.format = name.toLowerCase(Locale.ROOT).endsWith("." + ReportWriter.CSV)
+            ? ReportWriter.CSV : ReportWriter.JSON;
+      }
+      options.format = options.format.toLowerCase(Locale.ROOT);
+      if (!options.format.equals(ReportWriter.JSON) && !options.format.equals(ReportWriter.CSV)) {
+        throw new IllegalArgumentException("Неизвестный формат отчёта: " + options.format);
+      }
+      return options;
+    }
+  }
+}
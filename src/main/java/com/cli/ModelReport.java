@@ -0,0 +1,41 @@
+package com.cli;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Строка отчёта пакетного анализа — итог по одному файлу модели.
+ * Значения идут в порядке {@link #COLUMNS}: строки, числа, логические значения или null
+ * (показатель не определён или расчёт не выполнялся).
+ */
+final class ModelReport {
+  static final List<String> COLUMNS = Collections.unmodifiableList(Arrays.asList(
+      "file", "vertices", "edges", "cyclicComponents", "cycles", "negativeCycles", "cyclesComplete",
+      "structurallyStable", "spectralRadius", "spectrumConverged", "perturbationStable",
+      "scenarios", "steps", "maxPeak", "maxPeakSource", "maxPeakVertex", "maxPeakStep", "maxFinal",
+      "millis", "error"
+  ));
+
+  private final Object[] values = new Object[COLUMNS.size()];
+
+  ModelReport(String file) {
+    set("file", file);
+  }
+
+  void set(String column, Object value) {
+    int index = COLUMNS.indexOf(column);
+    if (index < 0) {
+      throw new IllegalArgumentException("Неизвестный столбец отчёта: " + column);
+    }
+    values[index] = value;
+  }
+
+  Object get(int column) {
+    return values[column];
+  }
+
+  boolean isFailed() {
+    return get(COLUMNS.indexOf("error")) != null;
+  }
+}
@@ -0,0 +1,135 @@
+package com.cli;
+
+import com.io.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Потоковая запись отчёта: строки выводятся и сбрасываются по мере готовности моделей,
+ * поэтому частичный результат виден до окончания всего пакета.
+ */
+abstract class ReportWriter implements AutoCloseable {
+  static final String JSON = "json";
+  static final String CSV = "csv";
+
+  protected final Writer writer;
+  protected final List<String> columns = ModelReport.COLUMNS;
+
+  private ReportWriter(Writer writer) {
+    this.writer = writer;
+  }
+
+  /**
+   * @throws IllegalArgumentException если формат не поддерживается
+   */
+  static ReportWriter create(String format, Writer writer) throws IOException {
+    switch (format.toLowerCase(Locale.ROOT)) {
+      case JSON:
+        return new JsonReport(writer);
+      case CSV:
+        return new CsvReport(writer);
+      default:
+        throw new IllegalArgumentException("Неизвестный формат отчёта: " + format);
+    }
+  }
+
+  abstract void write(ModelReport report) throws IOException;
+
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+
+  /**
+   * Числа — в нотации Java; бесконечность и NaN в JSON и CSV не представимы и выводятся как null.
+   */
+  static String number(Object value) {
+    if (value instanceof Double && (((Double) value).isNaN() || ((Double) value).isInfinite())) {
+      return null;
+    }
+    return value.toString();
+  }
+
+  /**
+   * Массив объектов JSON, по объекту на модель.
+   */
+  private static final class JsonReport extends ReportWriter {
+    private boolean first = true;
+
+    JsonReport(Writer writer) throws IOException {
+      super(writer);
+      writer.write("[");
+    }
+
+    @Override
+    void write(ModelReport report) throws IOException {
+      writer.write(first ? "\n  {" : ",\n  {");
+      first = false;
+      for (int c = 0; c < columns.size(); c++) {
+        if (c > 0) {
+          writer.write(", ");
+        }
+        JsonWriter.writeString(writer, columns.get(c));
+        writer.write(": ");
+        Object value = report.get(c);
+        if (value instanceof String) {
+          JsonWriter.writeString(writer, (String) value);
+        } else if (value instanceof Number) {
+          String text = number(value);
+          writer.write(text == null ? "null" : text);
+        } else {
+          writer.write(String.valueOf(value));
+        }
+      }
+      writer.write("}");
+      writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      writer.write(first ? "]\n" : "\n]\n");
+      super.close();
+    }
+  }
+
+  /**
+   * CSV с заголовком; пустое поле — значение не определено.
+   */
+  private static final class CsvReport extends ReportWriter {
+    CsvReport(Writer writer) throws IOException {
+      super(writer);
+      writer.write(String.join(",", columns));
+      writer.write("\n");
+    }
+
+    @Override
+    void write(ModelReport report) throws IOException {
+      for (int c = 0; c < columns.size(); c++) {
+        if (c > 0) {
+          writer.write(",");
+        }
+        Object value = report.get(c);
+        if (value instanceof String) {
+          writer.write(quote((String) value));
+        } else if (value instanceof Number) {
+          String text = number(value);
+          writer.write(text == null ? "" : text);
+        } else if (value != null) {
+          writer.write(value.toString());
+        }
+      }
+      writer.write("\n");
+      writer.flush();
+    }
+
+    private static String quote(String value) {
+      if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+        return value;
+      }
+      return '"' + value.replace("\"", "\"\"") + '"';
+    }
+  }
+}
@@ -1,37 +1,109 @@
 package com.controllers;
 
 import com.EdgeWeight;
+import com.analysis.ArnoldiEigenSolver;
+import com.analysis.BatchImpulseSimulation;
+import com.analysis.CycleBudget;
+import com.analysis.CycleTable;
+import com.analysis.ImpulseSimulation;
+import com.analysis.ImpulseVectors;
+import com.analysis.LongHorizonSimulation;
+import com.analysis.MapSnapshot;
+import com.analysis.MonteCarloStability;
+import com.analysis.ProgressMonitor;
+import com.analysis.ScenarioSummary;
+import com.analysis.SpectralSensitivity;
+import com.analysis.StructuralAnalysis;
+import com.analysis.StructuralAnalyzer;
+import com.analysis.WeightUncertainty;
+import com.graph.IndexedDigraph;
+import com.graph.PersistentDigraph;
+import com.io.CycleCsv;
+import com.io.MapFiles;
+import com.io.SimulationHistory;
+import com.view.BarnesHutPlacementStrategy;
+import com.view.EdgeHighlight;
+import com.view.ForceLayoutEngine;
+import com.view.GraphEditor;
+import com.view.ImpulseChart;
+import com.view.LevelOfDetail;
+import com.view.MetricsPanel;
+import com.view.RubberBandSelection;
+import com.view.Selection;
+import com.view.ZoomPane;
 import com.brunomnsilva.smartgraph.graph.*;
 import com.brunomnsilva.smartgraph.graphview.*;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.ObservableListBase;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
-import javafx.scene.chart.LineChart;
-import javafx.scene.chart.NumberAxis;
-import javafx.scene.chart.XYChart;
+import javafx.scene.Node;
+import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.control.Alert;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextInputDialog;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.FileChooser;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.function.IntFunction;
 
 public class Controller implements Initializable {
 
   @FXML
   private HBox graphBox;
   private SmartGraphPanel<String, EdgeWeight> graphView;
-  private final List<SmartStylableNode> selected = new ArrayList<>();
+  private IndexedDigraph<String, EdgeWeight> model;
+  private GraphEditor<String, EdgeWeight> editor;
+  private ZoomPane graphViewport;
+  private LevelOfDetail<String, EdgeWeight> levelOfDetail;
+  private ForceLayoutEngine<String, EdgeWeight> layoutEngine;
+  @FXML
+  private CheckBox levelOfDetailCheckBox;
+  @FXML
+  private CheckBox automaticLayoutCheckBox;
+  /**
+   * Число вершин и рёбер, начиная с которого включается упрощённая отрисовка,
+   * а вершины расставляются силовой раскладкой вместо круговой.
+   */
+  private static final int LEVEL_OF_DETAIL_THRESHOLD = 2000;
+  private Selection<String, EdgeWeight> selection;
+  private EdgeHighlight<String, EdgeWeight> sensitivityHighlight;
 
   @Override
   public void initialize(URL url, ResourceBundle resourceBundle) {
-    createGraphView();
+    levelOfDetailCheckBox.selectedProperty().addListener(
+        (observable, oldValue, newValue) -> levelOfDetail.setEnabled(newValue));
+    automaticLayoutCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
+      if (newValue) {
+        layoutEngine.start();
+      } else {
+        layoutEngine.stop();
+      }
+    });
+    createGraphView(getDefaultGraph());
     setupImpulseChart();
+    setupCycleTable();
+    metricsContainer.getChildren().setAll(new MetricsPanel());
 
     stepsField.textProperty().addListener((observable, oldValue, newValue) -> {
       if (!newValue.matches("\\d*")) {
@@ -46,80 +118,47 @@ public class Controller implements Initializable {
         "Создание новой вершины",
         "Введите название новой вершины",
         name -> {
+          GraphEditor<String, EdgeWeight>.Batch batch = editor.begin();
           try {
-            graphView.getModel().insertVertex(name);
+            batch.insertVertex(name);
           } catch (InvalidVertexException _ignored) {
             showAlert("Вершина с данным именем уже существует!");
+          } finally {
+            batch.commit();
           }
 
-          new ArrayList<>(selected).forEach(this::select);
-          graphView.update();
+          selection.clear();
         }
     );
   }
 
   @FXML
-  @SuppressWarnings("unchecked")
   private void onEditSelected() {
-    if (selected.size() == 1) {
-      SmartStylableNode item = selected.get(0);
+    if (selection.size() == 1) {
+      Vertex<String> vertex = selection.vertices().isEmpty() ? null : selection.vertices().iterator().next();
+      Edge<EdgeWeight, String> edge = selection.edges().isEmpty() ? null : selection.edges().iterator().next();
       showTextInputDialog(
           "Изменение",
           "Введите новое значение",
           value -> {
-            if (item instanceof SmartGraphVertex) {
-              Vertex<String> vertex = ((SmartGraphVertex<String>) item).getUnderlyingVertex();
-              Vertex<String> newVertex = graphView.getModel().insertVertex(value);
-              graphView.updateAndWait();
-              SmartGraphVertex<String> newItem = (SmartGraphVertex<String>) graphView.getStylableVertex(newVertex);
-              newItem.setPosition(
-                  ((SmartGraphVertex<String>) item).getPositionCenterX(),
-                  ((SmartGraphVertex<String>) item).getPositionCenterY()
-              );
-
-              graphView
-                  .getModel()
-                  .edges()
-                  .stream()
-                  .filter(e -> Arrays.asList(e.vertices()).contains(vertex))
-                  .collect(Collectors.toList())
-                  .forEach(edge -> {
-                    if (vertex.equals(edge.vertices()[0])) {
-                      Edge<EdgeWeight, String> newEdge = graphView
-                          .getModel()
-                          .insertEdge(
-                              newVertex,
-                              edge.vertices()[1],
-                              new EdgeWeight(edge.element().getValue())
-                          );
-                      setEdgeStyle(newEdge);
-                      graphView.getModel().removeEdge(edge);
-                    } else if (vertex.equals(edge.vertices()[1])) {
-                      Edge<EdgeWeight, String> newEdge = graphView
-                          .getModel()
-                          .insertEdge(
-                              edge.vertices()[0],
-                              newVertex,
-                              new EdgeWeight(edge.element().getValue())
-                          );
-                      setEdgeStyle(newEdge);
-                      graphView.getModel().removeEdge(edge);
-                    }
-                  });
-              graphView.getModel().removeVertex(vertex);
-            } else if (item instanceof SmartGraphEdge) {
-              Edge<EdgeWeight, String> edge = ((SmartGraphEdge<EdgeWeight, String>) item).getUnderlyingEdge();
-
-              Edge<EdgeWeight, String> newEdge = graphView
-                  .getModel()
-                  .insertEdge(edge.vertices()[0], edge.vertices()[1], new EdgeWeight(Double.parseDouble(value.trim())));
-
-              setEdgeStyle(newEdge);
-              graphView.getModel().removeEdge(edge);
+            GraphEditor<String, EdgeWeight>.Batch batch = editor.begin();
+            try {
+              if (vertex != null) {
+                // Переименование на месте: рёбра и положение вершины сохраняются
+                batch.relabel(vertex, value);
+              } else {
+                // Между парой вершин допускается одно ребро, поэтому вес меняем на месте
+                batch.reweight(edge, new EdgeWeight(Double.parseDouble(value.trim())));
+              }
+            } catch (NumberFormatException e) {
+              showAlert("Некорректное число!");
+            } catch (InvalidVertexException e) {
+              showAlert("Вершина с данным именем уже существует!");
+            } finally {
+              batch.commit();
             }
 
-            new ArrayList<>(selected).forEach(this::select);
-            graphView.update();
+            selection.clear();
           }
       );
     } else {
@@ -128,33 +167,36 @@ public class Controller implements Initializable {
   }
 
   @FXML
-  @SuppressWarnings("unchecked")
   private void onConnectSelected() {
-    if (selected.size() == 2 && selected.stream().allMatch(item -> item instanceof SmartGraphVertex)) {
+    if (selection.vertices().size() == 2 && selection.edges().isEmpty()) {
+      Iterator<Vertex<String>> ends = selection.vertices().iterator();
+      Vertex<String> from = ends.next();
+      Vertex<String> to = ends.next();
       showTextInputDialog(
           "Создание связи",
           "Введите вес связи (число от -1 до 1)",
           value -> {
+            double weight;
             try {
-              double weight = Double.parseDouble(value.trim());
-              if (weight < -1.0 || weight > 1.0) {
-                showAlert("Вес должен быть в диапазоне от -1 до 1!");
-                return;
-              }
-
-              Edge<EdgeWeight, String> edge = graphView.getModel().insertEdge(
-                  ((SmartGraphVertex<String>) selected.get(0)).getUnderlyingVertex(),
-                  ((SmartGraphVertex<String>) selected.get(1)).getUnderlyingVertex(),
-                  new EdgeWeight(weight)
-              );
-
-              setEdgeStyle(edge);
-              new ArrayList<>(selected).forEach(this::select);
+              weight = Double.parseDouble(value.trim());
             } catch (NumberFormatException e) {
               showAlert("Некорректное число!");
+              return;
+            }
+            if (weight < -1.0 || weight > 1.0) {
+              showAlert("Вес должен быть в диапазоне от -1 до 1!");
+              return;
+            }
+
+            GraphEditor<String, EdgeWeight>.Batch batch = editor.begin();
+            try {
+              batch.insertEdge(from, to, new EdgeWeight(weight));
             } catch (InvalidVertexException | InvalidEdgeException e) {
               showAlert("Не удалось создать ребро: " + e.getMessage());
+            } finally {
+              batch.commit();
             }
+            selection.clear();
           }
       );
     } else {
@@ -162,31 +204,34 @@ public class Controller implements Initializable {
     }
   }
 
+  /**
+   * Удаляет выделенное за время, линейное по числу выделенных элементов и их рёбер:
+   * принадлежность модели проверяется по хеш-индексу, рёбра удаляются раньше вершин.
+   */
   @FXML
-  @SuppressWarnings("unchecked")
   private void onRemoveSelected() {
-    selected.forEach(item -> {
-      if (item instanceof SmartGraphVertex
-          && graphView.getModel().vertices().contains(((SmartGraphVertex<String>) item).getUnderlyingVertex())
-      ) {
-        graphView.getModel().removeVertex(((SmartGraphVertex<String>) item).getUnderlyingVertex());
-      } else if (item instanceof SmartGraphEdge
-          && graphView.getModel().edges().contains(((SmartGraphEdge<EdgeWeight, String>) item).getUnderlyingEdge())
-      ) {
-        graphView.getModel().removeEdge(((SmartGraphEdge<EdgeWeight, String>) item).getUnderlyingEdge());
+    List<Edge<EdgeWeight, String>> edges = new ArrayList<>(selection.edges());
+    List<Vertex<String>> vertices = new ArrayList<>(selection.vertices());
+    selection.clear();
+    GraphEditor<String, EdgeWeight>.Batch batch = editor.begin();
+    try {
+      for (Edge<EdgeWeight, String> edge : edges) {
+        if (model.containsEdge(edge)) {
+          batch.removeEdge(edge);
+        }
       }
-    });
-
-    new ArrayList<>(selected).forEach(this::select);
-    graphView.update();
+      for (Vertex<String> vertex : vertices) {
+        if (model.containsVertex(vertex)) {
+          batch.removeVertex(vertex);
+        }
+      }
+    } finally {
+      batch.commit();
+    }
   }
 
-  @SuppressWarnings("unchecked")
-  private void setEdgeStyle(Edge<EdgeWeight, String> edge) {
-    graphView.updateAndWait();
-    SmartGraphEdge<EdgeWeight, String> smartEdge = (SmartGraphEdge<EdgeWeight, String>) graphView
-        .getStylableEdge(edge);
-    smartEdge.setStyleClass(edge.element().getValue() < 0 ? "edge-dashed" : "edge");
+  private static String edgeStyleClass(EdgeWeight weight) {
+    return weight.getValue() < 0 ? "edge-dashed" : "edge";
   }
 
   public void initGraphView() {
@@ -195,30 +240,260 @@ public class Controller implements Initializable {
     } else {
       System.out.println("Exception!!! Scene has not yet been initialized.");
     }
+    Scene scene = graphBox.getScene();
+    if (scene != null) {
+      scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN), this::onUndo);
+      scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN), this::onRedo);
+      scene.getAccelerators().put(
+          new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN), this::onRedo);
+    }
   }
 
-  private void createGraphView() {
-    SmartPlacementStrategy strategy = new SmartCircularSortedPlacementStrategy();
-    graphView = new SmartGraphPanel<>(getDefaultGraph(), strategy);
+  @FXML
+  private ComboBox<String> variantComboBox;
+  /**
+   * Полные результаты анализа по версиям графа: после отмены правки или перехода к варианту
+   * уже считанная версия не анализируется заново. Версии, выпавшие из истории и вариантов,
+   * освобождаются вместе с результатами.
+   */
+  private final Map<PersistentDigraph<String, EdgeWeight>, StructuralAnalysis> analysisByVersion =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  @FXML
+  private void onUndo() {
+    selection.clear();
+    editor.undo();
+  }
 
-    graphView.setVertexDoubleClickAction(this::select);
-    graphView.setEdgeDoubleClickAction(this::select);
+  @FXML
+  private void onRedo() {
+    selection.clear();
+    editor.redo();
+  }
+
+  @FXML
+  private void onSaveVariant() {
+    showTextInputDialog(
+        "Сохранение варианта",
+        "Введите название варианта",
+        value -> {
+          String name = value.trim();
+          if (name.isEmpty()) {
+            showAlert("Название варианта не может быть пустым!");
+            return;
+          }
+          editor.history().saveVariant(name);
+          variantComboBox.getItems().setAll(editor.history().variantNames());
+          variantComboBox.getSelectionModel().select(name);
+        }
+    );
+  }
+
+  @FXML
+  private void onCheckoutVariant() {
+    String name = variantComboBox.getValue();
+    if (name == null || editor.history().variant(name) == null) {
+      showAlert("Выберите сохранённый вариант!");
+      return;
+    }
+    selection.clear();
+    editor.checkout(editor.history().variant(name));
+  }
+
+  /**
+   * Анализирует сохранённые варианты в фоне и выводит сравнительную таблицу на вкладку «Решение».
+   */
+  @FXML
+  private void onCompareVariants() {
+    List<String> names = editor.history().variantNames();
+    if (names.isEmpty()) {
+      showAlert("Сначала сохраните хотя бы один вариант!");
+      return;
+    }
+    CycleBudget budget = readCycleBudget();
+    if (budget == null) {
+      return;
+    }
+    List<PersistentDigraph<String, EdgeWeight>> versions = new ArrayList<>();
+    for (String name : names) {
+      versions.add(editor.history().variant(name));
+    }
+    runInBackground("Сравнение вариантов", new MonitoredTask<String>() {
+      @Override
+      protected String call() {
+        StringBuilder report = new StringBuilder(String.format(
+            "%-16s %7s %7s %9s %9s %8s %6s %6s%n",
+            "Вариант", "Вершин", "Рёбер", "Циклов", "Отриц.", "ρ", "Стр.", "Возм."));
+        boolean partial = false;
+        for (int i = 0; i < versions.size(); i++) {
+          progress(i, versions.size(), "Вариант «" + names.get(i) + "»");
+          StructuralAnalysis analysis = analyze(versions.get(i), budget, this);
+          String bound = analysis.isComplete() ? "" : "+";
+          partial |= !analysis.isComplete();
+          report.append(String.format("%-16s %7d %7d %9s %9s %8.4f %6s %6s%n",
+              names.get(i),
+              versions.get(i).vertexCount(),
+              versions.get(i).edgeCount(),
+              analysis.cycleCount() + bound,
+              analysis.negativeCycleCount() + bound,
+              analysis.spectralRadius(),
+              !analysis.isComplete() ? "?" : analysis.isStructurallyStable() ? "Да" : "Нет",
+              analysis.isPerturbationStable() ? "Да" : "Нет"));
+        }
+        if (partial) {
+          report.append("\n+ — перечисление циклов остановлено по лимиту").append(describeBudget(budget));
+        }
+        return report.toString();
+      }
+    }, structuralAnalysisText::setText);
+  }
+
+  /**
+   * Готовый результат для версии либо анализ свежим анализатором: кэш компонент текущего
+   * графа к другой версии не относится.
+   */
+  private StructuralAnalysis analyze(PersistentDigraph<String, EdgeWeight> version, CycleBudget budget,
+                                     ProgressMonitor monitor) {
+    StructuralAnalysis analysis = analysisByVersion.get(version);
+    if (analysis == null) {
+      analysis = new StructuralAnalyzer().prepare(snapshotOf(version), 0, budget).run(monitor);
+      if (analysis.isComplete()) {
+        analysisByVersion.put(version, analysis);
+      }
+    }
+    return analysis;
+  }
+
+  private void createGraphView(IndexedDigraph<String, EdgeWeight> graph) {
+    boolean large = graph.numVertices() + graph.numEdges() > LEVEL_OF_DETAIL_THRESHOLD;
+    SmartPlacementStrategy strategy = large
+        ? new BarnesHutPlacementStrategy()
+        : new SmartCircularSortedPlacementStrategy();
+    model = graph;
+    // Идентификаторы вершин нового графа начинаются заново — кэш анализа прежнего графа не годится
+    structuralAnalyzer = new StructuralAnalyzer();
+    model.addChangeListener(structuralAnalyzer::touch);
+    // Подсветка чувствительности относится к весам, для которых её считали
+    model.addChangeListener(vertexId -> sensitivityHighlight.clear());
+    graphView = new SmartGraphPanel<>(model, strategy);
+    editor = new GraphEditor<>(model, graphView, Controller::edgeStyleClass);
+    // История и варианты относятся к прежнему графу
+    variantComboBox.getItems().clear();
+    selection = new Selection<>(graphView, Controller::edgeStyleClass);
+    sensitivityHighlight = new EdgeHighlight<>(graphView);
+
+    graphView.setVertexDoubleClickAction(selection::toggle);
+    graphView.setEdgeDoubleClickAction(selection::toggle);
 
     graphView
         .getSmartEdges()
-        .stream()
-        .filter(e -> e.getUnderlyingEdge().element().getValue() < 0)
-        .forEach(e -> e.setStyleClass("edge-dashed"));
+        .forEach(e -> e.setStyleClass(edgeStyleClass(e.getUnderlyingEdge().element())));
+
+    graphViewport = new ZoomPane(graphView);
+    levelOfDetail = new LevelOfDetail<>(model, graphView, graphViewport, weight -> weight.getValue() < 0);
+    HBox.setHgrow(graphViewport, Priority.ALWAYS);
+    graphBox.getChildren().add(graphViewport);
+    new RubberBandSelection<>(model, graphView, graphViewport, selection);
+
+    layoutEngine = new ForceLayoutEngine<>(model, graphView);
+    if (automaticLayoutCheckBox.isSelected()) {
+      layoutEngine.start();
+    }
+    if (levelOfDetailCheckBox.isSelected() != large) {
+      levelOfDetailCheckBox.setSelected(large);
+    } else {
+      levelOfDetail.setEnabled(large);
+    }
+  }
+
+  @FXML
+  private void onOpenMap() {
+    File file = mapFileChooser("Открыть карту").showOpenDialog(graphBox.getScene().getWindow());
+    if (file == null) {
+      return;
+    }
+    runInBackground("Загрузка карты", new MonitoredTask<MapSnapshot>() {
+      @Override
+      protected MapSnapshot call() throws IOException {
+        return MapFiles.read(file.toPath());
+      }
+    }, this::loadMap);
+  }
 
-    HBox.setHgrow(graphView, Priority.ALWAYS);
-    graphBox.getChildren().add(graphView);
+  @FXML
+  private void onSaveMap() {
+    FileChooser chooser = mapFileChooser("Сохранить карту");
+    File file = chooser.showSaveDialog(graphBox.getScene().getWindow());
+    if (file == null) {
+      return;
+    }
+    // Без расширения файл сохраняется в формате выбранного фильтра
+    if (!file.getName().contains(".") && chooser.getSelectedExtensionFilter() != null) {
+      String pattern = chooser.getSelectedExtensionFilter().getExtensions().get(0);
+      file = new File(file.getPath() + pattern.substring(pattern.indexOf('.')));
+    }
+    File target = file;
+    MapSnapshot snapshot = snapshotModel();
+    runInBackground("Сохранение карты", new MonitoredTask<Void>() {
+      @Override
+      protected Void call() throws IOException {
+        MapFiles.write(snapshot, target.toPath());
+        return null;
+      }
+    }, ignored -> {
+    });
   }
 
-  private Graph<String, EdgeWeight> getDefaultGraph() {
-    Digraph<String, EdgeWeight> d = new DigraphEdgeList<>();
+  private static FileChooser mapFileChooser(String title) {
+    FileChooser chooser = new FileChooser();
+    chooser.setTitle(title);
+    chooser.getExtensionFilters().addAll(
+        new FileChooser.ExtensionFilter("Двоичный формат (*.cmap)", "*." + MapFiles.BINARY_EXTENSION),
+        new FileChooser.ExtensionFilter("Список рёбер CSV (*.csv)", "*." + MapFiles.CSV_EXTENSION),
+        new FileChooser.ExtensionFilter("JSON (*.json)", "*." + MapFiles.JSON_EXTENSION)
+    );
+    return chooser;
+  }
+
+  /**
+   * Заменяет текущий граф загруженной картой и пересоздаёт панель.
+   */
+  private void loadMap(MapSnapshot map) {
+    IndexedDigraph<String, EdgeWeight> graph = new IndexedDigraph<>();
+    List<Vertex<String>> vertices = new ArrayList<>(map.vertexCount());
+    int[] rowStart = map.adjacency().rowStart();
+    int[] columns = map.adjacency().columnIndices();
+    double[] weights = map.adjacency().values();
+    try {
+      for (int v = 0; v < map.vertexCount(); v++) {
+        vertices.add(graph.insertVertex(map.label(v)));
+      }
+      for (int v = 0; v < map.vertexCount(); v++) {
+        for (int p = rowStart[v]; p < rowStart[v + 1]; p++) {
+          graph.insertEdge(vertices.get(v), vertices.get(columns[p]), new EdgeWeight(weights[p]));
+        }
+      }
+    } catch (InvalidVertexException | InvalidEdgeException e) {
+      showAlert("Не удалось загрузить карту: " + e.getMessage());
+      return;
+    }
+
+    levelOfDetail.setEnabled(false);
+    layoutEngine.stop();
+    graphBox.getChildren().remove(graphViewport);
+    createGraphView(graph);
+    // Панель должна получить размеры до расстановки вершин
+    graphBox.applyCss();
+    graphBox.layout();
+    graphView.init();
+  }
+
+  private IndexedDigraph<String, EdgeWeight> getDefaultGraph() {
+    IndexedDigraph<String, EdgeWeight> d = new IndexedDigraph<>();
 
     // Создаём вершины
-    Vertex<String>[] vertices = new Vertex[15];
+    @SuppressWarnings("unchecked")
+    Vertex<String>[] vertices = (Vertex<String>[]) new Vertex<?>[15];
     for (int i = 0; i < 15; i++) {
       vertices[i] = d.insertVertex(String.valueOf(i + 1));
     }
@@ -272,27 +547,30 @@ public class Controller implements Initializable {
     return d;
   }
 
-  private void select(SmartStylableNode item) {
-    if (selected.contains(item)) {
-      selected.remove(item);
-      item.setStyleClass(getDefaultStyleClass(item));
-    } else {
-      selected.add(item);
-      item.setStyleClass(getDefaultStyleClass(item) + "-selected");
+  /**
+   * Неизменяемый снимок модели в порядке индексов вершин.
+   */
+  private MapSnapshot snapshotModel() {
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    for (Vertex<String> vertex : model.vertices()) {
+      builder.addVertex(vertex.element(), model.idOf(vertex));
+    }
+    for (Edge<EdgeWeight, String> edge : model.edges()) {
+      Vertex<String>[] ends = edge.vertices();
+      builder.addEdge(model.indexOf(ends[0]), model.indexOf(ends[1]), edge.element().getValue());
     }
+    return builder.build();
   }
 
-  @SuppressWarnings("unchecked")
-  private String getDefaultStyleClass(SmartStylableNode item) {
-    if (item instanceof SmartGraphVertex) {
-      return "vertex";
-    } else if (item instanceof SmartGraphEdge) {
-      return ((SmartGraphEdge<EdgeWeight, String>) item).getUnderlyingEdge().element().getValue() < 0
-          ? "edge-dashed"
-          : "edge";
-    } else {
-      return "";
-    }
+  /**
+   * Снимок версии графа с идентификаторами вершин; вершины — по возрастанию идентификаторов.
+   */
+  private static MapSnapshot snapshotOf(PersistentDigraph<String, EdgeWeight> version) {
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    Map<Long, Integer> indices = new HashMap<>();
+    version.forEachVertex((id, label) -> indices.put(id, builder.addVertex(label, id)));
+    version.forEachEdge((from, to, weight) -> builder.addEdge(indices.get(from), indices.get(to), weight.getValue()));
+    return builder.build();
   }
 
   private void showTextInputDialog(
@@ -320,185 +598,424 @@ public class Controller implements Initializable {
 
   @FXML
   private TextArea structuralAnalysisText;
+  @FXML
+  private TextField cycleLimitField;
+  @FXML
+  private TextField timeLimitField;
+  private StructuralAnalyzer structuralAnalyzer;
+  @FXML
+  private TableView<Integer> cycleTable;
+  private final CycleRows cycleRows = new CycleRows();
+  private CycleTable cycles;
 
   @FXML
   private void onRunStructuralAnalysis() {
     structuralAnalysisText.clear();
+    sensitivityHighlight.clear();
+    showCycles(null);
 
     if (graphView == null) {
       structuralAnalysisText.setText("Граф не инициализирован.");
       return;
     }
 
-    Graph<String, EdgeWeight> graph = graphView.getModel();
+    CycleBudget budget = readCycleBudget();
+    if (budget == null) {
+      return;
+    }
 
-    StringBuilder report = new StringBuilder();
-    int vertexCount = graph.vertices().size();
-    int edgeCount = graph.edges().size();
-    report.append("Вершин: ").append(vertexCount).append("\n");
-    report.append("Рёбер: ").append(edgeCount).append("\n");
-
-    if (!(graph instanceof Digraph)) {
-      report.append("Анализ циклов поддерживается только для ориентированных графов.\n");
-      structuralAnalysisText.setText(report.toString());
+    MapSnapshot snapshot = snapshotModel();
+    PersistentDigraph<String, EdgeWeight> version = editor.current();
+    StructuralAnalysis known = analysisByVersion.get(version);
+    if (known != null) {
+      structuralAnalysisText.setText(structuralReport(snapshot, known, budget));
+      showCycles(CycleTable.of(snapshot, known));
       return;
     }
+    StructuralAnalyzer.Job job = structuralAnalyzer.prepare(snapshot, model.version(), budget);
+    runInBackground("Структурный анализ", new MonitoredTask<Map.Entry<String, CycleTable>>() {
+      @Override
+      protected Map.Entry<String, CycleTable> call() {
+        StructuralAnalysis analysis = job.run(this);
+        if (analysis.isComplete()) {
+          analysisByVersion.put(version, analysis);
+        }
+        return new AbstractMap.SimpleImmutableEntry<>(
+            structuralReport(snapshot, analysis, budget), CycleTable.of(snapshot, analysis));
+      }
 
-    Digraph<String, EdgeWeight> digraph = (Digraph<String, EdgeWeight>) graph;
+      @Override
+      protected void cancelled() {
+        job.abandon();
+      }
+    }, result -> {
+      structuralAnalysisText.setText(result.getKey());
+      showCycles(result.getValue());
+    });
+  }
 
-    List<List<Vertex<String>>> cycles = findAllCycles(digraph);
+  /**
+   * Колонки таблицы циклов. Таблица виртуализована: значения ячеек вычисляются только
+   * для видимых строк, а сортировка переставляет индексы строк в {@link CycleTable}.
+   */
+  private void setupCycleTable() {
+    cycleTable.getColumns().setAll(Arrays.asList(
+        cycleColumn("№", CycleTable.Key.NUMBER, 60, row -> Integer.toString(cycles.number(row))),
+        cycleColumn("Длина", CycleTable.Key.LENGTH, 55, row -> Integer.toString(cycles.length(row))),
+        cycleColumn("Знак", CycleTable.Key.SIGN, 45, row -> cycles.isNegative(row) ? "−" : "+"),
+        cycleColumn("|Произведение|", CycleTable.Key.MAGNITUDE, 95,
+            row -> String.format("%.4g", Math.abs(cycles.product(row)))),
+        cycleColumn("Цикл", null, 400, row -> cycles.path(row))));
+    cycleTable.setFixedCellSize(24);
+    cycleTable.setItems(cycleRows);
+    cycleTable.setSortPolicy(table -> {
+      if (cycles == null) {
+        return true;
+      }
+      if (table.getSortOrder().isEmpty()) {
+        cycleRows.setOrder(cycles.order(CycleTable.Key.NUMBER, false));
+      } else {
+        TableColumn<Integer, ?> column = table.getSortOrder().get(0);
+        cycleRows.setOrder(cycles.order((CycleTable.Key) column.getUserData(),
+            column.getSortType() == TableColumn.SortType.DESCENDING));
+      }
+      return true;
+    });
+  }
 
-    int negativeCycles = 0;
-    for (int i = 0; i < cycles.size(); i++) {
-      List<Vertex<String>> cycle = cycles.get(i);
-      boolean isNegative = isNegativeCycle(digraph, cycle);
-      if (isNegative) negativeCycles++;
+  /**
+   * @param key ключ сортировки или null для несортируемой колонки
+   */
+  private TableColumn<Integer, String> cycleColumn(String title, CycleTable.Key key, double width,
+                                                   IntFunction<String> text) {
+    TableColumn<Integer, String> column = new TableColumn<>(title);
+    column.setUserData(key);
+    column.setSortable(key != null);
+    column.setPrefWidth(width);
+    column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(text.apply(cell.getValue())));
+    return column;
+  }
+
+  private void showCycles(CycleTable table) {
+    cycles = table;
+    cycleTable.getSortOrder().clear();
+    cycleRows.setOrder(table == null ? new int[0] : table.order(CycleTable.Key.NUMBER, false));
+    cycleTable.scrollTo(0);
+  }
 
-      report.append("\nЦикл ").append(i + 1).append(": ");
-      report.append(cycle.stream()
-        .map(Vertex::element)
-        .collect(Collectors.joining(" → ")));
-      report.append(" (").append(isNegative ? "отрицательный" : "положительный").append(")");
+  @FXML
+  private void onExportCycles() {
+    if (cycles == null || cycles.size() == 0) {
+      showAlert("Сначала запустите структурный анализ графа с циклами!");
+      return;
     }
-    report.append("\n\nЦиклов: ").append(cycles.size()).append("\n");
-    report.append("Отрицательных циклов: ").append(negativeCycles).append("\n");
+    FileChooser chooser = new FileChooser();
+    chooser.setTitle("Экспорт циклов");
+    chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV (*.csv)", "*.csv"));
+    File file = chooser.showSaveDialog(graphBox.getScene().getWindow());
+    if (file == null) {
+      return;
+    }
+    // Выгружается текущий порядок таблицы; массив порядка после установки не меняется
+    CycleTable table = cycles;
+    int[] order = cycleRows.order;
+    runInBackground("Экспорт циклов", new MonitoredTask<Void>() {
+      @Override
+      protected Void call() throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+          CycleCsv.write(writer, table, order, this);
+        }
+        return null;
+      }
+    }, ignored -> {
+    });
+  }
 
-    report.append("\nСтруктурная устойчивость: ");
-    if (structurallyStableModel(negativeCycles)) {
-      report.append("Да");
-    } else {
-      report.append("Нет");
+  @FXML
+  private TextField sensitivityCountField;
+
+  /**
+   * Чувствительность спектрального радиуса ко всем весам по ведущим собственным векторам:
+   * вместо E повторных решений — одно решение на компоненту, достигающую ρ. Сильнейшие
+   * связи выводятся списком и подсвечиваются на графе.
+   */
+  @FXML
+  private void onRunSensitivity() {
+    structuralAnalysisText.clear();
+    sensitivityHighlight.clear();
+
+    int count;
+    try {
+      count = Integer.parseInt(sensitivityCountField.getText().trim());
+    } catch (NumberFormatException e) {
+      count = 0;
+    }
+    if (count <= 0) {
+      showAlert("Число связей должно быть положительным целым!");
+      return;
+    }
+    CycleBudget budget = readCycleBudget();
+    if (budget == null) {
+      return;
     }
-    report.append("\n");
 
-    report.append("Устойчивость по возмущению: ");
-    double spectralRadius = computeSpectralRadius(digraph);
-    if (!Double.isNaN(spectralRadius)) {
-      report.append(String.format("%.4f", spectralRadius));
-      if (spectralRadius < 1.0) {
-        report.append(" < 1, Да");
-      } else {
-        report.append(" > 1, Нет");
+    int top = count;
+    MapSnapshot snapshot = snapshotModel();
+    PersistentDigraph<String, EdgeWeight> version = editor.current();
+    StructuralAnalysis known = analysisByVersion.get(version);
+    StructuralAnalyzer.Job job = known == null ? structuralAnalyzer.prepare(snapshot, model.version(), budget) : null;
+    runInBackground("Чувствительность ρ", new MonitoredTask<SpectralSensitivity>() {
+      @Override
+      protected SpectralSensitivity call() {
+        StructuralAnalysis analysis = known;
+        if (analysis == null) {
+          analysis = job.run(this);
+          if (analysis.isComplete()) {
+            analysisByVersion.put(version, analysis);
+          }
+        }
+        return SpectralSensitivity.compute(snapshot, analysis, new ArnoldiEigenSolver(), this);
       }
-    } else {
-      report.append("Ошибка вычисления");
-    }
-    structuralAnalysisText.setText(report.toString());
-  }
 
-  private List<List<Vertex<String>>> findAllCycles(Digraph<String, EdgeWeight> digraph) {
-    List<List<Vertex<String>>> allCycles = new ArrayList<>();
-    List<Vertex<String>> vertices = new ArrayList<>(digraph.vertices());
+      @Override
+      protected void cancelled() {
+        if (job != null) {
+          job.abandon();
+        }
+      }
+    }, sensitivity -> {
+      structuralAnalysisText.setText(sensitivityReport(snapshot, sensitivity, top));
+      highlightSensitivity(snapshot, sensitivity, top);
+    });
+  }
 
-    for (Vertex<String> start : vertices) {
-      List<Vertex<String>> path = new ArrayList<>();
-      Set<Vertex<String>> pathSet = new HashSet<>(); // для быстрой проверки
-      findCyclesFrom(digraph, start, start, path, pathSet, allCycles);
+  private static String sensitivityReport(MapSnapshot snapshot, SpectralSensitivity sensitivity, int top) {
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("Спектральный радиус ρ = %.4f%n", sensitivity.spectralRadius()));
+    if (sensitivity.edgeCount() == 0 && sensitivity.isWellConditioned()) {
+      report.append("В графе нет циклов: ρ не зависит от весов связей.\n");
+      return report.toString();
     }
+    report.append("∂ρ/∂w найдена для ").append(sensitivity.edgeCount())
+        .append(" связей в компонентах, на которых достигается ρ; для остальных связей она равна нулю.\n");
+    report.append("Δρ — изменение ρ при удалении связи (в первом приближении: −w·∂ρ/∂w).\n");
+
+    report.append("\nДестабилизирующие связи (рост веса увеличивает ρ):\n");
+    appendSensitivityRows(report, snapshot, sensitivity, sensitivity.destabilising(top));
+    report.append("\nСтабилизирующие связи (рост веса уменьшает ρ):\n");
+    appendSensitivityRows(report, snapshot, sensitivity, sensitivity.stabilising(top));
 
-    // Уберём дубликаты (например, A→B→C→A и B→C→A→B)
-    return removeDuplicateCycles(allCycles);
+    if (!sensitivity.isConverged()) {
+      report.append("\nМетод Арнольди не сошёлся — значения приближённые");
+    }
+    if (!sensitivity.isWellConditioned()) {
+      report.append("\nВедущее значение некоторой компоненты кратно — её связи не оценены");
+    }
+    return report.toString();
   }
 
-  private void findCyclesFrom(
-    Digraph<String, EdgeWeight> digraph,
-    Vertex<String> start,
-    Vertex<String> current,
-    List<Vertex<String>> path,
-    Set<Vertex<String>> pathSet,
-    List<List<Vertex<String>>> allCycles
-  ) {
-    path.add(current);
-    pathSet.add(current);
+  private static void appendSensitivityRows(StringBuilder report, MapSnapshot snapshot,
+                                            SpectralSensitivity sensitivity, int[] edges) {
+    if (edges.length == 0) {
+      report.append("  нет\n");
+    }
+    for (int i = 0; i < edges.length; i++) {
+      int e = edges[i];
+      report.append(String.format("  %d. %s → %s: w = %.3f, ∂ρ/∂w = %+.4f, Δρ ≈ %+.4f%n",
+          i + 1, snapshot.label(sensitivity.from(e)), snapshot.label(sensitivity.to(e)),
+          sensitivity.weight(e), sensitivity.derivative(e), sensitivity.removalEffect(e)));
+    }
+  }
 
-    try {
-      for (Edge<EdgeWeight, String> edge : digraph.outboundEdges(current)) {
-        Vertex<String> neighbor = digraph.opposite(current, edge);
-        if (neighbor.equals(start) && path.size() > 1) {
-          List<Vertex<String>> cycle = new ArrayList<>(path);
-          cycle.add(start);
-          allCycles.add(cycle);
-        } else if (!pathSet.contains(neighbor)) {
-          findCyclesFrom(digraph, start, neighbor, path, pathSet, allCycles);
-        }
-      }
-    } catch (InvalidVertexException e) {
-      e.printStackTrace();
+  /**
+   * Подсвечивает сильнейшие связи; вершины ищутся по идентификаторам, поэтому рёбра,
+   * удалённые после снятия снимка, пропускаются.
+   */
+  private void highlightSensitivity(MapSnapshot snapshot, SpectralSensitivity sensitivity, int top) {
+    Map<Edge<EdgeWeight, String>, String> styleClasses = new LinkedHashMap<>();
+    for (int e : sensitivity.destabilising(top)) {
+      putEdgeStyle(styleClasses, snapshot, sensitivity, e, "edge-destabilising");
     }
+    for (int e : sensitivity.stabilising(top)) {
+      putEdgeStyle(styleClasses, snapshot, sensitivity, e, "edge-stabilising");
+    }
+    sensitivityHighlight.show(styleClasses);
+  }
 
-    path.remove(path.size() - 1);
-    pathSet.remove(current);
+  private void putEdgeStyle(Map<Edge<EdgeWeight, String>, String> styleClasses, MapSnapshot snapshot,
+                            SpectralSensitivity sensitivity, int e, String styleClass) {
+    Vertex<String> from = model.vertexById(snapshot.id(sensitivity.from(e)));
+    Vertex<String> to = model.vertexById(snapshot.id(sensitivity.to(e)));
+    Edge<EdgeWeight, String> edge = from == null || to == null ? null : model.edgeBetween(from, to);
+    if (edge != null) {
+      styleClasses.put(edge, styleClass);
+    }
   }
 
-  private List<List<Vertex<String>>> removeDuplicateCycles(List<List<Vertex<String>>> cycles) {
-    Set<List<Vertex<String>>> uniqueCycles = new HashSet<>();
+  @FXML
+  private TextField monteCarloSamplesField;
+  @FXML
+  private TextField monteCarloSpreadField;
+  @FXML
+  private TextField monteCarloSeedField;
+  @FXML
+  private TextField monteCarloTimeField;
+
+  /**
+   * Вероятность неустойчивости при неточных весах: выборки весов из интервалов вокруг
+   * экспертных значений оцениваются параллельно в пределах лимита времени. Если задан вектор
+   * импульса, по каждой выборке считается и пик процесса за заданное число тактов.
+   */
+  @FXML
+  private void onRunMonteCarlo() {
+    structuralAnalysisText.clear();
+    sensitivityHighlight.clear();
 
-    for (List<Vertex<String>> cycle : cycles) {
-      // Убираем последний элемент (дубль первого)
-      List<Vertex<String>> simpleCycle = new ArrayList<>(cycle.subList(0, cycle.size() - 1));
+    int samples;
+    WeightUncertainty uncertainty;
+    long seed;
+    long timeLimit;
+    try {
+      samples = Integer.parseInt(monteCarloSamplesField.getText().trim());
+      uncertainty = WeightUncertainty.parse(monteCarloSpreadField.getText());
+      String seedText = monteCarloSeedField.getText().trim();
+      seed = seedText.isEmpty() ? 0L : Long.parseLong(seedText);
+      String seconds = monteCarloTimeField.getText().trim();
+      timeLimit = seconds.isEmpty() ? Long.MAX_VALUE : Math.round(Double.parseDouble(seconds) * 1000);
+    } catch (NumberFormatException e) {
+      showAlert("Некорректные параметры Монте-Карло! Разброс — число (0.1) или доля в процентах (10%).");
+      return;
+    } catch (IllegalArgumentException e) {
+      showAlert(e.getMessage());
+      return;
+    }
+    if (samples <= 0 || timeLimit <= 0) {
+      showAlert("Число выборок и лимит времени должны быть положительными!");
+      return;
+    }
 
-      // Нормализуем: сдвигаем, чтобы начинать с минимальной вершины (по имени)
-      int minIndex = 0;
-      String minName = simpleCycle.get(0).element();
-      for (int i = 1; i < simpleCycle.size(); i++) {
-        String name = simpleCycle.get(i).element();
-        if (name.compareTo(minName) < 0) {
-          minName = name;
-          minIndex = i;
-        }
+    MapSnapshot snapshot = snapshotModel();
+    double[] impulse = null;
+    int steps = 0;
+    if (!impulseVectorField.getText().trim().isEmpty()) {
+      impulse = readImpulse(snapshot.vertexCount());
+      Integer readSteps = readSteps();
+      if (impulse == null || readSteps == null) {
+        return;
       }
+      steps = readSteps;
+    }
 
-      // Создаём нормализованный цикл
-      List<Vertex<String>> normalized = new ArrayList<>();
-      for (int i = 0; i < simpleCycle.size(); i++) {
-        normalized.add(simpleCycle.get((minIndex + i) % simpleCycle.size()));
+    double[] peakImpulse = impulse;
+    int peakSteps = steps;
+    MonteCarloStability monteCarlo = new MonteCarloStability(snapshot, uncertainty);
+    runInBackground("Монте-Карло", new MonitoredTask<MonteCarloStability.Result>() {
+      @Override
+      protected MonteCarloStability.Result call() {
+        return monteCarlo.run(samples, seed, peakImpulse, peakSteps, timeLimit, this);
       }
+    }, result -> structuralAnalysisText.setText(monteCarloReport(result, uncertainty, seed, peakSteps)));
+  }
 
-      uniqueCycles.add(normalized);
+  private static String monteCarloReport(MonteCarloStability.Result result, WeightUncertainty uncertainty,
+                                         long seed, int steps) {
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("Монте-Карло: разброс весов %s, зерно %d%n", uncertainty, seed));
+    report.append(String.format("Выборок: %d из %d за %.1f с%s%n", result.completed(), result.requested(),
+        result.elapsedMillis() / 1000.0, result.isTimedOut() ? " (лимит времени исчерпан)" : ""));
+    if (result.completed() == 0) {
+      return report.toString();
     }
-
-    // Возвращаем в исходном виде (с замыканием)
-    List<List<Vertex<String>>> result = new ArrayList<>();
-    for (List<Vertex<String>> cycle : uniqueCycles) {
-      List<Vertex<String>> fullCycle = new ArrayList<>(cycle);
-      fullCycle.add(cycle.get(0)); // замыкаем
-      result.add(fullCycle);
+    report.append(String.format("Номинальный ρ = %.4f%n", result.nominalRadius()));
+    report.append(String.format("%nP(ρ ≥ 1) = %.4f (95%%: %.4f … %.4f), неустойчивых выборок: %d%n",
+        result.instabilityProbability(), result.instabilityLowerBound(), result.instabilityUpperBound(),
+        result.unstableCount()));
+    report.append(String.format("ρ: среднее %.4f, σ = %.4f%n", result.radiusMean(), result.radiusDeviation()));
+    report.append(String.format("   min %.4f, 5%% %.4f, медиана %.4f, 95%% %.4f, max %.4f%n",
+        result.radiusQuantile(0.0), result.radiusQuantile(0.05), result.radiusQuantile(0.5),
+        result.radiusQuantile(0.95), result.radiusQuantile(1.0)));
+
+    int bins = 10;
+    int[] histogram = result.radiusHistogram(bins);
+    double low = result.radiusQuantile(0.0);
+    double width = (result.radiusQuantile(1.0) - low) / bins;
+    int tallest = 1;
+    for (int count : histogram) {
+      tallest = Math.max(tallest, count);
+    }
+    report.append("\nРаспределение ρ:\n");
+    for (int b = 0; b < bins; b++) {
+      int bar = (int) Math.round(30.0 * histogram[b] / tallest);
+      report.append(String.format("  %.4f … %.4f %6d %s%n", low + b * width, low + (b + 1) * width,
+          histogram[b], new String(new char[bar]).replace('\0', '█')));
     }
 
-    return result;
+    if (result.hasPeaks()) {
+      report.append(String.format("%nПик max|v(t)| за %d тактов: среднее %.4g, медиана %.4g, 95%% %.4g, max %.4g%n",
+          steps, result.peakMean(), result.peakQuantile(0.5), result.peakQuantile(0.95),
+          result.peakQuantile(1.0)));
+    } else {
+      report.append("\nВектор импульса не задан — пики не оценивались.\n");
+    }
+    if (result.notConvergedCount() > 0) {
+      report.append("\nМетод Арнольди не сошёлся в ").append(result.notConvergedCount())
+          .append(" выборках — их ρ приближённые");
+    }
+    return report.toString();
   }
 
-  private boolean isNegativeCycle(Digraph<String, EdgeWeight> digraph, List<Vertex<String>> cycle) {
-    double product = 1.0;
-    try {
-      for (int i = 0; i < cycle.size() - 1; i++) {
-        Vertex<String> from = cycle.get(i);
-        Vertex<String> to = cycle.get(i + 1);
-        Edge<EdgeWeight, String> edge = findEdgeBetween(digraph, from, to);
-        if (edge != null) {
-          product *= edge.element().getValue();
-        }
-      }
-    } catch (InvalidVertexException e) {
-      e.printStackTrace();
+  /**
+   * Текст отчёта структурного анализа; строится в фоновом потоке по неизменяемому снимку.
+   */
+  private String structuralReport(MapSnapshot snapshot, StructuralAnalysis analysis, CycleBudget budget) {
+    StringBuilder report = new StringBuilder();
+    report.append("Вершин: ").append(snapshot.vertexCount()).append("\n");
+    report.append("Рёбер: ").append(snapshot.edgeCount()).append("\n");
+
+    if (analysis.cycleCount() > 0) {
+      report.append("\nЦиклы — в таблице ниже; щелчок по заголовку сортирует их.");
     }
-    return product < 0;
-  }
+    if (!analysis.isComplete()) {
+      report.append("\n\nПеречисление циклов остановлено по лимиту")
+          .append(describeBudget(budget)).append(": показаны не все циклы.");
+    }
+    String bound = analysis.isComplete() ? "" : " (не менее)";
+    report.append("\n\nЦиклов: ").append(analysis.cycleCount()).append(bound).append("\n");
+    report.append("Отрицательных циклов: ").append(analysis.negativeCycleCount()).append(bound).append("\n");
+    report.append("Компонент сильной связности с циклами или петлями: ").append(analysis.components().size());
+    report.append(" (пересчитано: ").append(analysis.recomputedCount());
+    report.append(", из кэша: ").append(analysis.reusedCount()).append(")\n");
 
-  private Edge<EdgeWeight, String> findEdgeBetween(Digraph<String, EdgeWeight> digraph, Vertex<String> u, Vertex<String> v) {
-    try {
-      for (Edge<EdgeWeight, String> edge : digraph.outboundEdges(u)) {
-        if (digraph.opposite(u, edge).equals(v)) {
-          return edge;
-        }
+    report.append("\nСтруктурная устойчивость: ");
+    if (!analysis.isComplete()) {
+      report.append("не определена — перечень циклов неполный");
+    } else if (analysis.isStructurallyStable()) {
+      report.append("Да");
+    } else {
+      report.append("Нет");
+    }
+    report.append("\n");
+
+    report.append("Устойчивость по возмущению: ");
+    double spectralRadius = analysis.spectralRadius();
+    report.append(String.format("%.4f", spectralRadius));
+    if (analysis.isPerturbationStable()) {
+      report.append(" < 1, Да");
+    } else {
+      report.append(" > 1, Нет");
+    }
+    if (analysis.leadingCount() > 0) {
+      report.append("\nВедущие собственные значения:");
+      for (int i = 0; i < analysis.leadingCount(); i++) {
+        report.append(i == 0 ? " " : "; ").append(analysis.formatLeading(i));
       }
-    } catch (InvalidVertexException e) {
-      e.printStackTrace();
     }
-    return null;
+    if (!analysis.isSpectrumConverged()) {
+      report.append("\nМетод Арнольди не сошёлся — значение приближённое");
+    }
+    return report.toString();
   }
 
-
   @FXML
   private TextField impulseVectorField;
 
@@ -511,52 +1028,69 @@ public class Controller implements Initializable {
     }
 
     try {
-      String[] parts = input.split(",");
-      double[] vector = new double[parts.length];
-      for (int i = 0; i < parts.length; i++) {
-        vector[i] = Double.parseDouble(parts[i].trim());
-      }
+      double[] vector = ImpulseVectors.parse(input);
 
-      if (graphView == null || !(graphView.getModel() instanceof Digraph)) {
+      if (model == null) {
         showAlert("Граф не инициализирован.");
         return;
       }
 
-      Digraph<String, EdgeWeight> graph = (Digraph<String, EdgeWeight>) graphView.getModel();
-      List<Vertex<String>> verticesInOrder = getVerticesInOrder(graph);
+      List<Vertex<String>> verticesInOrder = new ArrayList<>(model.vertices());
 
       if (vector.length != verticesInOrder.size()) {
         showAlert("Вектор должен содержать " + verticesInOrder.size() + " значений (по числу вершин)!");
         return;
       }
 
-      int steps;
+      Integer steps = readSteps();
+      if (steps == null) {
+        return;
+      }
+      // История пишется во временный файл, отображённый в память: куча от длины прогона не зависит,
+      // но на диске должно хватить места
+      SimulationHistory.Precision precision = floatHistoryCheckBox.isSelected()
+          ? SimulationHistory.Precision.FLOAT
+          : SimulationHistory.Precision.DOUBLE;
+      long required = SimulationHistory.requiredBytes(verticesInOrder.size(), steps, precision);
       try {
-        steps = Integer.parseInt(stepsField.getText().trim());
-        if (steps < 0) {
-          showAlert("Количество тактов не может быть отрицательным!");
-          return;
-        }
-        if (steps > 100) {
-          showAlert("Слишком много тактов! Максимум — 100.");
+        long usable = Files.getFileStore(Paths.get(System.getProperty("java.io.tmpdir"))).getUsableSpace();
+        if (required > usable) {
+          showAlert(String.format("Для истории нужно %.1f МБ на диске, свободно %.1f МБ!",
+              required / 1048576.0, usable / 1048576.0));
           return;
         }
-      } catch (NumberFormatException e) {
-        showAlert("Некорректное число тактов!");
-        return;
+      } catch (IOException e) {
+        // Свободное место не определить — проверит сама запись
       }
-      double[][] history = runImpulseSimulation(vector, steps);
-
-      // Сохраняем для последующих обновлений
-      this.lastSimulationResult = history;
-      this.lastVerticesInOrder = verticesInOrder;
-      this.lastSteps = steps;
+      ImpulseSimulation simulation = new ImpulseSimulation(snapshotModel());
+      runInBackground("Импульсное моделирование", new MonitoredTask<SimulationHistory>() {
+        @Override
+        protected SimulationHistory call() throws IOException {
+          SimulationHistory history = SimulationHistory.createTemporary(verticesInOrder.size(), steps, precision);
+          try {
+            simulation.run(vector, steps, (step, state) -> {
+              checkCancelled();
+              history.write(step, state);
+              updateProgress(step, steps);
+            });
+          } catch (RuntimeException e) {
+            history.close();
+            throw e;
+          }
+          return history;
+        }
+      }, history -> {
+        // Прежняя история больше не показывается — её файл удаляется
+        closeSimulationHistory();
+        this.lastSimulationResult = history;
+        this.lastVerticesInOrder = verticesInOrder;
 
-      // Создаём/обновляем чекбоксы
-      createVertexCheckBoxes(verticesInOrder);
+        // Создаём/обновляем чекбоксы
+        createVertexCheckBoxes(verticesInOrder);
 
-      // Отображаем все вершины по умолчанию
-      updateChart();
+        // Отображаем все вершины по умолчанию
+        updateChart();
+      });
 
     } catch (NumberFormatException e) {
       showAlert("Некорректный формат вектора! Используйте числа, разделённые запятыми.");
@@ -565,238 +1099,455 @@ public class Controller implements Initializable {
     }
   }
 
-  private List<Vertex<String>> getVerticesInOrder(Digraph<String, EdgeWeight> graph) {
-    List<Vertex<String>> vertices = new ArrayList<>(graph.vertices());
-    vertices.sort(Comparator.comparing(v -> Integer.parseInt(v.element())));
-    return vertices;
+  /**
+   * Лимиты перечисления циклов из полей ввода; пустое поле — без ограничения.
+   */
+  private CycleBudget readCycleBudget() {
+    try {
+      String cycles = cycleLimitField.getText().trim();
+      String seconds = timeLimitField.getText().trim();
+      long maxCycles = cycles.isEmpty() ? Long.MAX_VALUE : Long.parseLong(cycles);
+      long timeLimit = seconds.isEmpty() ? Long.MAX_VALUE : Math.round(Double.parseDouble(seconds) * 1000);
+      return new CycleBudget(maxCycles, timeLimit);
+    } catch (NumberFormatException e) {
+      showAlert("Некорректный лимит перечисления циклов!");
+    } catch (IllegalArgumentException e) {
+      showAlert(e.getMessage());
+    }
+    return null;
   }
 
-  private double[][] runImpulseSimulation(double[] impulseVector, int steps) {
-    if (graphView == null || !(graphView.getModel() instanceof Digraph)) {
-      return new double[0][0];
+  private static String describeBudget(CycleBudget budget) {
+    StringBuilder text = new StringBuilder(" (");
+    if (budget.limitsCycles()) {
+      text.append(budget.maxCycles()).append(" циклов");
     }
-
-    Digraph<String, EdgeWeight> graph = (Digraph<String, EdgeWeight>) graphView.getModel();
-    List<Vertex<String>> verticesInOrder = getVerticesInOrder(graph);
-    int n = verticesInOrder.size();
-
-    if (impulseVector.length != n) {
-      throw new IllegalArgumentException("Длина вектора должна быть " + n + " (по числу вершин).");
+    if (budget.limitsTime()) {
+      text.append(budget.limitsCycles() ? " или " : "").append(budget.timeLimitMillis() / 1000.0).append(" с");
     }
+    return text.append(")").toString();
+  }
 
-    // Маппинг: имя вершины → индекс
-    Map<String, Integer> nameToIndex = new HashMap<>();
-    for (int i = 0; i < n; i++) {
-      nameToIndex.put(verticesInOrder.get(i).element(), i);
+  /**
+   * Число тактов из поля ввода или null, если оно некорректно (пользователь уже предупреждён).
+   */
+  private Integer readSteps() {
+    try {
+      int steps = Integer.parseInt(stepsField.getText().trim());
+      if (steps < 0) {
+        showAlert("Количество тактов не может быть отрицательным!");
+        return null;
+      }
+      return steps;
+    } catch (NumberFormatException e) {
+      showAlert("Некорректное число тактов!");
+      return null;
     }
+  }
 
-    // История состояний v_i(t)
-    double[][] vHistory = new double[steps + 1][n];
+  @FXML
+  private TextArea batchResultText;
 
-    // История импульсов p_i(t)
-    double[][] pHistory = new double[steps + 1][n];
+  @FXML
+  private void onRunUnitImpulseBatch() {
+    if (model == null) {
+      showAlert("Граф не инициализирован.");
+      return;
+    }
+    MapSnapshot snapshot = snapshotModel();
+    double[][] impulses = BatchImpulseSimulation.unitImpulses(snapshot.vertexCount());
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < snapshot.vertexCount(); i++) {
+      names.add("импульс в вершине " + snapshot.label(i));
+    }
+    runImpulseBatch(snapshot, impulses, names);
+  }
 
-    // Шаг 0: v(0) = p(0) = impulseVector
-    for (int i = 0; i < n; i++) {
-      pHistory[0][i] = impulseVector[i];
-      vHistory[0][i] = impulseVector[i];
+  @FXML
+  private void onRunImpulseBatchFromFile() {
+    if (model == null) {
+      showAlert("Граф не инициализирован.");
+      return;
+    }
+    FileChooser chooser = new FileChooser();
+    chooser.setTitle("Векторы импульсов (по одному на строку)");
+    File file = chooser.showOpenDialog(graphBox.getScene().getWindow());
+    if (file == null) {
+      return;
     }
 
-    // Шаги t = 1, 2, ..., steps
-    for (int t = 1; t <= steps; t++) {
-      // 1. Вычисляем импульсы p(t) на основе p(t-1)
-      for (int i = 0; i < n; i++) {
-        Vertex<String> v = verticesInOrder.get(i);
-        double sum = 0.0;
+    MapSnapshot snapshot = snapshotModel();
+    try {
+      double[][] impulses = ImpulseVectors.read(file.toPath(), snapshot.vertexCount());
+      List<String> names = new ArrayList<>();
+      for (int i = 0; i < impulses.length; i++) {
+        names.add("строка " + (i + 1));
+      }
+      runImpulseBatch(snapshot, impulses, names);
+    } catch (IOException e) {
+      showAlert("Не удалось прочитать файл: " + e.getMessage());
+    } catch (IllegalArgumentException e) {
+      showAlert(e.getMessage());
+    }
+  }
 
-        try {
-          // Входящие рёбра к v: u → v
-          for (Edge<EdgeWeight, String> edge : graph.incidentEdges(v)) {
-            Vertex<String> u = graph.opposite(v, edge); // откуда пришло ребро
-            Integer uIndex = nameToIndex.get(u.element());
-            if (uIndex != null) {
-              double weight = edge.element().getValue();
-              sum += weight * pHistory[t - 1][uIndex];
-            }
-          }
-        } catch (InvalidVertexException e) {
-          e.printStackTrace();
-        }
+  @FXML
+  private TextField horizonField;
+
+  /**
+   * v(t) для большого t без пошагового прогона и истории (см. {@link LongHorizonSimulation}).
+   */
+  @FXML
+  private void onRunLongHorizon() {
+    MapSnapshot snapshot = snapshotModel();
+    double[] impulse = readImpulse(snapshot.vertexCount());
+    if (impulse == null) {
+      return;
+    }
+    long step;
+    try {
+      step = Long.parseLong(horizonField.getText().trim());
+    } catch (NumberFormatException e) {
+      showAlert("Некорректный номер такта!");
+      return;
+    }
+    if (step < 0 || step == Long.MAX_VALUE) {
+      showAlert("Номер такта должен быть от 0 до " + (Long.MAX_VALUE - 1) + "!");
+      return;
+    }
+    LongHorizonSimulation simulation = new LongHorizonSimulation(snapshot);
+    runInBackground("Состояние на такте " + step, new MonitoredTask<double[]>() {
+      @Override
+      protected double[] call() {
+        return simulation.stateAt(impulse, step, this);
+      }
+    }, state -> batchResultText.setText(stateReport(snapshot, "Состояние на такте " + step, state, null)));
+  }
 
-        pHistory[t][i] = sum;
+  /**
+   * Предельное состояние v(∞) = (I − Aᵀ)⁻¹·p при ρ < 1.
+   */
+  @FXML
+  private void onRunSteadyState() {
+    MapSnapshot snapshot = snapshotModel();
+    double[] impulse = readImpulse(snapshot.vertexCount());
+    if (impulse == null) {
+      return;
+    }
+    LongHorizonSimulation simulation = new LongHorizonSimulation(snapshot);
+    runInBackground("Предельное состояние", new MonitoredTask<LongHorizonSimulation.SteadyState>() {
+      @Override
+      protected LongHorizonSimulation.SteadyState call() {
+        return simulation.steadyState(impulse, this);
       }
+    }, steady -> {
+      String method = steady.isFixedPoint() ? "простая итерация" : "BiCGSTAB";
+      String note = String.format("ρ = %.4f, %s: итераций %d, невязка %.1e%s",
+          steady.spectralRadius(), method, steady.iterations(), steady.residual(),
+          steady.isConverged() ? "" : " — точность не достигнута");
+      batchResultText.setText(stateReport(snapshot, "Предельное состояние", steady.values(), note));
+    });
+  }
 
-      // 2. Обновляем состояния: v(t) = v(t-1) + p(t)
-      for (int i = 0; i < n; i++) {
-        vHistory[t][i] = vHistory[t - 1][i] + pHistory[t][i];
+  /**
+   * Вектор импульса из поля ввода или null, если он некорректен (пользователь уже предупреждён).
+   */
+  private double[] readImpulse(int n) {
+    String input = impulseVectorField.getText().trim();
+    if (input.isEmpty()) {
+      showAlert("Введите вектор импульса!");
+      return null;
+    }
+    try {
+      double[] vector = ImpulseVectors.parse(input);
+      if (vector.length != n) {
+        showAlert("Вектор должен содержать " + n + " значений (по числу вершин)!");
+        return null;
       }
+      return vector;
+    } catch (NumberFormatException e) {
+      showAlert("Некорректный формат вектора! Используйте числа, разделённые запятыми.");
+      return null;
     }
+  }
 
-    // Возвращаем историю СОСТОЯНИЙ (v), а не импульсов (p)
-    return vHistory;
+  private static String stateReport(MapSnapshot snapshot, String title, double[] state, String note) {
+    StringBuilder report = new StringBuilder(title).append("\n");
+    if (note != null) {
+      report.append(note).append("\n");
+    }
+    boolean diverged = false;
+    for (int i = 0; i < state.length; i++) {
+      diverged |= Double.isNaN(state[i]) || Double.isInfinite(state[i]);
+      report.append(String.format("  %s: %.6g%n", snapshot.label(i), state[i]));
+    }
+    if (diverged) {
+      report.append("Значения вышли за пределы double — процесс расходится (ρ > 1).\n");
+    }
+    return report.toString();
   }
 
-  @FXML
-  private StackPane chartContainer;
-  private LineChart<Number, Number> impulseChart;
+  private void runImpulseBatch(MapSnapshot snapshot, double[][] impulses, List<String> names) {
+    Integer steps = readSteps();
+    if (steps == null) {
+      return;
+    }
+    BatchImpulseSimulation simulation = new BatchImpulseSimulation(snapshot);
+    runInBackground("Пакетный прогон", new MonitoredTask<String>() {
+      @Override
+      protected String call() {
+        return batchReport(snapshot, simulation.run(impulses, steps, this), names, steps);
+      }
+    }, batchResultText::setText);
+  }
 
-  private void setupImpulseChart() {
-    if (impulseChart == null) {
-      NumberAxis xAxis = new NumberAxis();
-      NumberAxis yAxis = new NumberAxis();
-      impulseChart = new LineChart<>(xAxis, yAxis);
-      impulseChart.setTitle("Импульсное моделирование");
-      impulseChart.getXAxis().setLabel("Такт");
-      impulseChart.getYAxis().setLabel("Значение вершины");
-      impulseChart.setCreateSymbols(false);
-      impulseChart.setLegendVisible(true);
-      impulseChart.setPrefSize(600, 400);
-      chartContainer.getChildren().setAll(impulseChart);
+  private static String batchReport(MapSnapshot snapshot, ScenarioSummary[] summaries, List<String> names, int steps) {
+    StringBuilder report = new StringBuilder();
+    report.append("Сценариев: ").append(summaries.length).append(", тактов: ").append(steps).append("\n");
+    for (int s = 0; s < summaries.length; s++) {
+      ScenarioSummary summary = summaries[s];
+      int strongest = summary.strongestVertex();
+      report.append("\nСценарий ").append(s + 1).append(" (").append(names.get(s)).append("): ");
+      report.append("наибольший пик — вершина ").append(snapshot.label(strongest));
+      report.append(String.format(", %.4f на такте %d", summary.peak(strongest), summary.peakStep(strongest)));
+      report.append("\n");
+      for (int i = 0; i < summary.vertexCount(); i++) {
+        report.append(String.format(
+            "  %s: пик %.4f (такт %d), итог %.4f%n",
+            snapshot.label(i), summary.peak(i), summary.peakStep(i), summary.finalValue(i)
+        ));
+      }
     }
+    return report.toString();
   }
 
   @FXML
-  private ScrollPane vertexSelectionScrollPane;
+  private ProgressBar taskProgress;
   @FXML
-  private FlowPane vertexSelectionPane;
-
-  // Храним последние результаты моделирования
-  private double[][] lastSimulationResult = null;
-  private List<Vertex<String>> lastVerticesInOrder = null;
-  private int lastSteps = 0;
+  private Label taskStatus;
+  @FXML
+  private Button cancelTaskButton;
+
+  // Расчёты идут по одному в фоновом потоке, чтобы окно не замирало
+  private final ExecutorService analysisExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "analysis");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private Task<?> runningTask;
+
+  /**
+   * Строки таблицы циклов — номера строк {@link CycleTable} в порядке показа, без упаковки
+   * всего списка: Integer создаётся только для запрошенных (видимых) строк.
+   */
+  private static final class CycleRows extends ObservableListBase<Integer> {
+    private int[] order = new int[0];
+
+    void setOrder(int[] order) {
+      int[] previous = this.order;
+      this.order = order;
+      beginChange();
+      nextReplace(0, order.length, new AbstractList<Integer>() {
+        @Override
+        public Integer get(int index) {
+          return previous[index];
+        }
 
-  // Чекбоксы для каждой вершины
-  private Map<Vertex<String>, CheckBox> vertexCheckBoxes = new HashMap<>();
+        @Override
+        public int size() {
+          return previous.length;
+        }
+      });
+      endChange();
+    }
 
-  private void createVertexCheckBoxes(List<Vertex<String>> vertices) {
-    vertexSelectionPane.getChildren().clear();
-    vertexCheckBoxes.clear();
+    @Override
+    public Integer get(int index) {
+      return order[index];
+    }
 
-    for (Vertex<String> v : vertices) {
-      CheckBox cb = new CheckBox("Вершина " + v.element());
-      cb.setSelected(true); // по умолчанию отображаем все
-      cb.setOnAction(e -> updateChart()); // при изменении — обновляем график
-      vertexCheckBoxes.put(v, cb);
-      vertexSelectionPane.getChildren().add(cb);
+    @Override
+    public int size() {
+      return order.length;
     }
   }
 
-  private void updateChart() {
-    if (lastSimulationResult == null || impulseChart == null) return;
-
-    impulseChart.getData().clear();
+  /**
+   * Фоновый расчёт, принимающий сведения о ходе работы от классов пакета com.analysis.
+   */
+  private abstract static class MonitoredTask<T> extends Task<T> implements ProgressMonitor {
+    @Override
+    public void progress(long done, long total, String message) {
+      updateMessage(message);
+      updateProgress(done, total);
+    }
+  }
 
-    for (int i = 0; i < lastVerticesInOrder.size(); i++) {
-      Vertex<String> v = lastVerticesInOrder.get(i);
-      CheckBox cb = vertexCheckBoxes.get(v);
-      if (cb != null && cb.isSelected()) {
-        XYChart.Series<Number, Number> series = new XYChart.Series<>();
-        series.setName("Вершина " + v.element());
+  /**
+   * Запускает расчёт в фоне. Ход работы показывается в строке состояния вкладки «Решение»,
+   * в поток JavaFX возвращается только готовый результат. Отклонённая задача отменяется,
+   * чтобы её обработчик {@code cancelled()} мог вернуть захваченное состояние.
+   */
+  private <T> void runInBackground(String title, Task<T> task, Consumer<T> onSuccess) {
+    if (runningTask != null) {
+      task.cancel();
+      showAlert("Дождитесь завершения текущего расчёта или отмените его!");
+      return;
+    }
+    runningTask = task;
+    taskStatus.textProperty().bind(Bindings
+        .when(task.messageProperty().isEmpty())
+        .then(title + "...")
+        .otherwise(task.messageProperty()));
+    taskProgress.progressProperty().bind(task.progressProperty());
+    cancelTaskButton.setDisable(false);
+    task.setOnSucceeded(event -> {
+      finishTask(title + ": готово");
+      onSuccess.accept(task.getValue());
+    });
+    task.setOnCancelled(event -> finishTask(title + ": отменено"));
+    task.setOnFailed(event -> {
+      finishTask(title + ": ошибка");
+      Throwable error = task.getException();
+      showAlert(error.getMessage() != null ? error.getMessage() : error.toString());
+    });
+    analysisExecutor.execute(task);
+  }
 
-        for (int t = 0; t <= lastSteps; t++) {
-          series.getData().add(new XYChart.Data<>(t, lastSimulationResult[t][i]));
-        }
+  private void finishTask(String status) {
+    runningTask = null;
+    taskStatus.textProperty().unbind();
+    taskProgress.progressProperty().unbind();
+    taskStatus.setText(status);
+    taskProgress.setProgress(0);
+    cancelTaskButton.setDisable(true);
+  }
 
-        impulseChart.getData().add(series);
-      }
+  @FXML
+  private void onCancelTask() {
+    if (runningTask != null) {
+      runningTask.cancel();
     }
   }
 
   @FXML
-  private TextField stepsField;
+  private StackPane chartContainer;
+  private ImpulseChart impulseChart;
+  @FXML
+  private StackPane metricsContainer;
 
-  private boolean structurallyStableModel(int numberOfNegativeCycles) {
-    return numberOfNegativeCycles % 2 != 0;
+  private void setupImpulseChart() {
+    if (impulseChart == null) {
+      impulseChart = new ImpulseChart();
+      impulseChart.setTitle("Импульсное моделирование");
+      impulseChart.setAxisLabels("Такт", "Значение вершины");
+      chartContainer.getChildren().setAll(impulseChart);
+    }
   }
 
+  @FXML
+  private ScrollPane vertexSelectionScrollPane;
+  @FXML
+  private FlowPane vertexSelectionPane;
 
-  private double computeSpectralRadius(Digraph<String, EdgeWeight> graph) {
-    List<Vertex<String>> vertices = getVerticesInOrder(graph);
-    int n = vertices.size();
+  @FXML
+  private CheckBox floatHistoryCheckBox;
 
-    // Маппинг имя → индекс
-    Map<String, Integer> nameToIndex = new HashMap<>();
-    for (int i = 0; i < n; i++) {
-      nameToIndex.put(vertices.get(i).element(), i);
-    }
+  // Храним последние результаты моделирования
+  private SimulationHistory lastSimulationResult = null;
+  private List<Vertex<String>> lastVerticesInOrder = null;
 
-    // Строим матрицу A (A[i][j] = вес ребра i → j)
-    double[][] A = new double[n][n];
-    for (int i = 0; i < n; i++) {
-      Vertex<String> from = vertices.get(i);
+  private void closeSimulationHistory() {
+    if (lastSimulationResult != null) {
       try {
-        for (Edge<EdgeWeight, String> edge : graph.outboundEdges(from)) {
-          Vertex<String> to = graph.opposite(from, edge);
-          Integer j = nameToIndex.get(to.element());
-          if (j != null) {
-            A[i][j] = edge.element().getValue();
-          }
-        }
-      } catch (InvalidVertexException e) {
-        e.printStackTrace();
+        lastSimulationResult.close();
+      } catch (IOException e) {
+        System.err.println("Не удалось закрыть файл истории: " + e.getMessage());
       }
+      lastSimulationResult = null;
     }
+  }
 
-    // Матрица системы: A^T
-    double[][] AT = new double[n][n];
-    for (int i = 0; i < n; i++) {
-      for (int j = 0; j < n; j++) {
-        AT[i][j] = A[j][i];
+  /**
+   * Экспорт траекторий отмеченных вершин в CSV; история читается окнами тактов по столбцам
+   * этих вершин, поэтому выгрузка длинного прогона не загружает его в память.
+   */
+  @FXML
+  private void onExportSimulation() {
+    if (lastSimulationResult == null) {
+      showAlert("Сначала запустите моделирование!");
+      return;
+    }
+    List<Integer> checked = new ArrayList<>();
+    List<Node> boxes = vertexSelectionPane.getChildren();
+    for (int i = 0; i < boxes.size(); i++) {
+      if (((CheckBox) boxes.get(i)).isSelected()) {
+        checked.add(i);
       }
     }
-
-    // Степенной метод
-    double[] x = new double[n];
-    // Инициализируем случайным вектором
-    for (int i = 0; i < n; i++) {
-      x[i] = Math.random();
+    if (checked.isEmpty()) {
+      showAlert("Отметьте вершины для экспорта!");
+      return;
     }
-
-    double lambda = 0;
-    int maxIterations = 1000;
-    double tolerance = 1e-6;
-
-    for (int iter = 0; iter < maxIterations; iter++) {
-      // y = A^T * x
-      double[] y = new double[n];
-      for (int i = 0; i < n; i++) {
-        for (int j = 0; j < n; j++) {
-          y[i] += AT[i][j] * x[j];
+    FileChooser chooser = new FileChooser();
+    chooser.setTitle("Экспорт траекторий");
+    chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV (*.csv)", "*.csv"));
+    File file = chooser.showSaveDialog(graphBox.getScene().getWindow());
+    if (file == null) {
+      return;
+    }
+    int[] vertices = new int[checked.size()];
+    for (int k = 0; k < vertices.length; k++) {
+      vertices[k] = checked.get(k);
+    }
+    List<String> names = new ArrayList<>();
+    for (Vertex<String> vertex : lastVerticesInOrder) {
+      names.add(vertex.element());
+    }
+    SimulationHistory history = lastSimulationResult;
+    runInBackground("Экспорт траекторий", new MonitoredTask<Void>() {
+      @Override
+      protected Void call() throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+          history.writeCsv(writer, vertices, names, 0, history.steps());
         }
+        return null;
       }
+    }, ignored -> {
+    });
+  }
 
-      // Норма вектора y
-      double norm = 0;
-      for (double v : y) {
-        norm = Math.max(norm, Math.abs(v));
-      }
-
-      if (norm == 0) return 0;
-
-      // Новый вектор x = y / norm
-      double[] newX = new double[n];
-      for (int i = 0; i < n; i++) {
-        newX[i] = y[i] / norm;
-      }
+  private void createVertexCheckBoxes(List<Vertex<String>> vertices) {
+    vertexSelectionPane.getChildren().clear();
 
-      // Оценка собственного значения: lambda = (x^T * y) / (x^T * x)
-      double numerator = 0, denominator = 0;
-      for (int i = 0; i < n; i++) {
-        numerator += x[i] * y[i];
-        denominator += x[i] * x[i];
-      }
-      double newLambda = denominator != 0 ? Math.abs(numerator / denominator) : 0;
+    for (int i = 0; i < vertices.size(); i++) {
+      int index = i;
+      CheckBox cb = new CheckBox("Вершина " + vertices.get(i).element());
+      cb.setSelected(true); // по умолчанию отображаем все
+      cb.setGraphic(new Rectangle(10, 10, ImpulseChart.seriesColor(index)));
+      // при изменении — добавляем или убираем только эту кривую
+      cb.setOnAction(e -> {
+        if (cb.isSelected()) {
+          impulseChart.showSeries(index);
+        } else {
+          impulseChart.hideSeries(index);
+        }
+      });
+      vertexSelectionPane.getChildren().add(cb);
+    }
+  }
 
-      // Проверка сходимости
-      if (Math.abs(newLambda - lambda) < tolerance) {
-        return newLambda;
-      }
+  private void updateChart() {
+    if (lastSimulationResult == null || impulseChart == null) return;
 
-      lambda = newLambda;
-      x = newX;
+    int[] shown = new int[lastVerticesInOrder.size()];
+    for (int i = 0; i < shown.length; i++) {
+      shown[i] = i;
     }
-
-    return lambda; // возвращаем последнее приближение
+    impulseChart.setHistory(lastSimulationResult, shown);
   }
 
-}
\ No newline at end of file
+  @FXML
+  private TextField stepsField;
+
+}
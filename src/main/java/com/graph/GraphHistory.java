@@ -0,0 +1,113 @@
+package com.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * История версий графа для отмены и повтора правок и именованные варианты «что если».
+ * <p>
+ * Версии — неизменяемые {@link PersistentDigraph} с общими неизменёнными частями, поэтому
+ * запись в историю стоит O(1), а сотни версий занимают память лишь на отличающиеся пути.
+ * Глубина отмены ограничена: самые старые версии забываются.
+ */
+public class GraphHistory<V, E> {
+  public static final int DEFAULT_DEPTH = 500;
+
+  private final int depth;
+  private final Deque<PersistentDigraph<V, E>> undo = new ArrayDeque<>();
+  private final Deque<PersistentDigraph<V, E>> redo = new ArrayDeque<>();
+  private final Map<String, PersistentDigraph<V, E>> variants = new LinkedHashMap<>();
+  private PersistentDigraph<V, E> current;
+
+  public GraphHistory(PersistentDigraph<V, E> initial) {
+    this(initial, DEFAULT_DEPTH);
+  }
+
+  public GraphHistory(PersistentDigraph<V, E> initial, int depth) {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Глубина истории должна быть положительной: " + depth);
+    }
+    this.current = initial;
+    this.depth = depth;
+  }
+
+  public PersistentDigraph<V, E> current() {
+    return current;
+  }
+
+  /**
+   * Делает next текущей версией; прежняя уходит в стек отмены, повторять больше нечего.
+   */
+  public void record(PersistentDigraph<V, E> next) {
+    if (next == current) {
+      return;
+    }
+    undo.push(current);
+    if (undo.size() > depth) {
+      undo.removeLast();
+    }
+    redo.clear();
+    current = next;
+  }
+
+  public boolean canUndo() {
+    return !undo.isEmpty();
+  }
+
+  public boolean canRedo() {
+    return !redo.isEmpty();
+  }
+
+  /**
+   * Возвращается к предыдущей версии и возвращает её.
+   */
+  public PersistentDigraph<V, E> undo() {
+    if (undo.isEmpty()) {
+      throw new IllegalStateException("Отменять нечего");
+    }
+    redo.push(current);
+    current = undo.pop();
+    return current;
+  }
+
+  /**
+   * Повторяет отменённую правку и возвращает новую текущую версию.
+   */
+  public PersistentDigraph<V, E> redo() {
+    if (redo.isEmpty()) {
+      throw new IllegalStateException("Повторять нечего");
+    }
+    undo.push(current);
+    current = redo.pop();
+    return current;
+  }
+
+  /**
+   * Запоминает текущую версию под именем (прежний вариант с тем же именем заменяется).
+   */
+  public void saveVariant(String name) {
+    variants.put(name, current);
+  }
+
+  /**
+   * Версия варианта или null.
+   */
+  public PersistentDigraph<V, E> variant(String name) {
+    return variants.get(name);
+  }
+
+  /**
+   * Имена вариантов в порядке сохранения.
+   */
+  public List<String> variantNames() {
+    return new ArrayList<>(variants.keySet());
+  }
+
+  public void removeVariant(String name) {
+    variants.remove(name);
+  }
+}
@@ -0,0 +1,464 @@
+package com.graph;
+
+import com.brunomnsilva.smartgraph.graph.Digraph;
+import com.brunomnsilva.smartgraph.graph.Edge;
+import com.brunomnsilva.smartgraph.graph.InvalidEdgeException;
+import com.brunomnsilva.smartgraph.graph.InvalidVertexException;
+import com.brunomnsilva.smartgraph.graph.Vertex;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Орграф со списками смежности у каждой вершины — замена {@code DigraphEdgeList}.
+ * <p>
+ * Вершины пронумерованы подряд в порядке добавления (индекс сдвигается только при удалении
+ * предшествующих вершин), поэтому {@link #indexOf(Vertex)} и {@link #vertexAt(int)} дают
+ * готовую нумерацию для матричных алгоритмов. Поиск ребра по паре вершин — O(1), обход
+ * соседей — O(deg). Между упорядоченной парой вершин допускается не более одного ребра.
+ * <p>
+ * Удаление вершины стоит O(deg): индексы перенумеровываются лениво, одним проходом при
+ * следующем обращении к нумерации, поэтому серия удалений не стоит O(V) на каждое.
+ * <p>
+ * Каждая вершина также получает постоянный идентификатор {@link #idOf(Vertex)}, который
+ * не переиспользуется после удаления. Любая правка увеличивает {@link #version()}, а правки
+ * структуры и весов сообщают слушателям идентификаторы затронутых вершин.
+ */
+public class IndexedDigraph<V, E> implements Digraph<V, E> {
+  private final List<IndexedVertex<V, E>> vertexList = new ArrayList<>();
+  private final Map<V, IndexedVertex<V, E>> vertexByElement = new HashMap<>();
+  private final Map<Long, IndexedVertex<V, E>> vertexById = new HashMap<>();
+  private final Set<IndexedEdge<V, E>> edgeSet = new LinkedHashSet<>();
+  private final Map<E, IndexedEdge<V, E>> edgeByElement = new HashMap<>();
+  private final List<ChangeListener> listeners = new ArrayList<>();
+  // Удалённые вершины, ещё занимающие место в vertexList (index = -1)
+  private int pendingRemovals = 0;
+  private long nextId = 0;
+  private long version = 0;
+
+  /**
+   * Получатель сведений о правках, меняющих смежность или веса.
+   */
+  public interface ChangeListener {
+    void vertexTouched(long vertexId);
+  }
+
+  private final Collection<Vertex<V>> vertexView = new AbstractCollection<Vertex<V>>() {
+    @Override
+    public Iterator<Vertex<V>> iterator() {
+      compact();
+      return Collections.<Vertex<V>>unmodifiableList(vertexList).iterator();
+    }
+
+    @Override
+    public int size() {
+      return numVertices();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return containsVertex(o);
+    }
+  };
+
+  private final Collection<Edge<E, V>> edgeView = Collections.unmodifiableCollection(edgeSet);
+
+  @Override
+  public int numVertices() {
+    return vertexList.size() - pendingRemovals;
+  }
+
+  @Override
+  public int numEdges() {
+    return edgeSet.size();
+  }
+
+  /**
+   * Живое неизменяемое представление вершин в порядке индексов; contains — O(1).
+   */
+  @Override
+  public Collection<Vertex<V>> vertices() {
+    return vertexView;
+  }
+
+  /**
+   * Живое неизменяемое представление рёбер в порядке добавления; contains — O(1).
+   */
+  @Override
+  public Collection<Edge<E, V>> edges() {
+    return edgeView;
+  }
+
+  /**
+   * Входящие рёбра вершины.
+   */
+  @Override
+  public Collection<Edge<E, V>> incidentEdges(Vertex<V> v) throws InvalidVertexException {
+    return Collections.unmodifiableCollection(checkVertex(v).inbound.values());
+  }
+
+  @Override
+  public Collection<Edge<E, V>> outboundEdges(Vertex<V> v) throws InvalidVertexException {
+    return Collections.unmodifiableCollection(checkVertex(v).outbound.values());
+  }
+
+  @Override
+  public Vertex<V> opposite(Vertex<V> v, Edge<E, V> e) throws InvalidVertexException, InvalidEdgeException {
+    IndexedVertex<V, E> vertex = checkVertex(v);
+    IndexedEdge<V, E> edge = checkEdge(e);
+    if (edge.from == vertex) {
+      return edge.to;
+    } else if (edge.to == vertex) {
+      return edge.from;
+    } else {
+      throw new InvalidVertexException("Вершина " + v.element() + " не инцидентна ребру " + e.element());
+    }
+  }
+
+  /**
+   * Есть ли ребро outbound → inbound.
+   */
+  @Override
+  public boolean areAdjacent(Vertex<V> outbound, Vertex<V> inbound) throws InvalidVertexException {
+    return checkVertex(outbound).outbound.containsKey(checkVertex(inbound));
+  }
+
+  @Override
+  public Vertex<V> insertVertex(V vElement) throws InvalidVertexException {
+    return insertVertex(vElement, nextId);
+  }
+
+  /**
+   * Добавляет вершину с заданным постоянным идентификатором — для восстановления удалённой
+   * вершины (например, при отмене правки). Идентификатор не должен быть занят.
+   */
+  public Vertex<V> insertVertex(V vElement, long id) throws InvalidVertexException {
+    if (vertexByElement.containsKey(vElement)) {
+      throw new InvalidVertexException("Вершина " + vElement + " уже существует");
+    }
+    if (id < 0 || vertexById.containsKey(id)) {
+      throw new InvalidVertexException("Идентификатор вершины " + id + " недопустим или занят");
+    }
+    IndexedVertex<V, E> vertex = new IndexedVertex<>(this, vElement, vertexList.size(), id);
+    nextId = Math.max(nextId, id + 1);
+    vertexList.add(vertex);
+    vertexByElement.put(vElement, vertex);
+    vertexById.put(id, vertex);
+    version++;
+    touched(vertex);
+    return vertex;
+  }
+
+  @Override
+  public Edge<E, V> insertEdge(Vertex<V> u, Vertex<V> v, E edgeElement)
+      throws InvalidVertexException, InvalidEdgeException {
+    IndexedVertex<V, E> from = checkVertex(u);
+    IndexedVertex<V, E> to = checkVertex(v);
+    if (edgeByElement.containsKey(edgeElement)) {
+      throw new InvalidEdgeException("Ребро " + edgeElement + " уже существует");
+    }
+    if (from.outbound.containsKey(to)) {
+      throw new InvalidEdgeException("Связь " + from.element + " → " + to.element + " уже существует");
+    }
+    IndexedEdge<V, E> edge = new IndexedEdge<>(this, edgeElement, from, to);
+    from.outbound.put(to, edge);
+    to.inbound.put(from, edge);
+    edgeSet.add(edge);
+    edgeByElement.put(edgeElement, edge);
+    version++;
+    touched(from);
+    touched(to);
+    return edge;
+  }
+
+  @Override
+  public Edge<E, V> insertEdge(V vElement1, V vElement2, E edgeElement)
+      throws InvalidVertexException, InvalidEdgeException {
+    return insertEdge(checkElement(vElement1), checkElement(vElement2), edgeElement);
+  }
+
+  /**
+   * Удаляет вершину вместе с инцидентными рёбрами. Индексы последующих вершин уменьшаются на 1
+   * (перенумерация откладывается до следующего обращения к индексам).
+   */
+  @Override
+  public V removeVertex(Vertex<V> v) throws InvalidVertexException {
+    IndexedVertex<V, E> vertex = checkVertex(v);
+    for (IndexedEdge<V, E> edge : new ArrayList<>(vertex.outbound.values())) {
+      unlink(edge);
+    }
+    for (IndexedEdge<V, E> edge : new ArrayList<>(vertex.inbound.values())) {
+      unlink(edge);
+    }
+
+    vertexByElement.remove(vertex.element);
+    vertexById.remove(vertex.id);
+    vertex.index = -1;
+    pendingRemovals++;
+    version++;
+    touched(vertex);
+    return vertex.element;
+  }
+
+  @Override
+  public E removeEdge(Edge<E, V> e) throws InvalidEdgeException {
+    IndexedEdge<V, E> edge = checkEdge(e);
+    unlink(edge);
+    return edge.element;
+  }
+
+  /**
+   * Переименование вершины на месте: смежность и индекс не меняются.
+   */
+  @Override
+  public V replace(Vertex<V> v, V newElement) throws InvalidVertexException {
+    IndexedVertex<V, E> vertex = checkVertex(v);
+    IndexedVertex<V, E> existing = vertexByElement.get(newElement);
+    if (existing == vertex) {
+      return vertex.element;
+    }
+    if (existing != null) {
+      throw new InvalidVertexException("Вершина " + newElement + " уже существует");
+    }
+    V old = vertex.element;
+    vertexByElement.remove(old);
+    vertex.element = newElement;
+    vertexByElement.put(newElement, vertex);
+    version++;
+    return old;
+  }
+
+  /**
+   * Замена элемента ребра на месте (например, веса).
+   */
+  @Override
+  public E replace(Edge<E, V> e, E newElement) throws InvalidEdgeException {
+    IndexedEdge<V, E> edge = checkEdge(e);
+    IndexedEdge<V, E> existing = edgeByElement.get(newElement);
+    if (existing == edge) {
+      return edge.element;
+    }
+    if (existing != null) {
+      throw new InvalidEdgeException("Ребро " + newElement + " уже существует");
+    }
+    E old = edge.element;
+    edgeByElement.remove(old);
+    edge.element = newElement;
+    edgeByElement.put(newElement, edge);
+    version++;
+    touched(edge.from);
+    touched(edge.to);
+    return old;
+  }
+
+  /**
+   * Индекс вершины в диапазоне [0, numVertices()).
+   */
+  public int indexOf(Vertex<V> v) throws InvalidVertexException {
+    IndexedVertex<V, E> vertex = checkVertex(v);
+    compact();
+    return vertex.index;
+  }
+
+  public Vertex<V> vertexAt(int index) {
+    compact();
+    return vertexList.get(index);
+  }
+
+  /**
+   * Постоянный идентификатор вершины: не меняется при удалении других вершин и не переиспользуется.
+   */
+  public long idOf(Vertex<V> v) throws InvalidVertexException {
+    return checkVertex(v).id;
+  }
+
+  /**
+   * Вершина с данным постоянным идентификатором или null.
+   */
+  public Vertex<V> vertexById(long id) {
+    return vertexById.get(id);
+  }
+
+  /**
+   * Номер версии графа; увеличивается при каждой правке.
+   */
+  public long version() {
+    return version;
+  }
+
+  public void addChangeListener(ChangeListener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeChangeListener(ChangeListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Вершина с данным элементом или null.
+   */
+  public Vertex<V> vertexOf(V element) {
+    return vertexByElement.get(element);
+  }
+
+  /**
+   * Ребро u → v или null.
+   */
+  public Edge<E, V> edgeBetween(Vertex<V> u, Vertex<V> v) throws InvalidVertexException {
+    return checkVertex(u).outbound.get(checkVertex(v));
+  }
+
+  public int outDegree(Vertex<V> v) throws InvalidVertexException {
+    return checkVertex(v).outbound.size();
+  }
+
+  public int inDegree(Vertex<V> v) throws InvalidVertexException {
+    return checkVertex(v).inbound.size();
+  }
+
+  public boolean containsVertex(Object o) {
+    return o instanceof IndexedVertex
+        && ((IndexedVertex<?, ?>) o).graph == this
+        && ((IndexedVertex<?, ?>) o).index >= 0;
+  }
+
+  public boolean containsEdge(Object o) {
+    return o instanceof IndexedEdge
+        && ((IndexedEdge<?, ?>) o).graph == this
+        && ((IndexedEdge<?, ?>) o).linked;
+  }
+
+  /**
+   * Убирает удалённые вершины из списка и перенумеровывает оставшиеся за один проход.
+   */
+  private void compact() {
+    if (pendingRemovals == 0) {
+      return;
+    }
+    int live = 0;
+    for (IndexedVertex<V, E> vertex : vertexList) {
+      if (vertex.index >= 0) {
+        vertex.index = live;
+        vertexList.set(live++, vertex);
+      }
+    }
+    vertexList.subList(live, vertexList.size()).clear();
+    pendingRemovals = 0;
+  }
+
+  private void unlink(IndexedEdge<V, E> edge) {
+    edge.from.outbound.remove(edge.to);
+    edge.to.inbound.remove(edge.from);
+    edgeSet.remove(edge);
+    edgeByElement.remove(edge.element);
+    edge.linked = false;
+    version++;
+    touched(edge.from);
+    touched(edge.to);
+  }
+
+  private void touched(IndexedVertex<V, E> vertex) {
+    for (ChangeListener listener : listeners) {
+      listener.vertexTouched(vertex.id);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private IndexedVertex<V, E> checkVertex(Vertex<V> v) throws InvalidVertexException {
+    if (v == null) {
+      throw new InvalidVertexException("Вершина не задана");
+    }
+    if (!containsVertex(v)) {
+      throw new InvalidVertexException("Вершина " + v.element() + " не принадлежит графу");
+    }
+    return (IndexedVertex<V, E>) v;
+  }
+
+  @SuppressWarnings("unchecked")
+  private IndexedEdge<V, E> checkEdge(Edge<E, V> e) throws InvalidEdgeException {
+    if (e == null) {
+      throw new InvalidEdgeException("Ребро не задано");
+    }
+    if (!containsEdge(e)) {
+      throw new InvalidEdgeException("Ребро " + e.element() + " не принадлежит графу");
+    }
+    return (IndexedEdge<V, E>) e;
+  }
+
+  private IndexedVertex<V, E> checkElement(V element) throws InvalidVertexException {
+    IndexedVertex<V, E> vertex = vertexByElement.get(element);
+    if (vertex == null) {
+      throw new InvalidVertexException("Вершина " + element + " не найдена");
+    }
+    return vertex;
+  }
+
+  private static final class IndexedVertex<V, E> implements Vertex<V> {
+    private final IndexedDigraph<V, E> graph;
+    private final Map<IndexedVertex<V, E>, IndexedEdge<V, E>> outbound = new LinkedHashMap<>();
+    private final Map<IndexedVertex<V, E>, IndexedEdge<V, E>> inbound = new LinkedHashMap<>();
+    private final long id;
+    private V element;
+    private int index;
+
+    IndexedVertex(IndexedDigraph<V, E> graph, V element, int index, long id) {
+      this.graph = graph;
+      this.element = element;
+      this.index = index;
+      this.id = id;
+    }
+
+    @Override
+    public V element() {
+      return element;
+    }
+
+    @Override
+    public String toString() {
+      return "Vertex{" + element + "}";
+    }
+  }
+
+  private static final class IndexedEdge<V, E> implements Edge<E, V> {
+    private final IndexedDigraph<V, E> graph;
+    private final IndexedVertex<V, E> from;
+    private final IndexedVertex<V, E> to;
+    private E element;
+    private boolean linked = true;
+
+    IndexedEdge(IndexedDigraph<V, E> graph, E element, IndexedVertex<V, E> from, IndexedVertex<V, E> to) {
+      this.graph = graph;
+      this.element = element;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public E element() {
+      return element;
+    }
+
+    @Override
+    public Vertex<V>[] vertices() {
+      @SuppressWarnings("unchecked")
+      Vertex<V>[] vertices = (Vertex<V>[]) new Vertex<?>[2];
+      vertices[0] = from;
+      vertices[1] = to;
+      return vertices;
+    }
+
+    @Override
+    public String toString() {
+      return "Edge{{" + element + "}, vertexOutbound=" + from + ", vertexInbound=" + to + "}";
+    }
+  }
+}
@@ -0,0 +1,269 @@
+package com.graph;
+
+import com.brunomnsilva.smartgraph.graph.Edge;
+import com.brunomnsilva.smartgraph.graph.Vertex;
+
+/**
+ * Неизменяемая версия орграфа со структурным разделением между версиями.
+ * <p>
+ * Вершины адресуются постоянными идентификаторами {@link IndexedDigraph#idOf}, рёбра — парой
+ * идентификаторов концов (между упорядоченной парой не больше одного ребра, как в модели).
+ * Смежность хранится в {@link PersistentLongMap} «вершина → (сосед → элемент ребра)» в обе
+ * стороны, поэтому снимок версии — O(1) (это просто ссылка), правка вершины или ребра —
+ * O(log V), удаление вершины — O(deg · log V), а разница версий ({@link #diff}) обходит
+ * только изменившиеся пути.
+ */
+public final class PersistentDigraph<V, E> {
+  private static final PersistentDigraph<?, ?> EMPTY = new PersistentDigraph<>(
+      PersistentLongMap.empty(), PersistentLongMap.empty(), PersistentLongMap.empty(), 0
+  );
+
+  private final PersistentLongMap<V> vertices;
+  private final PersistentLongMap<PersistentLongMap<E>> outbound;
+  private final PersistentLongMap<PersistentLongMap<E>> inbound;
+  private final int edgeCount;
+
+  private PersistentDigraph(PersistentLongMap<V> vertices, PersistentLongMap<PersistentLongMap<E>> outbound,
+                            PersistentLongMap<PersistentLongMap<E>> inbound, int edgeCount) {
+    this.vertices = vertices;
+    this.outbound = outbound;
+    this.inbound = inbound;
+    this.edgeCount = edgeCount;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <V, E> PersistentDigraph<V, E> empty() {
+    return (PersistentDigraph<V, E>) EMPTY;
+  }
+
+  /**
+   * Версия с текущим содержимым модели (вершины с их идентификаторами и все рёбра).
+   */
+  public static <V, E> PersistentDigraph<V, E> of(IndexedDigraph<V, E> model) {
+    PersistentDigraph<V, E> graph = empty();
+    for (Vertex<V> vertex : model.vertices()) {
+      graph = graph.withVertex(model.idOf(vertex), vertex.element());
+    }
+    for (Edge<E, V> edge : model.edges()) {
+      Vertex<V>[] ends = edge.vertices();
+      graph = graph.withEdge(model.idOf(ends[0]), model.idOf(ends[1]), edge.element());
+    }
+    return graph;
+  }
+
+  public int vertexCount() {
+    return vertices.size();
+  }
+
+  public int edgeCount() {
+    return edgeCount;
+  }
+
+  public boolean containsVertex(long id) {
+    return vertices.containsKey(id);
+  }
+
+  /**
+   * Элемент вершины или null.
+   */
+  public V vertex(long id) {
+    return vertices.get(id);
+  }
+
+  /**
+   * Элемент ребра from → to или null.
+   */
+  public E edge(long from, long to) {
+    PersistentLongMap<E> row = outbound.get(from);
+    return row == null ? null : row.get(to);
+  }
+
+  /**
+   * Версия с вершиной id (новой или с заменённым элементом).
+   */
+  public PersistentDigraph<V, E> withVertex(long id, V element) {
+    return new PersistentDigraph<>(vertices.put(id, element), outbound, inbound, edgeCount);
+  }
+
+  /**
+   * Версия без вершины и её рёбер.
+   */
+  public PersistentDigraph<V, E> withoutVertex(long id) {
+    if (!vertices.containsKey(id)) {
+      return this;
+    }
+    @SuppressWarnings("unchecked")
+    PersistentDigraph<V, E>[] graph = (PersistentDigraph<V, E>[]) new PersistentDigraph<?, ?>[]{this};
+    PersistentLongMap<E> out = outbound.get(id);
+    if (out != null) {
+      out.forEach((to, element) -> graph[0] = graph[0].withoutEdge(id, to));
+    }
+    PersistentLongMap<E> in = inbound.get(id);
+    if (in != null) {
+      in.forEach((from, element) -> graph[0] = graph[0].withoutEdge(from, id));
+    }
+    PersistentDigraph<V, E> result = graph[0];
+    return new PersistentDigraph<>(result.vertices.remove(id), result.outbound, result.inbound, result.edgeCount);
+  }
+
+  /**
+   * Версия с ребром from → to (новым или с заменённым элементом); концы должны существовать.
+   */
+  public PersistentDigraph<V, E> withEdge(long from, long to, E element) {
+    if (!vertices.containsKey(from) || !vertices.containsKey(to)) {
+      throw new IllegalArgumentException("Нет вершины " + (vertices.containsKey(from) ? to : from));
+    }
+    boolean added = edge(from, to) == null;
+    return new PersistentDigraph<>(
+        vertices,
+        outbound.put(from, row(outbound, from).put(to, element)),
+        inbound.put(to, row(inbound, to).put(from, element)),
+        added ? edgeCount + 1 : edgeCount
+    );
+  }
+
+  public PersistentDigraph<V, E> withoutEdge(long from, long to) {
+    if (edge(from, to) == null) {
+      return this;
+    }
+    return new PersistentDigraph<>(
+        vertices,
+        shrink(outbound, from, to),
+        shrink(inbound, to, from),
+        edgeCount - 1
+    );
+  }
+
+  /**
+   * Получатель вершин.
+   */
+  public interface Vertices<V> {
+    void accept(long id, V element);
+  }
+
+  /**
+   * Получатель рёбер.
+   */
+  public interface Edges<E> {
+    void accept(long from, long to, E element);
+  }
+
+  /**
+   * Обходит вершины по возрастанию идентификаторов.
+   */
+  public void forEachVertex(Vertices<? super V> action) {
+    vertices.forEach(action::accept);
+  }
+
+  /**
+   * Обходит рёбра по возрастанию идентификаторов начала, затем конца.
+   */
+  public void forEachEdge(Edges<? super E> action) {
+    outbound.forEach((from, row) -> row.forEach((to, element) -> action.accept(from, to, element)));
+  }
+
+  /**
+   * Обходит исходящие рёбра вершины.
+   */
+  public void forEachOutbound(long id, Edges<? super E> action) {
+    PersistentLongMap<E> row = outbound.get(id);
+    if (row != null) {
+      row.forEach((to, element) -> action.accept(id, to, element));
+    }
+  }
+
+  /**
+   * Обходит входящие рёбра вершины.
+   */
+  public void forEachInbound(long id, Edges<? super E> action) {
+    PersistentLongMap<E> row = inbound.get(id);
+    if (row != null) {
+      row.forEach((from, element) -> action.accept(from, id, element));
+    }
+  }
+
+  /**
+   * Получатель различий двух версий. Рёбра удалённой вершины сообщаются отдельно.
+   */
+  public interface Changes<V, E> {
+    void vertexAdded(long id, V element);
+
+    void vertexRemoved(long id, V element);
+
+    void vertexChanged(long id, V oldElement, V newElement);
+
+    void edgeAdded(long from, long to, E element);
+
+    void edgeRemoved(long from, long to, E element);
+
+    void edgeChanged(long from, long to, E oldElement, E newElement);
+  }
+
+  /**
+   * Сообщает, чем target отличается от этой версии; общие поддеревья пропускаются,
+   * поэтому стоимость пропорциональна числу отличий, а не размеру графа.
+   */
+  public void diff(PersistentDigraph<V, E> target, Changes<V, E> changes) {
+    if (target == this) {
+      return;
+    }
+    vertices.diff(target.vertices, new PersistentLongMap.Changes<V>() {
+      @Override
+      public void added(long key, V value) {
+        changes.vertexAdded(key, value);
+      }
+
+      @Override
+      public void removed(long key, V value) {
+        changes.vertexRemoved(key, value);
+      }
+
+      @Override
+      public void changed(long key, V oldValue, V newValue) {
+        changes.vertexChanged(key, oldValue, newValue);
+      }
+    });
+    outbound.diff(target.outbound, new PersistentLongMap.Changes<PersistentLongMap<E>>() {
+      @Override
+      public void added(long from, PersistentLongMap<E> row) {
+        row.forEach((to, element) -> changes.edgeAdded(from, to, element));
+      }
+
+      @Override
+      public void removed(long from, PersistentLongMap<E> row) {
+        row.forEach((to, element) -> changes.edgeRemoved(from, to, element));
+      }
+
+      @Override
+      public void changed(long from, PersistentLongMap<E> oldRow, PersistentLongMap<E> newRow) {
+        oldRow.diff(newRow, new PersistentLongMap.Changes<E>() {
+          @Override
+          public void added(long to, E element) {
+            changes.edgeAdded(from, to, element);
+          }
+
+          @Override
+          public void removed(long to, E element) {
+            changes.edgeRemoved(from, to, element);
+          }
+
+          @Override
+          public void changed(long to, E oldElement, E newElement) {
+            changes.edgeChanged(from, to, oldElement, newElement);
+          }
+        });
+      }
+    });
+  }
+
+  private static <E> PersistentLongMap<E> row(PersistentLongMap<PersistentLongMap<E>> adjacency, long id) {
+    PersistentLongMap<E> row = adjacency.get(id);
+    return row == null ? PersistentLongMap.empty() : row;
+  }
+
+  private static <E> PersistentLongMap<PersistentLongMap<E>> shrink(
+      PersistentLongMap<PersistentLongMap<E>> adjacency, long id, long neighbour) {
+    PersistentLongMap<E> row = adjacency.get(id).remove(neighbour);
+    return row.isEmpty() ? adjacency.remove(id) : adjacency.put(id, row);
+  }
+}
@@ -0,0 +1,265 @@
+package com.graph;
+
+import java.util.Objects;
+
+/**
+ * Неизменяемое отображение неотрицательных long-ключей в значения — префиксное дерево
+ * с ветвлением 32 по битам ключа (от старших к младшим), хранящее только непустые ветви.
+ * <p>
+ * Правка копирует лишь путь от корня до листа — O(log₃₂ K), где K — наибольший ключ;
+ * остальные узлы разделяются с исходной версией, поэтому старые версии живут, пока на них
+ * есть ссылки, и стоят памяти только на отличающиеся пути. Обход идёт по возрастанию ключей,
+ * а {@link #diff} сравнивает версии, пропуская общие поддеревья по ссылке.
+ */
+public final class PersistentLongMap<T> {
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+  private static final PersistentLongMap<?> EMPTY = new PersistentLongMap<>(null, 0, 0);
+
+  // Корень покрывает ключи [0, 2^(shift + BITS)); null — пустое отображение
+  private final Node root;
+  private final int shift;
+  private final int size;
+
+  private PersistentLongMap(Node root, int shift, int size) {
+    this.root = root;
+    this.shift = shift;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> PersistentLongMap<T> empty() {
+    return (PersistentLongMap<T>) EMPTY;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean containsKey(long key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Значение по ключу или null.
+   */
+  @SuppressWarnings("unchecked")
+  public T get(long key) {
+    if (root == null || key < 0 || !covers(shift, key)) {
+      return null;
+    }
+    Node node = root;
+    for (int level = shift; ; level -= BITS) {
+      Object slot = node.child(index(key, level));
+      if (level == 0 || slot == null) {
+        return (T) slot;
+      }
+      node = (Node) slot;
+    }
+  }
+
+  /**
+   * Версия с ключом key, связанным с value (null не допускается).
+   */
+  public PersistentLongMap<T> put(long key, T value) {
+    if (key < 0) {
+      throw new IllegalArgumentException("Ключ должен быть неотрицательным: " + key);
+    }
+    Objects.requireNonNull(value, "value");
+    Node newRoot = root;
+    int newShift = shift;
+    if (newRoot == null) {
+      newShift = 0;
+      while (!covers(newShift, key)) {
+        newShift += BITS;
+      }
+    } else {
+      // Дерево растёт вверх: прежний корень становится нулевой ветвью нового
+      while (!covers(newShift, key)) {
+        newRoot = Node.EMPTY.with(0, newRoot);
+        newShift += BITS;
+      }
+    }
+    boolean[] added = new boolean[1];
+    newRoot = put(newRoot == null ? Node.EMPTY : newRoot, newShift, key, value, added);
+    return new PersistentLongMap<>(newRoot, newShift, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * Версия без ключа key; если ключа нет — это же отображение.
+   */
+  public PersistentLongMap<T> remove(long key) {
+    if (root == null || key < 0 || !covers(shift, key) || get(key) == null) {
+      return this;
+    }
+    Node newRoot = remove(root, shift, key);
+    return newRoot == null ? empty() : new PersistentLongMap<>(newRoot, shift, size - 1);
+  }
+
+  /**
+   * Получатель пар ключ — значение.
+   */
+  public interface Entries<T> {
+    void accept(long key, T value);
+  }
+
+  /**
+   * Обходит пары по возрастанию ключей.
+   */
+  public void forEach(Entries<? super T> action) {
+    if (root != null) {
+      forEach(root, shift, 0L, action);
+    }
+  }
+
+  /**
+   * Получатель различий двух версий.
+   */
+  public interface Changes<T> {
+    void added(long key, T value);
+
+    void removed(long key, T value);
+
+    void changed(long key, T oldValue, T newValue);
+  }
+
+  /**
+   * Сообщает, чем target отличается от этой версии, по возрастанию ключей. Поддеревья,
+   * общие для обеих версий, не обходятся, поэтому разница соседних версий находится
+   * за O(d · log K), где d — число отличий. Значения сравниваются по equals.
+   */
+  public void diff(PersistentLongMap<T> target, Changes<T> changes) {
+    Node a = root;
+    Node b = target.root;
+    int level = Math.max(shift, target.shift);
+    // Корни приводятся к одной высоте: меньшее дерево — нулевая ветвь недостающих уровней
+    for (int s = shift; a != null && s < level; s += BITS) {
+      a = Node.EMPTY.with(0, a);
+    }
+    for (int s = target.shift; b != null && s < level; s += BITS) {
+      b = Node.EMPTY.with(0, b);
+    }
+    diff(a, b, level, 0L, changes);
+  }
+
+  private static boolean covers(int shift, long key) {
+    return shift + BITS >= 63 || key >>> (shift + BITS) == 0;
+  }
+
+  private static int index(long key, int level) {
+    return (int) (key >>> level) & MASK;
+  }
+
+  private static Node put(Node node, int level, long key, Object value, boolean[] added) {
+    int i = index(key, level);
+    Object slot = node.child(i);
+    if (level == 0) {
+      added[0] = slot == null;
+      return slot == value ? node : node.with(i, value);
+    }
+    Node child = put(slot == null ? Node.EMPTY : (Node) slot, level - BITS, key, value, added);
+    return child == slot ? node : node.with(i, child);
+  }
+
+  private static Node remove(Node node, int level, long key) {
+    int i = index(key, level);
+    Object slot = node.child(i);
+    Object replacement = level == 0 ? null : remove((Node) slot, level - BITS, key);
+    return node.with(i, replacement);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void forEach(Node node, int level, long prefix, Entries<? super T> action) {
+    int bits = node.bitmap;
+    for (int p = 0; p < node.slots.length; p++) {
+      long key = prefix | (long) Integer.numberOfTrailingZeros(bits) << level;
+      bits &= bits - 1;
+      if (level == 0) {
+        action.accept(key, (T) node.slots[p]);
+      } else {
+        forEach((Node) node.slots[p], level - BITS, key, action);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void diff(Object a, Object b, int level, long prefix, Changes<T> changes) {
+    if (a == b) {
+      return;
+    }
+    if (level < 0) {
+      // Листовые значения
+      if (a == null) {
+        changes.added(prefix, (T) b);
+      } else if (b == null) {
+        changes.removed(prefix, (T) a);
+      } else if (!a.equals(b)) {
+        changes.changed(prefix, (T) a, (T) b);
+      }
+      return;
+    }
+    Node left = a == null ? Node.EMPTY : (Node) a;
+    Node right = b == null ? Node.EMPTY : (Node) b;
+    int bits = left.bitmap | right.bitmap;
+    while (bits != 0) {
+      int i = Integer.numberOfTrailingZeros(bits);
+      bits &= bits - 1;
+      diff(left.child(i), right.child(i), level - BITS, prefix | (long) i << level, changes);
+    }
+  }
+
+  /**
+   * Узел со сжатым массивом ветвей: бит i в bitmap означает, что ветвь i непуста,
+   * а её содержимое лежит в slots на месте числа установленных младших битов.
+   */
+  private static final class Node {
+    static final Node EMPTY = new Node(0, new Object[0]);
+
+    final int bitmap;
+    final Object[] slots;
+
+    Node(int bitmap, Object[] slots) {
+      this.bitmap = bitmap;
+      this.slots = slots;
+    }
+
+    Object child(int i) {
+      int bit = 1 << i;
+      return (bitmap & bit) == 0 ? null : slots[Integer.bitCount(bitmap & (bit - 1))];
+    }
+
+    /**
+     * Копия узла с ветвью i, заменённой на value; null удаляет ветвь. Пустой узел — null.
+     */
+    Node with(int i, Object value) {
+      int bit = 1 << i;
+      int position = Integer.bitCount(bitmap & (bit - 1));
+      if ((bitmap & bit) != 0) {
+        if (value == null) {
+          if (slots.length == 1) {
+            return null;
+          }
+          Object[] copy = new Object[slots.length - 1];
+          System.arraycopy(slots, 0, copy, 0, position);
+          System.arraycopy(slots, position + 1, copy, position, slots.length - position - 1);
+          return new Node(bitmap & ~bit, copy);
+        }
+        Object[] copy = slots.clone();
+        copy[position] = value;
+        return new Node(bitmap, copy);
+      }
+      if (value == null) {
+        return this;
+      }
+      Object[] copy = new Object[slots.length + 1];
+      System.arraycopy(slots, 0, copy, 0, position);
+      copy[position] = value;
+      System.arraycopy(slots, position, copy, position + 1, slots.length - position);
+      return new Node(bitmap | bit, copy);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package com.io;
+
+import com.analysis.MapSnapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Компактный двоичный формат карты (.cmap), рассчитанный на отображение файла в память.
+ * <p>
+ * Все числа — в порядке байтов big-endian:
+ * <pre>
+ * int    magic = 'CMAP', int version = 1, int V, int E
+ * int[E] from, int[E] to, double[E] weight (смещение массива весов кратно 8)
+ * int[V + 1] смещения подписей в блоке, byte[] подписи в UTF-8
+ * </pre>
+ * Массивы рёбер читаются из отображённого буфера целиком, без разбора текста. Веса конечны,
+ * пары (from, to) не повторяются.
+ */
+public final class BinaryMapFormat {
+  private static final int MAGIC = 0x434D4150;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 16;
+
+  private BinaryMapFormat() {
+  }
+
+  public static MapSnapshot read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_BYTES) {
+        throw new IllegalArgumentException("Файл слишком короткий для формата .cmap");
+      }
+      if (size > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Файл .cmap больше 2 ГБ не поддерживается");
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      return read(buffer);
+    }
+  }
+
+  static MapSnapshot read(ByteBuffer buffer) {
+    if (buffer.getInt() != MAGIC) {
+      throw new IllegalArgumentException("Файл не в формате .cmap");
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Неподдерживаемая версия формата .cmap: " + version);
+    }
+    int vertexCount = buffer.getInt();
+    int edgeCount = buffer.getInt();
+    if (vertexCount < 0 || edgeCount < 0
+        || (long) edgeCount * 16 + (long) (vertexCount + 1) * 4 > buffer.remaining()) {
+      throw new IllegalArgumentException("Файл .cmap повреждён: размеры не сходятся");
+    }
+
+    int[] from = new int[edgeCount];
+    int[] to = new int[edgeCount];
+    double[] weights = new double[edgeCount];
+    buffer.asIntBuffer().get(from);
+    buffer.position(buffer.position() + edgeCount * 4);
+    buffer.asIntBuffer().get(to);
+    buffer.position(buffer.position() + edgeCount * 4);
+    buffer.asDoubleBuffer().get(weights);
+    buffer.position(buffer.position() + edgeCount * 8);
+
+    int[] offsets = new int[vertexCount + 1];
+    buffer.asIntBuffer().get(offsets);
+    buffer.position(buffer.position() + offsets.length * 4);
+    int labelBytes = offsets[vertexCount];
+    if (labelBytes < 0 || labelBytes > buffer.remaining()) {
+      throw new IllegalArgumentException("Файл .cmap повреждён: таблица подписей");
+    }
+    byte[] blob = new byte[labelBytes];
+    buffer.get(blob);
+
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    Set<String> seen = new HashSet<>();
+    for (int v = 0; v < vertexCount; v++) {
+      if (offsets[v] < 0 || offsets[v] > offsets[v + 1]) {
+        throw new IllegalArgumentException("Файл .cmap повреждён: таблица подписей");
+      }
+      String label = new String(blob, offsets[v], offsets[v + 1] - offsets[v], StandardCharsets.UTF_8);
+      if (!seen.add(label)) {
+        throw new IllegalArgumentException("Вершина " + label + " встречается дважды");
+      }
+      builder.addVertex(label);
+    }
+    for (int e = 0; e < edgeCount; e++) {
+      if (!Double.isFinite(weights[e])) {
+        throw new IllegalArgumentException("Ребро №" + (e + 1) + ": вес должен быть конечным числом");
+      }
+      try {
+        builder.addEdge(from[e], to[e], weights[e]);
+      } catch (IllegalArgumentException ex) {
+        throw new IllegalArgumentException("Ребро №" + (e + 1) + ": " + ex.getMessage());
+      }
+    }
+    return builder.build();
+  }
+
+  public static void write(MapSnapshot map, Path file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+      int vertexCount = map.vertexCount();
+      int edgeCount = map.edgeCount();
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(vertexCount);
+      out.writeInt(edgeCount);
+
+      int[] rowStart = map.adjacency().rowStart();
+      int[] columns = map.adjacency().columnIndices();
+      double[] weights = map.adjacency().values();
+      for (int v = 0; v < vertexCount; v++) {
+        for (int p = rowStart[v]; p < rowStart[v + 1]; p++) {
+          out.writeInt(v);
+        }
+      }
+      for (int p = 0; p < edgeCount; p++) {
+        out.writeInt(columns[p]);
+      }
+      for (int v = 0; v < vertexCount; v++) {
+        for (int p = rowStart[v]; p < rowStart[v + 1]; p++) {
+          out.writeDouble(MapFiles.finiteWeight(map, v, columns[p], weights[p]));
+        }
+      }
+
+      byte[][] labels = new byte[vertexCount][];
+      int offset = 0;
+      out.writeInt(0);
+      for (int v = 0; v < vertexCount; v++) {
+        labels[v] = map.label(v).getBytes(StandardCharsets.UTF_8);
+        offset += labels[v].length;
+        out.writeInt(offset);
+      }
+      for (byte[] label : labels) {
+        out.write(label);
+      }
+    }
+  }
+}
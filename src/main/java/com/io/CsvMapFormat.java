@@ -0,0 +1,175 @@
+package com.io;
+
+import com.analysis.MapSnapshot;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Карта в виде списка рёбер CSV, читается и пишется построчно.
+ * <pre>
+ * # комментарий
+ * from,to,weight
+ * 1,2,0.6
+ * "вершина, с запятой",2,-0.8
+ * 3
+ * </pre>
+ * Строка из одного поля объявляет вершину (так сохраняются изолированные вершины и порядок
+ * вершин), строка из трёх полей — ребро; вершины рёбер создаются при первом упоминании.
+ * Поля с запятыми, кавычками и крайними пробелами заключаются в кавычки, кавычка внутри
+ * удваивается. Вес — конечное число; повторное ребро между той же парой вершин — ошибка.
+ */
+public final class CsvMapFormat {
+  private static final String HEADER = "from,to,weight";
+
+  private CsvMapFormat() {
+  }
+
+  public static MapSnapshot read(Path file) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return read(reader);
+    }
+  }
+
+  public static MapSnapshot read(Reader source) throws IOException {
+    BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    LabelIndex vertices = new LabelIndex(builder);
+    List<String> fields = new ArrayList<>(3);
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.equalsIgnoreCase(HEADER)) {
+        continue;
+      }
+      split(line, lineNumber, fields);
+      if (fields.size() == 1) {
+        vertices.vertex(fields.get(0));
+      } else if (fields.size() == 3) {
+        double weight;
+        try {
+          weight = Double.parseDouble(fields.get(2).trim());
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Строка " + lineNumber + ": некорректный вес «" + fields.get(2) + "»");
+        }
+        if (!Double.isFinite(weight)) {
+          throw new IllegalArgumentException("Строка " + lineNumber + ": вес должен быть конечным числом");
+        }
+        try {
+          builder.addEdge(vertices.vertex(fields.get(0)), vertices.vertex(fields.get(1)), weight);
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("Строка " + lineNumber + ": " + e.getMessage());
+        }
+      } else {
+        throw new IllegalArgumentException(
+            "Строка " + lineNumber + ": ожидалась вершина или ребро «откуда,куда,вес»"
+        );
+      }
+    }
+    return builder.build();
+  }
+
+  public static void write(MapSnapshot map, Path file) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      write(map, writer);
+    }
+  }
+
+  public static void write(MapSnapshot map, Writer writer) throws IOException {
+    writer.write("# вершины\n");
+    for (int v = 0; v < map.vertexCount(); v++) {
+      writer.write(quote(map.label(v)));
+      writer.write('\n');
+    }
+    writer.write(HEADER);
+    writer.write('\n');
+    int[] rowStart = map.adjacency().rowStart();
+    int[] columns = map.adjacency().columnIndices();
+    double[] weights = map.adjacency().values();
+    for (int v = 0; v < map.vertexCount(); v++) {
+      String from = quote(map.label(v));
+      for (int p = rowStart[v]; p < rowStart[v + 1]; p++) {
+        writer.write(from);
+        writer.write(',');
+        writer.write(quote(map.label(columns[p])));
+        writer.write(',');
+        writer.write(Double.toString(MapFiles.finiteWeight(map, v, columns[p], weights[p])));
+        writer.write('\n');
+      }
+    }
+  }
+
+  /**
+   * Разбивает строку на поля; незакавыченные поля обрезаются по краям.
+   */
+  private static void split(String line, int lineNumber, List<String> fields) {
+    fields.clear();
+    StringBuilder field = new StringBuilder();
+    int i = 0;
+    int length = line.length();
+    while (true) {
+      while (i < length && line.charAt(i) == ' ') {
+        i++;
+      }
+      field.setLength(0);
+      if (i < length && line.charAt(i) == '"') {
+        i++;
+        while (true) {
+          if (i >= length) {
+            throw new IllegalArgumentException("Строка " + lineNumber + ": незакрытая кавычка");
+          }
+          char c = line.charAt(i++);
+          if (c == '"') {
+            if (i < length && line.charAt(i) == '"') {
+              field.append('"');
+              i++;
+            } else {
+              break;
+            }
+          } else {
+            field.append(c);
+          }
+        }
+        while (i < length && line.charAt(i) == ' ') {
+          i++;
+        }
+        if (i < length && line.charAt(i) != ',') {
+          throw new IllegalArgumentException("Строка " + lineNumber + ": лишние символы после кавычки");
+        }
+        fields.add(field.toString());
+      } else {
+        int comma = line.indexOf(',', i);
+        int end = comma < 0 ? length : comma;
+        fields.add(line.substring(i, end).trim());
+        i = end;
+      }
+      if (i >= length) {
+        return;
+      }
+      i++; // запятая
+    }
+  }
+
+  static String quote(String label) {
+    if (label.indexOf('\n') >= 0 || label.indexOf('\r') >= 0) {
+      throw new IllegalArgumentException("Подпись вершины «" + label + "» содержит перевод строки");
+    }
+    boolean needsQuotes = label.isEmpty()
+        || label.indexOf(',') >= 0
+        || label.indexOf('"') >= 0
+        || label.startsWith("#")
+        || label.trim().length() != label.length()
+        || label.equalsIgnoreCase(HEADER);
+    return needsQuotes ? '"' + label.replace("\"", "\"\"") + '"' : label;
+  }
+}
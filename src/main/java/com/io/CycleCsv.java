@@ -0,0 +1,49 @@
+package com.io;
+
+import com.analysis.CycleTable;
+import com.analysis.ProgressMonitor;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Выгрузка перечня циклов в CSV построчно, без сборки всего текста в памяти:
+ * <pre>
+ * number,length,sign,product,cycle
+ * 1,3,-,-0.216,A → B → C → A
+ * </pre>
+ */
+public final class CycleCsv {
+  private static final String HEADER = "number,length,sign,product,cycle";
+  // Через сколько строк сообщать о ходе выгрузки и проверять отмену
+  private static final int PROGRESS_ROWS = 4096;
+
+  private CycleCsv() {
+  }
+
+  /**
+   * @param order строки таблицы в порядке выгрузки (например, {@link CycleTable#order})
+   */
+  public static void write(Writer writer, CycleTable table, int[] order, ProgressMonitor monitor)
+      throws IOException {
+    writer.write(HEADER);
+    writer.write('\n');
+    for (int i = 0; i < order.length; i++) {
+      if (i % PROGRESS_ROWS == 0) {
+        monitor.checkCancelled();
+        monitor.progress(i, order.length, "Циклов выгружено: " + i);
+      }
+      int row = order[i];
+      writer.write(Integer.toString(table.number(row)));
+      writer.write(',');
+      writer.write(Integer.toString(table.length(row)));
+      writer.write(',');
+      writer.write(table.isNegative(row) ? '-' : '+');
+      writer.write(',');
+      writer.write(Double.toString(table.product(row)));
+      writer.write(',');
+      writer.write(CsvMapFormat.quote(table.path(row)));
+      writer.write('\n');
+    }
+  }
+}
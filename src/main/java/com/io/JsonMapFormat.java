@@ -0,0 +1,137 @@
+package com.io;
+
+import com.analysis.MapSnapshot;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Карта в формате JSON, читается потоково без построения дерева документа.
+ * <pre>
+ * {
+ *   "vertices": ["1", "2"],
+ *   "edges": [
+ *     {"from": "1", "to": "2", "weight": 0.6}
+ *   ]
+ * }
+ * </pre>
+ * Порядок полей произвольный; вершины рёбер создаются при первом упоминании, так что
+ * список "vertices" нужен только для изолированных вершин и порядка. Вместо from/to
+ * допускаются vertex1/vertex2, подписи могут быть числами; неизвестные поля пропускаются.
+ * Вес — конечное число; повторное ребро между той же парой вершин — ошибка.
+ */
+public final class JsonMapFormat {
+  private JsonMapFormat() {
+  }
+
+  public static MapSnapshot read(Path file) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return read(reader);
+    }
+  }
+
+  public static MapSnapshot read(Reader source) throws IOException {
+    JsonReader json = new JsonReader(source);
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    LabelIndex vertices = new LabelIndex(builder);
+
+    json.beginObject();
+    while (json.hasNext()) {
+      String name = json.nextName();
+      if (name.equals("vertices")) {
+        json.beginArray();
+        while (json.hasNext()) {
+          vertices.vertex(json.nextString());
+        }
+        json.endArray();
+      } else if (name.equals("edges")) {
+        json.beginArray();
+        while (json.hasNext()) {
+          readEdge(json, builder, vertices);
+        }
+        json.endArray();
+      } else {
+        json.skipValue();
+      }
+    }
+    json.endObject();
+    json.endDocument();
+    return builder.build();
+  }
+
+  private static void readEdge(JsonReader json, MapSnapshot.Builder builder, LabelIndex vertices) throws IOException {
+    String from = null;
+    String to = null;
+    double weight = 0.0;
+    boolean weighted = false;
+    json.beginObject();
+    while (json.hasNext()) {
+      switch (json.nextName()) {
+        case "from":
+        case "vertex1":
+          from = json.nextString();
+          break;
+        case "to":
+        case "vertex2":
+          to = json.nextString();
+          break;
+        case "weight":
+          weight = json.nextDouble();
+          weighted = true;
+          if (!Double.isFinite(weight)) {
+            throw json.error("вес ребра должен быть конечным числом");
+          }
+          break;
+        default:
+          json.skipValue();
+      }
+    }
+    if (from == null || to == null || !weighted) {
+      throw json.error("у ребра должны быть поля from, to и weight");
+    }
+    json.endObject();
+    try {
+      builder.addEdge(vertices.vertex(from), vertices.vertex(to), weight);
+    } catch (IllegalArgumentException e) {
+      throw json.error(e.getMessage());
+    }
+  }
+
+  public static void write(MapSnapshot map, Path file) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      write(map, writer);
+    }
+  }
+
+  public static void write(MapSnapshot map, Writer writer) throws IOException {
+    writer.write("{\n  \"vertices\": [");
+    for (int v = 0; v < map.vertexCount(); v++) {
+      writer.write(v == 0 ? "\n    " : ",\n    ");
+      JsonWriter.writeString(writer, map.label(v));
+    }
+    writer.write("\n  ],\n  \"edges\": [");
+    int[] rowStart = map.adjacency().rowStart();
+    int[] columns = map.adjacency().columnIndices();
+    double[] weights = map.adjacency().values();
+    boolean first = true;
+    for (int v = 0; v < map.vertexCount(); v++) {
+      for (int p = rowStart[v]; p < rowStart[v + 1]; p++) {
+        writer.write(first ? "\n    {\"from\": " : ",\n    {\"from\": ");
+        first = false;
+        JsonWriter.writeString(writer, map.label(v));
+        writer.write(", \"to\": ");
+        JsonWriter.writeString(writer, map.label(columns[p]));
+        writer.write(", \"weight\": ");
+        writer.write(Double.toString(MapFiles.finiteWeight(map, v, columns[p], weights[p])));
+        writer.write('}');
+      }
+    }
+    writer.write("\n  ]\n}\n");
+  }
+}
@@ -0,0 +1,295 @@
+package com.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Потоковый разбор JSON без построения дерева: вызывающий код идёт по документу
+ * методами begin/end/next, а ненужные значения пропускает {@link #skipValue()}.
+ */
+final class JsonReader implements Closeable {
+  private static final int EMPTY_OBJECT = 1;
+  private static final int NONEMPTY_OBJECT = 2;
+  private static final int EMPTY_ARRAY = 3;
+  private static final int NONEMPTY_ARRAY = 4;
+
+  private final Reader in;
+  private final char[] buffer = new char[8192];
+  private int position;
+  private int limit;
+  private int line = 1;
+  private int[] stack = new int[16];
+  private int depth;
+  private boolean afterName;
+  private final StringBuilder text = new StringBuilder();
+
+  JsonReader(Reader in) {
+    this.in = in;
+  }
+
+  void beginObject() throws IOException {
+    beforeValue();
+    expect('{');
+    push(EMPTY_OBJECT);
+  }
+
+  void endObject() throws IOException {
+    expect('}');
+    depth--;
+  }
+
+  void beginArray() throws IOException {
+    beforeValue();
+    expect('[');
+    push(EMPTY_ARRAY);
+  }
+
+  void endArray() throws IOException {
+    expect(']');
+    depth--;
+  }
+
+  /**
+   * Есть ли в текущем объекте или массиве ещё элементы.
+   */
+  boolean hasNext() throws IOException {
+    int c = peek();
+    return c != '}' && c != ']' && c != -1;
+  }
+
+  String nextName() throws IOException {
+    if (depth == 0 || (stack[depth - 1] != EMPTY_OBJECT && stack[depth - 1] != NONEMPTY_OBJECT)) {
+      throw error("имя поля вне объекта");
+    }
+    if (stack[depth - 1] == NONEMPTY_OBJECT) {
+      expect(',');
+    }
+    stack[depth - 1] = NONEMPTY_OBJECT;
+    if (peek() != '"') {
+      throw error("ожидалось имя поля");
+    }
+    position++;
+    String name = readString();
+    expect(':');
+    afterName = true;
+    return name;
+  }
+
+  /**
+   * Строка или число в текстовом виде.
+   */
+  String nextString() throws IOException {
+    beforeValue();
+    int c = peek();
+    if (c == '"') {
+      position++;
+      return readString();
+    }
+    String literal = readLiteral();
+    if (literal.isEmpty() || literal.equals("null") || literal.equals("true") || literal.equals("false")) {
+      throw error("ожидалась строка или число");
+    }
+    return literal;
+  }
+
+  double nextDouble() throws IOException {
+    String value = nextString();
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      throw error("некорректное число «" + value + "»");
+    }
+  }
+
+  void skipValue() throws IOException {
+    beforeValue();
+    int c = peek();
+    if (c == '{' || c == '[') {
+      int nested = 0;
+      do {
+        c = read();
+        if (c == '"') {
+          readString();
+        } else if (c == '{' || c == '[') {
+          nested++;
+        } else if (c == '}' || c == ']') {
+          nested--;
+        } else if (c == -1) {
+          throw error("неожиданный конец файла");
+        }
+      } while (nested > 0);
+    } else if (c == '"') {
+      position++;
+      readString();
+    } else if (readLiteral().isEmpty()) {
+      throw error("ожидалось значение");
+    }
+  }
+
+  /**
+   * Проверяет, что после корневого значения в документе ничего нет.
+   */
+  void endDocument() throws IOException {
+    if (peek() != -1) {
+      throw error("лишние данные после конца документа");
+    }
+  }
+
+  IllegalArgumentException error(String message) {
+    return new IllegalArgumentException("JSON, строка " + line + ": " + message);
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private void beforeValue() throws IOException {
+    if (afterName) {
+      afterName = false;
+      return;
+    }
+    if (depth > 0) {
+      int top = stack[depth - 1];
+      if (top == NONEMPTY_ARRAY) {
+        expect(',');
+      } else if (top == EMPTY_ARRAY) {
+        stack[depth - 1] = NONEMPTY_ARRAY;
+      } else {
+        throw error("ожидалось имя поля");
+      }
+    }
+  }
+
+  private void push(int context) {
+    if (depth == stack.length) {
+      stack = Arrays.copyOf(stack, depth * 2);
+    }
+    stack[depth++] = context;
+  }
+
+  private void expect(char expected) throws IOException {
+    int c = peek();
+    if (c != expected) {
+      throw error("ожидалось '" + expected + "'");
+    }
+    position++;
+  }
+
+  /**
+   * Следующий значимый символ без его извлечения (-1 — конец файла).
+   */
+  private int peek() throws IOException {
+    while (true) {
+      if (position == limit && !fill()) {
+        return -1;
+      }
+      char c = buffer[position];
+      if (c == '\n') {
+        line++;
+      } else if (c != ' ' && c != '\t' && c != '\r') {
+        return c;
+      }
+      position++;
+    }
+  }
+
+  private int read() throws IOException {
+    int c = peek();
+    if (c != -1) {
+      position++;
+    }
+    return c;
+  }
+
+  private boolean fill() throws IOException {
+    int count = in.read(buffer, 0, buffer.length);
+    if (count <= 0) {
+      return false;
+    }
+    position = 0;
+    limit = count;
+    return true;
+  }
+
+  /**
+   * Строка после открывающей кавычки.
+   */
+  private String readString() throws IOException {
+    text.setLength(0);
+    while (true) {
+      if (position == limit && !fill()) {
+        throw error("незакрытая строка");
+      }
+      char c = buffer[position++];
+      if (c == '"') {
+        return text.toString();
+      } else if (c == '\\') {
+        if (position == limit && !fill()) {
+          throw error("незакрытая строка");
+        }
+        char escaped = buffer[position++];
+        switch (escaped) {
+          case 'n':
+            text.append('\n');
+            break;
+          case 't':
+            text.append('\t');
+            break;
+          case 'r':
+            text.append('\r');
+            break;
+          case 'b':
+            text.append('\b');
+            break;
+          case 'f':
+            text.append('\f');
+            break;
+          case 'u':
+            int code = 0;
+            for (int k = 0; k < 4; k++) {
+              if (position == limit && !fill()) {
+                throw error("незакрытая строка");
+              }
+              int digit = Character.digit(buffer[position++], 16);
+              if (digit < 0) {
+                throw error("некорректная escape-последовательность");
+              }
+              code = code * 16 + digit;
+            }
+            text.append((char) code);
+            break;
+          default:
+            text.append(escaped);
+        }
+      } else {
+        if (c == '\n') {
+          line++;
+        }
+        text.append(c);
+      }
+    }
+  }
+
+  /**
+   * Число или литерал true/false/null.
+   */
+  private String readLiteral() throws IOException {
+    text.setLength(0);
+    while (true) {
+      if (position == limit && !fill()) {
+        break;
+      }
+      char c = buffer[position];
+      if (c == ',' || c == '}' || c == ']' || c == ':' || c == ' ' || c == '\n' || c == '\r' || c == '\t'
+          || c == '"' || c == '{' || c == '[') {
+        break;
+      }
+      text.append(c);
+      position++;
+    }
+    return text.toString();
+  }
+}
@@ -0,0 +1,153 @@
+package com.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Потоковая запись JSON без построения дерева, парная {@link JsonReader}: запятые между
+ * элементами расставляются сами, вывод компактный (без отступов).
+ */
+public final class JsonWriter {
+  private final Writer out;
+  // Для каждого открытого объекта или массива: записан ли уже хотя бы один элемент
+  private boolean[] nonEmpty = new boolean[16];
+  private int depth;
+  private boolean afterName;
+
+  public JsonWriter(Writer out) {
+    this.out = out;
+  }
+
+  public JsonWriter beginObject() throws IOException {
+    beforeValue();
+    out.write('{');
+    push();
+    return this;
+  }
+
+  public JsonWriter endObject() throws IOException {
+    depth--;
+    out.write('}');
+    return this;
+  }
+
+  public JsonWriter beginArray() throws IOException {
+    beforeValue();
+    out.write('[');
+    push();
+    return this;
+  }
+
+  public JsonWriter endArray() throws IOException {
+    depth--;
+    out.write(']');
+    return this;
+  }
+
+  public JsonWriter name(String name) throws IOException {
+    beforeValue();
+    writeString(out, name);
+    out.write(':');
+    afterName = true;
+    return this;
+  }
+
+  /**
+   * null записывается как null.
+   */
+  public JsonWriter value(String value) throws IOException {
+    beforeValue();
+    if (value == null) {
+      out.write("null");
+    } else {
+      writeString(out, value);
+    }
+    return this;
+  }
+
+  /**
+   * Бесконечность и NaN в JSON не представимы и записываются как null.
+   */
+  public JsonWriter value(double value) throws IOException {
+    beforeValue();
+    out.write(Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value));
+    return this;
+  }
+
+  public JsonWriter value(long value) throws IOException {
+    beforeValue();
+    out.write(Long.toString(value));
+    return this;
+  }
+
+  public JsonWriter value(boolean value) throws IOException {
+    beforeValue();
+    out.write(value ? "true" : "false");
+    return this;
+  }
+
+  public JsonWriter nullValue() throws IOException {
+    beforeValue();
+    out.write("null");
+    return this;
+  }
+
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  /**
+   * Записывает строку JSON в кавычках с экранированием.
+   */
+  public static void writeString(Writer writer, String value) throws IOException {
+    writer.write('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          writer.write("\\\"");
+          break;
+        case '\\':
+          writer.write("\\\\");
+          break;
+        case '\n':
+          writer.write("\\n");
+          break;
+        case '\r':
+          writer.write("\\r");
+          break;
+        case '\t':
+          writer.write("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            writer.write(String.format("\\u%04x", (int) c));
+          } else {
+            writer.write(c);
+          }
+      }
+    }
+    writer.write('"');
+  }
+
+  private void beforeValue() throws IOException {
+    if (afterName) {
+      afterName = false;
+      return;
+    }
+    if (depth > 0) {
+      if (nonEmpty[depth - 1]) {
+        out.write(',');
+      }
+      nonEmpty[depth - 1] = true;
+    }
+  }
+
+  private void push() {
+    if (depth == nonEmpty.length) {
+      nonEmpty = Arrays.copyOf(nonEmpty, depth * 2);
+    }
+    nonEmpty[depth++] = false;
+  }
+}
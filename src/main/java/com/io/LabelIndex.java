@@ -0,0 +1,27 @@
+package com.io;
+
+import com.analysis.MapSnapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Вершины загружаемой карты по подписям: вершина создаётся при первом упоминании.
+ */
+final class LabelIndex {
+  private final MapSnapshot.Builder builder;
+  private final Map<String, Integer> indexByLabel = new HashMap<>();
+
+  LabelIndex(MapSnapshot.Builder builder) {
+    this.builder = builder;
+  }
+
+  int vertex(String label) {
+    Integer index = indexByLabel.get(label);
+    if (index == null) {
+      index = builder.addVertex(label);
+      indexByLabel.put(label, index);
+    }
+    return index;
+  }
+}
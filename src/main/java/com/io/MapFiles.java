@@ -0,0 +1,70 @@
+package com.io;
+
+import com.analysis.MapSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Чтение и запись когнитивных карт; формат определяется по расширению файла:
+ * .csv — список рёбер CSV, .json — JSON, .cmap — компактный двоичный формат.
+ */
+public final class MapFiles {
+  public static final String CSV_EXTENSION = "csv";
+  public static final String JSON_EXTENSION = "json";
+  public static final String BINARY_EXTENSION = "cmap";
+
+  private MapFiles() {
+  }
+
+  /**
+   * @throws IllegalArgumentException если расширение не поддерживается или файл некорректен
+   */
+  public static MapSnapshot read(Path file) throws IOException {
+    switch (extension(file)) {
+      case CSV_EXTENSION:
+        return CsvMapFormat.read(file);
+      case JSON_EXTENSION:
+        return JsonMapFormat.read(file);
+      case BINARY_EXTENSION:
+        return BinaryMapFormat.read(file);
+      default:
+        throw new IllegalArgumentException("Неизвестный формат файла: " + file.getFileName());
+    }
+  }
+
+  public static void write(MapSnapshot map, Path file) throws IOException {
+    switch (extension(file)) {
+      case CSV_EXTENSION:
+        CsvMapFormat.write(map, file);
+        break;
+      case JSON_EXTENSION:
+        JsonMapFormat.write(map, file);
+        break;
+      case BINARY_EXTENSION:
+        BinaryMapFormat.write(map, file);
+        break;
+      default:
+        throw new IllegalArgumentException("Неизвестный формат файла: " + file.getFileName());
+    }
+  }
+
+  /**
+   * Вес ребра from → to для записи. NaN и бесконечности не пишутся ни в один формат:
+   * текстовые форматы их не прочтут, а анализ на них не определён.
+   */
+  static double finiteWeight(MapSnapshot map, int from, int to, double weight) {
+    if (!Double.isFinite(weight)) {
+      throw new IllegalArgumentException(
+          "Вес связи «" + map.label(from) + "» → «" + map.label(to) + "» не является конечным числом: " + weight);
+    }
+    return weight;
+  }
+
+  private static String extension(Path file) {
+    String name = file.getFileName().toString();
+    int dot = name.lastIndexOf('.');
+    return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+  }
+}
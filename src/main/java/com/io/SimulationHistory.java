@@ -0,0 +1,358 @@
+package com.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * История импульсного моделирования в файле, отображённом в память (.hist): состояния тактов
+ * пишутся в файл по мере расчёта, а график и экспорт читают только нужные вершины и такты,
+ * поэтому куча не растёт с длиной прогона.
+ * <p>
+ * Такты хранятся блоками по {@code blockSteps}; внутри блока данные разложены по вершинам:
+ * значения одной вершины за такты блока идут подряд. Окно тактов одной вершины читается
+ * несколькими непрерывными отрезками, а запись такта касается только текущего блока.
+ * Числа — little-endian, значения — float или double:
+ * <pre>
+ * int magic = 'SHIS', int version = 1, int размер значения (4 или 8), int V,
+ * int steps, int blockSteps, long 0 (выравнивание)
+ * блоки по V · blockSteps значений
+ * </pre>
+ * Файл отображается сегментами не больше {@link #SEGMENT_BYTES}, так что история может
+ * превышать 2 ГБ.
+ */
+public final class SimulationHistory implements Closeable {
+  public static final String EXTENSION = "hist";
+
+  private static final int MAGIC = 0x53484953;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 32;
+  private static final int BLOCK_STEPS = 256;
+  private static final long SEGMENT_BYTES = 1L << 28;
+  // Тактов, читаемых за один проход экспорта: буфер — столько значений на каждую вершину
+  private static final int EXPORT_WINDOW = 4096;
+
+  /**
+   * Точность хранения: float вдвое компактнее, double сохраняет значения без потерь.
+   */
+  public enum Precision {
+    FLOAT(Float.BYTES),
+    DOUBLE(Double.BYTES);
+
+    private final int bytes;
+
+    Precision(int bytes) {
+      this.bytes = bytes;
+    }
+
+    public int bytes() {
+      return bytes;
+    }
+  }
+
+  private final FileChannel channel;
+  private final Precision precision;
+  private final int vertexCount;
+  private final int steps;
+  private final int blockSteps;
+  private final long blockBytes;
+  private final int blocksPerSegment;
+  private final MappedByteBuffer[] segments;
+  private boolean closed;
+
+  private SimulationHistory(FileChannel channel, FileChannel.MapMode mode, Precision precision, int vertexCount,
+                            int steps, int blockSteps) throws IOException {
+    this.channel = channel;
+    this.precision = precision;
+    this.vertexCount = vertexCount;
+    this.steps = steps;
+    this.blockSteps = blockSteps;
+    this.blockBytes = (long) vertexCount * blockSteps * precision.bytes;
+    this.blocksPerSegment = (int) Math.max(1, SEGMENT_BYTES / Math.max(blockBytes, 1));
+    long blocks = (steps + (long) blockSteps) / blockSteps;
+    long segmentCount = (blocks + blocksPerSegment - 1) / blocksPerSegment;
+    this.segments = new MappedByteBuffer[(int) segmentCount];
+    long segmentBytes = blocksPerSegment * blockBytes;
+    for (int s = 0; s < segments.length; s++) {
+      long start = HEADER_BYTES + s * segmentBytes;
+      long size = Math.min(segmentBytes, HEADER_BYTES + blocks * blockBytes - start);
+      segments[s] = channel.map(mode, start, size);
+      segments[s].order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  /**
+   * Новый файл истории для тактов 0..steps; существующий файл перезаписывается.
+   */
+  public static SimulationHistory create(Path file, int vertexCount, int steps, Precision precision)
+      throws IOException {
+    return create(file, vertexCount, steps, precision, false);
+  }
+
+  /**
+   * История во временном файле, который удаляется при {@link #close()} (и при выходе из программы).
+   */
+  public static SimulationHistory createTemporary(int vertexCount, int steps, Precision precision)
+      throws IOException {
+    Path file = Files.createTempFile("impulse-", "." + EXTENSION);
+    file.toFile().deleteOnExit();
+    return create(file, vertexCount, steps, precision, true);
+  }
+
+  private static SimulationHistory create(Path file, int vertexCount, int steps, Precision precision,
+                                          boolean temporary) throws IOException {
+    if (vertexCount < 0 || steps < 0) {
+      throw new IllegalArgumentException("Число вершин и тактов не может быть отрицательным");
+    }
+    int blockSteps = blockSteps(vertexCount, precision);
+    FileChannel channel = temporary
+        ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE)
+        : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC).putInt(VERSION).putInt(precision.bytes).putInt(vertexCount)
+          .putInt(steps).putInt(blockSteps).putLong(0L).flip();
+      while (header.hasRemaining()) {
+        channel.write(header);
+      }
+      // Файл нужной длины без записи данных (на большинстве файловых систем — разреженный):
+      // последний байт данных нулевой, а без данных он попадает в нулевое выравнивание заголовка
+      long size = fileSize(vertexCount, steps, precision, blockSteps);
+      channel.write(ByteBuffer.allocate(1), size - 1);
+      return new SimulationHistory(channel, FileChannel.MapMode.READ_WRITE, precision, vertexCount, steps,
+          blockSteps);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Открывает сохранённую историю только для чтения.
+   */
+  public static SimulationHistory open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header) < 0) {
+          break;
+        }
+      }
+      header.flip();
+      if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+        throw new IllegalArgumentException("Файл не в формате ." + EXTENSION);
+      }
+      int version = header.getInt();
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Неподдерживаемая версия формата ." + EXTENSION + ": " + version);
+      }
+      int bytes = header.getInt();
+      Precision precision = bytes == Float.BYTES ? Precision.FLOAT : Precision.DOUBLE;
+      int vertexCount = header.getInt();
+      int steps = header.getInt();
+      int blockSteps = header.getInt();
+      if ((bytes != Float.BYTES && bytes != Double.BYTES) || vertexCount < 0 || steps < 0 || blockSteps <= 0
+          || (long) vertexCount * blockSteps * bytes > Integer.MAX_VALUE
+          || channel.size() < fileSize(vertexCount, steps, precision, blockSteps)) {
+        throw new IllegalArgumentException("Файл истории повреждён");
+      }
+      return new SimulationHistory(channel, FileChannel.MapMode.READ_ONLY, precision, vertexCount, steps,
+          blockSteps);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Размер файла истории в байтах — для проверки свободного места перед прогоном.
+   */
+  public static long requiredBytes(int vertexCount, int steps, Precision precision) {
+    return fileSize(vertexCount, steps, precision, blockSteps(vertexCount, precision));
+  }
+
+  private static long fileSize(int vertexCount, int steps, Precision precision, int blockSteps) {
+    long blocks = (steps + (long) blockSteps) / blockSteps;
+    return HEADER_BYTES + blocks * vertexCount * blockSteps * precision.bytes;
+  }
+
+  /**
+   * Блок тактов должен помещаться в один сегмент отображения.
+   */
+  private static int blockSteps(int vertexCount, Precision precision) {
+    long perStep = Math.max(1L, (long) vertexCount * precision.bytes);
+    return (int) Math.max(1, Math.min(BLOCK_STEPS, SEGMENT_BYTES / perStep));
+  }
+
+  public int vertexCount() {
+    return vertexCount;
+  }
+
+  /**
+   * Номер последнего такта: в истории такты 0..steps.
+   */
+  public int steps() {
+    return steps;
+  }
+
+  public Precision precision() {
+    return precision;
+  }
+
+  /**
+   * Записывает состояние после такта step; подходит как получатель
+   * {@link com.analysis.ImpulseSimulation.StepListener}.
+   */
+  public void write(int step, double[] state) {
+    checkStep(step);
+    if (state.length != vertexCount) {
+      throw new IllegalArgumentException("Длина состояния должна быть " + vertexCount);
+    }
+    MappedByteBuffer segment = segment(step);
+    int position = position(step, 0);
+    int stride = blockSteps * precision.bytes;
+    if (precision == Precision.FLOAT) {
+      for (int i = 0; i < vertexCount; i++, position += stride) {
+        segment.putFloat(position, (float) state[i]);
+      }
+    } else {
+      for (int i = 0; i < vertexCount; i++, position += stride) {
+        segment.putDouble(position, state[i]);
+      }
+    }
+  }
+
+  /**
+   * Значение вершины после такта step.
+   */
+  public double get(int step, int vertex) {
+    checkStep(step);
+    checkVertex(vertex);
+    return read(segment(step), position(step, vertex));
+  }
+
+  /**
+   * Окно тактов [fromStep, fromStep + count) одной вершины в target[offset..].
+   */
+  public void readColumn(int vertex, int fromStep, int count, double[] target, int offset) {
+    checkVertex(vertex);
+    if (count < 0 || fromStep < 0 || fromStep + (long) count > steps + 1L) {
+      throw new IndexOutOfBoundsException("Окно тактов [" + fromStep + ", " + (fromStep + (long) count)
+          + ") вне истории 0.." + steps);
+    }
+    checkOpen();
+    int step = fromStep;
+    int end = fromStep + count;
+    while (step < end) {
+      // Отрезок до конца блока лежит в файле подряд
+      int runEnd = Math.min(end, (step / blockSteps + 1) * blockSteps);
+      MappedByteBuffer segment = segment(step);
+      int position = position(step, vertex);
+      for (; step < runEnd; step++, position += precision.bytes) {
+        target[offset++] = read(segment, position);
+      }
+    }
+  }
+
+  /**
+   * Состояние всех вершин после такта step.
+   */
+  public void readRow(int step, double[] target) {
+    checkStep(step);
+    MappedByteBuffer segment = segment(step);
+    int position = position(step, 0);
+    int stride = blockSteps * precision.bytes;
+    for (int i = 0; i < vertexCount; i++, position += stride) {
+      target[i] = read(segment, position);
+    }
+  }
+
+  /**
+   * CSV «такт,вершина…» для выбранных вершин и тактов [fromStep, toStep]. История читается
+   * окнами по {@link #EXPORT_WINDOW} тактов, поэтому память не зависит от длины прогона.
+   */
+  public void writeCsv(Writer writer, int[] vertices, List<String> names, int fromStep, int toStep)
+      throws IOException {
+    if (fromStep < 0 || toStep > steps || fromStep > toStep) {
+      throw new IllegalArgumentException("Такты должны лежать в диапазоне 0.." + steps);
+    }
+    writer.write("step");
+    for (int vertex : vertices) {
+      writer.write(',');
+      writer.write(CsvMapFormat.quote(names.get(vertex)));
+    }
+    writer.write('\n');
+    double[][] window = new double[vertices.length][Math.min(EXPORT_WINDOW, toStep - fromStep + 1)];
+    for (int from = fromStep; from <= toStep; from += EXPORT_WINDOW) {
+      int count = Math.min(EXPORT_WINDOW, toStep - from + 1);
+      for (int k = 0; k < vertices.length; k++) {
+        readColumn(vertices[k], from, count, window[k], 0);
+      }
+      for (int t = 0; t < count; t++) {
+        writer.write(Integer.toString(from + t));
+        for (double[] column : window) {
+          writer.write(',');
+          writer.write(Double.toString(column[t]));
+        }
+        writer.write('\n');
+      }
+    }
+  }
+
+  /**
+   * Закрывает файл; временный файл удаляется. Отображение освобождается сборщиком мусора.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    channel.close();
+  }
+
+  private double read(MappedByteBuffer segment, int position) {
+    return precision == Precision.FLOAT ? segment.getFloat(position) : segment.getDouble(position);
+  }
+
+  private MappedByteBuffer segment(int step) {
+    checkOpen();
+    return segments[step / blockSteps / blocksPerSegment];
+  }
+
+  /**
+   * Смещение значения внутри сегмента; сегмент не больше {@link #SEGMENT_BYTES}, поэтому помещается в int.
+   */
+  private int position(int step, int vertex) {
+    int block = step / blockSteps;
+    long offset = (block % blocksPerSegment) * blockBytes
+        + ((long) vertex * blockSteps + step % blockSteps) * precision.bytes;
+    return (int) offset;
+  }
+
+  private void checkStep(int step) {
+    if (step < 0 || step > steps) {
+      throw new IndexOutOfBoundsException("Такт " + step + " вне истории 0.." + steps);
+    }
+  }
+
+  private void checkVertex(int vertex) {
+    if (vertex < 0 || vertex >= vertexCount) {
+      throw new IndexOutOfBoundsException("Вершина " + vertex + " вне 0.." + (vertexCount - 1));
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("История закрыта");
+    }
+  }
+}
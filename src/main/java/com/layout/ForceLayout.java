@@ -0,0 +1,234 @@
+package com.layout;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Силовая раскладка графа (модель Фрухтермана–Рейнгольда) с отталкиванием по Барнсу–Хату.
+ * <p>
+ * Идеальная длина ребра k выводится из площади области и числа вершин, поэтому параметры
+ * не нужно подбирать под размер карты. Отталкивание k²/d всех пар приближается деревом
+ * квадрантов за O(V log V), притяжение d²/k действует вдоль рёбер. Силы считаются
+ * параллельно по диапазонам вершин в пуле fork-join; смещение за шаг ограничено
+ * «температурой», которая убывает от шага к шагу. Координаты держатся внутри области.
+ * <p>
+ * Объект не потокобезопасен: шаги и изменения положений выполняются одним потоком.
+ */
+public class ForceLayout {
+  /** Точность приближения Барнса–Хата: меньше — точнее и медленнее. */
+  private static final double THETA = 0.9;
+  private static final double COOLING = 0.95;
+  // Вершин на задачу fork-join, не меньше
+  private static final int GRAIN = 256;
+
+  private final int n;
+  private final int[] incidenceStart;
+  private final int[] incident;
+  private final double[] x;
+  private final double[] y;
+  private final double[] forceX;
+  private final double[] forceY;
+  private final boolean[] fixed;
+  private final ForkJoinPool pool;
+  private double width;
+  private double height;
+  private final double margin;
+  private double k;
+  private double temperature;
+
+  /**
+   * @param from   начала рёбер (индексы вершин)
+   * @param to     концы рёбер; направление рёбер для раскладки не важно
+   * @param margin отступ от краёв области (например, радиус вершины)
+   */
+  public ForceLayout(int vertexCount, int[] from, int[] to, double width, double height, double margin,
+                     ForkJoinPool pool) {
+    if (from.length != to.length) {
+      throw new IllegalArgumentException("Массивы начал и концов рёбер должны быть одной длины");
+    }
+    this.n = vertexCount;
+    this.pool = pool;
+    this.x = new double[n];
+    this.y = new double[n];
+    this.forceX = new double[n];
+    this.forceY = new double[n];
+    this.fixed = new boolean[n];
+    this.margin = margin;
+
+    // Неориентированная смежность в формате CSR, петли пропускаются
+    incidenceStart = new int[n + 1];
+    for (int e = 0; e < from.length; e++) {
+      if (from[e] != to[e]) {
+        incidenceStart[from[e] + 1]++;
+        incidenceStart[to[e] + 1]++;
+      }
+    }
+    for (int v = 0; v < n; v++) {
+      incidenceStart[v + 1] += incidenceStart[v];
+    }
+    incident = new int[incidenceStart[n]];
+    int[] fill = Arrays.copyOf(incidenceStart, n);
+    for (int e = 0; e < from.length; e++) {
+      if (from[e] != to[e]) {
+        incident[fill[from[e]]++] = to[e];
+        incident[fill[to[e]]++] = from[e];
+      }
+    }
+
+    setBounds(width, height);
+    heat();
+  }
+
+  public int vertexCount() {
+    return n;
+  }
+
+  public double x(int v) {
+    return x[v];
+  }
+
+  public double y(int v) {
+    return y[v];
+  }
+
+  public void setPosition(int v, double px, double py) {
+    x[v] = clamp(px, margin, width - margin);
+    y[v] = clamp(py, margin, height - margin);
+  }
+
+  /**
+   * Закреплённая вершина участвует в расчёте сил, но сама не сдвигается
+   * (например, пока её перетаскивает пользователь).
+   */
+  public void setFixed(int v, boolean fixed) {
+    this.fixed[v] = fixed;
+  }
+
+  /**
+   * Начальная раскладка: вершины по золотому углу на диске в центре области
+   * (детерминированно и без совпадающих точек).
+   */
+  public void scatter() {
+    double cx = width / 2;
+    double cy = height / 2;
+    double radius = Math.max(Math.min(width, height) / 2 - margin, 0.0);
+    for (int v = 0; v < n; v++) {
+      double r = radius * Math.sqrt((v + 0.5) / n);
+      double angle = v * 2.399963229728653;
+      setPosition(v, cx + r * Math.cos(angle), cy + r * Math.sin(angle));
+    }
+  }
+
+  /**
+   * Новые размеры области; идеальная длина ребра пересчитывается.
+   */
+  public void setBounds(double width, double height) {
+    this.width = Math.max(width, 2 * margin + 1);
+    this.height = Math.max(height, 2 * margin + 1);
+    double area = (this.width - 2 * margin) * (this.height - 2 * margin);
+    k = 0.75 * Math.sqrt(area / Math.max(n, 1));
+    for (int v = 0; v < n; v++) {
+      setPosition(v, x[v], y[v]);
+    }
+  }
+
+  /**
+   * Возвращает температуру к начальной — раскладка снова может заметно сдвигаться.
+   */
+  public void heat() {
+    temperature = Math.min(width, height) / 10;
+  }
+
+  /**
+   * Поднимает температуру до длины ребра: соседи подстраиваются к локальной правке,
+   * не разрушая раскладку целиком.
+   */
+  public void nudge() {
+    temperature = Math.max(temperature, k);
+  }
+
+  /**
+   * Температура, ниже которой шаги почти ничего не меняют.
+   */
+  public boolean isSettled() {
+    return temperature < k / 100;
+  }
+
+  /**
+   * Один шаг раскладки.
+   *
+   * @return наибольшее смещение вершины за шаг
+   */
+  public double step() {
+    if (n == 0) {
+      return 0.0;
+    }
+    QuadTree tree = new QuadTree(x, y, n);
+    int grain = Math.max(GRAIN, n / (pool.getParallelism() * 8));
+    pool.invoke(new ForceTask(tree, 0, n, grain));
+
+    double largest = 0.0;
+    for (int v = 0; v < n; v++) {
+      double length = Math.hypot(forceX[v], forceY[v]);
+      if (length > 0.0 && !fixed[v]) {
+        double move = Math.min(length, temperature);
+        double px = x[v];
+        double py = y[v];
+        setPosition(v, px + forceX[v] / length * move, py + forceY[v] / length * move);
+        largest = Math.max(largest, Math.hypot(x[v] - px, y[v] - py));
+      }
+    }
+    temperature *= COOLING;
+    return largest;
+  }
+
+  private static double clamp(double value, double min, double max) {
+    return Math.max(min, Math.min(max, value));
+  }
+
+  /**
+   * Силы для диапазона вершин: каждая задача пишет только в свои элементы forceX/forceY.
+   */
+  private final class ForceTask extends RecursiveAction {
+    private final QuadTree tree;
+    private final int from;
+    private final int to;
+    private final int grain;
+
+    ForceTask(QuadTree tree, int from, int to, int grain) {
+      this.tree = tree;
+      this.from = from;
+      this.to = to;
+      this.grain = grain;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > grain) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new ForceTask(tree, from, middle, grain), new ForceTask(tree, middle, to, grain));
+        return;
+      }
+      double[] force = new double[2];
+      int[] stack = new int[QuadTree.stackSize()];
+      double k2 = k * k;
+      for (int v = from; v < to; v++) {
+        force[0] = 0.0;
+        force[1] = 0.0;
+        tree.repulsion(v, THETA, k2, force, stack);
+        for (int p = incidenceStart[v]; p < incidenceStart[v + 1]; p++) {
+          int u = incident[p];
+          double dx = x[u] - x[v];
+          double dy = y[u] - y[v];
+          double d = Math.hypot(dx, dy);
+          // d²/k вдоль ребра: (dx / d) · d² / k
+          force[0] += dx * d / k;
+          force[1] += dy * d / k;
+        }
+        forceX[v] = force[0];
+        forceY[v] = force[1];
+      }
+    }
+  }
+}
@@ -0,0 +1,223 @@
+package com.layout;
+
+import java.util.Arrays;
+
+/**
+ * Дерево квадрантов для приближения Барнса–Хата.
+ * <p>
+ * Узлы хранятся в плоских массивах; каждая внутренняя ячейка знает суммарную массу и центр
+ * масс своих точек. Совпадающие точки и точки на предельной глубине собираются в цепочку
+ * одного листа, поэтому построение всегда завершается. Построение — O(V log V),
+ * после него дерево только читается и может обходиться из нескольких потоков.
+ */
+final class QuadTree {
+  private static final int MAX_DEPTH = 32;
+  private static final int EMPTY = -1;
+  private static final int INTERNAL = -2;
+
+  private final double[] x;
+  private final double[] y;
+  private final int[] next;
+  private int count;
+  private int[] body;
+  private int[] children;
+  private double[] centerX;
+  private double[] centerY;
+  private double[] half;
+  private double[] mass;
+  private double[] massX;
+  private double[] massY;
+
+  /**
+   * Строит дерево по точкам (x[i], y[i]), i &lt; n. Массивы координат не копируются.
+   */
+  QuadTree(double[] x, double[] y, int n) {
+    this.x = x;
+    this.y = y;
+    this.next = new int[n];
+    int capacity = Math.max(16, 2 * n);
+    body = new int[capacity];
+    children = new int[4 * capacity];
+    centerX = new double[capacity];
+    centerY = new double[capacity];
+    half = new double[capacity];
+
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      minX = Math.min(minX, x[i]);
+      minY = Math.min(minY, y[i]);
+      maxX = Math.max(maxX, x[i]);
+      maxY = Math.max(maxY, y[i]);
+    }
+    double size = n == 0 ? 1.0 : Math.max(Math.max(maxX - minX, maxY - minY), 1e-9);
+    newNode(n == 0 ? 0 : (minX + maxX) / 2, n == 0 ? 0 : (minY + maxY) / 2, size / 2 * 1.0001);
+    for (int i = 0; i < n; i++) {
+      insert(i);
+    }
+    summarize();
+  }
+
+  /**
+   * Прибавляет к force[0..1] отталкивание точки i от всех остальных по закону
+   * strength·m / d; дальние ячейки с отношением размер/расстояние меньше theta
+   * заменяются своим центром масс.
+   *
+   * @param stack рабочий стек длины {@link #stackSize()}
+   */
+  void repulsion(int i, double theta, double strength, double[] force, int[] stack) {
+    double xi = x[i];
+    double yi = y[i];
+    double theta2 = theta * theta;
+    double fx = 0.0;
+    double fy = 0.0;
+    int top = 0;
+    stack[top++] = 0;
+    while (top > 0) {
+      int node = stack[--top];
+      if (mass[node] == 0.0) {
+        continue;
+      }
+      if (body[node] >= 0) {
+        for (int j = body[node]; j >= 0; j = next[j]) {
+          if (j != i) {
+            double dx = xi - x[j];
+            double dy = yi - y[j];
+            double d2 = dx * dx + dy * dy;
+            if (d2 == 0.0) {
+              // Совпадающие точки разводятся в детерминированном направлении
+              double angle = (i * 0.618034 + j * 0.381966) * 2 * Math.PI;
+              dx = Math.cos(angle) * 1e-3;
+              dy = Math.sin(angle) * 1e-3;
+              d2 = 1e-6;
+            }
+            double f = strength / d2;
+            fx += dx * f;
+            fy += dy * f;
+          }
+        }
+        continue;
+      }
+      double dx = xi - massX[node];
+      double dy = yi - massY[node];
+      double d2 = dx * dx + dy * dy;
+      double width = 2 * half[node];
+      if (width * width < theta2 * d2) {
+        double f = strength * mass[node] / d2;
+        fx += dx * f;
+        fy += dy * f;
+      } else {
+        for (int q = 0; q < 4; q++) {
+          int child = children[4 * node + q];
+          if (child != EMPTY) {
+            stack[top++] = child;
+          }
+        }
+      }
+    }
+    force[0] += fx;
+    force[1] += fy;
+  }
+
+  static int stackSize() {
+    return 4 * MAX_DEPTH + 8;
+  }
+
+  private void insert(int i) {
+    int node = 0;
+    int depth = 0;
+    while (true) {
+      int b = body[node];
+      if (b == INTERNAL) {
+        node = child(node, x[i], y[i]);
+        depth++;
+      } else if (b == EMPTY) {
+        body[node] = i;
+        next[i] = EMPTY;
+        return;
+      } else if (depth >= MAX_DEPTH || x[b] == x[i] && y[b] == y[i]) {
+        next[i] = b;
+        body[node] = i;
+        return;
+      } else {
+        // Лист делится: его цепочка (все точки в ней совпадают) уходит в дочернюю ячейку
+        body[node] = INTERNAL;
+        int target = child(node, x[b], y[b]);
+        body[target] = b;
+      }
+    }
+  }
+
+  /**
+   * Дочерняя ячейка, в которую попадает точка; создаётся при необходимости.
+   */
+  private int child(int node, double px, double py) {
+    int quadrant = (px >= centerX[node] ? 1 : 0) + (py >= centerY[node] ? 2 : 0);
+    int slot = 4 * node + quadrant;
+    if (children[slot] == EMPTY) {
+      double h = half[node] / 2;
+      int created = newNode(
+          centerX[node] + ((quadrant & 1) != 0 ? h : -h),
+          centerY[node] + ((quadrant & 2) != 0 ? h : -h),
+          h
+      );
+      children[slot] = created;
+    }
+    return children[slot];
+  }
+
+  private int newNode(double cx, double cy, double h) {
+    if (count == body.length) {
+      int capacity = body.length * 2;
+      body = Arrays.copyOf(body, capacity);
+      children = Arrays.copyOf(children, 4 * capacity);
+      centerX = Arrays.copyOf(centerX, capacity);
+      centerY = Arrays.copyOf(centerY, capacity);
+      half = Arrays.copyOf(half, capacity);
+    }
+    int node = count++;
+    body[node] = EMPTY;
+    Arrays.fill(children, 4 * node, 4 * node + 4, EMPTY);
+    centerX[node] = cx;
+    centerY[node] = cy;
+    half[node] = h;
+    return node;
+  }
+
+  /**
+   * Массы и центры масс снизу вверх: дочерние ячейки создаются позже родительских.
+   */
+  private void summarize() {
+    mass = new double[count];
+    massX = new double[count];
+    massY = new double[count];
+    for (int node = count - 1; node >= 0; node--) {
+      double m = 0.0;
+      double sx = 0.0;
+      double sy = 0.0;
+      if (body[node] >= 0) {
+        for (int j = body[node]; j >= 0; j = next[j]) {
+          m += 1.0;
+          sx += x[j];
+          sy += y[j];
+        }
+      } else if (body[node] == INTERNAL) {
+        for (int q = 0; q < 4; q++) {
+          int child = children[4 * node + q];
+          if (child != EMPTY) {
+            m += mass[child];
+            sx += massX[child] * mass[child];
+            sy += massY[child] * mass[child];
+          }
+        }
+      }
+      mass[node] = m;
+      if (m > 0.0) {
+        massX[node] = sx / m;
+        massY[node] = sy / m;
+      }
+    }
+  }
+}
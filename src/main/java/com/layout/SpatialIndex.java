@@ -0,0 +1,183 @@
+package com.layout;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Статический индекс прямоугольников (дерево квадрантов) для выборки по области.
+ * <p>
+ * Каждый элемент хранится в самой глубокой ячейке, целиком содержащей его прямоугольник,
+ * поэтому точки (вершины) и отрезки (рёбра по их габаритам) индексируются одинаково.
+ * Построение — O(N log N), запрос посещает только ячейки, пересекающие область.
+ */
+public final class SpatialIndex {
+  private static final int LEAF_SIZE = 8;
+  private static final int MAX_DEPTH = 16;
+
+  private final double[] minX;
+  private final double[] minY;
+  private final double[] maxX;
+  private final double[] maxY;
+
+  // Ячейки: границы, дочерние ячейки (-1 — нет) и отрезок массива items
+  private int count;
+  private double[] cellMinX = new double[16];
+  private double[] cellMinY = new double[16];
+  private double[] cellMaxX = new double[16];
+  private double[] cellMaxY = new double[16];
+  private int[] children = new int[64];
+  private int[] itemStart = new int[16];
+  private int[] itemEnd = new int[16];
+  private final int[] items;
+  private int filled;
+
+  /**
+   * Элемент i занимает прямоугольник [minX[i], maxX[i]] × [minY[i], maxY[i]].
+   * Массивы не копируются и не должны меняться, пока индекс используется.
+   */
+  public SpatialIndex(double[] minX, double[] minY, double[] maxX, double[] maxY) {
+    int n = minX.length;
+    this.minX = minX;
+    this.minY = minY;
+    this.maxX = maxX;
+    this.maxY = maxY;
+    this.items = new int[n];
+
+    double left = Double.POSITIVE_INFINITY;
+    double top = Double.POSITIVE_INFINITY;
+    double right = Double.NEGATIVE_INFINITY;
+    double bottom = Double.NEGATIVE_INFINITY;
+    int[] all = new int[n];
+    for (int i = 0; i < n; i++) {
+      all[i] = i;
+      left = Math.min(left, minX[i]);
+      top = Math.min(top, minY[i]);
+      right = Math.max(right, maxX[i]);
+      bottom = Math.max(bottom, maxY[i]);
+    }
+    if (n == 0) {
+      left = top = right = bottom = 0;
+    }
+    build(left, top, right, bottom, all, n, 0);
+  }
+
+  /**
+   * Передаёт action элементы, прямоугольники которых пересекают область (x0, y0)–(x1, y1).
+   */
+  public void query(double x0, double y0, double x1, double y1, IntConsumer action) {
+    int[] stack = new int[4 * MAX_DEPTH + 8];
+    int top = 0;
+    stack[top++] = 0;
+    while (top > 0) {
+      int cell = stack[--top];
+      if (cellMaxX[cell] < x0 || cellMinX[cell] > x1 || cellMaxY[cell] < y0 || cellMinY[cell] > y1) {
+        continue;
+      }
+      for (int p = itemStart[cell]; p < itemEnd[cell]; p++) {
+        int i = items[p];
+        if (maxX[i] >= x0 && minX[i] <= x1 && maxY[i] >= y0 && minY[i] <= y1) {
+          action.accept(i);
+        }
+      }
+      for (int q = 0; q < 4; q++) {
+        int child = children[4 * cell + q];
+        if (child >= 0) {
+          stack[top++] = child;
+        }
+      }
+    }
+  }
+
+  /**
+   * Строит ячейку по первым size элементам candidates; элементы, попавшие в дочерние ячейки,
+   * раскладываются по ним рекурсивно. Ячейка может не иметь собственных элементов.
+   */
+  private int build(double left, double top, double right, double bottom, int[] candidates, int size, int depth) {
+    int cell = newCell(left, top, right, bottom);
+    if (size <= LEAF_SIZE || depth >= MAX_DEPTH) {
+      itemStart[cell] = filled;
+      System.arraycopy(candidates, 0, items, filled, size);
+      filled += size;
+      itemEnd[cell] = filled;
+      return cell;
+    }
+
+    double midX = (left + right) / 2;
+    double midY = (top + bottom) / 2;
+    int[][] quadrants = new int[4][];
+    int[] quadrantSize = new int[4];
+    int own = 0;
+    int[] owned = new int[size];
+    for (int c = 0; c < size; c++) {
+      int i = candidates[c];
+      int q = quadrant(i, midX, midY);
+      if (q < 0) {
+        owned[own++] = i;
+      } else {
+        if (quadrants[q] == null) {
+          quadrants[q] = new int[Math.min(size, 16)];
+        } else if (quadrantSize[q] == quadrants[q].length) {
+          quadrants[q] = Arrays.copyOf(quadrants[q], quadrantSize[q] * 2);
+        }
+        quadrants[q][quadrantSize[q]++] = i;
+      }
+    }
+
+    itemStart[cell] = filled;
+    System.arraycopy(owned, 0, items, filled, own);
+    filled += own;
+    itemEnd[cell] = filled;
+    for (int q = 0; q < 4; q++) {
+      if (quadrantSize[q] > 0) {
+        boolean east = (q & 1) != 0;
+        boolean south = (q & 2) != 0;
+        int child = build(
+            east ? midX : left, south ? midY : top, east ? right : midX, south ? bottom : midY,
+            quadrants[q], quadrantSize[q], depth + 1
+        );
+        children[4 * cell + q] = child;
+      }
+    }
+    return cell;
+  }
+
+  /**
+   * Квадрант ячейки, целиком содержащий прямоугольник элемента, либо -1.
+   */
+  private int quadrant(int i, double midX, double midY) {
+    int q;
+    if (maxX[i] < midX) {
+      q = 0;
+    } else if (minX[i] >= midX) {
+      q = 1;
+    } else {
+      return -1;
+    }
+    if (maxY[i] < midY) {
+      return q;
+    } else if (minY[i] >= midY) {
+      return q + 2;
+    }
+    return -1;
+  }
+
+  private int newCell(double left, double top, double right, double bottom) {
+    if (count == cellMinX.length) {
+      int capacity = count * 2;
+      cellMinX = Arrays.copyOf(cellMinX, capacity);
+      cellMinY = Arrays.copyOf(cellMinY, capacity);
+      cellMaxX = Arrays.copyOf(cellMaxX, capacity);
+      cellMaxY = Arrays.copyOf(cellMaxY, capacity);
+      children = Arrays.copyOf(children, 4 * capacity);
+      itemStart = Arrays.copyOf(itemStart, capacity);
+      itemEnd = Arrays.copyOf(itemEnd, capacity);
+    }
+    int cell = count++;
+    cellMinX[cell] = left;
+    cellMinY[cell] = top;
+    cellMaxX[cell] = right;
+    cellMaxY[cell] = bottom;
+    Arrays.fill(children, 4 * cell, 4 * cell + 4, -1);
+    return cell;
+  }
+}
@@ -0,0 +1,54 @@
+package com.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR: один параллельный обход циклов по компонентам сильной связности.
+ */
+@Name("com.graph.CycleEnumeration")
+@Label("Перечисление циклов")
+@Category({"Редактор графа", "Анализ"})
+public final class CycleEnumerationEvent extends jdk.jfr.Event {
+  @Label("Компонент")
+  int components;
+
+  @Label("Циклов найдено")
+  @Description("Циклы, переданные обходом посетителю, включая отклонённый бюджетом")
+  long cyclesExplored;
+
+  @Label("Циклов сохранено")
+  long cyclesEmitted;
+
+  @Label("Вершин посещено")
+  @Description("Вершины, добавленные на путь поиска в глубину алгоритма Джонсона")
+  long nodesVisited;
+
+  @Label("Перечень полный")
+  boolean complete;
+
+  private transient long started;
+
+  public void start() {
+    started = System.nanoTime();
+    begin();
+  }
+
+  public void finish(int components, long cyclesExplored, long cyclesEmitted, long nodesVisited, boolean complete) {
+    end();
+    if (shouldCommit()) {
+      this.components = components;
+      this.cyclesExplored = cyclesExplored;
+      this.cyclesEmitted = cyclesEmitted;
+      this.nodesVisited = nodesVisited;
+      this.complete = complete;
+      commit();
+    }
+    Metrics.set(Metric.CYCLE_ENUMERATION_TIME, Metrics.millis(System.nanoTime() - started));
+    Metrics.set(Metric.CYCLES_EXPLORED, cyclesExplored);
+    Metrics.set(Metric.CYCLES_EMITTED, cyclesEmitted);
+    Metrics.set(Metric.DFS_NODES, nodesVisited);
+  }
+}
@@ -0,0 +1,57 @@
+package com.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR: поиск ведущих собственных значений одной матрицы методом Арнольди.
+ */
+@Name("com.graph.EigenSolve")
+@Label("Собственные значения")
+@Category({"Редактор графа", "Анализ"})
+public final class EigenSolveEvent extends jdk.jfr.Event {
+  @Label("Размерность")
+  int dimension;
+
+  @Label("Ненулевых элементов")
+  int nonZeros;
+
+  @Label("Итераций")
+  @Description("Умножения матрицы на вектор")
+  int iterations;
+
+  @Label("Перезапусков")
+  int restarts;
+
+  @Label("Невязка")
+  @Description("Относительная невязка ведущей пары")
+  double residual;
+
+  @Label("Сошёлся")
+  boolean converged;
+
+  private transient long started;
+
+  public void start() {
+    started = System.nanoTime();
+    begin();
+  }
+
+  public void finish(int dimension, int nonZeros, int iterations, int restarts, double residual, boolean converged) {
+    end();
+    if (shouldCommit()) {
+      this.dimension = dimension;
+      this.nonZeros = nonZeros;
+      this.iterations = iterations;
+      this.restarts = restarts;
+      this.residual = residual;
+      this.converged = converged;
+      commit();
+    }
+    Metrics.set(Metric.EIGEN_TIME, Metrics.millis(System.nanoTime() - started));
+    Metrics.set(Metric.EIGEN_ITERATIONS, iterations);
+    Metrics.set(Metric.EIGEN_RESIDUAL, residual);
+  }
+}
@@ -0,0 +1,39 @@
+package com.metrics;
+
+/**
+ * Показатели, которые горячие участки анализа, моделирования и отрисовки публикуют
+ * в {@link Metrics}. Значение — итог последнего выполнения соответствующего участка.
+ */
+public enum Metric {
+  ANALYSIS_TIME("Структурный анализ", "мс"),
+  ANALYSIS_ALLOCATION("Выделено памяти за анализ", "МБ"),
+  CYCLE_ENUMERATION_TIME("Перечисление циклов", "мс"),
+  CYCLES_EXPLORED("Циклов найдено обходом", ""),
+  CYCLES_EMITTED("Циклов сохранено", ""),
+  DFS_NODES("Вершин посещено поиском в глубину", ""),
+  EIGEN_TIME("Собственные значения", "мс"),
+  EIGEN_ITERATIONS("Итераций Арнольди", ""),
+  EIGEN_RESIDUAL("Невязка ведущей пары", ""),
+  SIMULATION_TIME("Импульсное моделирование", "мс"),
+  SIMULATION_RATE("Тактов моделирования в секунду", ""),
+  VIEW_UPDATE_TIME("Обновление панели графа", "мс");
+
+  private final String label;
+  private final String unit;
+
+  Metric(String label, String unit) {
+    this.label = label;
+    this.unit = unit;
+  }
+
+  public String label() {
+    return label;
+  }
+
+  /**
+   * Единица измерения или пустая строка для безразмерных счётчиков.
+   */
+  public String unit() {
+    return unit;
+  }
+}
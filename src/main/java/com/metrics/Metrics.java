@@ -0,0 +1,91 @@
+package com.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Последние значения показателей производительности для панели метрик.
+ * <p>
+ * Публикация выключена по умолчанию: пока флаг {@link #isEnabled()} снят, горячие участки
+ * только проверяют его (и включённость своих событий JFR) и ничего не считают сверх обычного.
+ * Значения хранятся без блокировок и читаются из любого потока; {@link #version()} растёт
+ * при каждой публикации, чтобы панель обновлялась только при изменениях.
+ */
+public final class Metrics {
+  private static final Metric[] ALL = Metric.values();
+  private static final AtomicLongArray values = new AtomicLongArray(ALL.length);
+  private static final AtomicLong version = new AtomicLong();
+  private static volatile boolean enabled;
+
+  static {
+    clear();
+  }
+
+  private Metrics() {
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  public static void setEnabled(boolean value) {
+    enabled = value;
+  }
+
+  /**
+   * Публикует значение, если сбор включён.
+   */
+  public static void set(Metric metric, double value) {
+    if (enabled) {
+      values.set(metric.ordinal(), Double.doubleToRawLongBits(value));
+      version.incrementAndGet();
+    }
+  }
+
+  /**
+   * Последнее значение или NaN, если участок ещё не выполнялся.
+   */
+  public static double get(Metric metric) {
+    return Double.longBitsToDouble(values.get(metric.ordinal()));
+  }
+
+  public static long version() {
+    return version.get();
+  }
+
+  public static void clear() {
+    for (Metric metric : ALL) {
+      values.set(metric.ordinal(), Double.doubleToRawLongBits(Double.NaN));
+    }
+    version.incrementAndGet();
+  }
+
+  /**
+   * Сумма байтов, выделенных всеми живыми потоками JVM, или -1, если счётчик недоступен.
+   * Разность двух замеров приближённо даёт выделение за расчёт: потоки, завершившиеся
+   * между замерами, и посторонняя работа в других потоках в неё не попадают или попадают лишние.
+   */
+  public static long allocatedBytes() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+      return -1;
+    }
+    com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+    if (!allocation.isThreadAllocatedMemorySupported() || !allocation.isThreadAllocatedMemoryEnabled()) {
+      return -1;
+    }
+    long total = 0;
+    for (long bytes : allocation.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+      if (bytes > 0) {
+        total += bytes;
+      }
+    }
+    return total;
+  }
+
+  static double millis(long nanos) {
+    return nanos / 1e6;
+  }
+}
@@ -0,0 +1,49 @@
+package com.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR: прогон импульсного моделирования (один сценарий или пакет).
+ */
+@Name("com.graph.Simulation")
+@Label("Импульсное моделирование")
+@Category({"Редактор графа", "Моделирование"})
+public final class SimulationEvent extends jdk.jfr.Event {
+  @Label("Вершин")
+  int vertices;
+
+  @Label("Сценариев")
+  int scenarios;
+
+  @Label("Тактов")
+  int steps;
+
+  @Label("Тактов в секунду")
+  @Description("Такты всех сценариев, делённые на время прогона")
+  double stepsPerSecond;
+
+  private transient long started;
+
+  public void start() {
+    started = System.nanoTime();
+    begin();
+  }
+
+  public void finish(int vertices, int scenarios, int steps) {
+    end();
+    long elapsed = Math.max(1, System.nanoTime() - started);
+    double rate = (double) scenarios * steps * 1e9 / elapsed;
+    if (shouldCommit()) {
+      this.vertices = vertices;
+      this.scenarios = scenarios;
+      this.steps = steps;
+      this.stepsPerSecond = rate;
+      commit();
+    }
+    Metrics.set(Metric.SIMULATION_TIME, Metrics.millis(elapsed));
+    Metrics.set(Metric.SIMULATION_RATE, rate);
+  }
+}
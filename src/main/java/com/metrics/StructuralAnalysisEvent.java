@@ -0,0 +1,71 @@
+package com.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR: структурный анализ карты целиком (компоненты, циклы, спектр).
+ */
+@Name("com.graph.StructuralAnalysis")
+@Label("Структурный анализ")
+@Category({"Редактор графа", "Анализ"})
+public final class StructuralAnalysisEvent extends jdk.jfr.Event {
+  @Label("Вершин")
+  int vertices;
+
+  @Label("Рёбер")
+  int edges;
+
+  @Label("Компонент с циклами")
+  int components;
+
+  @Label("Пересчитано компонент")
+  int recomputed;
+
+  @Label("Циклов")
+  long cycles;
+
+  @Label("Выделено памяти")
+  @Description("Приближённо: прирост выделенной памяти всех потоков JVM за время анализа, -1 — неизвестно")
+  @DataAmount
+  long allocated;
+
+  private transient long started;
+  private transient long allocatedBefore = -1;
+
+  /**
+   * Счётчик выделенной памяти опрашивается, только если итоги кому-то нужны.
+   */
+  public void start() {
+    started = System.nanoTime();
+    begin();
+    if (isEnabled() || Metrics.isEnabled()) {
+      allocatedBefore = Metrics.allocatedBytes();
+    }
+  }
+
+  public void finish(int vertices, int edges, int components, int recomputed, long cycles) {
+    end();
+    long allocated = -1;
+    if (allocatedBefore >= 0) {
+      long after = Metrics.allocatedBytes();
+      allocated = after >= allocatedBefore ? after - allocatedBefore : -1;
+    }
+    if (shouldCommit()) {
+      this.vertices = vertices;
+      this.edges = edges;
+      this.components = components;
+      this.recomputed = recomputed;
+      this.cycles = cycles;
+      this.allocated = allocated;
+      commit();
+    }
+    Metrics.set(Metric.ANALYSIS_TIME, Metrics.millis(System.nanoTime() - started));
+    if (allocated >= 0) {
+      Metrics.set(Metric.ANALYSIS_ALLOCATION, allocated / (1024.0 * 1024.0));
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR: синхронизация панели графа с моделью после пакета правок.
+ */
+@Name("com.graph.ViewUpdate")
+@Label("Обновление панели графа")
+@Category({"Редактор графа", "Отрисовка"})
+public final class ViewUpdateEvent extends jdk.jfr.Event {
+  @Label("Вершин")
+  int vertices;
+
+  @Label("Рёбер")
+  int edges;
+
+  private transient long started;
+
+  public void start() {
+    started = System.nanoTime();
+    begin();
+  }
+
+  public void finish(int vertices, int edges) {
+    end();
+    if (shouldCommit()) {
+      this.vertices = vertices;
+      this.edges = edges;
+      commit();
+    }
+    Metrics.set(Metric.VIEW_UPDATE_TIME, Metrics.millis(System.nanoTime() - started));
+  }
+}
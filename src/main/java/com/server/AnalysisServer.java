@@ -0,0 +1,477 @@
+package com.server;
+
+import com.analysis.ArnoldiEigenSolver;
+import com.analysis.CycleBudget;
+import com.analysis.ImpulseSimulation;
+import com.analysis.ImpulseVectors;
+import com.analysis.MapSnapshot;
+import com.analysis.ParallelCycleEnumerator;
+import com.analysis.SparseMatrix;
+import com.analysis.StructuralAnalysis;
+import com.analysis.StructuralAnalyzer;
+import com.io.CsvMapFormat;
+import com.io.JsonMapFormat;
+import com.io.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Встроенный HTTP-сервис анализа когнитивных карт.
+ * <p>
+ * Карта передаётся телом POST-запроса в JSON (как в {@link JsonMapFormat}) или CSV
+ * (заголовок {@code Content-Type: text/csv}); ответ — JSON:
+ * <ul>
+ *   <li>{@code POST /analysis?maxCycles=N&timeLimit=S} — циклы, устойчивость, спектр;</li>
+ *   <li>{@code POST /simulation?steps=N&vertex=подпись} или {@code &impulse=1,0,...} —
+ *       траектории импульсного моделирования по вершинам;</li>
+ *   <li>{@code GET /health} — состояние сервиса и кэша.</li>
+ * </ul>
+ * Каждый запрос обслуживается своим виртуальным потоком (на JDK без них — потоком из
+ * кэширующего пула). Ответы кэшируются по хэшу содержимого карты и параметрам, а число
+ * одновременных расчётов ограничено, поэтому перечисление циклов не занимает всю машину.
+ * По умолчанию сервис слушает только localhost:
+ * <pre>
+ * java -cp target/classes com.server.AnalysisServer --port 8080
+ * </pre>
+ */
+public final class AnalysisServer {
+  static final int DEFAULT_PORT = 8080;
+  static final long DEFAULT_MAX_CYCLES = 1_000_000;
+  static final long DEFAULT_TIME_LIMIT_MILLIS = 30_000;
+
+  private static final long MAX_BODY_BYTES = 64L << 20;
+  private static final long CACHE_BYTES = 64L << 20;
+  private static final int MAX_STEPS = 100_000;
+  /** Сколько запрос ждёт свободного слота расчёта, прежде чем получить 503. */
+  private static final long QUEUE_TIMEOUT_SECONDS = 60;
+
+  private final HttpServer server;
+  private final ExecutorService requests;
+  private final ForkJoinPool pool;
+  private final Semaphore jobs;
+  private final ResultCache cache = new ResultCache(CACHE_BYTES);
+  private final CycleBudget maxBudget;
+
+  /**
+   * @param jobs      сколько тяжёлых расчётов выполняется одновременно
+   * @param maxBudget верхний предел лимитов перечисления циклов; клиент может только уменьшить его
+   */
+  public AnalysisServer(InetSocketAddress address, int jobs, CycleBudget maxBudget) throws IOException {
+    this.jobs = new Semaphore(jobs, true);
+    this.maxBudget = maxBudget;
+    this.pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    this.requests = requestExecutor();
+    this.server = HttpServer.create(address, 0);
+    server.setExecutor(requests);
+    server.createContext("/analysis", exchange -> handle(exchange, "POST", this::analysis));
+    server.createContext("/simulation", exchange -> handle(exchange, "POST", this::simulation));
+    server.createContext("/health", exchange -> handle(exchange, "GET", this::health));
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public void stop() {
+    server.stop(0);
+    requests.shutdownNow();
+    pool.shutdownNow();
+  }
+
+  public InetSocketAddress address() {
+    return server.getAddress();
+  }
+
+  public static void main(String[] args) {
+    String host = "127.0.0.1";
+    int port = DEFAULT_PORT;
+    int jobs = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    try {
+      for (int i = 0; i < args.length; i += 2) {
+        if (i + 1 >= args.length) {
+          throw new IllegalArgumentException("Не указано значение параметра " + args[i]);
+        }
+        switch (args[i]) {
+          case "--host":
+            host = args[i + 1];
+            break;
+          case "--port":
+            port = Integer.parseInt(args[i + 1]);
+            break;
+          case "--jobs":
+            jobs = Integer.parseInt(args[i + 1]);
+            break;
+          default:
+            throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+        }
+      }
+      if (jobs < 1) {
+        throw new IllegalArgumentException("Число одновременных расчётов должно быть положительным");
+      }
+      AnalysisServer server = new AnalysisServer(
+          new InetSocketAddress(host, port), jobs,
+          new CycleBudget(DEFAULT_MAX_CYCLES, DEFAULT_TIME_LIMIT_MILLIS)
+      );
+      Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+      server.start();
+      System.err.println("Сервис анализа: http://" + host + ":" + server.address().getPort()
+          + "/ (одновременных расчётов: " + jobs + ")");
+    } catch (NumberFormatException e) {
+      System.err.println("Некорректное число: " + e.getMessage());
+      System.exit(2);
+    } catch (IllegalArgumentException | IOException e) {
+      System.err.println(e.getMessage());
+      System.err.println("Использование: java -cp graph-editor.jar com.server.AnalysisServer"
+          + " [--host 127.0.0.1] [--port " + DEFAULT_PORT + "] [--jobs N]");
+      System.exit(2);
+    }
+  }
+
+  /**
+   * Виртуальный поток на запрос (JDK 21+). Исходники собираются для Java 17, поэтому
+   * фабрика берётся через отражение; без неё — кэширующий пул обычных потоков.
+   */
+  static ExecutorService requestExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "analysis-request");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  private interface Endpoint {
+    byte[] respond(HttpExchange exchange, Map<String, String> query) throws Exception;
+  }
+
+  private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+    try {
+      if (!method.equals(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Allow", method);
+        send(exchange, 405, error("Метод не поддерживается: " + exchange.getRequestMethod()));
+        return;
+      }
+      Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+      send(exchange, 200, endpoint.respond(exchange, query));
+    } catch (BusyException e) {
+      exchange.getResponseHeaders().set("Retry-After", "5");
+      send(exchange, 503, error(e.getMessage()));
+    } catch (IllegalArgumentException e) {
+      send(exchange, 400, error(e.getMessage()));
+    } catch (Exception e) {
+      send(exchange, 500, error(e.toString()));
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private byte[] analysis(HttpExchange exchange, Map<String, String> query) throws Exception {
+    MapSnapshot snapshot = readModel(exchange);
+    CycleBudget budget = new CycleBudget(
+        Math.min(maxBudget.maxCycles(), longParameter(query, "maxCycles", Long.MAX_VALUE)),
+        Math.min(maxBudget.timeLimitMillis(), secondsParameter(query, "timeLimit"))
+    );
+    String key = digest(snapshot, "analysis " + budget.maxCycles() + " " + budget.timeLimitMillis(), new double[0]);
+    return cache.get(key, limited(() -> {
+      StructuralAnalyzer analyzer = new StructuralAnalyzer(
+          new ArnoldiEigenSolver(), new ParallelCycleEnumerator(pool)
+      );
+      StructuralAnalysis analysis = analyzer.prepare(snapshot, 0, budget).run();
+      byte[] body = json(json -> {
+        json.beginObject()
+            .name("vertices").value(snapshot.vertexCount())
+            .name("edges").value(snapshot.edgeCount())
+            .name("cyclicComponents").value(analysis.components().size())
+            .name("cycles").value(analysis.cycleCount())
+            .name("negativeCycles").value(analysis.negativeCycleCount())
+            .name("cyclesComplete").value(analysis.isComplete())
+            .name("structurallyStable");
+        if (analysis.isComplete()) {
+          json.value(analysis.isStructurallyStable());
+        } else {
+          json.nullValue();
+        }
+        json.name("spectralRadius").value(analysis.spectralRadius())
+            .name("spectrumConverged").value(analysis.isSpectrumConverged())
+            .name("perturbationStable").value(analysis.isPerturbationStable())
+            .name("leadingEigenvalues").beginArray();
+        for (int i = 0; i < analysis.leadingCount(); i++) {
+          json.value(analysis.formatLeading(i));
+        }
+        json.endArray().endObject();
+      });
+      // Прерванный бюджетом расчёт зависит от нагрузки, а не только от запроса
+      return analysis.isComplete() ? ResultCache.Response.cacheable(body) : ResultCache.Response.uncacheable(body);
+    }));
+  }
+
+  private byte[] simulation(HttpExchange exchange, Map<String, String> query) throws Exception {
+    MapSnapshot snapshot = readModel(exchange);
+    int n = snapshot.vertexCount();
+    long steps = longParameter(query, "steps", 20);
+    if (steps < 0 || steps > MAX_STEPS) {
+      throw new IllegalArgumentException("Количество тактов должно быть от 0 до " + MAX_STEPS);
+    }
+    // Траектории хранятся целиком в памяти — не даём им занять больше половины кучи
+    if ((steps + 1) * n * Double.BYTES > Runtime.getRuntime().maxMemory() / 2) {
+      throw new IllegalArgumentException("Слишком много тактов для " + n + " вершин");
+    }
+    double[] impulse = impulse(snapshot, query);
+    String key = digest(snapshot, "simulation " + steps, impulse);
+    int stepCount = (int) steps;
+    return cache.get(key, limited(() -> {
+      double[][] trajectories = new double[n][stepCount + 1];
+      new ImpulseSimulation(snapshot).run(impulse, stepCount, (step, state) -> {
+        for (int i = 0; i < n; i++) {
+          trajectories[i][step] = state[i];
+        }
+      });
+      return ResultCache.Response.cacheable(json(json -> {
+        json.beginObject().name("steps").value(stepCount).name("trajectories").beginArray();
+        for (int i = 0; i < n; i++) {
+          json.beginObject().name("vertex").value(snapshot.label(i)).name("values").beginArray();
+          for (double value : trajectories[i]) {
+            json.value(value);
+          }
+          json.endArray().endObject();
+        }
+        json.endArray().endObject();
+      }));
+    }));
+  }
+
+  private byte[] health(HttpExchange exchange, Map<String, String> query) throws IOException {
+    return json(json -> json.beginObject()
+        .name("status").value("ok")
+        .name("availableJobs").value(jobs.availablePermits())
+        .name("cacheEntries").value(cache.entryCount())
+        .name("cacheBytes").value(cache.sizeBytes())
+        .name("cacheHits").value(cache.hits())
+        .name("cacheMisses").value(cache.misses())
+        .endObject());
+  }
+
+  /**
+   * Расчёт, занимающий один слот из ограниченного числа одновременных.
+   */
+  private Callable<ResultCache.Response> limited(Callable<ResultCache.Response> compute) {
+    return () -> {
+      if (!jobs.tryAcquire(QUEUE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        throw new BusyException();
+      }
+      try {
+        return compute.call();
+      } finally {
+        jobs.release();
+      }
+    };
+  }
+
+  private static MapSnapshot readModel(HttpExchange exchange) throws IOException {
+    byte[] body = readBody(exchange.getRequestBody());
+    String type = exchange.getRequestHeaders().getFirst("Content-Type");
+    try (Reader reader = new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8)) {
+      if (type != null && type.toLowerCase(Locale.ROOT).contains("csv")) {
+        return CsvMapFormat.read(reader);
+      }
+      return JsonMapFormat.read(reader);
+    }
+  }
+
+  private static byte[] readBody(InputStream in) throws IOException {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) >= 0) {
+      if (body.size() + read > MAX_BODY_BYTES) {
+        throw new IllegalArgumentException("Тело запроса больше " + (MAX_BODY_BYTES >> 20) + " МБ");
+      }
+      body.write(buffer, 0, read);
+    }
+    return body.toByteArray();
+  }
+
+  /**
+   * Вектор импульса из параметра impulse (числа через запятую) или единичный импульс
+   * в вершину с подписью vertex.
+   */
+  private static double[] impulse(MapSnapshot snapshot, Map<String, String> query) {
+    int n = snapshot.vertexCount();
+    String values = query.get("impulse");
+    if (values != null) {
+      double[] vector;
+      try {
+        vector = ImpulseVectors.parse(values);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Некорректный формат вектора импульса");
+      }
+      if (vector.length != n) {
+        throw new IllegalArgumentException("Вектор должен содержать " + n + " значений (по числу вершин)");
+      }
+      return vector;
+    }
+    String vertex = query.get("vertex");
+    if (vertex == null) {
+      throw new IllegalArgumentException("Укажите параметр impulse или vertex");
+    }
+    for (int v = 0; v < n; v++) {
+      if (snapshot.label(v).equals(vertex)) {
+        double[] vector = new double[n];
+        vector[v] = 1.0;
+        return vector;
+      }
+    }
+    throw new IllegalArgumentException("Нет вершины с подписью " + vertex);
+  }
+
+  /**
+   * Ключ кэша: SHA-256 содержимого карты (подписи и взвешенные рёбра в порядке снимка),
+   * вида запроса с параметрами и вектора параметров. Одна и та же карта в CSV и JSON
+   * даёт один ключ.
+   */
+  static String digest(MapSnapshot snapshot, String request, double[] vector) {
+    MessageDigest sha = sha256();
+    update(sha, snapshot, request);
+    ByteBuffer buffer = ByteBuffer.allocate(Double.BYTES * vector.length);
+    for (double value : vector) {
+      buffer.putDouble(value);
+    }
+    sha.update(buffer.array());
+    return hex(sha.digest());
+  }
+
+  private static void update(MessageDigest sha, MapSnapshot snapshot, String request) {
+    sha.update(request.getBytes(StandardCharsets.UTF_8));
+    ByteBuffer number = ByteBuffer.allocate(Long.BYTES);
+    for (int v = 0; v < snapshot.vertexCount(); v++) {
+      byte[] label = snapshot.label(v).getBytes(StandardCharsets.UTF_8);
+      sha.update(number.clear().putLong(label.length).array());
+      sha.update(label);
+    }
+    SparseMatrix adjacency = snapshot.adjacency();
+    for (int v = 0; v < snapshot.vertexCount(); v++) {
+      for (int p = adjacency.rowStart()[v]; p < adjacency.rowStart()[v + 1]; p++) {
+        sha.update(number.clear().putLong((long) v << 32 | adjacency.columnIndices()[p]).array());
+        sha.update(number.clear().putDouble(adjacency.values()[p]).array());
+      }
+    }
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String hex(byte[] bytes) {
+    StringBuilder text = new StringBuilder(2 * bytes.length);
+    for (byte b : bytes) {
+      text.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return text.toString();
+  }
+
+  private static Map<String, String> parseQuery(String rawQuery) {
+    Map<String, String> query = new HashMap<>();
+    if (rawQuery == null || rawQuery.isEmpty()) {
+      return query;
+    }
+    for (String pair : rawQuery.split("&")) {
+      int eq = pair.indexOf('=');
+      String name = eq < 0 ? pair : pair.substring(0, eq);
+      String value = eq < 0 ? "" : pair.substring(eq + 1);
+      query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+    return query;
+  }
+
+  private static long longParameter(Map<String, String> query, String name, long defaultValue) {
+    String value = query.get(name);
+    if (value == null || value.isEmpty()) {
+      return defaultValue;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Некорректное значение параметра " + name + ": " + value);
+    }
+  }
+
+  /**
+   * Лимит в секундах из параметра; отсутствует — без ограничения.
+   */
+  private static long secondsParameter(Map<String, String> query, String name) {
+    String value = query.get(name);
+    if (value == null || value.isEmpty()) {
+      return Long.MAX_VALUE;
+    }
+    try {
+      return Math.round(Double.parseDouble(value.trim()) * 1000);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Некорректное значение параметра " + name + ": " + value);
+    }
+  }
+
+  private interface JsonBody {
+    void write(JsonWriter json) throws IOException;
+  }
+
+  private static byte[] json(JsonBody body) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+      body.write(new JsonWriter(writer));
+    }
+    return bytes.toByteArray();
+  }
+
+  private static byte[] error(String message) throws IOException {
+    return json(json -> json.beginObject().name("error").value(message).endObject());
+  }
+
+  private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * Все слоты расчёта заняты дольше допустимого ожидания.
+   */
+  private static final class BusyException extends Exception {
+    BusyException() {
+      super("Сервер занят, повторите запрос позже");
+    }
+  }
+}
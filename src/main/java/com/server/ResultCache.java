@@ -0,0 +1,130 @@
+package com.server;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Кэш готовых ответов по ключу содержимого с вытеснением давно не использованных (LRU)
+ * при превышении объёма в байтах. Одинаковые запросы, пришедшие во время расчёта,
+ * ждут его результата, а не запускают свой.
+ */
+final class ResultCache {
+  /**
+   * Ответ расчёта с признаком, можно ли его кэшировать.
+   */
+  static final class Response {
+    private final byte[] body;
+    private final boolean cacheable;
+
+    private Response(byte[] body, boolean cacheable) {
+      this.body = body;
+      this.cacheable = cacheable;
+    }
+
+    static Response cacheable(byte[] body) {
+      return new Response(body, true);
+    }
+
+    /**
+     * Ответ, зависящий не только от ключа (например, расчёт прерван лимитом времени):
+     * отдаётся ожидающим одинаковым запросам, но в кэш не попадает.
+     */
+    static Response uncacheable(byte[] body) {
+      return new Response(body, false);
+    }
+  }
+
+
+  private final long capacityBytes;
+  private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+  // Оба словаря защищены монитором кэша: поиск готового ответа и захват расчёта — один шаг
+  private final Map<String, CompletableFuture<byte[]>> running = new HashMap<>();
+  private long sizeBytes;
+  private long hits;
+  private long misses;
+
+  ResultCache(long capacityBytes) {
+    this.capacityBytes = capacityBytes;
+  }
+
+  /**
+   * Готовый ответ по ключу либо результат compute, который затем кэшируется, если помечен
+   * кэшируемым. Исключение расчёта передаётся всем ожидающим и в кэш не попадает.
+   */
+  byte[] get(String key, Callable<Response> compute) throws Exception {
+    CompletableFuture<byte[]> mine = new CompletableFuture<>();
+    CompletableFuture<byte[]> other;
+    synchronized (this) {
+      byte[] cached = entries.get(key);
+      if (cached != null) {
+        hits++;
+        return cached;
+      }
+      misses++;
+      // Расчёт кладёт ответ в entries раньше, чем снимает отметку в running, так что под
+      // одной блокировкой запрос видит либо готовый ответ, либо идущий расчёт
+      other = running.putIfAbsent(key, mine);
+    }
+
+    if (other != null) {
+      try {
+        return other.get();
+      } catch (ExecutionException e) {
+        throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+      }
+    }
+    try {
+      Response response = compute.call();
+      if (response.cacheable) {
+        put(key, response.body);
+      }
+      mine.complete(response.body);
+      return response.body;
+    } catch (Exception | Error e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } finally {
+      synchronized (this) {
+        running.remove(key);
+      }
+    }
+  }
+
+  synchronized int entryCount() {
+    return entries.size();
+  }
+
+  synchronized long sizeBytes() {
+    return sizeBytes;
+  }
+
+  synchronized long hits() {
+    return hits;
+  }
+
+  synchronized long misses() {
+    return misses;
+  }
+
+  private synchronized void put(String key, byte[] value) {
+    // Ответ больше всего кэша не сохраняется, чтобы не вытеснить им всё остальное
+    if (value.length > capacityBytes) {
+      return;
+    }
+    byte[] previous = entries.put(key, value);
+    if (previous != null) {
+      sizeBytes -= previous.length;
+    }
+    sizeBytes += value.length;
+    Iterator<byte[]> eldest = entries.values().iterator();
+    while (sizeBytes > capacityBytes) {
+      sizeBytes -= eldest.next().length;
+      eldest.remove();
+    }
+  }
+}
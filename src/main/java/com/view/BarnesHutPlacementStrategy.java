@@ -0,0 +1,76 @@
+package com.view;
+
+import com.brunomnsilva.smartgraph.graph.Edge;
+import com.brunomnsilva.smartgraph.graph.Graph;
+import com.brunomnsilva.smartgraph.graph.Vertex;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphPanel;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphVertex;
+import com.brunomnsilva.smartgraph.graphview.SmartPlacementStrategy;
+import com.layout.ForceLayout;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Начальная расстановка вершин силовой раскладкой {@link ForceLayout}.
+ * <p>
+ * Вершины сначала раскладываются по диску, затем выполняются шаги раскладки до остывания
+ * или до исчерпания лимита времени; дальше раскладку может уточнять {@link ForceLayoutEngine}.
+ */
+public class BarnesHutPlacementStrategy implements SmartPlacementStrategy {
+  private final long timeLimitMillis;
+  private final ForkJoinPool pool;
+
+  public BarnesHutPlacementStrategy() {
+    this(2000, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param timeLimitMillis сколько времени можно потратить на шаги раскладки
+   */
+  public BarnesHutPlacementStrategy(long timeLimitMillis, ForkJoinPool pool) {
+    this.timeLimitMillis = timeLimitMillis;
+    this.pool = pool;
+  }
+
+  @Override
+  public <V, E> void place(double width, double height, SmartGraphPanel<V, E> panel) {
+    Graph<V, E> graph = panel.getModel();
+    Map<Vertex<V>, Integer> index = new HashMap<>();
+    for (Vertex<V> vertex : graph.vertices()) {
+      index.put(vertex, index.size());
+    }
+    Collection<Edge<E, V>> edges = graph.edges();
+    int[] from = new int[edges.size()];
+    int[] to = new int[edges.size()];
+    int e = 0;
+    for (Edge<E, V> edge : edges) {
+      Vertex<V>[] ends = edge.vertices();
+      from[e] = index.get(ends[0]);
+      to[e] = index.get(ends[1]);
+      e++;
+    }
+
+    Collection<SmartGraphVertex<V>> nodes = panel.getSmartVertices();
+    double margin = 0;
+    for (SmartGraphVertex<V> node : nodes) {
+      margin = Math.max(margin, node.getRadius());
+    }
+
+    ForceLayout layout = new ForceLayout(index.size(), from, to, width, height, margin, pool);
+    layout.scatter();
+    long deadline = System.nanoTime() + timeLimitMillis * 1_000_000L;
+    while (!layout.isSettled() && System.nanoTime() < deadline) {
+      layout.step();
+    }
+
+    for (SmartGraphVertex<V> node : nodes) {
+      Integer v = index.get(node.getUnderlyingVertex());
+      if (v != null) {
+        node.setPosition(layout.x(v), layout.y(v));
+      }
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.view;
+
+import com.brunomnsilva.smartgraph.graph.Edge;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphPanel;
+import com.brunomnsilva.smartgraph.graphview.SmartStylableNode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Подсветка рёбер панели дополнительными классами стиля поверх основного — например,
+ * рёбер, сильнее всего влияющих на устойчивость. Новая подсветка снимает прежнюю.
+ */
+public class EdgeHighlight<V, E> {
+  private final SmartGraphPanel<V, E> view;
+  private final Map<Edge<E, V>, String> highlighted = new LinkedHashMap<>();
+
+  public EdgeHighlight(SmartGraphPanel<V, E> view) {
+    this.view = view;
+  }
+
+  /**
+   * Подсвечивает рёбра классами стиля из styleClasses (ребро → класс).
+   */
+  public void show(Map<Edge<E, V>, String> styleClasses) {
+    clear();
+    for (Map.Entry<Edge<E, V>, String> entry : styleClasses.entrySet()) {
+      SmartStylableNode node = view.getStylableEdge(entry.getKey());
+      if (node != null) {
+        node.addStyleClass(entry.getValue());
+        highlighted.put(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Снимает подсветку. Узлы уже удалённых рёбер пропускаются.
+   */
+  public void clear() {
+    for (Map.Entry<Edge<E, V>, String> entry : highlighted.entrySet()) {
+      SmartStylableNode node = view.getStylableEdge(entry.getKey());
+      if (node != null) {
+        node.removeStyleClass(entry.getValue());
+      }
+    }
+    highlighted.clear();
+  }
+}
@@ -0,0 +1,252 @@
+package com.view;
+
+import com.brunomnsilva.smartgraph.graph.Edge;
+import com.brunomnsilva.smartgraph.graph.Vertex;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphPanel;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphVertex;
+import com.brunomnsilva.smartgraph.graphview.SmartStylableNode;
+import com.graph.IndexedDigraph;
+import com.layout.ForceLayout;
+import javafx.animation.AnimationTimer;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Автоматическая раскладка панели силовым методом вне потока JavaFX.
+ * <p>
+ * Шаги {@link ForceLayout} выполняет отдельный фоновый поток (силы внутри шага — в пуле
+ * fork-join) и после каждого шага выкладывает снимок координат. Таймер кадров забирает
+ * только последний снимок и переносит его на панель одним проходом, так что на кадр
+ * приходится не больше одного обновления положений, сколько бы шагов ни успело пройти.
+ * Вершины, которые сдвинул пользователь, передаются обратно в раскладку и закрепляются,
+ * пока кнопка мыши нажата; изменение модели перезапускает раскладку с текущих положений.
+ */
+public class ForceLayoutEngine<V, E> {
+  // Пауза остывшей раскладки перед новой проверкой правок
+  private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+  private final IndexedDigraph<V, E> model;
+  private final SmartGraphPanel<V, E> panel;
+  private final ForkJoinPool pool;
+  private final AnimationTimer timer = new AnimationTimer() {
+    @Override
+    public void handle(long now) {
+      frame();
+    }
+  };
+  private boolean running;
+
+  // Состояние потока JavaFX для текущего рабочего потока
+  private Worker worker;
+  private SmartGraphVertex<?>[] nodes;
+  private double[] appliedX;
+  private double[] appliedY;
+  private boolean[] fixed;
+  private boolean anyFixed;
+
+  public ForceLayoutEngine(IndexedDigraph<V, E> model, SmartGraphPanel<V, E> panel) {
+    this(model, panel, ForkJoinPool.commonPool());
+  }
+
+  public ForceLayoutEngine(IndexedDigraph<V, E> model, SmartGraphPanel<V, E> panel, ForkJoinPool pool) {
+    this.model = model;
+    this.panel = panel;
+    this.pool = pool;
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  public void start() {
+    if (!running) {
+      running = true;
+      timer.start();
+    }
+  }
+
+  public void stop() {
+    if (running) {
+      running = false;
+      timer.stop();
+      stopWorker();
+    }
+  }
+
+  private void frame() {
+    if (worker == null || worker.version != model.version()) {
+      boolean restart = worker != null;
+      stopWorker();
+      if (!startWorker(restart)) {
+        // Панель ещё не догнала модель или не получила размеров
+        return;
+      }
+    }
+    worker.width = panel.getWidth();
+    worker.height = panel.getHeight();
+
+    double[] snapshot = worker.frame.getAndSet(null);
+    boolean pressed = panel.isPressed();
+    for (int v = 0; v < nodes.length; v++) {
+      SmartGraphVertex<?> node = nodes[v];
+      double px = node.getPositionCenterX();
+      double py = node.getPositionCenterY();
+      if (px != appliedX[v] || py != appliedY[v]) {
+        // Вершину сдвинул пользователь
+        worker.moves.add(new Move(v, px, py, pressed));
+        fixed[v] = pressed;
+        anyFixed |= pressed;
+      } else if (snapshot != null && !fixed[v]) {
+        node.setPosition(snapshot[2 * v], snapshot[2 * v + 1]);
+        px = node.getPositionCenterX();
+        py = node.getPositionCenterY();
+      }
+      appliedX[v] = px;
+      appliedY[v] = py;
+    }
+    if (anyFixed && !pressed) {
+      for (int v = 0; v < nodes.length; v++) {
+        if (fixed[v]) {
+          fixed[v] = false;
+          worker.moves.add(new Move(v, appliedX[v], appliedY[v], false));
+        }
+      }
+      anyFixed = false;
+    }
+  }
+
+  /**
+   * @param restart модель изменилась во время работы — раскладка лишь подогревается
+   */
+  private boolean startWorker(boolean restart) {
+    if (panel.getWidth() <= 0 || panel.getHeight() <= 0) {
+      return false;
+    }
+    long version = model.version();
+    int n = model.numVertices();
+    SmartGraphVertex<?>[] vertexNodes = new SmartGraphVertex<?>[n];
+    double margin = 0;
+    for (int v = 0; v < n; v++) {
+      SmartStylableNode node = panel.getStylableVertex(model.vertexAt(v));
+      if (!(node instanceof SmartGraphVertex)) {
+        return false;
+      }
+      vertexNodes[v] = (SmartGraphVertex<?>) node;
+      margin = Math.max(margin, vertexNodes[v].getRadius());
+    }
+    Collection<Edge<E, V>> edges = model.edges();
+    int[] from = new int[edges.size()];
+    int[] to = new int[edges.size()];
+    int e = 0;
+    for (Edge<E, V> edge : edges) {
+      Vertex<V>[] ends = edge.vertices();
+      from[e] = model.indexOf(ends[0]);
+      to[e] = model.indexOf(ends[1]);
+      e++;
+    }
+
+    ForceLayout layout = new ForceLayout(n, from, to, panel.getWidth(), panel.getHeight(), margin, pool);
+    nodes = vertexNodes;
+    appliedX = new double[n];
+    appliedY = new double[n];
+    fixed = new boolean[n];
+    anyFixed = false;
+    for (int v = 0; v < n; v++) {
+      appliedX[v] = vertexNodes[v].getPositionCenterX();
+      appliedY[v] = vertexNodes[v].getPositionCenterY();
+      layout.setPosition(v, appliedX[v], appliedY[v]);
+    }
+    if (restart) {
+      layout.nudge();
+    }
+
+    worker = new Worker(layout, version);
+    worker.width = panel.getWidth();
+    worker.height = panel.getHeight();
+    Thread thread = new Thread(worker, "force-layout");
+    thread.setDaemon(true);
+    thread.start();
+    return true;
+  }
+
+  private void stopWorker() {
+    if (worker != null) {
+      worker.running = false;
+      worker = null;
+    }
+  }
+
+  private static final class Move {
+    private final int vertex;
+    private final double x;
+    private final double y;
+    private final boolean fixed;
+
+    Move(int vertex, double x, double y, boolean fixed) {
+      this.vertex = vertex;
+      this.x = x;
+      this.y = y;
+      this.fixed = fixed;
+    }
+  }
+
+  /**
+   * Фоновый поток раскладки. С потоком JavaFX он общается только через очередь правок,
+   * размеры панели и последний снимок координат.
+   */
+  private static final class Worker implements Runnable {
+    private final ForceLayout layout;
+    private final long version;
+    private final Queue<Move> moves = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<double[]> frame = new AtomicReference<>();
+    private volatile boolean running = true;
+    private volatile double width;
+    private volatile double height;
+    private double boundsWidth;
+    private double boundsHeight;
+
+    Worker(ForceLayout layout, long version) {
+      this.layout = layout;
+      this.version = version;
+    }
+
+    @Override
+    public void run() {
+      while (running) {
+        double w = width;
+        double h = height;
+        if (w != boundsWidth || h != boundsHeight) {
+          boundsWidth = w;
+          boundsHeight = h;
+          layout.setBounds(w, h);
+          layout.nudge();
+        }
+        Move move;
+        while ((move = moves.poll()) != null) {
+          layout.setPosition(move.vertex, move.x, move.y);
+          layout.setFixed(move.vertex, move.fixed);
+          layout.nudge();
+        }
+        if (layout.isSettled()) {
+          LockSupport.parkNanos(IDLE_NANOS);
+          continue;
+        }
+        layout.step();
+
+        int n = layout.vertexCount();
+        double[] positions = new double[2 * n];
+        for (int v = 0; v < n; v++) {
+          positions[2 * v] = layout.x(v);
+          positions[2 * v + 1] = layout.y(v);
+        }
+        frame.set(positions);
+      }
+    }
+  }
+}
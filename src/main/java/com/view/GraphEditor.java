@@ -0,0 +1,387 @@
+package com.view;
+
+import com.brunomnsilva.smartgraph.graph.Edge;
+import com.brunomnsilva.smartgraph.graph.InvalidEdgeException;
+import com.brunomnsilva.smartgraph.graph.InvalidVertexException;
+import com.brunomnsilva.smartgraph.graph.Vertex;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphPanel;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphVertex;
+import com.brunomnsilva.smartgraph.graphview.SmartStylableNode;
+import com.graph.GraphHistory;
+import com.graph.IndexedDigraph;
+import com.graph.PersistentDigraph;
+import com.metrics.ViewUpdateEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Пакетная правка модели графа с одним обновлением панели.
+ * <p>
+ * Правки внутри пакета ({@link #begin()} … {@link Batch#commit()}) сразу применяются к модели,
+ * а панель синхронизируется один раз при фиксации: одно {@code updateAndWait} и один проход
+ * стилей по добавленным и изменённым рёбрам. Переименование вершин и смена весов выполняются
+ * на месте через индекс смежности, без пересоздания инцидентных рёбер.
+ * <p>
+ * Каждый зафиксированный пакет записывает новую версию графа в {@link GraphHistory}.
+ * Отмена, повтор и переход к сохранённому варианту применяют к модели только разницу
+ * версий, причём удалённые вершины возвращаются со своими идентификаторами и на прежнее место.
+ */
+public class GraphEditor<V, E> {
+  private final IndexedDigraph<V, E> model;
+  private final SmartGraphPanel<V, E> view;
+  private final Function<E, String> edgeStyleClass;
+  private final GraphHistory<V, E> history;
+  // Последние положения удалённых вершин — для возврата на место при отмене
+  private final Map<Long, double[]> removedPositions = new HashMap<>();
+  private Batch open;
+
+  /**
+   * @param edgeStyleClass CSS-класс ребра по его элементу
+   */
+  public GraphEditor(IndexedDigraph<V, E> model, SmartGraphPanel<V, E> view, Function<E, String> edgeStyleClass) {
+    this.model = model;
+    this.view = view;
+    this.edgeStyleClass = edgeStyleClass;
+    this.history = new GraphHistory<>(PersistentDigraph.of(model));
+  }
+
+  /**
+   * Открывает пакет правок. Одновременно может быть открыт только один пакет.
+   */
+  public Batch begin() {
+    return open(true);
+  }
+
+  public GraphHistory<V, E> history() {
+    return history;
+  }
+
+  /**
+   * Текущая версия графа.
+   */
+  public PersistentDigraph<V, E> current() {
+    return history.current();
+  }
+
+  /**
+   * Отменяет последний зафиксированный пакет правок.
+   *
+   * @return false, если отменять нечего
+   */
+  public boolean undo() {
+    if (!history.canUndo()) {
+      return false;
+    }
+    PersistentDigraph<V, E> from = history.current();
+    apply(from, history.undo());
+    return true;
+  }
+
+  /**
+   * Повторяет отменённый пакет правок.
+   *
+   * @return false, если повторять нечего
+   */
+  public boolean redo() {
+    if (!history.canRedo()) {
+      return false;
+    }
+    PersistentDigraph<V, E> from = history.current();
+    apply(from, history.redo());
+    return true;
+  }
+
+  /**
+   * Приводит модель к версии target (например, сохранённому варианту); переход отменяем.
+   */
+  public void checkout(PersistentDigraph<V, E> target) {
+    apply(history.current(), target);
+    history.record(target);
+  }
+
+  private Batch open(boolean recording) {
+    if (open != null) {
+      throw new IllegalStateException("Предыдущий пакет правок не зафиксирован");
+    }
+    open = new Batch(recording);
+    return open;
+  }
+
+  /**
+   * Применяет к модели разницу версий одним пакетом: сначала удаления, затем переименования,
+   * затем добавления, чтобы имена и рёбра не конфликтовали с ещё не удалёнными.
+   */
+  private void apply(PersistentDigraph<V, E> from, PersistentDigraph<V, E> to) {
+    List<long[]> removedEdges = new ArrayList<>();
+    List<Long> removedVertices = new ArrayList<>();
+    Map<Long, V> relabeled = new LinkedHashMap<>();
+    Map<Long, V> addedVertices = new LinkedHashMap<>();
+    List<long[]> addedEdges = new ArrayList<>();
+    List<long[]> changedEdges = new ArrayList<>();
+    from.diff(to, new PersistentDigraph.Changes<V, E>() {
+      @Override
+      public void vertexAdded(long id, V element) {
+        addedVertices.put(id, element);
+      }
+
+      @Override
+      public void vertexRemoved(long id, V element) {
+        removedVertices.add(id);
+      }
+
+      @Override
+      public void vertexChanged(long id, V oldElement, V newElement) {
+        relabeled.put(id, newElement);
+      }
+
+      @Override
+      public void edgeAdded(long fromId, long toId, E element) {
+        addedEdges.add(new long[]{fromId, toId});
+      }
+
+      @Override
+      public void edgeRemoved(long fromId, long toId, E element) {
+        removedEdges.add(new long[]{fromId, toId});
+      }
+
+      @Override
+      public void edgeChanged(long fromId, long toId, E oldElement, E newElement) {
+        changedEdges.add(new long[]{fromId, toId});
+      }
+    });
+
+    Batch batch = open(false);
+    try {
+      for (long[] edge : removedEdges) {
+        batch.removeEdge(edgeBetween(edge));
+      }
+      for (long id : removedVertices) {
+        batch.removeVertex(model.vertexById(id));
+      }
+      // Имена могут переходить по кругу (a → b, b → a): такие вершины пересоздаются целиком
+      List<Long> recreated = new ArrayList<>();
+      while (!relabeled.isEmpty()) {
+        boolean progress = false;
+        for (Iterator<Map.Entry<Long, V>> it = relabeled.entrySet().iterator(); it.hasNext(); ) {
+          Map.Entry<Long, V> entry = it.next();
+          if (model.vertexOf(entry.getValue()) == null) {
+            batch.relabel(model.vertexById(entry.getKey()), entry.getValue());
+            it.remove();
+            progress = true;
+          }
+        }
+        if (!progress) {
+          Map.Entry<Long, V> stuck = relabeled.entrySet().iterator().next();
+          batch.removeVertex(model.vertexById(stuck.getKey()));
+          addedVertices.put(stuck.getKey(), stuck.getValue());
+          recreated.add(stuck.getKey());
+          relabeled.remove(stuck.getKey());
+        }
+      }
+      for (Map.Entry<Long, V> vertex : addedVertices.entrySet()) {
+        batch.restoreVertex(vertex.getValue(), vertex.getKey());
+      }
+      for (long id : recreated) {
+        to.forEachOutbound(id, (fromId, toId, element) -> addedEdges.add(new long[]{fromId, toId}));
+        to.forEachInbound(id, (fromId, toId, element) -> addedEdges.add(new long[]{fromId, toId}));
+      }
+      for (long[] edge : addedEdges) {
+        Vertex<V> fromVertex = model.vertexById(edge[0]);
+        Vertex<V> toVertex = model.vertexById(edge[1]);
+        // Петля пересоздаваемой вершины попадает в список дважды
+        if (model.edgeBetween(fromVertex, toVertex) == null) {
+          batch.insertEdge(fromVertex, toVertex, to.edge(edge[0], edge[1]));
+        }
+      }
+      for (long[] edge : changedEdges) {
+        batch.reweight(edgeBetween(edge), to.edge(edge[0], edge[1]));
+      }
+    } finally {
+      batch.commit();
+    }
+  }
+
+  private Edge<E, V> edgeBetween(long[] ends) {
+    return model.edgeBetween(model.vertexById(ends[0]), model.vertexById(ends[1]));
+  }
+
+  public final class Batch {
+    // Рёбра, чей стиль нужно обновить, → прежний основной класс (null для новых рёбер)
+    private final Map<Edge<E, V>, String> styled = new LinkedHashMap<>();
+    private final List<Placement> placements = new ArrayList<>();
+    // Версия после правок пакета; отмена и переход между версиями её не ведут
+    private final boolean recording;
+    private PersistentDigraph<V, E> next;
+    private boolean committed;
+
+    private Batch(boolean recording) {
+      this.recording = recording;
+      this.next = history.current();
+    }
+
+    public Vertex<V> insertVertex(V element) throws InvalidVertexException {
+      checkOpen();
+      Vertex<V> vertex = model.insertVertex(element);
+      if (recording) {
+        next = next.withVertex(model.idOf(vertex), element);
+      }
+      return vertex;
+    }
+
+    /**
+     * Новая вершина, которая после фиксации будет помещена в точку (x, y) панели.
+     */
+    public Vertex<V> insertVertex(V element, double x, double y) throws InvalidVertexException {
+      Vertex<V> vertex = insertVertex(element);
+      placements.add(new Placement(vertex, x, y));
+      return vertex;
+    }
+
+    public Edge<E, V> insertEdge(Vertex<V> from, Vertex<V> to, E element)
+        throws InvalidVertexException, InvalidEdgeException {
+      checkOpen();
+      Edge<E, V> edge = model.insertEdge(from, to, element);
+      styled.put(edge, null);
+      if (recording) {
+        next = next.withEdge(model.idOf(from), model.idOf(to), element);
+      }
+      return edge;
+    }
+
+    public void removeVertex(Vertex<V> vertex) throws InvalidVertexException {
+      checkOpen();
+      long id = model.idOf(vertex);
+      SmartStylableNode node = view.getStylableVertex(vertex);
+      model.removeVertex(vertex);
+      if (node instanceof SmartGraphVertex) {
+        SmartGraphVertex<?> shape = (SmartGraphVertex<?>) node;
+        removedPositions.put(id, new double[]{shape.getPositionCenterX(), shape.getPositionCenterY()});
+      }
+      if (recording) {
+        next = next.withoutVertex(id);
+      }
+    }
+
+    public void removeEdge(Edge<E, V> edge) throws InvalidEdgeException {
+      checkOpen();
+      model.removeEdge(edge);
+      styled.remove(edge);
+      if (recording) {
+        Vertex<V>[] ends = edge.vertices();
+        next = next.withoutEdge(model.idOf(ends[0]), model.idOf(ends[1]));
+      }
+    }
+
+    /**
+     * Переименование на месте: индекс, идентификатор и рёбра вершины сохраняются.
+     */
+    public void relabel(Vertex<V> vertex, V element) throws InvalidVertexException {
+      checkOpen();
+      model.replace(vertex, element);
+      if (recording) {
+        next = next.withVertex(model.idOf(vertex), element);
+      }
+    }
+
+    /**
+     * Замена элемента ребра (веса) на месте.
+     */
+    public void reweight(Edge<E, V> edge, E element) throws InvalidEdgeException {
+      checkOpen();
+      if (!styled.containsKey(edge)) {
+        styled.put(edge, edgeStyleClass.apply(edge.element()));
+      }
+      model.replace(edge, element);
+      if (recording) {
+        Vertex<V>[] ends = edge.vertices();
+        next = next.withEdge(model.idOf(ends[0]), model.idOf(ends[1]), element);
+      }
+    }
+
+    /**
+     * Возвращает вершину с прежним идентификатором на её последнее место в панели.
+     */
+    private void restoreVertex(V element, long id) {
+      Vertex<V> vertex = model.insertVertex(element, id);
+      double[] position = removedPositions.remove(id);
+      if (position != null) {
+        placements.add(new Placement(vertex, position[0], position[1]));
+      }
+    }
+
+    /**
+     * Синхронизирует панель с моделью: одно обновление узлов и подписей, затем стили
+     * затронутых рёбер и положения новых вершин.
+     */
+    public void commit() {
+      checkOpen();
+      committed = true;
+      open = null;
+      if (recording) {
+        history.record(next);
+      }
+
+      ViewUpdateEvent event = new ViewUpdateEvent();
+      event.start();
+      view.updateAndWait();
+      for (Map.Entry<Edge<E, V>, String> entry : styled.entrySet()) {
+        Edge<E, V> edge = entry.getKey();
+        if (model.containsEdge(edge)) {
+          SmartStylableNode node = view.getStylableEdge(edge);
+          if (node != null) {
+            restyle(node, entry.getValue(), edgeStyleClass.apply(edge.element()));
+          }
+        }
+      }
+      for (Placement placement : placements) {
+        if (model.containsVertex(placement.vertex)) {
+          SmartStylableNode node = view.getStylableVertex(placement.vertex);
+          if (node instanceof SmartGraphVertex) {
+            ((SmartGraphVertex<?>) node).setPosition(placement.x, placement.y);
+          }
+        }
+      }
+      event.finish(model.numVertices(), model.numEdges());
+    }
+
+    /**
+     * Новому ребру задаёт основной класс; у изменённого меняет только основной класс и его
+     * вариант выделения, не трогая прочие классы (подсветку и т. п.).
+     */
+    private void restyle(SmartStylableNode node, String previous, String current) {
+      if (previous == null) {
+        node.setStyleClass(current);
+      } else if (!previous.equals(current)) {
+        node.removeStyleClass(previous);
+        node.addStyleClass(current);
+        if (node.removeStyleClass(previous + Selection.SELECTED_SUFFIX)) {
+          node.addStyleClass(current + Selection.SELECTED_SUFFIX);
+        }
+      }
+    }
+
+    private void checkOpen() {
+      if (committed) {
+        throw new IllegalStateException("Пакет правок уже зафиксирован");
+      }
+    }
+  }
+
+  private final class Placement {
+    private final Vertex<V> vertex;
+    private final double x;
+    private final double y;
+
+    Placement(Vertex<V> vertex, double x, double y) {
+      this.vertex = vertex;
+      this.x = x;
+      this.y = y;
+    }
+  }
+}
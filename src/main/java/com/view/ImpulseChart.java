@@ -0,0 +1,314 @@
+package com.view;
+
+import com.io.SimulationHistory;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * График истории импульсного моделирования, нарисованный на одном Canvas.
+ * <p>
+ * Вместо узла сцены на каждую точку каждая кривая прореживается методом LTTB ({@link Lttb})
+ * до ширины области построения в пикселях; результат кэшируется до изменения ширины.
+ * Включение кривой дорисовывает только её, если диапазон значений не меняется;
+ * полная перерисовка проходит лишь по прореженным точкам видимых кривых.
+ * <p>
+ * История читается из {@link SimulationHistory} по вершинам: кривая вершины читает только
+ * свой столбец (диапазон — окнами по {@link #RANGE_WINDOW} тактов), поэтому память графика
+ * не зависит от длины прогона.
+ */
+public class ImpulseChart extends Region {
+  private static final double LEFT = 64;
+  private static final double RIGHT = 16;
+  private static final double TOP = 32;
+  private static final double BOTTOM = 44;
+  private static final Font TITLE_FONT = Font.font(14);
+  private static final Font LABEL_FONT = Font.font(11);
+  private static final int RANGE_WINDOW = 4096;
+
+  private final Canvas canvas = new Canvas();
+  private final Map<Integer, Series> visible = new LinkedHashMap<>();
+  private SimulationHistory history;
+  private String title = "";
+  private String xLabel = "";
+  private String yLabel = "";
+
+  // Диапазон значений видимых кривых и диапазон оси с полями, с которыми нарисован текущий кадр
+  private double dataMin;
+  private double dataMax;
+  private double drawnMin;
+  private double drawnMax;
+
+  public ImpulseChart() {
+    getChildren().add(canvas);
+    setPrefSize(600, 400);
+    setMinSize(200, 150);
+  }
+
+  public void setTitle(String title) {
+    this.title = title;
+    redraw();
+  }
+
+  public void setAxisLabels(String xLabel, String yLabel) {
+    this.xLabel = xLabel;
+    this.yLabel = yLabel;
+    redraw();
+  }
+
+  /**
+   * Новые данные: значение вершины после каждого такта. История должна оставаться открытой,
+   * пока показывается графиком.
+   *
+   * @param shown вершины, кривые которых сразу показываются
+   */
+  public void setHistory(SimulationHistory history, int[] shown) {
+    this.history = history;
+    visible.clear();
+    for (int vertex : shown) {
+      visible.put(vertex, new Series(vertex));
+    }
+    redraw();
+  }
+
+  /**
+   * Постоянный цвет кривой вершины (золотой угол по тону — соседние вершины различимы).
+   */
+  public static Color seriesColor(int vertex) {
+    return Color.hsb((vertex * 137.508) % 360.0, 0.8, 0.8);
+  }
+
+  public void showSeries(int vertex) {
+    if (history == null || visible.containsKey(vertex)) {
+      return;
+    }
+    Series series = new Series(vertex);
+    visible.put(vertex, series);
+    if (visible.size() > 1 && series.min >= dataMin && series.max <= dataMax) {
+      drawSeries(canvas.getGraphicsContext2D(), series);
+    } else {
+      redraw();
+    }
+  }
+
+  public void hideSeries(int vertex) {
+    if (visible.remove(vertex) != null) {
+      redraw();
+    }
+  }
+
+  @Override
+  protected void layoutChildren() {
+    double width = snapSizeX(getWidth());
+    double height = snapSizeY(getHeight());
+    if (canvas.getWidth() != width || canvas.getHeight() != height) {
+      canvas.setWidth(width);
+      canvas.setHeight(height);
+      redraw();
+    }
+  }
+
+  private double plotWidth() {
+    return Math.max(canvas.getWidth() - LEFT - RIGHT, 1);
+  }
+
+  private double plotHeight() {
+    return Math.max(canvas.getHeight() - TOP - BOTTOM, 1);
+  }
+
+  private int steps() {
+    return history == null ? 0 : history.steps();
+  }
+
+  private void redraw() {
+    GraphicsContext gc = canvas.getGraphicsContext2D();
+    gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    if (canvas.getWidth() <= LEFT + RIGHT || canvas.getHeight() <= TOP + BOTTOM) {
+      return;
+    }
+
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    for (Series series : visible.values()) {
+      min = Math.min(min, series.min);
+      max = Math.max(max, series.max);
+    }
+    dataMin = min;
+    dataMax = max;
+    if (min > max) {
+      min = 0;
+      max = 1;
+    } else if (min == max) {
+      double pad = Math.max(Math.abs(min) * 0.1, 1.0);
+      min -= pad;
+      max += pad;
+    } else {
+      double pad = (max - min) * 0.05;
+      min -= pad;
+      max += pad;
+    }
+    drawnMin = min;
+    drawnMax = max;
+
+    drawAxes(gc);
+    for (Series series : visible.values()) {
+      drawSeries(gc, series);
+    }
+  }
+
+  private void drawAxes(GraphicsContext gc) {
+    double width = plotWidth();
+    double height = plotHeight();
+    int steps = Math.max(steps(), 1);
+
+    gc.setFill(Color.BLACK);
+    gc.setFont(TITLE_FONT);
+    gc.setTextAlign(TextAlignment.CENTER);
+    gc.setTextBaseline(VPos.CENTER);
+    gc.fillText(title, LEFT + width / 2, TOP / 2);
+
+    gc.setFont(LABEL_FONT);
+    gc.setLineWidth(1);
+
+    // Сетка и подписи по y
+    double yStep = niceStep((drawnMax - drawnMin) / 8);
+    gc.setTextAlign(TextAlignment.RIGHT);
+    for (double value = Math.ceil(drawnMin / yStep) * yStep; value <= drawnMax; value += yStep) {
+      double y = snap(toY(value));
+      gc.setStroke(Color.gray(0.9));
+      gc.strokeLine(LEFT, y, LEFT + width, y);
+      gc.fillText(formatTick(value, yStep), LEFT - 6, y);
+    }
+
+    // Сетка и подписи по x (такты — целые)
+    double xStep = Math.max(1, niceStep(steps / 8.0));
+    gc.setTextAlign(TextAlignment.CENTER);
+    gc.setTextBaseline(VPos.TOP);
+    for (double t = 0; t <= steps; t += xStep) {
+      double x = snap(toX(t));
+      gc.setStroke(Color.gray(0.9));
+      gc.strokeLine(x, TOP, x, TOP + height);
+      gc.fillText(formatTick(t, xStep), x, TOP + height + 4);
+    }
+
+    gc.setStroke(Color.gray(0.4));
+    gc.strokeRect(snap(LEFT), snap(TOP), width, height);
+
+    gc.fillText(xLabel, LEFT + width / 2, TOP + height + 22);
+    gc.save();
+    gc.translate(14, TOP + height / 2);
+    gc.rotate(-90);
+    gc.setTextBaseline(VPos.CENTER);
+    gc.fillText(yLabel, 0, 0);
+    gc.restore();
+  }
+
+  private void drawSeries(GraphicsContext gc, Series series) {
+    int[] indices = series.sample((int) plotWidth());
+    gc.save();
+    gc.beginPath();
+    gc.rect(LEFT, TOP, plotWidth(), plotHeight());
+    gc.clip();
+    gc.setStroke(seriesColor(series.vertex));
+    gc.setLineWidth(1.5);
+    gc.beginPath();
+    boolean penDown = false;
+    for (int index : indices) {
+      double value = history.get(index, series.vertex);
+      if (!Double.isFinite(value)) {
+        penDown = false;
+        continue;
+      }
+      double x = toX(index);
+      double y = toY(value);
+      if (penDown) {
+        gc.lineTo(x, y);
+      } else {
+        gc.moveTo(x, y);
+        penDown = true;
+      }
+    }
+    gc.stroke();
+    gc.restore();
+  }
+
+  private double toX(double step) {
+    return LEFT + step / Math.max(steps(), 1) * plotWidth();
+  }
+
+  private double toY(double value) {
+    return TOP + (drawnMax - value) / (drawnMax - drawnMin) * plotHeight();
+  }
+
+  private static double snap(double coordinate) {
+    return Math.floor(coordinate) + 0.5;
+  }
+
+  /**
+   * Ближайший «круглый» шаг сетки: 1, 2 или 5, умноженные на степень десяти.
+   */
+  private static double niceStep(double raw) {
+    if (!(raw > 0) || Double.isInfinite(raw)) {
+      return 1;
+    }
+    double magnitude = Math.pow(10, Math.floor(Math.log10(raw)));
+    double fraction = raw / magnitude;
+    double nice = fraction <= 1 ? 1 : fraction <= 2 ? 2 : fraction <= 5 ? 5 : 10;
+    return nice * magnitude;
+  }
+
+  private static String formatTick(double value, double step) {
+    int decimals = Math.max(0, (int) -Math.floor(Math.log10(step)));
+    if (Math.abs(value) < step / 2) {
+      value = 0;
+    }
+    return String.format("%." + decimals + "f", value);
+  }
+
+  /**
+   * Кривая одной вершины: диапазон значений и прореженные индексы для текущей ширины.
+   */
+  private final class Series {
+    private final int vertex;
+    private final double min;
+    private final double max;
+    private int[] sampled;
+    private int sampledFor = -1;
+
+    Series(int vertex) {
+      this.vertex = vertex;
+      double low = Double.POSITIVE_INFINITY;
+      double high = Double.NEGATIVE_INFINITY;
+      int length = history.steps() + 1;
+      double[] window = new double[Math.min(RANGE_WINDOW, length)];
+      for (int from = 0; from < length; from += RANGE_WINDOW) {
+        int count = Math.min(RANGE_WINDOW, length - from);
+        history.readColumn(vertex, from, count, window, 0);
+        for (int t = 0; t < count; t++) {
+          double value = window[t];
+          if (Double.isFinite(value)) {
+            low = Math.min(low, value);
+            high = Math.max(high, value);
+          }
+        }
+      }
+      this.min = low;
+      this.max = high;
+    }
+
+    int[] sample(int threshold) {
+      if (sampledFor != threshold) {
+        sampled = Lttb.select(history.steps() + 1, t -> history.get(t, vertex), threshold);
+        sampledFor = threshold;
+      }
+      return sampled;
+    }
+  }
+}
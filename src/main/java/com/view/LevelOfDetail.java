@@ -0,0 +1,336 @@
+package com.view;
+
+import com.brunomnsilva.smartgraph.graph.Edge;
+import com.brunomnsilva.smartgraph.graph.Vertex;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphEdge;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphEdgeBase;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphPanel;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphVertex;
+import com.brunomnsilva.smartgraph.graphview.SmartLabelledNode;
+import com.brunomnsilva.smartgraph.graphview.SmartStylableNode;
+import com.graph.IndexedDigraph;
+import javafx.animation.AnimationTimer;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Background;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/**
+ * Упрощённая отрисовка больших графов на {@link SmartGraphPanel}.
+ * <p>
+ * Раз в кадр сверяет вид окна, версию модели и положения вершин и, только если что-то
+ * изменилось, перестраивает сцену:
+ * <ul>
+ *   <li>вершины вне окна просмотра скрываются;</li>
+ *   <li>подписи и стрелки показываются лишь при масштабе не меньше порога детализации,
+ *       при котором в окне остаётся порядка {@value #DETAIL_VERTICES} вершин;</li>
+ *   <li>ниже порога и для рёбер с обоими концами вне окна узлы рёбер скрываются,
+ *       а сами рёбра рисуются двумя пакетными штрихами (обычные и отрицательные)
+ *       на холсте {@link ZoomPane} под панелью.</li>
+ * </ul>
+ * Видимость узлов меняется только при её смене, поэтому кадр без изменений ничего не стоит.
+ */
+public class LevelOfDetail<V, E> {
+  private static final int DETAIL_VERTICES = 300;
+  private static final String STYLE_CLASS = "lod";
+  private static final Color EDGE_COLOR = Color.web("#FF6D66", 0.8);
+
+  private final IndexedDigraph<V, E> model;
+  private final SmartGraphPanel<V, E> panel;
+  private final ZoomPane viewport;
+  private final Predicate<E> dashed;
+  private final AnimationTimer timer = new AnimationTimer() {
+    @Override
+    public void handle(long now) {
+      refresh();
+    }
+  };
+  private boolean enabled;
+  private boolean dirty;
+  private Paint background = Color.WHITE;
+
+  // Узлы панели по индексам модели; строятся заново при смене версии модели
+  private long indexedVersion = -1;
+  private Node[] vertexNodes = new Node[0];
+  private Node[] vertexLabels = new Node[0];
+  private double[] x = new double[0];
+  private double[] y = new double[0];
+  private boolean[] vertexShown = new boolean[0];
+  private double radius;
+  private int[] edgeFrom = new int[0];
+  private int[] edgeTo = new int[0];
+  private boolean[] edgeDashed = new boolean[0];
+  private Node[] edgeNodes = new Node[0];
+  private Node[] edgeArrows = new Node[0];
+  private Node[] edgeLabels = new Node[0];
+  private boolean[] edgeShown = new boolean[0];
+
+  // Вид окна, для которого построен текущий кадр
+  private double drawnScale = Double.NaN;
+  private double drawnX;
+  private double drawnY;
+  private double drawnWidth;
+  private double drawnHeight;
+
+  /**
+   * @param dashed рёбра, рисуемые на холсте пунктиром (как класс {@code edge-dashed})
+   */
+  public LevelOfDetail(IndexedDigraph<V, E> model, SmartGraphPanel<V, E> panel, ZoomPane viewport,
+                       Predicate<E> dashed) {
+    this.model = model;
+    this.panel = panel;
+    this.viewport = viewport;
+    this.dashed = dashed;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * При выключении обновления останавливаются, а панели возвращается обычный вид.
+   */
+  public void setEnabled(boolean enabled) {
+    if (this.enabled == enabled) {
+      return;
+    }
+    this.enabled = enabled;
+    if (enabled) {
+      indexedVersion = -1;
+      timer.start();
+    } else {
+      timer.stop();
+      panel.getStyleClass().remove(STYLE_CLASS);
+      showAll();
+    }
+  }
+
+  private void refresh() {
+    if (!panel.getStyleClass().contains(STYLE_CLASS)) {
+      if (panel.getScene() == null) {
+        return;
+      }
+      // Фон панели переносится на холст: сама панель становится прозрачной, чтобы холст был виден
+      panel.applyCss();
+      Background fill = panel.getBackground();
+      if (fill != null && !fill.getFills().isEmpty()) {
+        background = fill.getFills().get(0).getFill();
+      }
+      panel.getStyleClass().add(STYLE_CLASS);
+    }
+    if (indexedVersion != model.version() && !index()) {
+      // Панель ещё не догнала модель — пробуем в следующем кадре
+      return;
+    }
+    boolean moved = readPositions();
+    double scale = viewport.getScale();
+    double offsetX = viewport.getOffsetX();
+    double offsetY = viewport.getOffsetY();
+    double width = viewport.getWidth();
+    double height = viewport.getHeight();
+    if (!dirty && !moved && scale == drawnScale && offsetX == drawnX && offsetY == drawnY
+        && width == drawnWidth && height == drawnHeight) {
+      return;
+    }
+    dirty = false;
+    drawnScale = scale;
+    drawnX = offsetX;
+    drawnY = offsetY;
+    drawnWidth = width;
+    drawnHeight = height;
+
+    // Окно просмотра в координатах панели с запасом на радиус вершины
+    double left = -offsetX / scale - radius;
+    double top = -offsetY / scale - radius;
+    double right = (width - offsetX) / scale + radius;
+    double bottom = (height - offsetY) / scale + radius;
+    boolean detailed = scale >= detailScale();
+
+    for (int v = 0; v < vertexNodes.length; v++) {
+      boolean shown = x[v] >= left && x[v] <= right && y[v] >= top && y[v] <= bottom;
+      if (vertexShown[v] != shown) {
+        vertexShown[v] = shown;
+        vertexNodes[v].setVisible(shown);
+      }
+      setVisible(vertexLabels[v], shown && detailed);
+    }
+
+    Canvas canvas = viewport.getCanvas();
+    GraphicsContext gc = canvas.getGraphicsContext2D();
+    gc.setTransform(1, 0, 0, 1, 0, 0);
+    gc.setFill(background);
+    gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    gc.setTransform(scale, 0, 0, scale, offsetX, offsetY);
+    gc.setStroke(EDGE_COLOR);
+    gc.setLineWidth(1.0 / scale);
+
+    for (int pass = 0; pass < 2; pass++) {
+      boolean dashedPass = pass == 1;
+      gc.setLineDashes(dashedPass ? new double[]{4.0 / scale, 4.0 / scale} : null);
+      gc.beginPath();
+      for (int e = 0; e < edgeNodes.length; e++) {
+        if (edgeDashed[e] != dashedPass) {
+          continue;
+        }
+        int from = edgeFrom[e];
+        int to = edgeTo[e];
+        boolean shown = detailed && (vertexShown[from] || vertexShown[to]);
+        if (edgeShown[e] != shown) {
+          edgeShown[e] = shown;
+          edgeNodes[e].setVisible(shown);
+          setVisible(edgeArrows[e], shown);
+          setVisible(edgeLabels[e], shown);
+        }
+        if (!shown && crosses(from, to, left, top, right, bottom)) {
+          gc.moveTo(x[from], y[from]);
+          gc.lineTo(x[to], y[to]);
+        }
+      }
+      gc.stroke();
+    }
+    gc.setLineDashes(null);
+  }
+
+  /**
+   * Порог масштаба, при котором в окне в среднем остаётся не больше DETAIL_VERTICES вершин.
+   */
+  private double detailScale() {
+    return Math.max(1.0, Math.sqrt((double) vertexNodes.length / DETAIL_VERTICES));
+  }
+
+  /**
+   * Грубая проверка пересечения отрезка с окном по ограничивающему прямоугольнику.
+   */
+  private boolean crosses(int from, int to, double left, double top, double right, double bottom) {
+    return Math.max(x[from], x[to]) >= left && Math.min(x[from], x[to]) <= right
+        && Math.max(y[from], y[to]) >= top && Math.min(y[from], y[to]) <= bottom;
+  }
+
+  /**
+   * @return изменилось ли положение хотя бы одной вершины
+   */
+  private boolean readPositions() {
+    boolean moved = false;
+    for (int v = 0; v < vertexNodes.length; v++) {
+      SmartGraphVertex<?> vertex = (SmartGraphVertex<?>) vertexNodes[v];
+      double px = vertex.getPositionCenterX();
+      double py = vertex.getPositionCenterY();
+      if (px != x[v] || py != y[v]) {
+        x[v] = px;
+        y[v] = py;
+        moved = true;
+      }
+    }
+    return moved;
+  }
+
+  /**
+   * Сопоставляет индексам модели узлы панели.
+   *
+   * @return false, если у какой-то вершины или ребра модели ещё нет узла
+   */
+  private boolean index() {
+    long version = model.version();
+    int n = model.numVertices();
+    Node[] vertices = new Node[n];
+    Node[] labels = new Node[n];
+    radius = 0;
+    for (int v = 0; v < n; v++) {
+      SmartStylableNode node = panel.getStylableVertex(model.vertexAt(v));
+      if (!(node instanceof SmartGraphVertex) || !(node instanceof Node)) {
+        return false;
+      }
+      vertices[v] = (Node) node;
+      labels[v] = attachedLabel(node);
+      radius = Math.max(radius, ((SmartGraphVertex<?>) node).getRadius());
+    }
+
+    Collection<SmartGraphEdge<E, V>> smartEdges = panel.getSmartEdges();
+    if (smartEdges.size() != model.numEdges()) {
+      return false;
+    }
+    int m = smartEdges.size();
+    int[] from = new int[m];
+    int[] to = new int[m];
+    boolean[] dashedEdges = new boolean[m];
+    Node[] edges = new Node[m];
+    Node[] arrows = new Node[m];
+    Node[] edgeLabelNodes = new Node[m];
+    int e = 0;
+    for (SmartGraphEdge<E, V> smartEdge : smartEdges) {
+      Edge<E, V> edge = smartEdge.getUnderlyingEdge();
+      if (!model.containsEdge(edge) || !(smartEdge instanceof Node)) {
+        return false;
+      }
+      Vertex<V>[] ends = edge.vertices();
+      from[e] = model.indexOf(ends[0]);
+      to[e] = model.indexOf(ends[1]);
+      dashedEdges[e] = dashed.test(edge.element());
+      edges[e] = (Node) smartEdge;
+      arrows[e] = smartEdge instanceof SmartGraphEdgeBase ? ((SmartGraphEdgeBase<E, V>) smartEdge).getAttachedArrow() : null;
+      edgeLabelNodes[e] = attachedLabel(smartEdge);
+      e++;
+    }
+
+    // Узлы, которые перестали отслеживаться, не должны остаться скрытыми
+    showAll();
+    vertexNodes = vertices;
+    vertexLabels = labels;
+    x = new double[n];
+    y = new double[n];
+    Arrays.fill(x, Double.NaN);
+    vertexShown = filled(n);
+    edgeFrom = from;
+    edgeTo = to;
+    edgeDashed = dashedEdges;
+    edgeNodes = edges;
+    edgeArrows = arrows;
+    edgeLabels = edgeLabelNodes;
+    edgeShown = filled(m);
+    indexedVersion = version;
+    dirty = true;
+    return true;
+  }
+
+  private void showAll() {
+    for (Node node : vertexNodes) {
+      node.setVisible(true);
+    }
+    for (int e = 0; e < edgeNodes.length; e++) {
+      edgeNodes[e].setVisible(true);
+      setVisible(edgeArrows[e], true);
+      setVisible(edgeLabels[e], true);
+    }
+    for (Node label : vertexLabels) {
+      setVisible(label, true);
+    }
+    Canvas canvas = viewport.getCanvas();
+    GraphicsContext gc = canvas.getGraphicsContext2D();
+    // refresh() оставляет на холсте преобразование вида — без сброса очистилась бы лишь его часть
+    gc.setTransform(1, 0, 0, 1, 0, 0);
+    gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    drawnScale = Double.NaN;
+  }
+
+  private static Node attachedLabel(Object node) {
+    return node instanceof SmartLabelledNode ? ((SmartLabelledNode) node).getAttachedLabel() : null;
+  }
+
+  private static void setVisible(Node node, boolean visible) {
+    if (node != null && node.isVisible() != visible) {
+      node.setVisible(visible);
+    }
+  }
+
+  private static boolean[] filled(int length) {
+    boolean[] values = new boolean[length];
+    Arrays.fill(values, true);
+    return values;
+  }
+}
@@ -0,0 +1,66 @@
+package com.view;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Прореживание временного ряда методом Largest-Triangle-Three-Buckets.
+ * <p>
+ * Ряд делится на корзины по числу выходных точек; из каждой корзины берётся точка,
+ * образующая треугольник наибольшей площади с уже выбранной точкой предыдущей корзины
+ * и средней точкой следующей. Первая и последняя точки сохраняются всегда, поэтому
+ * пики и форма кривой переживают прореживание до ширины графика в пикселях.
+ */
+public final class Lttb {
+  private Lttb() {
+  }
+
+  /**
+   * @param length    число точек ряда; x точки — её индекс
+   * @param y         значение в точке
+   * @param threshold желаемое число точек
+   * @return возрастающие индексы выбранных точек (все индексы, если ряд короче порога)
+   */
+  public static int[] select(int length, IntToDoubleFunction y, int threshold) {
+    if (threshold >= length || threshold < 3) {
+      int[] all = new int[length];
+      for (int i = 0; i < length; i++) {
+        all[i] = i;
+      }
+      return all;
+    }
+
+    int[] sampled = new int[threshold];
+    double every = (double) (length - 2) / (threshold - 2);
+    int a = 0;
+    for (int bucket = 0; bucket < threshold - 2; bucket++) {
+      // Средняя точка следующей корзины
+      int averageFrom = (int) ((bucket + 1) * every) + 1;
+      int averageTo = Math.min((int) ((bucket + 2) * every) + 1, length);
+      double averageX = 0.0;
+      double averageY = 0.0;
+      for (int j = averageFrom; j < averageTo; j++) {
+        averageX += j;
+        averageY += y.applyAsDouble(j);
+      }
+      averageX /= averageTo - averageFrom;
+      averageY /= averageTo - averageFrom;
+
+      int from = (int) (bucket * every) + 1;
+      int to = (int) ((bucket + 1) * every) + 1;
+      double ay = y.applyAsDouble(a);
+      double maxArea = -1.0;
+      int next = from;
+      for (int j = from; j < to; j++) {
+        double area = Math.abs((a - averageX) * (y.applyAsDouble(j) - ay) - (a - j) * (averageY - ay));
+        if (area > maxArea) {
+          maxArea = area;
+          next = j;
+        }
+      }
+      sampled[bucket + 1] = next;
+      a = next;
+    }
+    sampled[threshold - 1] = length - 1;
+    return sampled;
+  }
+}
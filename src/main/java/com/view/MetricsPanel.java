@@ -0,0 +1,91 @@
+package com.view;
+
+import com.analysis.DenseMatrix;
+import com.metrics.Metric;
+import com.metrics.Metrics;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+/**
+ * Панель последних значений {@link Metrics}.
+ * <p>
+ * Сбор включается флажком панели; значения опрашиваются по таймеру дважды в секунду
+ * и перерисовываются, только если с прошлого опроса что-то опубликовано. Те же итоги
+ * пишутся событиями JFR категории «Редактор графа» независимо от флажка, если идёт запись.
+ */
+public class MetricsPanel extends VBox {
+  private static final Duration POLL_INTERVAL = Duration.millis(500);
+
+  private final Label[] values = new Label[Metric.values().length];
+  private final Timeline poll = new Timeline(new KeyFrame(POLL_INTERVAL, e -> refresh()));
+  private long shownVersion = -1;
+
+  public MetricsPanel() {
+    setSpacing(10);
+    setPadding(new Insets(10));
+
+    CheckBox enabled = new CheckBox("Собирать метрики");
+    enabled.setSelected(Metrics.isEnabled());
+    enabled.selectedProperty().addListener((observable, oldValue, newValue) -> Metrics.setEnabled(newValue));
+    Button clear = new Button("Сбросить");
+    clear.setOnAction(e -> Metrics.clear());
+    HBox controls = new HBox(10, enabled, clear);
+
+    GridPane grid = new GridPane();
+    grid.setHgap(20);
+    grid.setVgap(6);
+    for (Metric metric : Metric.values()) {
+      String unit = metric.unit().isEmpty() ? "" : ", " + metric.unit();
+      values[metric.ordinal()] = new Label();
+      grid.addRow(metric.ordinal(), new Label(metric.label() + unit), values[metric.ordinal()]);
+    }
+
+    Label kernels = new Label("Плотные ядра: " + DenseMatrix.kernelName());
+    Label hint = new Label("События JFR: java -XX:StartFlightRecording=filename=editor.jfr ...");
+    hint.setStyle("-fx-text-fill: #777;");
+    getChildren().addAll(controls, grid, kernels, hint);
+
+    poll.setCycleCount(Timeline.INDEFINITE);
+    // Опрос идёт, только пока панель в сцене; без новых публикаций он ничего не перерисовывает
+    sceneProperty().addListener((observable, oldValue, newValue) -> {
+      if (newValue != null) {
+        poll.play();
+      } else {
+        poll.stop();
+      }
+    });
+    refresh();
+  }
+
+  private void refresh() {
+    long version = Metrics.version();
+    if (version == shownVersion) {
+      return;
+    }
+    shownVersion = version;
+    for (Metric metric : Metric.values()) {
+      values[metric.ordinal()].setText(format(Metrics.get(metric)));
+    }
+  }
+
+  private static String format(double value) {
+    if (Double.isNaN(value)) {
+      return "—";
+    }
+    if (value != 0 && Math.abs(value) < 1e-3) {
+      return String.format("%.3e", value);
+    }
+    if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      return String.format("%,d", (long) value);
+    }
+    return String.format("%,.3f", value);
+  }
+}
@@ -0,0 +1,288 @@
+package com.view;
+
+import com.brunomnsilva.smartgraph.graph.Edge;
+import com.brunomnsilva.smartgraph.graph.Vertex;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphPanel;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphVertex;
+import com.brunomnsilva.smartgraph.graphview.SmartStylableNode;
+import com.graph.IndexedDigraph;
+import com.layout.SpatialIndex;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Выделение рамкой и лассо поверх {@link ZoomPane}, а также выбор рёбер щелчком по фону.
+ * <p>
+ * Shift + перетаскивание выделяет прямоугольником, Alt + перетаскивание — произвольным
+ * контуром; вершина попадает в выделение, если в области лежит её центр, ребро — если
+ * в области оба его конца. Двойной щелчок по фону выбирает ближайшую вершину или ребро
+ * (в том числе нарисованное {@link LevelOfDetail} на холсте, у которого нет узла сцены).
+ * Кандидаты отбираются деревьями квадрантов {@link SpatialIndex} по положениям вершин
+ * и габаритам рёбер, построенными в момент выделения.
+ */
+public class RubberBandSelection<V, E> {
+  // Допуск попадания в ребро, пиксели окна
+  private static final double HIT_TOLERANCE = 4.0;
+
+  private final IndexedDigraph<V, E> model;
+  private final SmartGraphPanel<V, E> panel;
+  private final ZoomPane viewport;
+  private final Selection<V, E> selection;
+  private final Polygon outline = new Polygon();
+  private final List<Double> path = new ArrayList<>();
+  private boolean lasso;
+  private boolean dragging;
+
+  // Снимок положений на момент выделения
+  private double[] x;
+  private double[] y;
+  private int[] edgeFrom;
+  private int[] edgeTo;
+  private List<Edge<E, V>> edgeList;
+  private double radius;
+
+  public RubberBandSelection(IndexedDigraph<V, E> model, SmartGraphPanel<V, E> panel, ZoomPane viewport,
+                             Selection<V, E> selection) {
+    this.model = model;
+    this.panel = panel;
+    this.viewport = viewport;
+    this.selection = selection;
+
+    outline.setManaged(false);
+    outline.setMouseTransparent(true);
+    outline.setVisible(false);
+    outline.setFill(Color.web("#61B5F1", 0.15));
+    outline.setStroke(Color.web("#61B5F1"));
+    outline.getStrokeDashArray().setAll(4.0, 4.0);
+    viewport.getChildren().add(outline);
+
+    viewport.addEventFilter(MouseEvent.MOUSE_PRESSED, this::onPressed);
+    viewport.addEventFilter(MouseEvent.MOUSE_DRAGGED, this::onDragged);
+    viewport.addEventFilter(MouseEvent.MOUSE_RELEASED, this::onReleased);
+    viewport.addEventHandler(MouseEvent.MOUSE_CLICKED, this::onClicked);
+  }
+
+  private void onPressed(MouseEvent event) {
+    if (event.getButton() != MouseButton.PRIMARY || !(event.isShiftDown() || event.isAltDown())) {
+      return;
+    }
+    dragging = true;
+    lasso = event.isAltDown();
+    path.clear();
+    path.add(event.getX());
+    path.add(event.getY());
+    outline.getPoints().setAll(path);
+    outline.setVisible(true);
+    event.consume();
+  }
+
+  private void onDragged(MouseEvent event) {
+    if (!dragging) {
+      return;
+    }
+    if (lasso) {
+      path.add(event.getX());
+      path.add(event.getY());
+      outline.getPoints().setAll(path);
+    } else {
+      double x0 = path.get(0);
+      double y0 = path.get(1);
+      outline.getPoints().setAll(x0, y0, event.getX(), y0, event.getX(), event.getY(), x0, event.getY());
+    }
+    event.consume();
+  }
+
+  private void onReleased(MouseEvent event) {
+    if (!dragging) {
+      return;
+    }
+    dragging = false;
+    outline.setVisible(false);
+    event.consume();
+
+    // Контур в координатах панели
+    List<Double> points = outline.getPoints();
+    int corners = points.size() / 2;
+    if (corners < 3) {
+      return;
+    }
+    double[] px = new double[corners];
+    double[] py = new double[corners];
+    double left = Double.POSITIVE_INFINITY;
+    double top = Double.POSITIVE_INFINITY;
+    double right = Double.NEGATIVE_INFINITY;
+    double bottom = Double.NEGATIVE_INFINITY;
+    for (int c = 0; c < corners; c++) {
+      px[c] = toPanelX(points.get(2 * c));
+      py[c] = toPanelY(points.get(2 * c + 1));
+      left = Math.min(left, px[c]);
+      top = Math.min(top, py[c]);
+      right = Math.max(right, px[c]);
+      bottom = Math.max(bottom, py[c]);
+    }
+    if (!snapshot()) {
+      return;
+    }
+
+    boolean[] inside = new boolean[x.length];
+    List<Vertex<V>> vertices = new ArrayList<>();
+    vertexIndex().query(left, top, right, bottom, v -> {
+      if (contains(px, py, x[v], y[v])) {
+        inside[v] = true;
+        vertices.add(model.vertexAt(v));
+      }
+    });
+    List<Edge<E, V>> edges = new ArrayList<>();
+    edgeIndex().query(left, top, right, bottom, e -> {
+      if (inside[edgeFrom[e]] && inside[edgeTo[e]]) {
+        edges.add(edgeList.get(e));
+      }
+    });
+    selection.addAll(vertices, edges);
+  }
+
+  /**
+   * Двойной щелчок по фону панели: ближайшая вершина под курсором, иначе ближайшее ребро.
+   */
+  private void onClicked(MouseEvent event) {
+    if (event.getButton() != MouseButton.PRIMARY || event.getClickCount() != 2
+        || event.getTarget() != panel && event.getTarget() != viewport) {
+      return;
+    }
+    if (!snapshot()) {
+      return;
+    }
+    double cx = toPanelX(event.getX());
+    double cy = toPanelY(event.getY());
+    double tolerance = HIT_TOLERANCE / viewport.getScale();
+
+    int[] vertex = {-1};
+    double[] best = {Double.POSITIVE_INFINITY};
+    vertexIndex().query(cx, cy, cx, cy, v -> {
+      double d = Math.hypot(x[v] - cx, y[v] - cy);
+      if (d <= radius && d < best[0]) {
+        best[0] = d;
+        vertex[0] = v;
+      }
+    });
+    if (vertex[0] >= 0) {
+      selection.toggle(model.vertexAt(vertex[0]));
+      event.consume();
+      return;
+    }
+
+    int[] edge = {-1};
+    best[0] = Double.POSITIVE_INFINITY;
+    edgeIndex().query(cx - tolerance, cy - tolerance, cx + tolerance, cy + tolerance, e -> {
+      double d = segmentDistance(cx, cy, x[edgeFrom[e]], y[edgeFrom[e]], x[edgeTo[e]], y[edgeTo[e]]);
+      if (d <= tolerance && d < best[0]) {
+        best[0] = d;
+        edge[0] = e;
+      }
+    });
+    if (edge[0] >= 0) {
+      selection.toggle(edgeList.get(edge[0]));
+      event.consume();
+    }
+  }
+
+  private double toPanelX(double viewX) {
+    return (viewX - viewport.getOffsetX()) / viewport.getScale();
+  }
+
+  private double toPanelY(double viewY) {
+    return (viewY - viewport.getOffsetY()) / viewport.getScale();
+  }
+
+  /**
+   * Снимает положения вершин и концы рёбер по индексам модели.
+   *
+   * @return false, если панель ещё не догнала модель
+   */
+  private boolean snapshot() {
+    int n = model.numVertices();
+    double[] vx = new double[n];
+    double[] vy = new double[n];
+    radius = 0;
+    for (int v = 0; v < n; v++) {
+      SmartStylableNode node = panel.getStylableVertex(model.vertexAt(v));
+      if (!(node instanceof SmartGraphVertex)) {
+        return false;
+      }
+      SmartGraphVertex<?> vertex = (SmartGraphVertex<?>) node;
+      vx[v] = vertex.getPositionCenterX();
+      vy[v] = vertex.getPositionCenterY();
+      radius = Math.max(radius, vertex.getRadius());
+    }
+    List<Edge<E, V>> edges = new ArrayList<>(model.edges());
+    int[] from = new int[edges.size()];
+    int[] to = new int[edges.size()];
+    for (int e = 0; e < edges.size(); e++) {
+      Vertex<V>[] ends = edges.get(e).vertices();
+      from[e] = model.indexOf(ends[0]);
+      to[e] = model.indexOf(ends[1]);
+    }
+    x = vx;
+    y = vy;
+    edgeList = edges;
+    edgeFrom = from;
+    edgeTo = to;
+    return true;
+  }
+
+  private SpatialIndex vertexIndex() {
+    int n = x.length;
+    double[] minX = new double[n];
+    double[] minY = new double[n];
+    double[] maxX = new double[n];
+    double[] maxY = new double[n];
+    for (int v = 0; v < n; v++) {
+      minX[v] = x[v] - radius;
+      minY[v] = y[v] - radius;
+      maxX[v] = x[v] + radius;
+      maxY[v] = y[v] + radius;
+    }
+    return new SpatialIndex(minX, minY, maxX, maxY);
+  }
+
+  private SpatialIndex edgeIndex() {
+    int m = edgeFrom.length;
+    double[] minX = new double[m];
+    double[] minY = new double[m];
+    double[] maxX = new double[m];
+    double[] maxY = new double[m];
+    for (int e = 0; e < m; e++) {
+      minX[e] = Math.min(x[edgeFrom[e]], x[edgeTo[e]]);
+      minY[e] = Math.min(y[edgeFrom[e]], y[edgeTo[e]]);
+      maxX[e] = Math.max(x[edgeFrom[e]], x[edgeTo[e]]);
+      maxY[e] = Math.max(y[edgeFrom[e]], y[edgeTo[e]]);
+    }
+    return new SpatialIndex(minX, minY, maxX, maxY);
+  }
+
+  /**
+   * Точка внутри многоугольника (правило чётности пересечений луча).
+   */
+  private static boolean contains(double[] px, double[] py, double x, double y) {
+    boolean inside = false;
+    for (int i = 0, j = px.length - 1; i < px.length; j = i++) {
+      if ((py[i] > y) != (py[j] > y) && x < (px[j] - px[i]) * (y - py[i]) / (py[j] - py[i]) + px[i]) {
+        inside = !inside;
+      }
+    }
+    return inside;
+  }
+
+  private static double segmentDistance(double x, double y, double x0, double y0, double x1, double y1) {
+    double dx = x1 - x0;
+    double dy = y1 - y0;
+    double length2 = dx * dx + dy * dy;
+    double t = length2 == 0 ? 0 : Math.max(0, Math.min(1, ((x - x0) * dx + (y - y0) * dy) / length2));
+    return Math.hypot(x - (x0 + t * dx), y - (y0 + t * dy));
+  }
+}
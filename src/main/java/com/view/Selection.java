@@ -0,0 +1,143 @@
+package com.view;
+
+import com.brunomnsilva.smartgraph.graph.Edge;
+import com.brunomnsilva.smartgraph.graph.Vertex;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphEdge;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphPanel;
+import com.brunomnsilva.smartgraph.graphview.SmartGraphVertex;
+import com.brunomnsilva.smartgraph.graphview.SmartStylableNode;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Выделенные вершины и рёбра панели.
+ * <p>
+ * Хранит элементы модели (а не узлы панели) в множествах с порядком добавления, поэтому
+ * проверка, добавление и снятие выделения — O(1), а выделение переживает обновления панели.
+ * Выделенным узлам назначается класс стиля с суффиксом {@code -selected}.
+ */
+public class Selection<V, E> {
+  static final String SELECTED_SUFFIX = "-selected";
+
+  private final SmartGraphPanel<V, E> view;
+  private final Function<E, String> edgeStyleClass;
+  private final Set<Vertex<V>> vertices = new LinkedHashSet<>();
+  private final Set<Edge<E, V>> edges = new LinkedHashSet<>();
+
+  /**
+   * @param edgeStyleClass CSS-класс невыделенного ребра по его элементу
+   */
+  public Selection(SmartGraphPanel<V, E> view, Function<E, String> edgeStyleClass) {
+    this.view = view;
+    this.edgeStyleClass = edgeStyleClass;
+  }
+
+  /**
+   * Выделенные вершины в порядке выделения (только для чтения).
+   */
+  public Set<Vertex<V>> vertices() {
+    return Collections.unmodifiableSet(vertices);
+  }
+
+  /**
+   * Выделенные рёбра в порядке выделения (только для чтения).
+   */
+  public Set<Edge<E, V>> edges() {
+    return Collections.unmodifiableSet(edges);
+  }
+
+  public int size() {
+    return vertices.size() + edges.size();
+  }
+
+  public boolean isEmpty() {
+    return vertices.isEmpty() && edges.isEmpty();
+  }
+
+  /**
+   * Переключает выделение узла панели (вершины или ребра).
+   */
+  @SuppressWarnings("unchecked")
+  public void toggle(SmartStylableNode node) {
+    if (node instanceof SmartGraphVertex) {
+      toggle(((SmartGraphVertex<V>) node).getUnderlyingVertex());
+    } else if (node instanceof SmartGraphEdge) {
+      toggle(((SmartGraphEdge<E, V>) node).getUnderlyingEdge());
+    }
+  }
+
+  public void toggle(Vertex<V> vertex) {
+    if (!vertices.remove(vertex)) {
+      vertices.add(vertex);
+      style(vertex, true);
+    } else {
+      style(vertex, false);
+    }
+  }
+
+  public void toggle(Edge<E, V> edge) {
+    if (!edges.remove(edge)) {
+      edges.add(edge);
+      style(edge, true);
+    } else {
+      style(edge, false);
+    }
+  }
+
+  /**
+   * Добавляет к выделению элементы (например, попавшие в рамку); уже выделенные не трогаются.
+   */
+  public void addAll(Collection<Vertex<V>> newVertices, Collection<Edge<E, V>> newEdges) {
+    for (Vertex<V> vertex : newVertices) {
+      if (vertices.add(vertex)) {
+        style(vertex, true);
+      }
+    }
+    for (Edge<E, V> edge : newEdges) {
+      if (edges.add(edge)) {
+        style(edge, true);
+      }
+    }
+  }
+
+  /**
+   * Снимает выделение. Узлы уже удалённых из модели элементов пропускаются.
+   */
+  public void clear() {
+    for (Vertex<V> vertex : vertices) {
+      style(vertex, false);
+    }
+    for (Edge<E, V> edge : edges) {
+      style(edge, false);
+    }
+    vertices.clear();
+    edges.clear();
+  }
+
+  private void style(Vertex<V> vertex, boolean selected) {
+    SmartStylableNode node = view.getStylableVertex(vertex);
+    if (node != null) {
+      node.setStyleClass(selected ? "vertex" + SELECTED_SUFFIX : "vertex");
+    }
+  }
+
+  /**
+   * Меняет только класс выделения: остальные классы ребра (например, подсветка
+   * {@link EdgeHighlight}) сохраняются.
+   */
+  private void style(Edge<E, V> edge, boolean selected) {
+    SmartStylableNode node = view.getStylableEdge(edge);
+    if (node != null) {
+      String selectedClass = edgeStyleClass.apply(edge.element()) + SELECTED_SUFFIX;
+      if (selected) {
+        node.addStyleClass(selectedClass);
+      } else {
+        node.removeStyleClass(selectedClass);
+      }
+    }
+  }
+}
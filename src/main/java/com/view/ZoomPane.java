@@ -0,0 +1,172 @@
+package com.view;
+
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.transform.Affine;
+
+/**
+ * Окно просмотра с масштабированием и панорамированием содержимого.
+ * <p>
+ * Содержимое занимает всё окно и смещается одним преобразованием: колесо мыши меняет масштаб
+ * вокруг курсора, перетаскивание фона (или любая точка средней/правой кнопкой) сдвигает вид;
+ * перетаскивание с Shift или Alt оставлено для выделения ({@link RubberBandSelection}).
+ * Под содержимым лежит {@link Canvas} в координатах окна — на нём {@link LevelOfDetail}
+ * рисует рёбра, не представленные узлами сцены.
+ */
+public class ZoomPane extends Pane {
+  private static final double MIN_SCALE = 1.0;
+  private static final double MAX_SCALE = 64.0;
+  private static final double ZOOM_STEP = 1.1;
+
+  private final Node content;
+  private final Canvas canvas = new Canvas();
+  private final Affine transform = new Affine();
+  private final Rectangle clip = new Rectangle();
+  private final ReadOnlyDoubleWrapper scale = new ReadOnlyDoubleWrapper(this, "scale", 1.0);
+  private double dragX;
+  private double dragY;
+  private boolean panning;
+
+  public ZoomPane(Node content) {
+    this.content = content;
+    content.getTransforms().add(transform);
+    canvas.setMouseTransparent(true);
+    getChildren().addAll(canvas, content);
+    setClip(clip);
+
+    setOnScroll(this::onScroll);
+    addEventFilter(MouseEvent.MOUSE_PRESSED, this::onPressed);
+    addEventFilter(MouseEvent.MOUSE_DRAGGED, this::onDragged);
+    addEventFilter(MouseEvent.MOUSE_RELEASED, e -> panning = false);
+  }
+
+  public Node getContent() {
+    return content;
+  }
+
+  public Canvas getCanvas() {
+    return canvas;
+  }
+
+  /**
+   * Текущий масштаб: 1 — содержимое целиком в окне.
+   */
+  public double getScale() {
+    return scale.get();
+  }
+
+  public ReadOnlyDoubleProperty scaleProperty() {
+    return scale.getReadOnlyProperty();
+  }
+
+  /**
+   * Сдвиг содержимого по x в пикселях окна.
+   */
+  public double getOffsetX() {
+    return transform.getTx();
+  }
+
+  /**
+   * Сдвиг содержимого по y в пикселях окна.
+   */
+  public double getOffsetY() {
+    return transform.getTy();
+  }
+
+  /**
+   * Возвращает вид к масштабу 1 без сдвига.
+   */
+  public void resetView() {
+    setView(1.0, 0.0, 0.0);
+  }
+
+  // Размеры окна не зависят от масштаба: границы содержимого с преобразованием не учитываются
+  @Override
+  protected double computePrefWidth(double height) {
+    return content.prefWidth(height);
+  }
+
+  @Override
+  protected double computePrefHeight(double width) {
+    return content.prefHeight(width);
+  }
+
+  @Override
+  protected double computeMinWidth(double height) {
+    return 0;
+  }
+
+  @Override
+  protected double computeMinHeight(double width) {
+    return 0;
+  }
+
+  @Override
+  protected void layoutChildren() {
+    double width = snapSizeX(getWidth());
+    double height = snapSizeY(getHeight());
+    content.resizeRelocate(0, 0, width, height);
+    canvas.setWidth(width);
+    canvas.setHeight(height);
+    clip.setWidth(width);
+    clip.setHeight(height);
+    // После изменения размеров сдвиг может выйти за границы содержимого
+    setView(getScale(), transform.getTx(), transform.getTy());
+  }
+
+  private void onScroll(ScrollEvent event) {
+    if (event.getDeltaY() == 0) {
+      return;
+    }
+    double factor = event.getDeltaY() > 0 ? ZOOM_STEP : 1.0 / ZOOM_STEP;
+    double newScale = clamp(getScale() * factor, MIN_SCALE, MAX_SCALE);
+    // Точка под курсором остаётся на месте
+    double ratio = newScale / getScale();
+    double tx = event.getX() - (event.getX() - transform.getTx()) * ratio;
+    double ty = event.getY() - (event.getY() - transform.getTy()) * ratio;
+    setView(newScale, tx, ty);
+    event.consume();
+  }
+
+  private void onPressed(MouseEvent event) {
+    boolean background = event.getTarget() == content || event.getTarget() == this;
+    panning = event.getButton() == MouseButton.MIDDLE
+        || event.getButton() == MouseButton.SECONDARY
+        || event.getButton() == MouseButton.PRIMARY && background && !event.isShiftDown() && !event.isAltDown();
+    dragX = event.getX();
+    dragY = event.getY();
+  }
+
+  private void onDragged(MouseEvent event) {
+    if (!panning) {
+      return;
+    }
+    setView(getScale(), transform.getTx() + event.getX() - dragX, transform.getTy() + event.getY() - dragY);
+    dragX = event.getX();
+    dragY = event.getY();
+    event.consume();
+  }
+
+  /**
+   * Сдвиг ограничивается так, чтобы содержимое всегда покрывало окно.
+   */
+  private void setView(double newScale, double tx, double ty) {
+    double width = getWidth();
+    double height = getHeight();
+    tx = clamp(tx, width - width * newScale, 0.0);
+    ty = clamp(ty, height - height * newScale, 0.0);
+    transform.setToTransform(newScale, 0, tx, 0, newScale, ty);
+    scale.set(newScale);
+  }
+
+  private static double clamp(double value, double min, double max) {
+    return Math.max(min, Math.min(max, value));
+  }
+}
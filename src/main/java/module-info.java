@@ -3,6 +3,11 @@ module com {
   requires javafx.controls;
   requires javafx.fxml;
   requires com.brunomnsilva.smartgraph;
+  requires jdk.httpserver;
+  requires jdk.jfr;
+  requires jdk.management;
+  // Необязательный: без --add-modules jdk.incubator.vector работают скалярные ядра
+  requires static jdk.incubator.vector;
 
   opens com to javafx.fxml;
   opens com.controllers to javafx.fxml;
@@ -0,0 +1,173 @@
+package com.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArnoldiEigenSolverTest {
+
+  @Test
+  void spectralRadiusMatchesPowerIteration() {
+    Random random = new Random(3);
+    for (int trial = 0; trial < 20; trial++) {
+      int n = 20 + random.nextInt(200);
+      double[][] a = new double[n][n];
+      // Неотрицательная неразложимая непериодическая матрица: степенной метод сходится к ρ
+      for (int i = 0; i < n; i++) {
+        a[i][(i + 1) % n] = 0.1 + random.nextDouble();
+        for (int k = 0; k < 3; k++) {
+          a[i][random.nextInt(n)] = random.nextDouble();
+        }
+      }
+      a[0][0] = 0.5;
+      EigenResult result = new ArnoldiEigenSolver().solve(sparse(a));
+
+      assertTrue(result.isConverged(), "n = " + n);
+      assertEquals(powerIteration(a), result.spectralRadius(), 1e-7 * result.spectralRadius(), "n = " + n);
+      assertTrue(result.residual() < 1e-8);
+    }
+  }
+
+  @Test
+  void findsComplexAndOppositeLeadingValues() {
+    // Блоки: поворот 5-цикла с ρ = 0.9 (комплексные значения), пара ±0.7, число 0.3
+    int cycle = 5;
+    double[][] a = new double[cycle + 3][cycle + 3];
+    for (int i = 0; i < cycle; i++) {
+      a[i][(i + 1) % cycle] = 0.9;
+    }
+    a[cycle][cycle + 1] = 0.7;
+    a[cycle + 1][cycle] = 0.7;
+    a[cycle + 2][cycle + 2] = 0.3;
+    EigenResult result = new ArnoldiEigenSolver(4, 8, 1e-12, 300, 42L).solve(sparse(a));
+
+    assertTrue(result.isConverged());
+    assertEquals(0.9, result.spectralRadius(), 1e-10);
+    boolean complex = false;
+    for (int i = 0; i < result.count(); i++) {
+      assertEquals(0.9, result.modulus(i), 1e-9, "четыре ведущих значения — корни цикла");
+      complex |= Math.abs(result.imaginary(i)) > 0.1;
+    }
+    assertTrue(complex);
+  }
+
+  @Test
+  void leadingVectorSatisfiesDefinition() {
+    Random random = new Random(17);
+    int n = 150;
+    double[][] a = new double[n][n];
+    for (int i = 0; i < n; i++) {
+      for (int k = 0; k < 4; k++) {
+        a[i][random.nextInt(n)] = random.nextGaussian();
+      }
+    }
+    EigenResult result = new ArnoldiEigenSolver().solve(sparse(a));
+    assertTrue(result.isConverged());
+    double lr = result.real(0);
+    double li = result.imaginary(0);
+    double[] xr = result.vectorReal();
+    double[] xi = result.vectorImaginary();
+    double error = 0.0;
+    for (int i = 0; i < n; i++) {
+      double re = -(lr * xr[i] - li * xi[i]);
+      double im = -(lr * xi[i] + li * xr[i]);
+      for (int j = 0; j < n; j++) {
+        re += a[i][j] * xr[j];
+        im += a[i][j] * xi[j];
+      }
+      error += re * re + im * im;
+    }
+    assertTrue(Math.sqrt(error) < 1e-7 * result.spectralRadius(), "‖Ax − λx‖ = " + Math.sqrt(error));
+  }
+
+  @Test
+  void solveNearPutsClosestLeadingValueFirst() {
+    double[][] a = {{0, 0.8}, {0.8, 0}};
+    ArnoldiEigenSolver solver = new ArnoldiEigenSolver(2, 4, 1e-12, 300, 42L);
+    assertEquals(-0.8, solver.solveNear(sparse(a), -1.0, 0.0, ProgressMonitor.NONE).real(0), 1e-10);
+    assertEquals(0.8, solver.solveNear(sparse(a), 1.0, 0.0, ProgressMonitor.NONE).real(0), 1e-10);
+  }
+
+  @Test
+  void warmStartAfterSmallEditGivesSameRadius() {
+    Random random = new Random(23);
+    int n = 300;
+    double[][] a = new double[n][n];
+    for (int i = 0; i < n; i++) {
+      a[i][(i + 1) % n] = 0.5 + random.nextDouble();
+      for (int k = 0; k < 3; k++) {
+        a[i][random.nextInt(n)] = random.nextGaussian();
+      }
+    }
+    ArnoldiEigenSolver solver = new ArnoldiEigenSolver();
+    EigenResult before = solver.solve(sparse(a));
+    a[7][42] += 0.01;
+    EigenResult cold = solver.solve(sparse(a));
+    EigenResult warm = solver.solve(sparse(a), before.restartVector());
+
+    assertTrue(warm.isConverged());
+    assertEquals(cold.spectralRadius(), warm.spectralRadius(), 1e-9 * cold.spectralRadius());
+  }
+
+  private static SparseMatrix sparse(double[][] a) {
+    int n = a.length;
+    int[] rowStart = new int[n + 1];
+    List<Integer> columns = new ArrayList<>();
+    List<Double> values = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        if (a[i][j] != 0.0) {
+          columns.add(j);
+          values.add(a[i][j]);
+        }
+      }
+      rowStart[i + 1] = columns.size();
+    }
+    int[] columnIndices = new int[columns.size()];
+    double[] entries = new double[values.size()];
+    for (int p = 0; p < entries.length; p++) {
+      columnIndices[p] = columns.get(p);
+      entries[p] = values.get(p);
+    }
+    return new SparseMatrix(n, n, rowStart, columnIndices, entries);
+  }
+
+  /**
+   * ρ неотрицательной примитивной матрицы как предел ‖A·x‖ / ‖x‖.
+   */
+  private static double powerIteration(double[][] a) {
+    int n = a.length;
+    double[] x = new double[n];
+    Arrays.fill(x, 1.0);
+    double radius = 0.0;
+    for (int iteration = 0; iteration < 100_000; iteration++) {
+      double[] y = new double[n];
+      double norm = 0.0;
+      for (int i = 0; i < n; i++) {
+        for (int j = 0; j < n; j++) {
+          y[i] += a[i][j] * x[j];
+        }
+        norm = Math.max(norm, Math.abs(y[i]));
+      }
+      for (int i = 0; i < n; i++) {
+        y[i] /= norm;
+      }
+      double change = 0.0;
+      for (int i = 0; i < n; i++) {
+        change = Math.max(change, Math.abs(y[i] - x[i]));
+      }
+      x = y;
+      radius = norm;
+      if (change < 1e-14) {
+        break;
+      }
+    }
+    return radius;
+  }
+}
@@ -0,0 +1,189 @@
+package com.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CycleEnumeratorTest {
+
+  @Test
+  void findsEveryElementaryCycleOnceLikeBruteForce() {
+    Random random = new Random(7);
+    for (int trial = 0; trial < 200; trial++) {
+      int n = 1 + random.nextInt(7);
+      boolean[][] edges = randomGraph(random, n, 0.2 + 0.6 * random.nextDouble());
+      CycleEnumerator enumerator = enumerator(edges);
+
+      Set<String> found = new TreeSet<>();
+      List<String> emitted = new ArrayList<>();
+      long count = enumerator.enumerate((vertices, positions, length) -> {
+        assertEquals(minimum(vertices, length), vertices[0], "цикл должен начинаться с минимальной вершины");
+        for (int i = 0; i < length; i++) {
+          assertEquals(vertices[(i + 1) % length], target(edges, positions[i]),
+              "позиция ребра должна указывать на ребро цикла");
+        }
+        String key = key(vertices, length);
+        emitted.add(key);
+        found.add(key);
+        return true;
+      });
+
+      Set<String> expected = bruteForce(edges);
+      assertEquals(expected, found, "граф " + describe(edges));
+      assertEquals(emitted.size(), found.size(), "циклы не должны повторяться");
+      assertEquals(expected.size(), count);
+    }
+  }
+
+  @Test
+  void rangesSplitCyclesByMinimalVertex() {
+    Random random = new Random(11);
+    boolean[][] edges = randomGraph(random, 7, 0.5);
+    CycleEnumerator enumerator = enumerator(edges);
+    long total = enumerator.enumerate((vertices, positions, length) -> true);
+    long split = 0;
+    for (int s = 0; s < 7; s++) {
+      int start = s;
+      split += enumerator.enumerate(s, s + 1, (vertices, positions, length) -> {
+        assertEquals(start, vertices[0]);
+        return true;
+      });
+    }
+    assertEquals(total, split);
+  }
+
+  @Test
+  void ignoresSelfLoops() {
+    boolean[][] edges = new boolean[3][3];
+    edges[0][0] = true;
+    edges[1][1] = true;
+    edges[0][1] = true;
+    assertEquals(0, enumerator(edges).enumerate((vertices, positions, length) -> true));
+  }
+
+  @Test
+  void stopsWhenVisitorDeclines() {
+    boolean[][] edges = new boolean[5][5];
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 5; j++) {
+        edges[i][j] = i != j;
+      }
+    }
+    assertTrue(bruteForce(edges).size() > 1);
+    assertEquals(1, enumerator(edges).enumerate((vertices, positions, length) -> false));
+  }
+
+  private static boolean[][] randomGraph(Random random, int n, double density) {
+    boolean[][] edges = new boolean[n][n];
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        edges[i][j] = random.nextDouble() < density;
+      }
+    }
+    return edges;
+  }
+
+  private static CycleEnumerator enumerator(boolean[][] edges) {
+    int n = edges.length;
+    int[] start = new int[n + 1];
+    List<Integer> targets = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        if (edges[i][j]) {
+          targets.add(j);
+        }
+      }
+      start[i + 1] = targets.size();
+    }
+    int[] adjacency = new int[targets.size()];
+    for (int p = 0; p < adjacency.length; p++) {
+      adjacency[p] = targets.get(p);
+    }
+    return new CycleEnumerator(n, start, adjacency);
+  }
+
+  /**
+   * Конец ребра с данной позицией в тех же списках смежности, что строит {@link #enumerator}.
+   */
+  private static int target(boolean[][] edges, int position) {
+    int p = 0;
+    for (boolean[] row : edges) {
+      for (int j = 0; j < row.length; j++) {
+        if (row[j] && p++ == position) {
+          return j;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Все простые пути s → … → s через вершины больше s: каждый цикл ровно один раз.
+   */
+  private static Set<String> bruteForce(boolean[][] edges) {
+    Set<String> cycles = new TreeSet<>();
+    int[] path = new int[edges.length];
+    boolean[] onPath = new boolean[edges.length];
+    for (int s = 0; s < edges.length; s++) {
+      path[0] = s;
+      onPath[s] = true;
+      extend(edges, s, path, 1, onPath, cycles);
+      onPath[s] = false;
+    }
+    return cycles;
+  }
+
+  private static void extend(boolean[][] edges, int s, int[] path, int length, boolean[] onPath, Set<String> cycles) {
+    int v = path[length - 1];
+    for (int w = s; w < edges.length; w++) {
+      if (!edges[v][w]) {
+        continue;
+      }
+      if (w == s) {
+        if (length > 1) {
+          cycles.add(key(path, length));
+        }
+      } else if (!onPath[w]) {
+        onPath[w] = true;
+        path[length] = w;
+        extend(edges, s, path, length + 1, onPath, cycles);
+        onPath[w] = false;
+      }
+    }
+  }
+
+  private static int minimum(int[] vertices, int length) {
+    int min = Integer.MAX_VALUE;
+    for (int i = 0; i < length; i++) {
+      min = Math.min(min, vertices[i]);
+    }
+    return min;
+  }
+
+  private static String key(int[] vertices, int length) {
+    StringBuilder key = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      key.append(vertices[i]).append(' ');
+    }
+    return key.toString();
+  }
+
+  private static String describe(boolean[][] edges) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < edges.length; i++) {
+      for (int j = 0; j < edges.length; j++) {
+        if (edges[i][j]) {
+          text.append(i).append("→").append(j).append(' ');
+        }
+      }
+    }
+    return text.toString();
+  }
+}
@@ -0,0 +1,145 @@
+package com.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CycleTableTest {
+  private static final double[] WEIGHTS = {-2.0, -0.5, 0.5, 2.0};
+
+  @Test
+  void rowsDescribeCyclesOfAllComponents() {
+    Map<String, Double> weights = new HashMap<>();
+    MapSnapshot snapshot = randomMap(new Random(71), weights);
+    StructuralAnalysis analysis = analyze(snapshot);
+    CycleTable table = CycleTable.of(snapshot, analysis);
+    assertTrue(analysis.components().size() > 1, "в тестовой карте должно быть несколько компонент");
+
+    assertEquals(analysis.cycleCount(), table.size());
+    long negative = 0;
+    for (int row = 0; row < table.size(); row++) {
+      assertEquals(row + 1, table.number(row));
+      String[] labels = table.path(row).split(" → ");
+      assertEquals(table.length(row) + 1, labels.length, table.path(row));
+      assertEquals(labels[0], labels[labels.length - 1], "цикл замыкается на первую вершину");
+      double product = 1.0;
+      for (int k = 0; k + 1 < labels.length; k++) {
+        Double weight = weights.get(labels[k] + " " + labels[k + 1]);
+        assertTrue(weight != null, "в карте нет ребра " + labels[k] + " → " + labels[k + 1]);
+        product *= weight;
+      }
+      assertEquals(product, table.product(row), 1e-12 * Math.abs(product), table.path(row));
+      assertEquals(product < 0, table.isNegative(row));
+      negative += table.isNegative(row) ? 1 : 0;
+    }
+    assertEquals(analysis.negativeCycleCount(), negative);
+    assertThrows(IndexOutOfBoundsException.class, () -> table.length(table.size()));
+    assertThrows(IndexOutOfBoundsException.class, () -> table.path(-1));
+  }
+
+  @Test
+  void orderSortsStablyByEveryKey() {
+    MapSnapshot snapshot = randomMap(new Random(73), new HashMap<>());
+    CycleTable table = CycleTable.of(snapshot, analyze(snapshot));
+    int n = table.size();
+    assertTrue(n > 100, "в тестовой карте должно быть больше 100 циклов");
+
+    for (CycleTable.Key key : CycleTable.Key.values()) {
+      for (boolean descending : new boolean[]{false, true}) {
+        int[] rows = table.order(key, descending);
+        String context = key + (descending ? " по убыванию" : " по возрастанию");
+        assertEquals(n, rows.length, context);
+        boolean[] seen = new boolean[n];
+        for (int row : rows) {
+          assertFalse(seen[row], context + ": строка " + row + " повторяется");
+          seen[row] = true;
+        }
+        for (int i = 0; i + 1 < n; i++) {
+          int byKey = Double.compare(key(table, key, rows[i]), key(table, key, rows[i + 1]));
+          if (descending) {
+            byKey = -byKey;
+          }
+          assertTrue(byKey <= 0, context + ": позиция " + i);
+          if (byKey == 0) {
+            assertTrue(rows[i] < rows[i + 1], context + ": равные идут в порядке перечисления");
+          }
+        }
+      }
+    }
+    int[] reversed = table.order(CycleTable.Key.NUMBER, true);
+    for (int i = 0; i < n; i++) {
+      assertEquals(n - 1 - i, reversed[i]);
+    }
+  }
+
+  @Test
+  void emptyAnalysisGivesEmptyTable() {
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    builder.addVertex("A");
+    builder.addVertex("B");
+    builder.addEdge(0, 1, 1.0);
+    MapSnapshot snapshot = builder.build();
+    CycleTable table = CycleTable.of(snapshot, analyze(snapshot));
+    assertEquals(0, table.size());
+    assertEquals(0, table.order(CycleTable.Key.MAGNITUDE, true).length);
+  }
+
+  private static StructuralAnalysis analyze(MapSnapshot snapshot) {
+    return new StructuralAnalyzer().prepare(snapshot, 0, CycleBudget.UNLIMITED).run(ProgressMonitor.NONE);
+  }
+
+  private static double key(CycleTable table, CycleTable.Key key, int row) {
+    switch (key) {
+      case NUMBER:
+        return table.number(row);
+      case LENGTH:
+        return table.length(row);
+      case SIGN:
+        return table.isNegative(row) ? 0.0 : 1.0;
+      default:
+        return Math.abs(table.product(row));
+    }
+  }
+
+  /**
+   * Несколько сильно связных блоков, соединённых рёбрами только вперёд, и вершины вне циклов.
+   * Идентификаторы не совпадают с индексами, веса ±0.5 и ±2 дают много равных модулей.
+   */
+  private static MapSnapshot randomMap(Random random, Map<String, Double> weights) {
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    int blocks = 4;
+    int blockSize = 7;
+    int n = blocks * blockSize + 3;
+    for (int i = 0; i < n; i++) {
+      builder.addVertex("V" + i, 1000L - 7L * i);
+    }
+    for (int b = 0; b < blocks; b++) {
+      int first = b * blockSize;
+      for (int i = 0; i < blockSize; i++) {
+        for (int j = 0; j < blockSize; j++) {
+          boolean ring = j == (i + 1) % blockSize;
+          if (i != j && (ring || random.nextDouble() < 0.3)) {
+            addEdge(builder, weights, first + i, first + j, WEIGHTS[random.nextInt(WEIGHTS.length)]);
+          }
+        }
+      }
+      addEdge(builder, weights, first, blocks * blockSize + random.nextInt(3), 1.0);
+      if (b + 1 < blocks) {
+        addEdge(builder, weights, first + 1, first + blockSize, 1.0);
+      }
+    }
+    return builder.build();
+  }
+
+  private static void addEdge(MapSnapshot.Builder builder, Map<String, Double> weights, int from, int to, double weight) {
+    builder.addEdge(from, to, weight);
+    weights.put("V" + from + " V" + to, weight);
+  }
+}
@@ -0,0 +1,175 @@
+package com.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HessenbergQRTest {
+  private static final double TOLERANCE = 1e-9;
+
+  @Test
+  void findsRealAndComplexRootsOfCompanionMatrix() {
+    // (x − 1)(x − 2)(x + 3)(x² − 2x + 5): корни 1, 2, −3, 1 ± 2i
+    double[][] roots = {{1, 0}, {2, 0}, {-3, 0}, {1, 2}, {1, -2}};
+    double[][] h = companion(polynomial(roots));
+    double[] real = new double[roots.length];
+    double[] imaginary = new double[roots.length];
+    HessenbergQR.eigenvalues(copy(h), roots.length, real, imaginary);
+
+    assertArrayEquals(sorted(roots), sorted(real, imaginary), TOLERANCE);
+    for (int i = 0; i + 1 < real.length; i++) {
+      if (imaginary[i] > 0) {
+        assertEquals(real[i], real[i + 1], TOLERANCE, "сопряжённые значения должны стоять рядом");
+        assertEquals(-imaginary[i], imaginary[i + 1], TOLERANCE, "сопряжённые значения должны стоять рядом");
+      }
+    }
+  }
+
+  @Test
+  void eigenvaluesKeepTraceOfRandomHessenbergMatrices() {
+    Random random = new Random(5);
+    for (int trial = 0; trial < 50; trial++) {
+      int size = 1 + random.nextInt(30);
+      double[][] h = randomHessenberg(random, size);
+      double trace = 0.0;
+      for (int i = 0; i < size; i++) {
+        trace += h[i][i];
+      }
+      double[] real = new double[size];
+      double[] imaginary = new double[size];
+      HessenbergQR.eigenvalues(copy(h), size, real, imaginary);
+      assertEquals(trace, Arrays.stream(real).sum(), 1e-8 * size);
+      assertEquals(0.0, Arrays.stream(imaginary).sum(), 1e-8 * size);
+    }
+  }
+
+  @Test
+  void eigenvectorsSatisfyDefinition() {
+    Random random = new Random(9);
+    for (int trial = 0; trial < 30; trial++) {
+      int size = 2 + random.nextInt(20);
+      double[][] h = randomHessenberg(random, size);
+      double[] real = new double[size];
+      double[] imaginary = new double[size];
+      HessenbergQR.eigenvalues(copy(h), size, real, imaginary);
+
+      double[] yr = new double[size];
+      double[] yi = new double[size];
+      double[] work = new double[2 * size];
+      for (int k = 0; k < size; k++) {
+        HessenbergQR.eigenvector(h, size, real[k], imaginary[k], yr, yi, work);
+        double norm = 0.0;
+        for (int i = 0; i < size; i++) {
+          norm += yr[i] * yr[i] + yi[i] * yi[i];
+        }
+        assertEquals(1.0, norm, 1e-9, "вектор должен быть нормирован");
+        assertTrue(residual(h, real[k], imaginary[k], yr, yi) < 1e-7,
+            "‖Hy − λy‖ для λ = " + EigenResult.format(real[k], imaginary[k]));
+      }
+    }
+  }
+
+  /**
+   * Коэффициенты c[0..n-1] приведённого многочлена xⁿ + c[n-1]·xⁿ⁻¹ + … + c[0].
+   */
+  private static double[] polynomial(double[][] roots) {
+    double[] re = {1.0};
+    double[] im = {0.0};
+    for (double[] root : roots) {
+      double[] nextRe = new double[re.length + 1];
+      double[] nextIm = new double[re.length + 1];
+      for (int k = 0; k < re.length; k++) {
+        nextRe[k + 1] += re[k];
+        nextIm[k + 1] += im[k];
+        nextRe[k] -= root[0] * re[k] - root[1] * im[k];
+        nextIm[k] -= root[0] * im[k] + root[1] * re[k];
+      }
+      re = nextRe;
+      im = nextIm;
+    }
+    return Arrays.copyOf(re, re.length - 1);
+  }
+
+  /**
+   * Сопровождающая матрица в верхней форме Хессенберга: первая строка — −c[n-1..0],
+   * под диагональю единицы.
+   */
+  private static double[][] companion(double[] coefficients) {
+    int n = coefficients.length;
+    double[][] h = new double[n][n];
+    for (int j = 0; j < n; j++) {
+      h[0][j] = -coefficients[n - 1 - j];
+    }
+    for (int i = 1; i < n; i++) {
+      h[i][i - 1] = 1.0;
+    }
+    return h;
+  }
+
+  private static double[][] randomHessenberg(Random random, int size) {
+    double[][] h = new double[size][size];
+    for (int i = 0; i < size; i++) {
+      for (int j = Math.max(i - 1, 0); j < size; j++) {
+        h[i][j] = random.nextGaussian();
+      }
+    }
+    return h;
+  }
+
+  private static double residual(double[][] h, double lr, double li, double[] yr, double[] yi) {
+    double sum = 0.0;
+    for (int i = 0; i < h.length; i++) {
+      double re = -(lr * yr[i] - li * yi[i]);
+      double im = -(lr * yi[i] + li * yr[i]);
+      for (int j = 0; j < h.length; j++) {
+        re += h[i][j] * yr[j];
+        im += h[i][j] * yi[j];
+      }
+      sum += re * re + im * im;
+    }
+    return Math.sqrt(sum);
+  }
+
+  private static double[][] copy(double[][] h) {
+    double[][] copy = new double[h.length][];
+    for (int i = 0; i < h.length; i++) {
+      copy[i] = h[i].clone();
+    }
+    return copy;
+  }
+
+  private static double[] sorted(double[][] values) {
+    double[] real = new double[values.length];
+    double[] imaginary = new double[values.length];
+    for (int i = 0; i < values.length; i++) {
+      real[i] = values[i][0];
+      imaginary[i] = values[i][1];
+    }
+    return sorted(real, imaginary);
+  }
+
+  /**
+   * Пары (re, im), упорядоченные по re, затем по im, одним массивом.
+   */
+  private static double[] sorted(double[] real, double[] imaginary) {
+    Integer[] order = new Integer[real.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> {
+      int byReal = Double.compare(Math.round(real[a] * 1e6), Math.round(real[b] * 1e6));
+      return byReal != 0 ? byReal : Double.compare(imaginary[a], imaginary[b]);
+    });
+    double[] pairs = new double[2 * real.length];
+    for (int i = 0; i < order.length; i++) {
+      pairs[2 * i] = real[order[i]];
+      pairs[2 * i + 1] = imaginary[order[i]];
+    }
+    return pairs;
+  }
+}
@@ -0,0 +1,180 @@
+package com.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHorizonSimulationTest {
+  private static final long[] STEPS = {0, 1, 2, 7, 100, 513, 1000};
+
+  @Test
+  void stateAtMatchesStepByStepSimulation() {
+    Random random = new Random(59);
+    for (int trial = 0; trial < 15; trial++) {
+      int n = 5 + random.nextInt(80);
+      MapSnapshot snapshot = randomMap(random, n, 1 + random.nextInt(3), 1.0);
+      double[] impulse = randomImpulse(random, n);
+      double[][] history = new ImpulseSimulation(snapshot).run(impulse, 1000);
+      LongHorizonSimulation simulation = new LongHorizonSimulation(snapshot);
+
+      for (long step : STEPS) {
+        double[] expected = history[(int) step];
+        assertClose(expected, simulation.stateAt(impulse, step, ProgressMonitor.NONE),
+            1e-9 * (1.0 + maxAbs(expected)), "n = " + n + ", такт " + step);
+      }
+    }
+  }
+
+  @Test
+  void stateAtFollowsGrowingProcess() {
+    // Цикл с усилением 1.05 за оборот: значения растут, сравнение относительное
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    int n = 6;
+    for (int i = 0; i < n; i++) {
+      builder.addVertex("v" + i);
+    }
+    for (int i = 0; i < n; i++) {
+      builder.addEdge(i, (i + 1) % n, i == 0 ? 1.05 : 1.0);
+    }
+    builder.addEdge(2, 4, -0.5);
+    MapSnapshot snapshot = builder.build();
+    double[] impulse = {1, 0, 0, 0.5, 0, 0};
+    double[] expected = new ImpulseSimulation(snapshot).run(impulse, 600)[600];
+    double[] actual = new LongHorizonSimulation(snapshot).stateAt(impulse, 600, ProgressMonitor.NONE);
+    assertClose(expected, actual, 1e-10 * maxAbs(expected), "растущий процесс");
+  }
+
+  @Test
+  void stateAtOfAcyclicMapStopsChanging() {
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    for (int i = 0; i < 4; i++) {
+      builder.addVertex("v" + i);
+    }
+    builder.addEdge(0, 1, 2.0).addEdge(1, 2, -1.0).addEdge(2, 3, 0.5).addEdge(0, 3, 1.0);
+    MapSnapshot snapshot = builder.build();
+    double[] impulse = {1, 0, 0, 0};
+    double[] settled = new ImpulseSimulation(snapshot).run(impulse, 4)[4];
+    LongHorizonSimulation simulation = new LongHorizonSimulation(snapshot);
+    assertClose(settled, simulation.stateAt(impulse, 1_000_000_000_000L, ProgressMonitor.NONE), 1e-12,
+        "после пути наибольшей длины состояние не меняется");
+  }
+
+  @Test
+  void steadyStateIsLimitOfSimulation() {
+    Random random = new Random(61);
+    for (int trial = 0; trial < 10; trial++) {
+      int n = 10 + random.nextInt(150);
+      MapSnapshot snapshot = randomMap(random, n, 2, 0.6);
+      double[] impulse = randomImpulse(random, n);
+      LongHorizonSimulation simulation = new LongHorizonSimulation(snapshot);
+      LongHorizonSimulation.SteadyState steady = simulation.steadyState(impulse, ProgressMonitor.NONE);
+
+      assertTrue(steady.isConverged(), "n = " + n);
+      assertTrue(steady.spectralRadius() < 1.0);
+      assertTrue(residual(snapshot.transposed(), impulse, steady.values()) <= 1e-10 * norm(impulse));
+      double[] far = new ImpulseSimulation(snapshot).run(impulse, 300)[300];
+      assertClose(far, steady.values(), 1e-8 * (1.0 + maxAbs(far)), "n = " + n);
+      assertClose(steady.values(), simulation.stateAt(impulse, 1L << 40, ProgressMonitor.NONE),
+          1e-8 * (1.0 + maxAbs(far)), "далёкий такт должен совпасть с пределом");
+    }
+  }
+
+  @Test
+  void steadyStateOfZeroImpulseIsZero() {
+    MapSnapshot snapshot = randomMap(new Random(67), 20, 2, 0.5);
+    LongHorizonSimulation.SteadyState steady =
+        new LongHorizonSimulation(snapshot).steadyState(new double[20], ProgressMonitor.NONE);
+    assertTrue(steady.isConverged());
+    assertFalse(steady.isFixedPoint());
+    assertEquals(0.0, maxAbs(steady.values()));
+  }
+
+  @Test
+  void rejectsMissingLimitAndBadArguments() {
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    builder.addVertex("a");
+    builder.addVertex("b");
+    builder.addEdge(0, 1, 1.1).addEdge(1, 0, 1.1);
+    LongHorizonSimulation simulation = new LongHorizonSimulation(builder.build());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> simulation.steadyState(new double[]{1, 0}, ProgressMonitor.NONE), "ρ = 1.1: предела нет");
+    assertThrows(IllegalArgumentException.class,
+        () -> simulation.stateAt(new double[]{1, 0}, -1, ProgressMonitor.NONE));
+    assertThrows(IllegalArgumentException.class,
+        () -> simulation.stateAt(new double[]{1, 0, 0}, 5, ProgressMonitor.NONE));
+  }
+
+  /**
+   * Карта со знакопеременными весами; сумма модулей весов, входящих в вершину, не больше scale,
+   * так что ρ ≤ scale.
+   */
+  private static MapSnapshot randomMap(Random random, int n, int inDegree, double scale) {
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    for (int i = 0; i < n; i++) {
+      builder.addVertex("v" + i);
+    }
+    for (int i = 0; i < n; i++) {
+      boolean[] chosen = new boolean[n];
+      for (int k = 0; k < Math.min(inDegree, n - 1); k++) {
+        int j;
+        do {
+          j = random.nextInt(n);
+        } while (j == i || chosen[j]);
+        chosen[j] = true;
+        builder.addEdge(j, i, (random.nextDouble() * 2 - 1) * scale / inDegree);
+      }
+    }
+    return builder.build();
+  }
+
+  private static double[] randomImpulse(Random random, int n) {
+    double[] impulse = new double[n];
+    for (int i = 0; i < n; i++) {
+      impulse[i] = random.nextInt(4) == 0 ? random.nextGaussian() : 0.0;
+    }
+    impulse[random.nextInt(n)] = 1.0;
+    return impulse;
+  }
+
+  /**
+   * ‖p − (I − M)·x‖.
+   */
+  private static double residual(SparseMatrix operator, double[] impulse, double[] x) {
+    double[] y = new double[x.length];
+    operator.multiply(x, y);
+    double[] r = new double[x.length];
+    for (int i = 0; i < x.length; i++) {
+      r[i] = impulse[i] - x[i] + y[i];
+    }
+    return norm(r);
+  }
+
+  private static void assertClose(double[] expected, double[] actual, double tolerance, String message) {
+    assertEquals(expected.length, actual.length, message);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], actual[i], tolerance, message + ", вершина " + i);
+    }
+  }
+
+  private static double maxAbs(double[] x) {
+    double max = 0.0;
+    for (double value : x) {
+      max = Math.max(max, Math.abs(value));
+    }
+    return max;
+  }
+
+  private static double norm(double[] x) {
+    double sum = 0.0;
+    for (double value : x) {
+      sum += value * value;
+    }
+    return Math.sqrt(sum);
+  }
+}
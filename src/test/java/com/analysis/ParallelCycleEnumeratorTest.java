@@ -0,0 +1,135 @@
+package com.analysis;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelCycleEnumeratorTest {
+  // Несколько потоков даже на одноядерной машине, чтобы диапазоны действительно делились
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+  @AfterAll
+  static void shutdown() {
+    POOL.shutdown();
+  }
+
+  @Test
+  void matchesSequentialEnumerationInOrder() {
+    Random random = new Random(29);
+    for (int trial = 0; trial < 10; trial++) {
+      SparseMatrix graph = randomGraph(random, 40 + random.nextInt(20), 2);
+      List<int[]> expected = new ArrayList<>();
+      List<Double> products = new ArrayList<>();
+      new CycleEnumerator(graph).enumerate((vertices, edges, length) -> {
+        expected.add(Arrays.copyOf(vertices, length));
+        double product = 1.0;
+        for (int i = 0; i < length; i++) {
+          product *= graph.values()[edges[i]];
+        }
+        products.add(product);
+        return true;
+      });
+
+      CycleStore store = new ParallelCycleEnumerator(POOL).enumerate(graph, CycleBudget.UNLIMITED);
+      assertTrue(store.isComplete());
+      assertEquals(expected.size(), store.count());
+      long negative = 0;
+      for (int c = 0; c < store.count(); c++) {
+        int[] cycle = new int[store.length(c)];
+        for (int k = 0; k < cycle.length; k++) {
+          cycle[k] = store.vertex(c, k);
+        }
+        assertArrayEquals(expected.get(c), cycle, "цикл " + c);
+        assertEquals(products.get(c), store.product(c), 1e-12 * Math.abs(products.get(c)));
+        negative += products.get(c) < 0 ? 1 : 0;
+      }
+      assertEquals(negative, store.negativeCount());
+    }
+  }
+
+  @Test
+  void keepsComponentsSeparateAndOrdered() {
+    Random random = new Random(31);
+    List<SparseMatrix> components = new ArrayList<>();
+    for (int c = 0; c < 5; c++) {
+      components.add(randomGraph(random, 5 + random.nextInt(40), 2));
+    }
+    List<CycleStore> stores = new ParallelCycleEnumerator(POOL)
+        .enumerate(components, CycleBudget.UNLIMITED, ProgressMonitor.NONE);
+    assertEquals(components.size(), stores.size());
+    for (int c = 0; c < components.size(); c++) {
+      long expected = new CycleEnumerator(components.get(c)).enumerate((vertices, edges, length) -> true);
+      assertEquals(expected, stores.get(c).count(), "компонента " + c);
+    }
+  }
+
+  @Test
+  void stopsExactlyAtCycleLimit() {
+    SparseMatrix graph = randomGraph(new Random(37), 50, 2);
+    int total = new ParallelCycleEnumerator(POOL).enumerate(graph, CycleBudget.UNLIMITED).count();
+    assertTrue(total > 100, "в тестовом графе должно быть больше 100 циклов");
+
+    CycleStore limited = new ParallelCycleEnumerator(POOL)
+        .enumerate(graph, new CycleBudget(100, Long.MAX_VALUE));
+    assertEquals(100, limited.count());
+    assertFalse(limited.isComplete());
+
+    CycleStore exact = new ParallelCycleEnumerator(POOL)
+        .enumerate(graph, new CycleBudget(total, Long.MAX_VALUE));
+    assertEquals(total, exact.count());
+    assertTrue(exact.isComplete(), "лимит, равный числу циклов, не обрывает перечисление");
+  }
+
+  @Test
+  void cancellationThrows() {
+    SparseMatrix graph = randomGraph(new Random(41), 50, 2);
+    ProgressMonitor cancelled = new ProgressMonitor() {
+      @Override
+      public boolean isCancelled() {
+        return true;
+      }
+    };
+    assertThrows(CancellationException.class, () -> new ParallelCycleEnumerator(POOL)
+        .enumerate(Arrays.asList(graph), CycleBudget.UNLIMITED, cancelled));
+  }
+
+  /**
+   * Граф с out-degree исходящими рёбрами случайного веса у каждой вершины.
+   */
+  private static SparseMatrix randomGraph(Random random, int n, int outDegree) {
+    int[] rowStart = new int[n + 1];
+    int[] columns = new int[n * outDegree];
+    double[] values = new double[n * outDegree];
+    int size = 0;
+    for (int i = 0; i < n; i++) {
+      boolean[] chosen = new boolean[n];
+      for (int k = 0; k < outDegree; k++) {
+        int j;
+        do {
+          j = random.nextInt(n);
+        } while (j == i || chosen[j]);
+        chosen[j] = true;
+      }
+      for (int j = 0; j < n; j++) {
+        if (chosen[j]) {
+          columns[size] = j;
+          values[size++] = random.nextDouble() * 2 - 1;
+        }
+      }
+      rowStart[i + 1] = size;
+    }
+    return new SparseMatrix(n, n, rowStart, columns, values);
+  }
+}
@@ -0,0 +1,103 @@
+package com.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SparseMatrixTest {
+
+  @Test
+  void refreshedValuesReachDenseCopy() {
+    Random random = new Random(79);
+    int n = 80;
+    SparseMatrix matrix = full(n, new double[n * n]);
+    assertTrue(matrix.isDense());
+    double[] x = randomVector(random, n);
+    double[] y = new double[n];
+
+    for (int round = 0; round < 3; round++) {
+      double[] values = matrix.values();
+      for (int p = 0; p < values.length; p++) {
+        values[p] = random.nextGaussian();
+      }
+      matrix.refreshValues();
+      matrix.multiply(x, y);
+      assertArrayEquals(expected(matrix, x), y, 1e-12, "раунд " + round);
+    }
+  }
+
+  @Test
+  void refreshIsHarmlessOnSparsePath() {
+    Random random = new Random(83);
+    int n = 80;
+    int[] rowStart = new int[n + 1];
+    int[] columns = new int[n];
+    for (int i = 0; i < n; i++) {
+      rowStart[i + 1] = i + 1;
+      columns[i] = (i + 1) % n;
+    }
+    SparseMatrix matrix = new SparseMatrix(n, n, rowStart, columns, new double[n]);
+    assertFalse(matrix.isDense());
+    double[] x = randomVector(random, n);
+    double[] y = new double[n];
+    matrix.values()[3] = 2.0;
+    matrix.refreshValues();
+    matrix.multiply(x, y);
+    assertArrayEquals(expected(matrix, x), y, 1e-12);
+  }
+
+  @Test
+  void monteCarloSamplesSeeTheirOwnWeightsOnDenseMaps() {
+    // Полная карта 70×70: матрицы выборок умножаются через плотную копию
+    int n = 70;
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    for (int i = 0; i < n; i++) {
+      builder.addVertex("v" + i);
+    }
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        builder.addEdge(i, j, 1.0 / n);
+      }
+    }
+    MonteCarloStability.Result result = new MonteCarloStability(builder.build(), WeightUncertainty.relative(0.5))
+        .run(8, 7L, null, 0, Long.MAX_VALUE, ProgressMonitor.NONE);
+    assertTrue(result.radiusDeviation() > 1e-3, "у разных выборок разные веса и разные радиусы");
+  }
+
+  private static SparseMatrix full(int n, double[] values) {
+    int[] rowStart = new int[n + 1];
+    int[] columns = new int[n * n];
+    for (int i = 0; i < n; i++) {
+      rowStart[i + 1] = (i + 1) * n;
+      for (int j = 0; j < n; j++) {
+        columns[i * n + j] = j;
+      }
+    }
+    return new SparseMatrix(n, n, rowStart, columns, values);
+  }
+
+  /**
+   * A·x прямо по CSR-массивам.
+   */
+  private static double[] expected(SparseMatrix matrix, double[] x) {
+    double[] y = new double[matrix.rowCount()];
+    for (int i = 0; i < y.length; i++) {
+      for (int p = matrix.rowStart()[i]; p < matrix.rowStart()[i + 1]; p++) {
+        y[i] += matrix.values()[p] * x[matrix.columnIndices()[p]];
+      }
+    }
+    return y;
+  }
+
+  private static double[] randomVector(Random random, int n) {
+    double[] x = new double[n];
+    for (int i = 0; i < n; i++) {
+      x[i] = random.nextGaussian();
+    }
+    return x;
+  }
+}
@@ -0,0 +1,63 @@
+package com.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StructuralAnalyzerTest {
+
+  @Test
+  void selfLoopAboveOneMakesMapUnstable() {
+    // a → a с весом 1.5, a → b: единственная «компонента с ребром» — петля
+    MapSnapshot snapshot = map(1.5);
+    StructuralAnalysis analysis = analyze(new StructuralAnalyzer(), snapshot, 0);
+
+    assertEquals(1, analysis.components().size());
+    assertEquals(0, analysis.cycleCount(), "петли не перечисляются как циклы");
+    assertEquals(1.5, analysis.spectralRadius(), 1e-12);
+    assertFalse(analysis.isPerturbationStable());
+
+    MonteCarloStability.Result sampled = new MonteCarloStability(snapshot, WeightUncertainty.absolute(0.0))
+        .run(4, 1L, null, 0, Long.MAX_VALUE, ProgressMonitor.NONE);
+    assertEquals(sampled.nominalRadius(), analysis.spectralRadius(), 1e-12,
+        "анализ и метод Монте-Карло должны видеть одни и те же компоненты");
+  }
+
+  @Test
+  void selfLoopIsRecomputedAfterTouch() {
+    StructuralAnalyzer analyzer = new StructuralAnalyzer();
+    assertEquals(1.5, analyze(analyzer, map(1.5), 0).spectralRadius(), 1e-12);
+    analyzer.touch(0);
+    StructuralAnalysis after = analyze(analyzer, map(0.5), 1);
+    assertEquals(0.5, after.spectralRadius(), 1e-12);
+    assertTrue(after.isPerturbationStable());
+  }
+
+  @Test
+  void loopInsideLargerComponentKeepsItsCycles() {
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    builder.addVertex("a");
+    builder.addVertex("b");
+    builder.addEdge(0, 1, 0.5).addEdge(1, 0, 0.5).addEdge(1, 1, 0.2);
+    StructuralAnalysis analysis = analyze(new StructuralAnalyzer(), builder.build(), 0);
+
+    assertEquals(1, analysis.components().size());
+    assertEquals(1, analysis.cycleCount());
+    // λ² − 0.2λ − 0.25 = 0
+    assertEquals(0.1 + Math.sqrt(0.26), analysis.spectralRadius(), 1e-12);
+  }
+
+  private static MapSnapshot map(double loop) {
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    builder.addVertex("a");
+    builder.addVertex("b");
+    builder.addEdge(0, 0, loop).addEdge(0, 1, 0.5);
+    return builder.build();
+  }
+
+  private static StructuralAnalysis analyze(StructuralAnalyzer analyzer, MapSnapshot snapshot, long version) {
+    return analyzer.prepare(snapshot, version, CycleBudget.UNLIMITED).run(ProgressMonitor.NONE);
+  }
+}
@@ -0,0 +1,86 @@
+package com.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphHistoryTest {
+
+  @Test
+  void undoAndRedoWalkThroughRecordedVersions() {
+    PersistentDigraph<String, Integer> v0 = PersistentDigraph.empty();
+    PersistentDigraph<String, Integer> v1 = v0.withVertex(1, "a");
+    PersistentDigraph<String, Integer> v2 = v1.withVertex(2, "b");
+    GraphHistory<String, Integer> history = new GraphHistory<>(v0);
+    assertFalse(history.canUndo());
+    assertThrows(IllegalStateException.class, history::undo);
+
+    history.record(v1);
+    history.record(v1);
+    history.record(v2);
+    assertSame(v1, history.undo());
+    assertSame(v0, history.undo());
+    assertFalse(history.canUndo(), "повторная запись той же версии не попадает в историю");
+    assertSame(v1, history.redo());
+    assertSame(v2, history.redo());
+    assertFalse(history.canRedo());
+    assertThrows(IllegalStateException.class, history::redo);
+  }
+
+  @Test
+  void recordingAfterUndoDropsRedo() {
+    PersistentDigraph<String, Integer> v0 = PersistentDigraph.empty();
+    GraphHistory<String, Integer> history = new GraphHistory<>(v0);
+    history.record(v0.withVertex(1, "a"));
+    history.undo();
+    assertTrue(history.canRedo());
+
+    PersistentDigraph<String, Integer> other = v0.withVertex(2, "b");
+    history.record(other);
+    assertFalse(history.canRedo());
+    assertSame(other, history.current());
+    assertSame(v0, history.undo());
+  }
+
+  @Test
+  void keepsOnlyConfiguredDepth() {
+    PersistentDigraph<String, Integer> graph = PersistentDigraph.empty();
+    GraphHistory<String, Integer> history = new GraphHistory<>(graph, 3);
+    for (int i = 1; i <= 10; i++) {
+      history.record(history.current().withVertex(i, "v" + i));
+    }
+    int undone = 0;
+    while (history.canUndo()) {
+      history.undo();
+      undone++;
+    }
+    assertEquals(3, undone);
+    assertEquals(7, history.current().vertexCount(), "самые старые версии вытесняются");
+    assertThrows(IllegalArgumentException.class, () -> new GraphHistory<>(graph, 0));
+  }
+
+  @Test
+  void variantsSurviveFurtherEdits() {
+    PersistentDigraph<String, Integer> v0 = PersistentDigraph.empty();
+    GraphHistory<String, Integer> history = new GraphHistory<>(v0);
+    history.saveVariant("base");
+    history.record(v0.withVertex(1, "a"));
+    history.saveVariant("edited");
+    history.record(history.current().withVertex(2, "b"));
+    history.saveVariant("base");
+
+    assertEquals(Arrays.asList("base", "edited"), history.variantNames());
+    assertSame(history.current(), history.variant("base"), "вариант с тем же именем заменяется");
+    assertEquals(1, history.variant("edited").vertexCount());
+    history.removeVariant("edited");
+    assertNull(history.variant("edited"));
+    assertEquals(Arrays.asList("base"), history.variantNames());
+  }
+}
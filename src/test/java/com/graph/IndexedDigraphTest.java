@@ -0,0 +1,282 @@
+package com.graph;
+
+import com.brunomnsilva.smartgraph.graph.Edge;
+import com.brunomnsilva.smartgraph.graph.InvalidEdgeException;
+import com.brunomnsilva.smartgraph.graph.InvalidVertexException;
+import com.brunomnsilva.smartgraph.graph.Vertex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexedDigraphTest {
+
+  @Test
+  void insertAndRemoveKeepCounts() {
+    IndexedDigraph<String, String> graph = new IndexedDigraph<>();
+    Vertex<String> a = graph.insertVertex("a");
+    Vertex<String> b = graph.insertVertex("b");
+    Vertex<String> c = graph.insertVertex("c");
+    Edge<String, String> ab = graph.insertEdge(a, b, "ab");
+    graph.insertEdge(b, c, "bc");
+    graph.insertEdge("c", "a", "ca");
+    graph.insertEdge(a, a, "aa");
+    assertEquals(3, graph.numVertices());
+    assertEquals(4, graph.numEdges());
+    assertEquals(2, graph.outDegree(a));
+    assertEquals(2, graph.inDegree(a));
+
+    assertEquals("ab", graph.removeEdge(ab));
+    assertEquals(3, graph.numEdges());
+    assertFalse(graph.containsEdge(ab));
+    assertFalse(graph.areAdjacent(a, b));
+    assertNull(graph.edgeBetween(a, b));
+    assertThrows(InvalidEdgeException.class, () -> graph.removeEdge(ab), "ребро уже удалено");
+
+    assertEquals("b", graph.removeVertex(b));
+    assertEquals(2, graph.numVertices());
+    assertEquals(2, graph.numEdges(), "вместе с b уходит ребро b → c");
+    assertFalse(graph.containsVertex(b));
+    assertFalse(graph.vertices().contains(b));
+    assertNull(graph.vertexOf("b"));
+    assertThrows(InvalidVertexException.class, () -> graph.removeVertex(b));
+    assertEquals(List.of("aa", "ca"), sorted(elements(graph.edges())));
+  }
+
+  @Test
+  void duplicatesAreRefused() {
+    IndexedDigraph<String, String> graph = new IndexedDigraph<>();
+    Vertex<String> a = graph.insertVertex("a");
+    Vertex<String> b = graph.insertVertex("b");
+    graph.insertEdge(a, b, "ab");
+    long version = graph.version();
+
+    InvalidEdgeException edge = assertThrows(InvalidEdgeException.class, () -> graph.insertEdge(a, b, "другое"));
+    assertTrue(edge.getMessage().contains("уже существует"), edge.getMessage());
+    assertThrows(InvalidEdgeException.class, () -> graph.insertEdge(b, a, "ab"), "элемент ребра занят");
+    assertThrows(InvalidVertexException.class, () -> graph.insertVertex("a"));
+    assertThrows(InvalidVertexException.class, () -> graph.replace(b, "a"));
+    assertEquals(1, graph.numEdges());
+    assertEquals(2, graph.numVertices());
+    assertEquals(version, graph.version(), "отклонённая правка не меняет версию");
+
+    // Обратное направление — другая связь
+    graph.insertEdge(b, a, "ba");
+    assertEquals(2, graph.numEdges());
+  }
+
+  @Test
+  void adjacencyFollowsRemovals() {
+    IndexedDigraph<String, String> graph = new IndexedDigraph<>();
+    Vertex<String> hub = graph.insertVertex("hub");
+    List<Vertex<String>> leaves = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      Vertex<String> leaf = graph.insertVertex("v" + i);
+      leaves.add(leaf);
+      graph.insertEdge(leaf, hub, "in" + i);
+      graph.insertEdge(hub, leaf, "out" + i);
+    }
+    graph.removeVertex(leaves.get(1));
+    graph.removeVertex(leaves.get(4));
+    graph.removeEdge(graph.edgeBetween(hub, leaves.get(2)));
+
+    assertEquals(List.of("in0", "in2", "in3", "in5"), elements(graph.incidentEdges(hub)));
+    assertEquals(List.of("out0", "out3", "out5"), elements(graph.outboundEdges(hub)));
+    for (Edge<String, String> e : graph.incidentEdges(hub)) {
+      Vertex<String> leaf = graph.opposite(hub, e);
+      assertEquals("in" + leaf.element().substring(1), e.element());
+      assertSame(hub, graph.opposite(leaf, e));
+      assertSame(leaf, e.vertices()[0]);
+      assertSame(hub, e.vertices()[1]);
+    }
+    assertTrue(graph.incidentEdges(leaves.get(2)).isEmpty());
+    assertEquals(1, graph.outDegree(leaves.get(2)));
+
+    Edge<String, String> in0 = graph.edgeBetween(leaves.get(0), hub);
+    assertThrows(InvalidVertexException.class, () -> graph.opposite(leaves.get(3), in0), "вершина не инцидентна");
+    assertThrows(InvalidVertexException.class, () -> graph.incidentEdges(leaves.get(1)), "вершина удалена");
+    assertThrows(UnsupportedOperationException.class, () -> graph.incidentEdges(hub).clear());
+  }
+
+  @Test
+  void indicesStayDenseAfterCompaction() {
+    IndexedDigraph<String, String> graph = new IndexedDigraph<>();
+    List<Vertex<String>> vertices = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      vertices.add(graph.insertVertex("v" + i));
+    }
+    for (int i = 0; i < 10; i++) {
+      graph.insertEdge(vertices.get(i), vertices.get((i + 1) % 10), "e" + i);
+    }
+    // Серия удалений до первого обращения к нумерации
+    for (int i : new int[]{0, 3, 4, 9}) {
+      graph.removeVertex(vertices.get(i));
+    }
+    List<String> expected = List.of("v1", "v2", "v5", "v6", "v7", "v8");
+    assertEquals(expected.size(), graph.numVertices());
+    assertEquals(expected, labels(graph.vertices()));
+    for (int index = 0; index < expected.size(); index++) {
+      Vertex<String> vertex = graph.vertexAt(index);
+      assertEquals(expected.get(index), vertex.element());
+      assertEquals(index, graph.indexOf(vertex));
+    }
+    assertThrows(IndexOutOfBoundsException.class, () -> graph.vertexAt(expected.size()));
+
+    // Новая вершина получает следующий индекс, смежность выживших не тронута
+    Vertex<String> added = graph.insertVertex("new");
+    assertEquals(expected.size(), graph.indexOf(added));
+    assertEquals(List.of("e5", "e6", "e7"), elements(graph.edges()).subList(1, 4));
+    assertEquals("e1", graph.edgeBetween(vertices.get(1), vertices.get(2)).element());
+    assertEquals(vertices.get(6), graph.opposite(vertices.get(5), graph.edgeBetween(vertices.get(5), vertices.get(6))));
+  }
+
+  @Test
+  void idsAreStableAndNeverReused() {
+    IndexedDigraph<String, String> graph = new IndexedDigraph<>();
+    Vertex<String> a = graph.insertVertex("a");
+    Vertex<String> b = graph.insertVertex("b");
+    Vertex<String> c = graph.insertVertex("c");
+    long idA = graph.idOf(a);
+    long idB = graph.idOf(b);
+    long idC = graph.idOf(c);
+
+    graph.removeVertex(a);
+    assertEquals(idC, graph.idOf(c), "идентификатор не зависит от индекса");
+    assertEquals(1, graph.indexOf(c));
+    assertSame(c, graph.vertexById(idC));
+    assertNull(graph.vertexById(idA));
+
+    Vertex<String> d = graph.insertVertex("d");
+    Set<Long> ids = new HashSet<>(List.of(idA, idB, idC));
+    assertFalse(ids.contains(graph.idOf(d)), "идентификатор удалённой вершины не переиспользуется");
+
+    // Восстановление удалённой вершины под прежним идентификатором
+    Vertex<String> restored = graph.insertVertex("a", idA);
+    assertEquals(idA, graph.idOf(restored));
+    assertSame(restored, graph.vertexById(idA));
+    assertThrows(InvalidVertexException.class, () -> graph.insertVertex("x", idB), "идентификатор занят");
+    assertThrows(InvalidVertexException.class, () -> graph.insertVertex("y", -1));
+    assertFalse(ids.contains(graph.idOf(graph.insertVertex("e"))));
+  }
+
+  @Test
+  void everyEditBumpsVersion() {
+    IndexedDigraph<String, String> graph = new IndexedDigraph<>();
+    long version = graph.version();
+    Vertex<String> a = graph.insertVertex("a");
+    version = assertBumped(graph, version);
+    Vertex<String> b = graph.insertVertex("b");
+    version = assertBumped(graph, version);
+    Edge<String, String> ab = graph.insertEdge(a, b, "ab");
+    version = assertBumped(graph, version);
+    graph.replace(ab, "ab'");
+    version = assertBumped(graph, version);
+    graph.replace(a, "a'");
+    version = assertBumped(graph, version);
+    graph.removeEdge(ab);
+    version = assertBumped(graph, version);
+    graph.removeVertex(b);
+    version = assertBumped(graph, version);
+
+    // Замена элемента на тот же самый правкой не считается
+    graph.replace(a, "a'");
+    assertEquals(version, graph.version());
+    graph.vertexAt(0);
+    graph.edges().size();
+    assertEquals(version, graph.version(), "чтение не меняет версию");
+  }
+
+  @Test
+  void listenersReceiveTouchedVertices() {
+    IndexedDigraph<String, String> graph = new IndexedDigraph<>();
+    Vertex<String> a = graph.insertVertex("a");
+    Vertex<String> b = graph.insertVertex("b");
+    Vertex<String> c = graph.insertVertex("c");
+    long idA = graph.idOf(a);
+    long idB = graph.idOf(b);
+    long idC = graph.idOf(c);
+    List<Long> touched = new ArrayList<>();
+    IndexedDigraph.ChangeListener listener = touched::add;
+    graph.addChangeListener(listener);
+
+    Edge<String, String> ab = graph.insertEdge(a, b, "ab");
+    assertEquals(List.of(idA, idB), touched);
+    touched.clear();
+    graph.replace(ab, "ab'");
+    assertEquals(List.of(idA, idB), touched, "новый вес меняет обе вершины");
+    touched.clear();
+    graph.replace(a, "a'");
+    assertTrue(touched.isEmpty(), "переименование не меняет смежность");
+    graph.removeEdge(ab);
+    assertEquals(List.of(idA, idB), touched);
+    touched.clear();
+
+    graph.insertEdge(c, b, "cb");
+    touched.clear();
+    graph.removeVertex(b);
+    assertEquals(Set.of(idB, idC), new HashSet<>(touched), "удаление затрагивает вершину и её соседей");
+    assertEquals(idB, touched.get(touched.size() - 1));
+    touched.clear();
+
+    graph.removeChangeListener(listener);
+    graph.insertEdge(a, c, "ac");
+    assertTrue(touched.isEmpty());
+  }
+
+  @Test
+  void foreignVerticesAndEdgesAreRejected() {
+    IndexedDigraph<String, String> graph = new IndexedDigraph<>();
+    IndexedDigraph<String, String> other = new IndexedDigraph<>();
+    Vertex<String> a = graph.insertVertex("a");
+    Vertex<String> foreignA = other.insertVertex("a");
+    Vertex<String> foreignB = other.insertVertex("b");
+    Edge<String, String> foreignEdge = other.insertEdge(foreignA, foreignB, "ab");
+
+    assertFalse(graph.containsVertex(foreignA));
+    assertFalse(graph.containsEdge(foreignEdge));
+    assertThrows(InvalidVertexException.class, () -> graph.insertEdge(a, foreignB, "x"));
+    assertThrows(InvalidVertexException.class, () -> graph.indexOf(foreignA));
+    assertThrows(InvalidVertexException.class, () -> graph.insertEdge(a, null, "x"));
+    assertThrows(InvalidVertexException.class, () -> graph.insertEdge("a", "нет", "x"));
+    assertThrows(InvalidEdgeException.class, () -> graph.removeEdge(foreignEdge));
+    assertEquals(0, graph.numEdges());
+    assertEquals(1, other.numEdges());
+  }
+
+  private static long assertBumped(IndexedDigraph<?, ?> graph, long before) {
+    assertTrue(graph.version() > before, "версия " + graph.version() + " после " + before);
+    return graph.version();
+  }
+
+  private static <T> List<T> elements(Collection<? extends Edge<T, ?>> edges) {
+    List<T> result = new ArrayList<>();
+    for (Edge<T, ?> edge : edges) {
+      result.add(edge.element());
+    }
+    return result;
+  }
+
+  private static List<String> labels(Collection<Vertex<String>> vertices) {
+    List<String> result = new ArrayList<>();
+    for (Vertex<String> vertex : vertices) {
+      result.add(vertex.element());
+    }
+    return result;
+  }
+
+  private static List<String> sorted(List<String> list) {
+    List<String> copy = new ArrayList<>(list);
+    copy.sort(null);
+    return copy;
+  }
+}
@@ -0,0 +1,260 @@
+package com.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PersistentDigraphTest {
+
+  @Test
+  void randomEditsMatchReferenceModel() {
+    Random random = new Random(43);
+    PersistentDigraph<String, Integer> graph = PersistentDigraph.empty();
+    Model model = new Model();
+    List<PersistentDigraph<String, Integer>> versions = new ArrayList<>();
+    List<String> dumps = new ArrayList<>();
+
+    for (int step = 0; step < 5000; step++) {
+      graph = randomEdit(random, graph, model);
+      assertEquals(model.dump(), dump(graph), "шаг " + step);
+      assertEquals(model.edgeCount(), graph.edgeCount());
+      assertEquals(model.vertices.size(), graph.vertexCount());
+      if (step % 250 == 0) {
+        versions.add(graph);
+        dumps.add(model.dump());
+      }
+    }
+    for (int v = 0; v < versions.size(); v++) {
+      assertEquals(dumps.get(v), dump(versions.get(v)), "старая версия " + v + " не должна меняться");
+    }
+  }
+
+  @Test
+  void removingVertexRemovesIncidentEdges() {
+    PersistentDigraph<String, Integer> graph = PersistentDigraph.<String, Integer>empty()
+        .withVertex(1, "a").withVertex(2, "b").withVertex(3, "c")
+        .withEdge(1, 2, 12).withEdge(2, 3, 23).withEdge(3, 2, 32).withEdge(3, 1, 31);
+    PersistentDigraph<String, Integer> without = graph.withoutVertex(2);
+
+    assertEquals(2, without.vertexCount());
+    assertEquals(1, without.edgeCount());
+    assertEquals(Integer.valueOf(31), without.edge(3, 1));
+    assertNull(without.edge(1, 2));
+    assertFalse(without.containsVertex(2));
+    assertEquals(4, graph.edgeCount(), "исходная версия не меняется");
+    assertSame(without, without.withoutVertex(2));
+    assertSame(without, without.withoutEdge(1, 3));
+    assertThrows(IllegalArgumentException.class, () -> without.withEdge(1, 2, 0));
+  }
+
+  @Test
+  void replayingDiffReproducesTarget() {
+    Random random = new Random(47);
+    PersistentDigraph<String, Integer> graph = PersistentDigraph.empty();
+    Model model = new Model();
+    List<PersistentDigraph<String, Integer>> versions = new ArrayList<>();
+    for (int step = 0; step < 2000; step++) {
+      graph = randomEdit(random, graph, model);
+      versions.add(graph);
+    }
+
+    for (int trial = 0; trial < 300; trial++) {
+      int a = random.nextInt(versions.size());
+      int b = trial % 2 == 0 ? Math.min(a + 1 + random.nextInt(5), versions.size() - 1) : random.nextInt(versions.size());
+      PersistentDigraph<String, Integer> from = versions.get(a);
+      PersistentDigraph<String, Integer> to = versions.get(b);
+      assertEquals(dump(to), dump(replay(from, to)), "версии " + a + " → " + b);
+    }
+  }
+
+  @Test
+  void ofCopiesIndexedDigraph() {
+    Random random = new Random(53);
+    IndexedDigraph<String, String> model = new IndexedDigraph<>();
+    for (int i = 0; i < 30; i++) {
+      model.insertVertex("v" + i, 3L * i + random.nextInt(3));
+    }
+    model.removeVertex(model.vertexOf("v7"));
+    for (int k = 0; k < 80; k++) {
+      String from = "v" + random.nextInt(30);
+      String to = "v" + random.nextInt(30);
+      if (model.vertexOf(from) != null && model.vertexOf(to) != null
+          && model.edgeBetween(model.vertexOf(from), model.vertexOf(to)) == null) {
+        model.insertEdge(from, to, from + "→" + to);
+      }
+    }
+
+    PersistentDigraph<String, String> graph = PersistentDigraph.of(model);
+    assertEquals(model.numVertices(), graph.vertexCount());
+    assertEquals(model.numEdges(), graph.edgeCount());
+    model.vertices().forEach(vertex -> assertEquals(vertex.element(), graph.vertex(model.idOf(vertex))));
+    model.edges().forEach(edge -> assertEquals(edge.element(),
+        graph.edge(model.idOf(edge.vertices()[0]), model.idOf(edge.vertices()[1]))));
+  }
+
+  /**
+   * Случайная правка одновременно версии и эталона; возвращает новую версию.
+   */
+  private static PersistentDigraph<String, Integer> randomEdit(
+      Random random, PersistentDigraph<String, Integer> graph, Model model) {
+    long a = random.nextInt(40);
+    long b = random.nextInt(40);
+    switch (random.nextInt(5)) {
+      case 0:
+        String element = "v" + random.nextInt(3);
+        model.vertices.put(a, element);
+        return graph.withVertex(a, element);
+      case 1:
+        model.removeVertex(a);
+        return graph.withoutVertex(a);
+      case 2:
+        model.edges.remove(a + " " + b);
+        return graph.withoutEdge(a, b);
+      default:
+        if (!model.vertices.containsKey(a) || !model.vertices.containsKey(b)) {
+          return graph;
+        }
+        int weight = random.nextInt(3);
+        model.edges.put(a + " " + b, weight);
+        return graph.withEdge(a, b, weight);
+    }
+  }
+
+  /**
+   * Применяет к from различия с to в том же порядке, что и редактор: сначала удаления рёбер
+   * и вершин, затем вершины и рёбра новой версии.
+   */
+  private static PersistentDigraph<String, Integer> replay(
+      PersistentDigraph<String, Integer> from, PersistentDigraph<String, Integer> to) {
+    List<long[]> removedEdges = new ArrayList<>();
+    List<Long> removedVertices = new ArrayList<>();
+    Map<Long, String> vertices = new TreeMap<>();
+    Map<long[], Integer> edges = new LinkedHashMap<>();
+    from.diff(to, new PersistentDigraph.Changes<String, Integer>() {
+      @Override
+      public void vertexAdded(long id, String element) {
+        vertices.put(id, element);
+      }
+
+      @Override
+      public void vertexRemoved(long id, String element) {
+        removedVertices.add(id);
+      }
+
+      @Override
+      public void vertexChanged(long id, String oldElement, String newElement) {
+        assertEquals(from.vertex(id), oldElement);
+        vertices.put(id, newElement);
+      }
+
+      @Override
+      public void edgeAdded(long source, long target, Integer element) {
+        edges.put(new long[]{source, target}, element);
+      }
+
+      @Override
+      public void edgeRemoved(long source, long target, Integer element) {
+        assertEquals(from.edge(source, target), element);
+        removedEdges.add(new long[]{source, target});
+      }
+
+      @Override
+      public void edgeChanged(long source, long target, Integer oldElement, Integer newElement) {
+        assertEquals(from.edge(source, target), oldElement);
+        edges.put(new long[]{source, target}, newElement);
+      }
+    });
+
+    PersistentDigraph<String, Integer> graph = from;
+    for (long[] edge : removedEdges) {
+      graph = graph.withoutEdge(edge[0], edge[1]);
+    }
+    for (long id : removedVertices) {
+      assertEquals(0, outDegree(graph, id) + inDegree(graph, id), "рёбра удалённой вершины сообщаются отдельно");
+      graph = graph.withoutVertex(id);
+    }
+    for (Map.Entry<Long, String> vertex : vertices.entrySet()) {
+      graph = graph.withVertex(vertex.getKey(), vertex.getValue());
+    }
+    for (Map.Entry<long[], Integer> edge : edges.entrySet()) {
+      graph = graph.withEdge(edge.getKey()[0], edge.getKey()[1], edge.getValue());
+    }
+    return graph;
+  }
+
+  private static int outDegree(PersistentDigraph<String, Integer> graph, long id) {
+    int[] degree = {0};
+    graph.forEachOutbound(id, (from, to, element) -> degree[0]++);
+    return degree[0];
+  }
+
+  private static int inDegree(PersistentDigraph<String, Integer> graph, long id) {
+    int[] degree = {0};
+    graph.forEachInbound(id, (from, to, element) -> degree[0]++);
+    return degree[0];
+  }
+
+  /**
+   * Текстовый снимок версии; заодно сверяет исходящие и входящие списки со списком рёбер.
+   */
+  private static String dump(PersistentDigraph<String, Integer> graph) {
+    Map<Long, String> vertices = new TreeMap<>();
+    graph.forEachVertex(vertices::put);
+    Map<String, Integer> edges = new TreeMap<>();
+    graph.forEachEdge((from, to, element) -> {
+      assertEquals(element, graph.edge(from, to));
+      edges.put(from + " " + to, element);
+    });
+    Map<String, Integer> outbound = new TreeMap<>();
+    Map<String, Integer> inbound = new TreeMap<>();
+    for (long id : vertices.keySet()) {
+      graph.forEachOutbound(id, (from, to, element) -> {
+        assertEquals(id, from);
+        outbound.put(from + " " + to, element);
+      });
+      graph.forEachInbound(id, (from, to, element) -> {
+        assertEquals(id, to);
+        inbound.put(from + " " + to, element);
+      });
+    }
+    assertEquals(edges, outbound, "исходящие списки расходятся с рёбрами");
+    assertEquals(edges, inbound, "входящие списки расходятся с рёбрами");
+    assertEquals(edges.size(), graph.edgeCount());
+    return vertices + " " + edges;
+  }
+
+  /**
+   * Эталон на обычных коллекциях: рёбра по ключу «from to».
+   */
+  private static final class Model {
+    final Map<Long, String> vertices = new TreeMap<>();
+    final Map<String, Integer> edges = new TreeMap<>();
+
+    void removeVertex(long id) {
+      vertices.remove(id);
+      edges.keySet().removeIf(key -> {
+        String[] ends = key.split(" ");
+        return Long.parseLong(ends[0]) == id || Long.parseLong(ends[1]) == id;
+      });
+    }
+
+    int edgeCount() {
+      return edges.size();
+    }
+
+    String dump() {
+      return vertices + " " + edges;
+    }
+  }
+}
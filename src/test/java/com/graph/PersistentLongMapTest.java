@@ -0,0 +1,162 @@
+package com.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistentLongMapTest {
+
+  @Test
+  void putAndRemoveMatchTreeMapAndKeepOldVersions() {
+    Random random = new Random(13);
+    PersistentLongMap<Integer> map = PersistentLongMap.empty();
+    TreeMap<Long, Integer> expected = new TreeMap<>();
+    List<PersistentLongMap<Integer>> versions = new ArrayList<>();
+    List<TreeMap<Long, Integer>> contents = new ArrayList<>();
+
+    for (int step = 0; step < 20_000; step++) {
+      long key = randomKey(random);
+      if (random.nextInt(3) == 0) {
+        map = map.remove(key);
+        expected.remove(key);
+      } else {
+        int value = random.nextInt(1000);
+        map = map.put(key, value);
+        expected.put(key, value);
+      }
+      assertEquals(expected.size(), map.size());
+      assertEquals(expected.get(key), map.get(key));
+      if (step % 500 == 0) {
+        versions.add(map);
+        contents.add(new TreeMap<>(expected));
+      }
+    }
+
+    assertContents(expected, map);
+    for (int v = 0; v < versions.size(); v++) {
+      assertContents(contents.get(v), versions.get(v));
+    }
+  }
+
+  @Test
+  void diffReportsExactlyTheDifferencesInKeyOrder() {
+    Random random = new Random(19);
+    List<PersistentLongMap<Integer>> versions = new ArrayList<>();
+    List<TreeMap<Long, Integer>> contents = new ArrayList<>();
+    PersistentLongMap<Integer> map = PersistentLongMap.empty();
+    TreeMap<Long, Integer> expected = new TreeMap<>();
+    for (int step = 0; step < 3000; step++) {
+      long key = randomKey(random);
+      if (random.nextInt(3) == 0) {
+        map = map.remove(key);
+        expected.remove(key);
+      } else {
+        int value = random.nextInt(5);
+        map = map.put(key, value);
+        expected.put(key, value);
+      }
+      versions.add(map);
+      contents.add(new TreeMap<>(expected));
+    }
+
+    for (int trial = 0; trial < 300; trial++) {
+      int a = random.nextInt(versions.size());
+      int b = trial % 3 == 0 ? Math.min(a + 1, versions.size() - 1) : random.nextInt(versions.size());
+      List<String> reported = new ArrayList<>();
+      versions.get(a).diff(versions.get(b), new PersistentLongMap.Changes<Integer>() {
+        @Override
+        public void added(long key, Integer value) {
+          reported.add("+" + key + "=" + value);
+        }
+
+        @Override
+        public void removed(long key, Integer value) {
+          reported.add("-" + key + "=" + value);
+        }
+
+        @Override
+        public void changed(long key, Integer oldValue, Integer newValue) {
+          reported.add("~" + key + "=" + oldValue + ">" + newValue);
+        }
+      });
+      assertEquals(difference(contents.get(a), contents.get(b)), reported, "версии " + a + " → " + b);
+    }
+  }
+
+  @Test
+  void edgeCases() {
+    PersistentLongMap<String> empty = PersistentLongMap.empty();
+    assertSame(empty, empty.remove(5));
+    assertNull(empty.get(-1));
+    assertThrows(IllegalArgumentException.class, () -> empty.put(-1, "x"));
+
+    PersistentLongMap<String> one = empty.put(Long.MAX_VALUE, "max");
+    assertEquals("max", one.get(Long.MAX_VALUE));
+    assertNull(one.get(0));
+    assertSame(one, one.remove(7));
+    assertTrue(one.remove(Long.MAX_VALUE).isEmpty());
+
+    PersistentLongMap<String> grown = empty.put(3, "a").put(1L << 40, "b");
+    assertEquals("a", grown.get(3));
+    assertEquals("b", grown.get(1L << 40));
+    assertEquals("a", grown.remove(1L << 40).get(3));
+  }
+
+  /**
+   * Ключи разного порядка, чтобы дерево росло и в глубину, и вверх.
+   */
+  private static long randomKey(Random random) {
+    switch (random.nextInt(4)) {
+      case 0:
+        return random.nextInt(64);
+      case 1:
+        return random.nextInt(1 << 20);
+      case 2:
+        return Long.MAX_VALUE - random.nextInt(64);
+      default:
+        return random.nextLong() >>> 1;
+    }
+  }
+
+  private static void assertContents(TreeMap<Long, Integer> expected, PersistentLongMap<Integer> map) {
+    assertEquals(expected.size(), map.size());
+    List<Long> keys = new ArrayList<>();
+    map.forEach((key, value) -> {
+      keys.add(key);
+      assertEquals(expected.get(key), value);
+    });
+    assertEquals(new ArrayList<>(expected.keySet()), keys, "обход должен идти по возрастанию ключей");
+    for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), map.get(entry.getKey()));
+    }
+  }
+
+  private static List<String> difference(TreeMap<Long, Integer> from, TreeMap<Long, Integer> to) {
+    TreeSet<Long> keys = new TreeSet<>(from.keySet());
+    keys.addAll(to.keySet());
+    List<String> changes = new ArrayList<>();
+    for (long key : keys) {
+      Integer before = from.get(key);
+      Integer after = to.get(key);
+      if (before == null) {
+        changes.add("+" + key + "=" + after);
+      } else if (after == null) {
+        changes.add("-" + key + "=" + before);
+      } else if (!before.equals(after)) {
+        changes.add("~" + key + "=" + before + ">" + after);
+      }
+    }
+    return changes;
+  }
+}
@@ -0,0 +1,218 @@
+package com.io;
+
+import com.analysis.MapSnapshot;
+import com.analysis.SparseMatrix;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MapFormatsTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  void everyFormatRoundTrips() throws IOException {
+    MapSnapshot map = awkwardMap();
+    for (String extension : new String[]{"csv", "json", "cmap"}) {
+      Path file = directory.resolve("map." + extension);
+      MapFiles.write(map, file);
+      assertSameMap(map, MapFiles.read(file), extension);
+    }
+  }
+
+  @Test
+  void csvReportsMalformedLines() {
+    assertError("Строка 2: некорректный вес", () -> csv("a,b,0.5\nb,a,0.x"));
+    assertError("Строка 1: незакрытая кавычка", () -> csv("\"a,b,0.5"));
+    assertError("Строка 1: ожидалась вершина или ребро", () -> csv("a,b"));
+    assertError("Строка 1: вес должен быть конечным", () -> csv("a,b,NaN"));
+    assertError("Строка 3: связь «a» → «b» задана дважды", () -> csv("a,b,0.5\nb,a,1\na,b,0.7"));
+  }
+
+  @Test
+  void textFormatsTreatRepeatedLabelAsSameVertex() throws IOException {
+    MapSnapshot fromCsv = csv("a\nb\na\na,b,1\nb,a,-1");
+    assertEquals(2, fromCsv.vertexCount());
+    assertEquals(2, fromCsv.edgeCount());
+
+    MapSnapshot fromJson = json("{\"vertices\": [\"a\", \"a\", 7], \"edges\": ["
+        + "{\"vertex1\": \"a\", \"vertex2\": 7, \"weight\": -0.5, \"note\": {\"x\": [1, 2]}}]}");
+    assertEquals(2, fromJson.vertexCount());
+    assertEquals("7", fromJson.label(1));
+    assertEquals(-0.5, fromJson.adjacency().values()[0]);
+  }
+
+  @Test
+  void jsonReportsMalformedDocuments() {
+    assertError("некорректное число «1.2.3»",
+        () -> json("{\"edges\": [{\"from\": \"a\", \"to\": \"b\", \"weight\": 1.2.3}]}"));
+    assertError("незакрытая строка", () -> json("{\"vertices\": [\"a"));
+    assertError("у ребра должны быть поля from, to и weight",
+        () -> json("{\"edges\": [{\"from\": \"a\", \"to\": \"b\"}]}"));
+    assertError("вес ребра должен быть конечным",
+        () -> json("{\"edges\": [{\"from\": \"a\", \"to\": \"b\", \"weight\": NaN}]}"));
+    assertError("JSON, строка 3: связь «a» → «b» задана дважды",
+        () -> json("{\"edges\": [\n{\"from\": \"a\", \"to\": \"b\", \"weight\": 1},\n"
+            + "{\"from\": \"a\", \"to\": \"b\", \"weight\": 2}]}"));
+    assertError("лишние данные", () -> json("{} {}"));
+    assertError("ожидалось ','", () -> json("{\"vertices\": [\"a\" \"b\"]}"));
+  }
+
+  @Test
+  void binaryRejectsDamagedFiles() throws IOException {
+    Path file = directory.resolve("map.cmap");
+    MapFiles.write(awkwardMap(), file);
+    byte[] bytes = Files.readAllBytes(file);
+
+    Path truncated = directory.resolve("truncated.cmap");
+    for (int length : new int[]{10, 20, bytes.length - 1}) {
+      Files.write(truncated, Arrays.copyOf(bytes, length));
+      assertThrows(IllegalArgumentException.class, () -> MapFiles.read(truncated), "длина " + length);
+    }
+
+    ByteBuffer magic = ByteBuffer.wrap(bytes.clone());
+    magic.putInt(0, 0x12345678);
+    assertError("не в формате .cmap", () -> BinaryMapFormat.read(magic));
+
+    // Смещения подписей идут сразу за массивами рёбер
+    MapSnapshot map = awkwardMap();
+    int offsets = 16 + map.edgeCount() * 16;
+    ByteBuffer reversed = ByteBuffer.wrap(bytes.clone());
+    reversed.putInt(offsets + 4, reversed.getInt(offsets + 8) + 1);
+    assertError("таблица подписей", () -> BinaryMapFormat.read(reversed));
+    ByteBuffer negative = ByteBuffer.wrap(bytes.clone());
+    negative.putInt(offsets, -1);
+    assertError("таблица подписей", () -> BinaryMapFormat.read(negative));
+  }
+
+  @Test
+  void binaryRejectsDuplicateLabelsEdgesAndBadWeights() {
+    assertError("Вершина a встречается дважды",
+        () -> BinaryMapFormat.read(binary(new String[]{"a", "a"}, new int[0], new int[0], new double[0])));
+    assertError("Ребро №2: связь «a» → «b» задана дважды",
+        () -> BinaryMapFormat.read(binary(new String[]{"a", "b"}, new int[]{0, 0}, new int[]{1, 1},
+            new double[]{0.5, 0.7})));
+    assertError("Ребро №1: ребро 0 → 5 ссылается на несуществующую вершину",
+        () -> BinaryMapFormat.read(binary(new String[]{"a", "b"}, new int[]{0}, new int[]{5}, new double[]{1})));
+    assertError("Ребро №1: вес должен быть конечным",
+        () -> BinaryMapFormat.read(binary(new String[]{"a", "b"}, new int[]{0}, new int[]{1},
+            new double[]{Double.POSITIVE_INFINITY})));
+  }
+
+  @Test
+  void writersRefuseNonFiniteWeights() {
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    builder.addVertex("a");
+    builder.addVertex("b");
+    builder.addEdge(0, 1, Double.NaN);
+    MapSnapshot map = builder.build();
+    for (String extension : new String[]{"csv", "json", "cmap"}) {
+      assertError("Вес связи «a» → «b» не является конечным числом",
+          () -> MapFiles.write(map, directory.resolve("nan." + extension)));
+    }
+    assertError("Вес связи", () -> JsonMapFormat.write(map, new StringWriter()));
+  }
+
+  /**
+   * Подписи, которые нужно экранировать в каждом текстовом формате, изолированная вершина
+   * и веса, теряющие точность при небрежной записи.
+   */
+  private static MapSnapshot awkwardMap() {
+    MapSnapshot.Builder builder = MapSnapshot.builder();
+    String[] labels = {"простая", "с, запятой", "\"кавычки\"", " пробелы ", "#решётка", "from,to,weight",
+        "", "\\ и \t", "42", "одинокая"};
+    for (String label : labels) {
+      builder.addVertex(label);
+    }
+    double[] weights = {0.1, -1.0 / 3.0, 1e-300, -0.0, 0.7};
+    int w = 0;
+    for (int i = 0; i + 1 < labels.length; i++) {
+      builder.addEdge(i, (i + 1) % (labels.length - 1), weights[w++ % weights.length]);
+      builder.addEdge(i, (i + 3) % (labels.length - 1), weights[w++ % weights.length]);
+    }
+    builder.addEdge(2, 2, -0.25);
+    return builder.build();
+  }
+
+  private static void assertSameMap(MapSnapshot expected, MapSnapshot actual, String format) {
+    assertEquals(expected.vertexCount(), actual.vertexCount(), format);
+    for (int v = 0; v < expected.vertexCount(); v++) {
+      assertEquals(expected.label(v), actual.label(v), format);
+    }
+    SparseMatrix a = expected.adjacency();
+    SparseMatrix b = actual.adjacency();
+    assertArrayEquals(a.rowStart(), b.rowStart(), format);
+    assertArrayEquals(Arrays.copyOf(a.columnIndices(), a.nonZeroCount()),
+        Arrays.copyOf(b.columnIndices(), b.nonZeroCount()), format);
+    for (int p = 0; p < a.nonZeroCount(); p++) {
+      // Сравнение битов: и −0.0, и последний знак мантиссы должны сохраниться
+      assertEquals(Double.doubleToRawLongBits(a.values()[p]), Double.doubleToRawLongBits(b.values()[p]),
+          format + ": вес " + a.values()[p] + " → " + b.values()[p]);
+    }
+  }
+
+  /**
+   * Файл .cmap по массивам, в том числе заведомо некорректным.
+   */
+  private static ByteBuffer binary(String[] labels, int[] from, int[] to, double[] weights) {
+    byte[][] encoded = new byte[labels.length][];
+    int labelBytes = 0;
+    for (int v = 0; v < labels.length; v++) {
+      encoded[v] = labels[v].getBytes(StandardCharsets.UTF_8);
+      labelBytes += encoded[v].length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(16 + from.length * 16 + (labels.length + 1) * 4 + labelBytes);
+    buffer.putInt(0x434D4150).putInt(1).putInt(labels.length).putInt(from.length);
+    for (int f : from) {
+      buffer.putInt(f);
+    }
+    for (int t : to) {
+      buffer.putInt(t);
+    }
+    for (double weight : weights) {
+      buffer.putDouble(weight);
+    }
+    int offset = 0;
+    buffer.putInt(0);
+    for (byte[] label : encoded) {
+      offset += label.length;
+      buffer.putInt(offset);
+    }
+    for (byte[] label : encoded) {
+      buffer.put(label);
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  private static MapSnapshot csv(String text) throws IOException {
+    return CsvMapFormat.read(new StringReader(text));
+  }
+
+  private static MapSnapshot json(String text) throws IOException {
+    return JsonMapFormat.read(new StringReader(text));
+  }
+
+  private interface Action {
+    void run() throws IOException;
+  }
+
+  private static void assertError(String fragment, Action action) {
+    IllegalArgumentException error = assertThrows(IllegalArgumentException.class, action::run);
+    assertTrue(error.getMessage().toLowerCase().contains(fragment.toLowerCase()),
+        "сообщение «" + error.getMessage() + "» должно содержать «" + fragment + "»");
+  }
+}
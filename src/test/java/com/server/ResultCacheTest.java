@@ -0,0 +1,74 @@
+package com.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultCacheTest {
+
+  @Test
+  void concurrentRequestsComputeEachKeyOnce() throws Exception {
+    int threads = 8;
+    int keys = 200;
+    ResultCache cache = new ResultCache(1 << 20);
+    AtomicInteger computed = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<?>> tasks = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        tasks.add(executor.submit(() -> {
+          start.await();
+          for (int k = 0; k < keys; k++) {
+            String key = "k" + k;
+            byte[] body = cache.get(key, () -> {
+              computed.incrementAndGet();
+              return ResultCache.Response.cacheable(key.getBytes(StandardCharsets.UTF_8));
+            });
+            assertArrayEquals(key.getBytes(StandardCharsets.UTF_8), body);
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> task : tasks) {
+        task.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(keys, computed.get(), "кэшируемый ответ по каждому ключу считается один раз");
+    assertEquals(keys, cache.entryCount());
+    assertEquals((long) threads * keys, cache.hits() + cache.misses());
+  }
+
+  @Test
+  void uncacheableAndFailedResultsAreRecomputed() throws Exception {
+    ResultCache cache = new ResultCache(1 << 20);
+    AtomicInteger computed = new AtomicInteger();
+    for (int i = 0; i < 3; i++) {
+      cache.get("k", () -> ResultCache.Response.uncacheable(new byte[]{(byte) computed.incrementAndGet()}));
+    }
+    assertEquals(3, computed.get());
+    assertEquals(0, cache.entryCount());
+
+    assertThrows(IllegalStateException.class, () -> cache.get("k", () -> {
+      throw new IllegalStateException("сбой расчёта");
+    }));
+    assertArrayEquals(new byte[]{7}, cache.get("k", () -> ResultCache.Response.cacheable(new byte[]{7})));
+    assertArrayEquals(new byte[]{7}, cache.get("k", () -> {
+      throw new AssertionError("ответ должен браться из кэша");
+    }));
+  }
+}